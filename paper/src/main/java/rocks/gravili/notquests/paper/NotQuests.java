@@ -33,6 +33,7 @@ import rocks.gravili.notquests.paper.events.ArmorStandEvents;
 import rocks.gravili.notquests.paper.events.InventoryEvents;
 import rocks.gravili.notquests.paper.events.QuestEvents;
 import rocks.gravili.notquests.paper.events.TriggerEvents;
+import rocks.gravili.notquests.paper.events.VariableChangeEvents;
 import rocks.gravili.notquests.paper.events.notquests.NotQuestsFullyLoadedEvent;
 import rocks.gravili.notquests.paper.managers.*;
 import rocks.gravili.notquests.paper.managers.integrations.IntegrationsManager;
@@ -69,9 +70,12 @@ public class NotQuests {
     private ConditionsYMLManager conditionsYMLManager;
     private QuestManager questManager;
     private QuestPlayerManager questPlayerManager;
+    private VariableChangeBus variableChangeBus;
     private LanguageManager languageManager;
     private ArmorStandManager armorStandManager;
+    private QuestGiverIndicatorRenderer questGiverIndicatorRenderer;
     private PerformanceManager performanceManager;
+    private PlayerTaskScheduler playerTaskScheduler;
     private CommandManager commandManager;
     private ConversationManager conversationManager;
     private PacketManager packetManager;
@@ -160,6 +164,8 @@ public class NotQuests {
         //Create a new instance of the Performance Manager which will be re-used everywhere
         performanceManager = new PerformanceManager(this);
 
+        playerTaskScheduler = new PlayerTaskScheduler(this);
+
 
         actionsYMLManager = new ActionsYMLManager(this);
         conditionsYMLManager = new ConditionsYMLManager(this);
@@ -187,6 +193,9 @@ public class NotQuests {
          */
         getDataManager().setAlreadyLoadedNPCs(false);
 
+        //Create a new instance of the VariableChangeBus, which notifies QuestPlayers about changed variables
+        variableChangeBus = new VariableChangeBus(this);
+
         //Create a new instance of the QuestPlayer Manager which will be re-used everywhere
         questPlayerManager = new QuestPlayerManager(this);
 
@@ -195,6 +204,8 @@ public class NotQuests {
 
         armorStandManager.loadAllArmorStandsFromLoadedChunks();
 
+        questGiverIndicatorRenderer = new QuestGiverIndicatorRenderer(this);
+
 
         //Registering the nquestgiver Trait here has been commented out. I think I'm currently doing that somewhere else atm. So, this isn't needed at the moment.
         //net.citizensnpcs.api.CitizensAPI.getTraitFactory().registerTrait(net.citizensnpcs.api.trait.TraitInfo.create(QuestGiverNPCTrait.class).withName("nquestgiver"));
@@ -230,6 +241,9 @@ public class NotQuests {
         //Register the Event Listeners in ArmorStandEvents
         main.getServer().getPluginManager().registerEvents(new ArmorStandEvents(this), main);
 
+        //Register the Event Listeners in VariableChangeEvents
+        main.getServer().getPluginManager().registerEvents(new VariableChangeEvents(this), main);
+
 
         integrationsManager.registerEvents();
 
@@ -385,9 +399,22 @@ public class NotQuests {
         }
 
 
+        //Write all player data changes which are still waiting in the write-behind queue
+        if (questPlayerManager != null) {
+            questPlayerManager.getWriteBehindQueue().shutdown();
+        }
+
+        //Write all category config changes which are still waiting to be saved
+        dataManager.getCategoryConfigWriter().shutdown();
+
         //Save all kinds of data
         dataManager.saveData();
 
+        //Wait until the player data writer has written everything which has been saved
+        if (questPlayerManager != null) {
+            questPlayerManager.shutdownPlayerDataWriter();
+        }
+
         dataManager.closeDatabaseConnection();
 
 
@@ -423,6 +450,10 @@ public class NotQuests {
         return questPlayerManager;
     }
 
+    public VariableChangeBus getVariableChangeBus() {
+        return variableChangeBus;
+    }
+
     /**
      * Returns an instance of the Data Manager which handles all kinds of MySQL & configuration loading and saving
      *
@@ -466,10 +497,18 @@ public class NotQuests {
         return armorStandManager;
     }
 
+    public QuestGiverIndicatorRenderer getQuestGiverIndicatorRenderer() {
+        return questGiverIndicatorRenderer;
+    }
+
     public PerformanceManager getPerformanceManager() {
         return performanceManager;
     }
 
+    public PlayerTaskScheduler getPlayerTaskScheduler() {
+        return playerTaskScheduler;
+    }
+
     public ObjectiveManager getObjectiveManager() {
         return objectiveManager;
     }
@@ -541,7 +580,7 @@ public class NotQuests {
     }
 
     public final Component parse(String miniMessage){
-        return getMiniMessage().deserialize(miniMessage);
+        return messageManager.getParseCache().parse(miniMessage);
     }
 
     public void sendMessage(CommandSender sender, String message){
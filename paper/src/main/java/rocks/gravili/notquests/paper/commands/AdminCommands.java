@@ -56,9 +56,13 @@ import rocks.gravili.notquests.paper.commands.arguments.ConditionSelector;
 import rocks.gravili.notquests.paper.commands.arguments.MiniMessageSelector;
 import rocks.gravili.notquests.paper.commands.arguments.QuestSelector;
 import rocks.gravili.notquests.paper.commands.arguments.variables.BooleanVariableValueArgument;
+import rocks.gravili.notquests.paper.managers.VariableChangeBus;
 import rocks.gravili.notquests.paper.managers.data.Category;
+import rocks.gravili.notquests.paper.managers.data.CategoryConfigWriter;
+import rocks.gravili.notquests.paper.managers.data.PlayerDataWriteBehindQueue;
 import rocks.gravili.notquests.paper.managers.expressions.NumberExpression;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
+import rocks.gravili.notquests.paper.minimessage.MiniMessageParseCache;
 import rocks.gravili.notquests.paper.structs.ActiveObjective;
 import rocks.gravili.notquests.paper.structs.ActiveQuest;
 import rocks.gravili.notquests.paper.structs.CompletedQuest;
@@ -507,7 +511,9 @@ public class AdminCommands {
                         }
                     }
 
-                    questPlayer.getActiveQuests().removeAll(activeQuestsToRemove);
+                    for (final ActiveQuest activeQuestToRemove : activeQuestsToRemove) {
+                        questPlayer.removeActiveQuest(activeQuestToRemove);
+                    }
 
                     final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
 
@@ -522,7 +528,9 @@ public class AdminCommands {
 
                     }
 
-                    questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
+                    for (final CompletedQuest completedQuestToRemove : completedQuestsToRemove) {
+                        questPlayer.removeCompletedQuest(completedQuestToRemove);
+                    }
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
                 }));
 
@@ -546,7 +554,9 @@ public class AdminCommands {
                             }
                         }
 
-                        questPlayer.getActiveQuests().removeAll(activeQuestsToRemove);
+                        for (final ActiveQuest activeQuestToRemove : activeQuestsToRemove) {
+                            questPlayer.removeActiveQuest(activeQuestToRemove);
+                        }
 
                         final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
 
@@ -561,7 +571,9 @@ public class AdminCommands {
 
                         }
 
-                        questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
+                        for (final CompletedQuest completedQuestToRemove : completedQuestsToRemove) {
+                            questPlayer.removeCompletedQuest(completedQuestToRemove);
+                        }
                     }
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
                 }));
@@ -607,7 +619,9 @@ public class AdminCommands {
 
                         }
 
-                        questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
+                        for (final CompletedQuest completedQuestToRemove : completedQuestsToRemove) {
+                            questPlayer.removeCompletedQuest(completedQuestToRemove);
+                        }
                     }
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
 
@@ -1012,6 +1026,68 @@ public class AdminCommands {
                     ));
                 }));
 
+        manager.command(builder.literal("debug")
+                .literal("playerDataWriter")
+                .meta(CommandMeta.DESCRIPTION, "Shows statistics of the player data write-behind queue")
+                .handler((context) -> {
+                    context.getSender().sendMessage(Component.empty());
+                    final PlayerDataWriteBehindQueue writeBehindQueue = main.getQuestPlayerManager().getWriteBehindQueue();
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Enabled: <highlight>" + writeBehindQueue.isEnabled() + "\n" +
+                            "<main>Queue depth: <highlight>" + writeBehindQueue.getQueueDepth() + "\n" +
+                            "<main>Flushes: <highlight>" + writeBehindQueue.getFlushes() + "</highlight> (<highlight2>" + writeBehindQueue.getFlushedQuestPlayers() + "</highlight2> players)\n" +
+                            "<main>Last flush: <highlight>" + String.format("%.2f", writeBehindQueue.getLastFlushMillis()) + "ms</highlight> (<highlight2>" + writeBehindQueue.getLastFlushSize() + "</highlight2> players)\n" +
+                            "<main>Average flush: <highlight>" + String.format("%.2f", writeBehindQueue.getAverageFlushMillis()) + "ms\n" +
+                            "<main>Recorded changes: <highlight>" + writeBehindQueue.getRecordedChanges() + "</highlight> Written rows: <highlight>" + writeBehindQueue.getWrittenRows() + "\n" +
+                            "<main>Coalesce ratio: <highlight>" + String.format("%.2f", writeBehindQueue.getCoalesceRatio())
+                    ));
+                }));
+
+        manager.command(builder.literal("debug")
+                .literal("categoryConfigWriter")
+                .meta(CommandMeta.DESCRIPTION, "Shows statistics of the category config writer")
+                .handler((context) -> {
+                    context.getSender().sendMessage(Component.empty());
+                    final CategoryConfigWriter categoryConfigWriter = main.getDataManager().getCategoryConfigWriter();
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Dirty files: <highlight>" + categoryConfigWriter.getDirtyFiles() + "\n" +
+                            "<main>Requested saves: <highlight>" + categoryConfigWriter.getRequestedSaves() + "</highlight> Writes: <highlight>" + categoryConfigWriter.getWrites() + "</highlight> Failed: <highlight>" + categoryConfigWriter.getFailedWrites() + "\n" +
+                            "<main>Written: <highlight>" + categoryConfigWriter.getWrittenBytes() / 1024 + " KB\n" +
+                            "<main>Last write: <highlight>" + String.format("%.2f", categoryConfigWriter.getLastWriteMillis()) + "ms\n" +
+                            "<main>Average write: <highlight>" + String.format("%.2f", categoryConfigWriter.getAverageWriteMillis()) + "ms"
+                    ));
+                }));
+
+        manager.command(builder.literal("debug")
+                .literal("variableChangeBus")
+                .meta(CommandMeta.DESCRIPTION, "Shows statistics of the variable change bus")
+                .handler((context) -> {
+                    context.getSender().sendMessage(Component.empty());
+                    final VariableChangeBus variableChangeBus = main.getVariableChangeBus();
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Published variable changes: <highlight>" + variableChangeBus.getPublishedChanges() + "\n" +
+                            "<main>Objectives checked because of them: <highlight>" + variableChangeBus.getCheckedObjectives()
+                    ));
+                }));
+
+        manager.command(builder.literal("debug")
+                .literal("flushPlayerDataWriter")
+                .meta(CommandMeta.DESCRIPTION, "Writes all queued player data changes to the database right away")
+                .handler((context) -> {
+                    context.getSender().sendMessage(Component.empty());
+                    main.getQuestPlayerManager().getWriteBehindQueue().flush().whenComplete((rows, throwable) -> Bukkit.getScheduler().runTask(main.getMain(), () -> {
+                        if (throwable != null) {
+                            context.getSender().sendMessage(main.parse(
+                                    "<error>There was an error writing the queued player data changes! Check the console for more information."
+                            ));
+                            return;
+                        }
+                        context.getSender().sendMessage(main.parse(
+                                "<success>All queued player data changes have been written! Rows: <highlight>" + rows
+                        ));
+                    }));
+                }));
+
         manager.command(builder.literal("debug")
                 .literal("disablePluginAndSaving")
                 .argument(StringArgument.of("reason"), ArgumentDescription.of("Reason for disabling the plugin"))
@@ -1083,14 +1159,11 @@ public class AdminCommands {
                 .handler((context) -> {
                     context.getSender().sendMessage(Component.empty());
                     Player player = (Player) context.getSender();
-                    ArrayList<Component> history = main.getConversationManager().getChatHistory().get(player.getUniqueId());
-                    if (history != null) {
+                    final List<Component> history = main.getConversationManager().getChatHistoryStore().getMessages(player.getUniqueId());
+                    if (!history.isEmpty()) {
                         Component collectiveComponent = Component.text("");
                         for (Component component : history) {
-                            if (component != null) {
-                                // audience.sendMessage(component.append(Component.text("fg9023zf729ofz")));
-                                collectiveComponent = collectiveComponent.append(component).append(Component.newline());
-                            }
+                            collectiveComponent = collectiveComponent.append(component).append(Component.newline());
                         }
 
                         context.getSender().sendMessage(collectiveComponent);
@@ -1109,15 +1182,11 @@ public class AdminCommands {
                 .handler((context) -> {
                     context.getSender().sendMessage(Component.empty());
                     Player player = (Player) context.getSender();
-                    ArrayList<Component> history = main.getConversationManager().getChatHistory().get(player.getUniqueId());
-                    if (history != null) {
+                    final List<Component> history = main.getConversationManager().getChatHistoryStore().getMessages(player.getUniqueId());
+                    if (!history.isEmpty()) {
                         Component collectiveComponent = Component.text("");
                         for (int i = 0; i < history.size(); i++) {
-                            Component component = history.get(i);
-                            if (component != null) {
-                                // audience.sendMessage(component.append(Component.text("fg9023zf729ofz")));
-                                collectiveComponent = collectiveComponent.append(Component.text(i + ".", NamedTextColor.RED).append(component)).append(Component.newline());
-                            }
+                            collectiveComponent = collectiveComponent.append(Component.text(i + ".", NamedTextColor.RED).append(history.get(i))).append(Component.newline());
                         }
 
                         context.getSender().sendMessage(collectiveComponent);
@@ -1128,6 +1197,20 @@ public class AdminCommands {
 
                 }));
 
+        manager.command(builder.literal("debug")
+                .literal("parseCache")
+                .meta(CommandMeta.DESCRIPTION, "Shows statistics of the MiniMessage parse cache.")
+                .handler((context) -> {
+                    final MiniMessageParseCache parseCache = main.getMessageManager().getParseCache();
+                    final long hits = parseCache.getHits();
+                    final long misses = parseCache.getMisses();
+                    context.getSender().sendMessage(main.parse(
+                            "<main>Cached messages: <highlight>" + parseCache.getSize() + "</highlight> (<highlight2>" + parseCache.getCachedCharacters() + "</highlight2> characters)\n"
+                                    + "<main>Hits: <highlight>" + hits + "</highlight> Misses: <highlight>" + misses + "</highlight> Evictions: <highlight>" + parseCache.getEvictions() + "\n"
+                                    + "<main>Hit rate: <highlight>" + (hits + misses > 0 ? (hits * 100 / (hits + misses)) : 0) + "%"
+                    ));
+                }));
+
         manager.command(builder.literal("debug")
                 .literal("beaconBeam")
                 .argument(SinglePlayerSelectorArgument.of("player"), ArgumentDescription.of("Player name"))
@@ -1583,7 +1666,7 @@ public class AdminCommands {
             final Condition condition = context.get("condition");
 
             final String hiddenStatusExpression = context.get("hiddenStatusExpression");
-            final NumberExpression hiddenExpression = new NumberExpression(main, hiddenStatusExpression);
+            final NumberExpression hiddenExpression = NumberExpression.of(main, hiddenStatusExpression);
 
 
             condition.setHidden(hiddenExpression);
@@ -1883,7 +1966,7 @@ public class AdminCommands {
             }
 
             final String hiddenStatusExpression = context.get("hiddenStatusExpression");
-            final NumberExpression hiddenExpression = new NumberExpression(main, hiddenStatusExpression);
+            final NumberExpression hiddenExpression = NumberExpression.of(main, hiddenStatusExpression);
 
             condition.setHidden(hiddenExpression);
 
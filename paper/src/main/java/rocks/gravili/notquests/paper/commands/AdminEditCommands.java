@@ -1357,7 +1357,7 @@ public class AdminEditCommands {
             }
 
             final String hiddenStatusExpression = context.get("hiddenStatusExpression");
-            final NumberExpression hiddenExpression = new NumberExpression(main, hiddenStatusExpression);
+            final NumberExpression hiddenExpression = NumberExpression.of(main, hiddenStatusExpression);
 
             condition.setHidden(hiddenExpression);
 
@@ -1550,7 +1550,7 @@ public class AdminEditCommands {
           }
 
           final String hiddenStatusExpression = context.get("hiddenStatusExpression");
-          final NumberExpression hiddenExpression = new NumberExpression(main, hiddenStatusExpression);
+          final NumberExpression hiddenExpression = NumberExpression.of(main, hiddenStatusExpression);
 
           condition.setHidden(hiddenExpression);
 
@@ -1745,7 +1745,7 @@ public class AdminEditCommands {
           }
 
           final String hiddenStatusExpression = context.get("hiddenStatusExpression");
-          final NumberExpression hiddenExpression = new NumberExpression(main, hiddenStatusExpression);
+          final NumberExpression hiddenExpression = NumberExpression.of(main, hiddenStatusExpression);
 
           condition.setHidden(hiddenExpression);
 
@@ -1940,7 +1940,7 @@ public class AdminEditCommands {
           }
 
           final String hiddenStatusExpression = context.get("hiddenStatusExpression");
-          final NumberExpression hiddenExpression = new NumberExpression(main, hiddenStatusExpression);
+          final NumberExpression hiddenExpression = NumberExpression.of(main, hiddenStatusExpression);
 
           condition.setHidden(hiddenExpression);
 
@@ -170,7 +170,7 @@ public final class BooleanVariableValueArgument<C> extends CommandArgument<C, St
             inputQueue.remove();
 
             try{
-                final NumberExpression numberExpression = new NumberExpression(main, input);
+                final NumberExpression numberExpression = NumberExpression.of(main, input);
 
                 if (context.getSender() instanceof Player player) {
                     try {
@@ -172,7 +172,7 @@ public final class NumberVariableValueArgument<C> extends CommandArgument<C, Str
             inputQueue.remove();
 
             try{
-                final NumberExpression numberExpression = new NumberExpression(main, input);
+                final NumberExpression numberExpression = NumberExpression.of(main, input);
 
                 if (context.getSender() instanceof Player player) {
                     try {
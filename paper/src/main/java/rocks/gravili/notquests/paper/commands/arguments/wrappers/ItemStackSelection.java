@@ -1,7 +1,12 @@
 package rocks.gravili.notquests.paper.commands.arguments.wrappers;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -17,6 +22,10 @@ public class ItemStackSelection {
   private final ArrayList<ItemStack> itemStacks;
   private final ArrayList<Material> materials;
   private boolean any;
+  /**
+   * Built from the selected items the first time something is checked, and thrown away whenever the selection changes
+   */
+  private volatile @Nullable CompiledMatcher compiledMatcher;
 
   public ItemStackSelection(final NotQuests main) {
     this.main = main;
@@ -32,10 +41,12 @@ public class ItemStackSelection {
 
   public void setAny(final boolean any) {
     this.any = any;
+    compiledMatcher = null;
   }
 
   public void addNqItem(final NQItem nqItem) {
     this.nqItems.add(nqItem);
+    compiledMatcher = null;
   }
 
   public void addNqItemName(final String nqItemName) {
@@ -47,12 +58,14 @@ public class ItemStackSelection {
   public void addItemStack(@Nullable final ItemStack itemStack) {
     if (itemStack != null) {
       this.itemStacks.add(itemStack);
+      compiledMatcher = null;
     }
   }
 
   public void addMaterial(final Material material) {
     if(material != null) {
       this.materials.add(material);
+      compiledMatcher = null;
     }
   }
 
@@ -128,7 +141,7 @@ public class ItemStackSelection {
       }
     }
 
-    this.any = configuration.getBoolean(initialPath + ".any");
+    setAny(configuration.getBoolean(initialPath + ".any"));
   }
 
   // TODO: translatedMaterialName doesnt work in gradients yet. Wait until minimessage fixed that
@@ -177,25 +190,7 @@ public class ItemStackSelection {
     if (any) {
       return true;
     }
-    for (final Material material : materials) {
-      if (materialToCheck == material) {
-        return true;
-      }
-    }
-
-    for (final ItemStack itemStack : itemStacks) {
-      if (itemStack.getType() == materialToCheck) {
-        return true;
-      }
-    }
-
-    for (final NQItem nqItem : nqItems) {
-      if (nqItem.getItemStack().getType() == materialToCheck) {
-        return true;
-      }
-    }
-
-    return false;
+    return getCompiledMatcher().allMaterials.contains(materialToCheck);
   }
 
   @Override
@@ -212,25 +207,98 @@ public class ItemStackSelection {
     if (any) {
       return true;
     }
-    for (final Material material : materials) {
-      if (itemStackToCheck.getType() == material) {
-        return true;
-      }
+    final CompiledMatcher compiledMatcher = getCompiledMatcher();
+    final Material materialToCheck = itemStackToCheck.getType();
+    if (compiledMatcher.materials.contains(materialToCheck)) {
+      return true;
     }
 
-    for (final ItemStack itemStack : itemStacks) {
-      if (itemStack.isSimilar(itemStackToCheck)) {
+    final List<FingerprintedItemStack> itemStacksWithSameMaterial = compiledMatcher.itemStacksByMaterial.get(materialToCheck);
+    if (itemStacksWithSameMaterial == null) {
+      return false;
+    }
+    // The full isSimilar() comparison only runs for the item stacks with the same fingerprint
+    final int fingerprintToCheck = fingerprint(itemStackToCheck);
+    for (final FingerprintedItemStack fingerprintedItemStack : itemStacksWithSameMaterial) {
+      if (fingerprintedItemStack.fingerprint() == fingerprintToCheck && fingerprintedItemStack.itemStack().isSimilar(itemStackToCheck)) {
         return true;
       }
     }
 
-    for (final NQItem nqItem : nqItems) {
-      if (nqItem.getItemStack().isSimilar(itemStackToCheck)) {
-        return true;
+    return false;
+  }
+
+  /**
+   * @return the selected materials, plus the materials of all selected item stacks and NQItems. Empty if any item is
+   *     selected.
+   */
+  public final Set<Material> getAllMaterials() {
+    if (any) {
+      return Set.of();
+    }
+    return Collections.unmodifiableSet(getCompiledMatcher().allMaterials);
+  }
+
+  private CompiledMatcher getCompiledMatcher() {
+    CompiledMatcher compiledMatcher = this.compiledMatcher;
+    if (compiledMatcher == null) {
+      compiledMatcher = new CompiledMatcher(materials, itemStacks, nqItems);
+      this.compiledMatcher = compiledMatcher;
+    }
+    return compiledMatcher;
+  }
+
+  /**
+   * Items which are similar (see ItemStack.isSimilar()) always have the same fingerprint, as it's only made up of the
+   * item meta. The material isn't part of it, as the item stacks are already grouped by their material.
+   */
+  private static int fingerprint(final ItemStack itemStack) {
+    if (!itemStack.hasItemMeta()) {
+      return 0;
+    }
+    return itemStack.getItemMeta().hashCode();
+  }
+
+  private record FingerprintedItemStack(ItemStack itemStack, int fingerprint) {
+
+  }
+
+  private static final class CompiledMatcher {
+    /**
+     * The selected materials
+     */
+    private final EnumSet<Material> materials;
+    /**
+     * The selected materials, plus the materials of all selected item stacks and NQItems. Used when only a material is
+     * checked.
+     */
+    private final EnumSet<Material> allMaterials;
+    /**
+     * The selected item stacks and the item stacks of the selected NQItems, by their material
+     */
+    private final EnumMap<Material, List<FingerprintedItemStack>> itemStacksByMaterial;
+
+    private CompiledMatcher(final List<Material> materials, final List<ItemStack> itemStacks, final List<NQItem> nqItems) {
+      this.materials = EnumSet.noneOf(Material.class);
+      this.materials.addAll(materials);
+      allMaterials = EnumSet.copyOf(this.materials);
+      itemStacksByMaterial = new EnumMap<>(Material.class);
+
+      for (final ItemStack itemStack : itemStacks) {
+        addItemStack(itemStack);
+      }
+      for (final NQItem nqItem : nqItems) {
+        if (nqItem != null && nqItem.getItemStack() != null) {
+          addItemStack(nqItem.getItemStack());
+        }
       }
     }
 
-    return false;
+    private void addItemStack(final ItemStack itemStack) {
+      allMaterials.add(itemStack.getType());
+      itemStacksByMaterial.computeIfAbsent(itemStack.getType(), material -> new ArrayList<>())
+          .add(new FingerprintedItemStack(itemStack, fingerprint(itemStack)));
+    }
   }
 
   public final @Nullable ItemStack toFirstItemStack() {
@@ -0,0 +1,202 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.conversation;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+/**
+ * Stores the last chat messages every player received, so they can be sent again to remove conversation messages
+ * from their chat (deletePreviousConversations).
+ * <p>
+ * Messages are recorded by the packet listeners on the Netty threads, while conversations and replays run on the main
+ * thread. Every player has their own fixed-capacity ring buffer, which is only locked for O(1) operations (and for
+ * copying it when replaying).
+ * <p>
+ * Messages sent by NotQuests itself which should not be recorded (conversation lines, replayed messages) are marked
+ * before they are sent. When a marked message comes back through the packet listener, it's matched by identity.
+ * Packet listeners which deserialize the message again never return the same instance. As the messages of a player
+ * pass the packet listener in the order they have been sent, those are only compared to the oldest marked message.
+ * Marks which never come back (e.g. because the packet listener missed them) expire after a few seconds, so they don't
+ * block the marks after them.
+ */
+public class ChatHistoryStore {
+  private static final int MIN_MARKED_MESSAGES_CAPACITY = 16;
+  private static final long MARK_EXPIRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  private final ConcurrentHashMap<UUID, PlayerChatHistory> playerChatHistories = new ConcurrentHashMap<>();
+  private final IntSupplier capacity;
+
+  public ChatHistoryStore(final IntSupplier capacity) {
+    this.capacity = capacity;
+  }
+
+  private PlayerChatHistory getPlayerChatHistory(final UUID uuid) {
+    return playerChatHistories.computeIfAbsent(uuid, playerUUID -> new PlayerChatHistory());
+  }
+
+  /**
+   * Records a message the player received, unless it has been marked with markMessageNotToRecord().
+   */
+  public void recordMessage(final UUID uuid, final Component message) {
+    if (message == null) {
+      return;
+    }
+    getPlayerChatHistory(uuid).record(message, Math.max(0, capacity.getAsInt()));
+  }
+
+  /**
+   * Marks a message which is about to be sent to the player, so it isn't recorded when it passes the packet listener.
+   */
+  public void markMessageNotToRecord(final UUID uuid, final Component message) {
+    getPlayerChatHistory(uuid).mark(message, Math.max(MIN_MARKED_MESSAGES_CAPACITY, capacity.getAsInt() * 2));
+  }
+
+  /**
+   * Sends all recorded messages to the player again, one by one, without recording them a second time. Marked
+   * messages which haven't come back yet stay marked, as they're still on their way to the player.
+   */
+  public void replay(final Player player) {
+    final PlayerChatHistory playerChatHistory = playerChatHistories.get(player.getUniqueId());
+    if (playerChatHistory == null) {
+      return;
+    }
+    final Component[] messages = playerChatHistory.prepareReplay();
+    for (final Component message : messages) {
+      player.sendMessage(message);
+    }
+  }
+
+  /**
+   * @return a copy of the recorded messages of the player, oldest first
+   */
+  public final List<Component> getMessages(final UUID uuid) {
+    final PlayerChatHistory playerChatHistory = playerChatHistories.get(uuid);
+    return playerChatHistory == null ? List.of() : List.of(playerChatHistory.getMessages());
+  }
+
+  public void removePlayer(final UUID uuid) {
+    playerChatHistories.remove(uuid);
+  }
+
+  private static final class PlayerChatHistory {
+    private Component[] messages = new Component[0];
+    private int start = 0;
+    private int size = 0;
+    private final ArrayDeque<MarkedMessage> markedMessages = new ArrayDeque<>();
+
+    private synchronized void record(final Component message, final int capacity) {
+      if (isMarked(message)) {
+        return;
+      }
+      if (capacity != messages.length) {
+        resize(capacity);
+      }
+      if (capacity == 0) {
+        return;
+      }
+      if (size < messages.length) {
+        messages[(start + size) % messages.length] = message;
+        size++;
+      } else {
+        messages[start] = message;
+        start = (start + 1) % messages.length;
+      }
+    }
+
+    /**
+     * If the message has been marked, it and all messages marked before it are removed from the marked messages.
+     * Marked messages which came before it will never come back, as the messages arrive in the order they were sent.
+     */
+    private boolean isMarked(final Component message) {
+      final long now = System.nanoTime();
+      while (!markedMessages.isEmpty() && now - markedMessages.peekFirst().markedAt() > MARK_EXPIRY_NANOS) {
+        markedMessages.pollFirst();
+      }
+      if (markedMessages.isEmpty()) {
+        return false;
+      }
+
+      int matchingIndex = -1;
+      int index = 0;
+      for (final MarkedMessage markedMessage : markedMessages) {
+        if (markedMessage.message() == message) {
+          matchingIndex = index;
+          break;
+        }
+        index++;
+      }
+      if (matchingIndex < 0) {
+        //Deserialized again by the packet listener. Only the oldest mark can be the next one to come back.
+        if (!markedMessages.peekFirst().message().equals(message)) {
+          return false;
+        }
+        matchingIndex = 0;
+      }
+      for (int i = 0; i <= matchingIndex; i++) {
+        markedMessages.pollFirst();
+      }
+      return true;
+    }
+
+    private synchronized void mark(final Component message, final int markedMessagesCapacity) {
+      markedMessages.addLast(new MarkedMessage(message, System.nanoTime()));
+      while (markedMessages.size() > markedMessagesCapacity) {
+        markedMessages.pollFirst();
+      }
+    }
+
+    private synchronized Component[] getMessages() {
+      final Component[] copiedMessages = new Component[size];
+      for (int i = 0; i < size; i++) {
+        copiedMessages[i] = messages[(start + i) % messages.length];
+      }
+      return copiedMessages;
+    }
+
+    private synchronized Component[] prepareReplay() {
+      final Component[] replayedMessages = getMessages();
+      //Appended to the marks which are still on their way, without dropping any of them
+      final long now = System.nanoTime();
+      for (final Component replayedMessage : replayedMessages) {
+        markedMessages.addLast(new MarkedMessage(replayedMessage, now));
+      }
+      return replayedMessages;
+    }
+
+    private void resize(final int capacity) {
+      final int newSize = Math.min(size, capacity);
+      final Component[] newMessages = new Component[capacity];
+      for (int i = 0; i < newSize; i++) { //Keep the newest messages
+        newMessages[i] = messages[(start + size - newSize + i) % messages.length];
+      }
+      messages = newMessages;
+      start = 0;
+      size = newSize;
+    }
+
+    private record MarkedMessage(Component message, long markedAt) {}
+  }
+}
@@ -191,6 +191,9 @@ public class Conversation {
     }
     this.npcs.add(nqnpc);
     bindToNQNPC(nqnpc);
+    if (main.getConversationManager() != null) {
+      main.getConversationManager().indexConversationNPC(this, nqnpc);
+    }
 
     if (configFile == null || config == null) {
       return;
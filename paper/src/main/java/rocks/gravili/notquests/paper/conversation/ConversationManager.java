@@ -26,7 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
-import net.kyori.adventure.text.Component;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
@@ -35,6 +35,7 @@ import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.conversation.interactionhandlers.SendClickableText;
 import rocks.gravili.notquests.paper.conversation.interactionhandlers.ConversationInteractionHandler;
@@ -55,11 +56,15 @@ import rocks.gravili.notquests.paper.structs.variables.Variable;
 import rocks.gravili.notquests.paper.structs.variables.VariableDataType;
 
 public class ConversationManager {
-  final ArrayList<ConversationLine> linesForOneFile = new ArrayList<>();
-  final HashMap<UUID, ArrayList<Component>> chatHistory;
-  final HashMap<UUID, ArrayList<Component>> conversationChatHistory;
+  private final ChatHistoryStore chatHistoryStore;
   private final NotQuests main;
   private final ArrayList<Conversation> conversations;
+  /**
+   * Indexes of the loaded conversations. If several conversations have the same identifier or NPC, the first loaded
+   * one is found, like when searching through the conversations list.
+   */
+  private final ConcurrentHashMap<String, Conversation> conversationsByIdentifier = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<NQNPC, Conversation> conversationsByNPC = new ConcurrentHashMap<>();
   private final HashMap<UUID, ConversationPlayer> openConversations;
 
   private final ArrayList<SendClickableText> interactionHandlers;
@@ -75,8 +80,7 @@ public class ConversationManager {
 
 
 
-    chatHistory = new HashMap<>();
-    conversationChatHistory = new HashMap<>();
+    chatHistoryStore = new ChatHistoryStore(this::getMaxChatHistory);
 
     // playConversation(Bukkit.getPlayer("NoeX"), createTestConversation());
     loadConversationsFromConfig();
@@ -95,12 +99,24 @@ public class ConversationManager {
   }
 
   public final Conversation getConversationForNPC(final NQNPC nqNPC) {
-    for (final Conversation conversation : conversations) {
-      if (conversation.getNPCs().contains(nqNPC)) {
-        return conversation;
-      }
+    return nqNPC != null ? conversationsByNPC.get(nqNPC) : null;
+  }
+
+  private void addConversation(final Conversation conversation) {
+    conversations.add(conversation);
+    conversationsByIdentifier.putIfAbsent(conversation.getIdentifier(), conversation);
+    for (final NQNPC nqNPC : conversation.getNPCs()) {
+      conversationsByNPC.putIfAbsent(nqNPC, conversation);
+    }
+  }
+
+  /**
+   * Adds the NPC to the NPC index, if the conversation has already been loaded. Called by Conversation.addNPC().
+   */
+  public void indexConversationNPC(final Conversation conversation, final NQNPC nqNPC) {
+    if (conversationsByIdentifier.get(conversation.getIdentifier()) == conversation) {
+      conversationsByNPC.putIfAbsent(nqNPC, conversation);
     }
-    return null;
   }
 
   public ConversationPlayer getOpenConversation(final UUID uuid) {
@@ -195,6 +211,8 @@ public class ConversationManager {
 
   public void loadConversationsFromConfig() {
     conversations.clear();
+    conversationsByIdentifier.clear();
+    conversationsByNPC.clear();
     openConversations.clear();
     main.getLogManager().info("Loading conversations...");
     for (final Category category : main.getDataManager().getCategories()) {
@@ -216,178 +234,199 @@ public class ConversationManager {
       return;
     }
 
-    for (File conversationFile :
-        main.getUtilManager().listFilesRecursively(category.getConversationsFolder())) {
-      linesForOneFile.clear();
-      if (main.getConfiguration().isVerboseStartupMessages()) {
-        main.getLogManager()
-                .info(
-                        "Reading conversation file <highlight>"
-                                + conversationFile.getName()
-                                + "</highlight>...");
+    // Reading the files is the most expensive part and independent for every file, so it's done in parallel. Building
+    // the conversations looks up NPCs, actions and conditions in other managers, which isn't thread-safe, so it's done
+    // afterwards in the order of the files.
+    final List<File> conversationFiles =
+        main.getUtilManager().listFilesRecursively(category.getConversationsFolder());
+    final List<YamlConfiguration> conversationConfigs =
+        conversationFiles.parallelStream().map(this::readConversationFile).toList();
+
+    for (int i = 0; i < conversationFiles.size(); i++) {
+      final YamlConfiguration config = conversationConfigs.get(i);
+      if (config != null) {
+        loadConversation(category, conversationFiles.get(i), config);
       }
+    }
+  }
 
+  private @Nullable YamlConfiguration readConversationFile(final File conversationFile) {
+    if (main.getConfiguration().isVerboseStartupMessages()) {
+      main.getLogManager()
+              .info(
+                      "Reading conversation file <highlight>"
+                              + conversationFile.getName()
+                              + "</highlight>...");
+    }
+
+    final YamlConfiguration config = new YamlConfiguration();
+    try {
+      config.load(conversationFile);
+    } catch (IOException | InvalidConfigurationException e) {
+      e.printStackTrace();
+      main.getLogManager()
+          .warn(
+              "Failed reading conversation file <highlight>"
+                  + conversationFile.getName()
+                  + "</highlight>. It's being skipped.");
+      return null;
+    }
+    return config;
+  }
 
-      final YamlConfiguration config = new YamlConfiguration();
+  private void loadConversation(final Category category, final File conversationFile, final YamlConfiguration config) {
+    // Old conversation npcID converter:
+    if (config.isInt("npcID")) {
+      final int oldNPCID = config.getInt("npcID");
+      config.set("npcID", null);
+      config.set("npcIDs", List.of(oldNPCID));
       try {
-        config.load(conversationFile);
-      } catch (IOException | InvalidConfigurationException e) {
-        e.printStackTrace();
-        main.getLogManager()
-            .warn(
-                "Failed reading conversation file <highlight>"
-                    + conversationFile.getName()
-                    + "</highlight>. It's being skipped.");
-        continue;
+        config.save(conversationFile);
+      } catch (IOException ignored) {
+
       }
+    }
+    final ArrayList<NQNPC> npcs = new ArrayList<>();
+    final ConfigurationSection npcsConfigurationSection = config.getConfigurationSection("npcs");
+    if(npcsConfigurationSection != null){
+      for (final String npcIdentifyingString : npcsConfigurationSection.getKeys(false)) {
+        npcs.add(
+            NQNPC.fromConfig(main, config, "npcs." + npcIdentifyingString)
+        );
+      }
+    }
 
-      // Old conversation npcID converter:
-      if (config.isInt("npcID")) {
-        final int oldNPCID = config.getInt("npcID");
-        config.set("npcID", null);
-        config.set("npcIDs", List.of(oldNPCID));
-        try {
-          config.save(conversationFile);
-        } catch (IOException ignored) {
+    //config.getIntegerList("npcIDs"))
 
-        }
-      }
-      final ArrayList<NQNPC> npcs = new ArrayList<>();
-      final ConfigurationSection npcsConfigurationSection = config.getConfigurationSection("npcs");
-      if(npcsConfigurationSection != null){
-        for (final String npcIdentifyingString : npcsConfigurationSection.getKeys(false)) {
-          npcs.add(
-              NQNPC.fromConfig(main, config, "npcs." + npcIdentifyingString)
-          );
-        }
+    final Conversation conversation =
+        new Conversation(
+            main,
+            conversationFile,
+            config,
+            conversationFile.getName().replace(".yml", ""),
+            npcs,
+            category);
+
+    final int conversationDelayInMS =
+            config.getInt("delay", 0);
+    conversation.setDelayInMS(conversationDelayInMS);
+
+    // First add all speakers
+    final ConfigurationSection speakersAndLinesConfigurationSection =
+        config.getConfigurationSection("Lines");
+    if (speakersAndLinesConfigurationSection == null) {
+      main.getLogManager()
+          .warn(
+              "Conversation file <highlight>"
+                  + conversationFile.getName()
+                  + "</highlight>. Has no lines. It's being skipped.");
+      return;
+    }
+
+    final ArrayList<Speaker> allSpeakers = new ArrayList<>();
+    for (final String speakerName : speakersAndLinesConfigurationSection.getKeys(false)) {
+      final Speaker speaker = new Speaker(speakerName, conversation);
+      final String color =
+          speakersAndLinesConfigurationSection.getString(speakerName + ".color", "<WHITE>");
+      final int speakerDelayInMS =
+              speakersAndLinesConfigurationSection.getInt(speakerName + ".delay", 0);
+      if (!color.isBlank()) {
+        speaker.setColor(color);
+        speaker.setDelayInMS(speakerDelayInMS);
       }
 
-      //config.getIntegerList("npcIDs"))
-
-      final Conversation conversation =
-          new Conversation(
-              main,
-              conversationFile,
-              config,
-              conversationFile.getName().replace(".yml", ""),
-              npcs,
-              category);
-
-      final int conversationDelayInMS =
-              config.getInt("delay", 0);
-      conversation.setDelayInMS(conversationDelayInMS);
-
-      // First add all speakers
-      final ConfigurationSection speakersAndLinesConfigurationSection =
-          config.getConfigurationSection("Lines");
-      if (speakersAndLinesConfigurationSection == null) {
+      if (speakerName.equalsIgnoreCase("player")) {
+        speaker.setPlayer(true);
+      }
+      allSpeakers.add(speaker);
+      if (!conversation.hasSpeaker(speaker) && !conversation.addSpeaker(speaker, false)) {
         main.getLogManager()
             .warn(
-                "Conversation file <highlight>"
-                    + conversationFile.getName()
-                    + "</highlight>. Has no lines. It's being skipped.");
-        continue;
+                "Speaker <highlight>"
+                    + speaker.getSpeakerName()
+                    + "</highlight> could not be added to conversation <highlight2>"
+                    + conversation.getIdentifier()
+                    + "</highlight2>. Does the speaker already exist?");
       }
+    }
 
-      final ArrayList<Speaker> allSpeakers = new ArrayList<>();
-      for (final String speakerName : speakersAndLinesConfigurationSection.getKeys(false)) {
-        final Speaker speaker = new Speaker(speakerName, conversation);
-        final String color =
-            speakersAndLinesConfigurationSection.getString(speakerName + ".color", "<WHITE>");
-        final int speakerDelayInMS =
-                speakersAndLinesConfigurationSection.getInt(speakerName + ".delay", 0);
-        if (!color.isBlank()) {
-          speaker.setColor(color);
-          speaker.setDelayInMS(speakerDelayInMS);
-        }
-
-        if (speakerName.equalsIgnoreCase("player")) {
-          speaker.setPlayer(true);
-        }
-        allSpeakers.add(speaker);
-        if (!conversation.hasSpeaker(speaker) && !conversation.addSpeaker(speaker, false)) {
-          main.getLogManager()
-              .warn(
-                  "Speaker <highlight>"
-                      + speaker.getSpeakerName()
-                      + "</highlight> could not be added to conversation <highlight2>"
-                      + conversation.getIdentifier()
-                      + "</highlight2>. Does the speaker already exist?");
+    // This ArrayList will be filled
+    final ArrayList<ConversationLine> conversationLines = new ArrayList<>();
+
+    // Prepare all starter conversation lines to feed them into deep diving
+    final String starterLines = config.getString("start", "").replace(" ", "");
+    for (final String starterLine : starterLines.split(",")) {
+      final String initialLine = "Lines." + starterLine;
+      final String message = config.getString(initialLine + ".text", "/skip/");
+      final ArrayList<Action> actions =
+          parseActionString(config.getStringList(initialLine + ".actions"));
+      final boolean shouting = config.getBoolean(initialLine + ".shout", false);
+      final int delayInMS = config.getInt(initialLine + ".delay", 0);
+
+
+      // Speaker
+      Speaker foundSpeaker = null;
+      for (final Speaker speaker : allSpeakers) {
+        if (speaker.getSpeakerName().equals(starterLine.split("\\.")[0].replaceAll("\\s", ""))) {
+          foundSpeaker = speaker;
         }
       }
+      if (foundSpeaker == null) {
+        main.getLogManager()
+            .warn("Warning: couldn't find speaker for a conversation line. Skipping...");
+        continue;
+      }
 
-      // This ArrayList will be filled
-      final ArrayList<ConversationLine> conversationLines = new ArrayList<>();
-
-      // Prepare all starter conversation lines to feed them into deep diving
-      final String starterLines = config.getString("start", "").replace(" ", "");
-      for (final String starterLine : starterLines.split(",")) {
-        final String initialLine = "Lines." + starterLine;
-        final String message = config.getString(initialLine + ".text", "/skip/");
-        final ArrayList<Action> actions =
-            parseActionString(config.getStringList(initialLine + ".actions"));
-        final boolean shouting = config.getBoolean(initialLine + ".shout", false);
-        final int delayInMS = config.getInt(initialLine + ".delay", 0);
-
-
-        // Speaker
-        Speaker foundSpeaker = null;
-        for (final Speaker speaker : allSpeakers) {
-          if (speaker.getSpeakerName().equals(starterLine.split("\\.")[0].replaceAll("\\s", ""))) {
-            foundSpeaker = speaker;
-          }
-        }
-        if (foundSpeaker == null) {
-          main.getLogManager()
-              .warn("Warning: couldn't find speaker for a conversation line. Skipping...");
-          continue;
-        }
-
-        // Construct the ConversationLine
-        final ConversationLine startLine =
-            new ConversationLine(foundSpeaker, starterLine.split("\\.")[1], message);
+      // Construct the ConversationLine
+      final ConversationLine startLine =
+          new ConversationLine(foundSpeaker, starterLine.split("\\.")[1], message);
 
-        if(message.equals("/skip/")){
-          startLine.setSkipMessage(true);
-        }
+      if(message.equals("/skip/")){
+        startLine.setSkipMessage(true);
+      }
 
-        // Actions
-        if (actions != null && actions.size() > 0) {
-          for (Action action : actions) {
-            startLine.addAction(action);
-          }
-        }
-        startLine.setShouting(shouting);
-        if(delayInMS > 0){
-          startLine.setDelayInMS(delayInMS);
+      // Actions
+      if (actions != null && actions.size() > 0) {
+        for (Action action : actions) {
+          startLine.addAction(action);
         }
+      }
+      startLine.setShouting(shouting);
+      if(delayInMS > 0){
+        startLine.setDelayInMS(delayInMS);
+      }
 
-        // Conditions
-        final ArrayList<Condition> conditions =
-            parseConditionsString(config.getStringList(initialLine + ".conditions"));
-        if (conditions != null && conditions.size() > 0) {
-          for (Condition condition : conditions) {
-            startLine.addCondition(condition);
-          }
+      // Conditions
+      final ArrayList<Condition> conditions =
+          parseConditionsString(config.getStringList(initialLine + ".conditions"));
+      if (conditions != null && conditions.size() > 0) {
+        for (Condition condition : conditions) {
+          startLine.addCondition(condition);
         }
-
-        conversationLines.add(startLine);
-        conversation.addStarterConversationLine(startLine);
       }
 
-      // Now here we have all starter conversation lines. We need to dive deep into them!
+      conversationLines.add(startLine);
+      conversation.addStarterConversationLine(startLine);
+    }
 
-      linesForOneFile.addAll(conversationLines);
-      deepDiveAndConnectStarterLines(conversation, conversationLines, config);
+    // Now here we have all starter conversation lines. We need to dive deep into them!
 
-      conversations.add(conversation);
+    // The lines of this file by their full identifier (lower case), so lines which are the next line of several
+    // other lines are only created once
+    final HashMap<String, ConversationLine> linesOfFile = new HashMap<>();
+    for (final ConversationLine conversationLine : conversationLines) {
+      linesOfFile.putIfAbsent(conversationLine.getFullIdentifier().toLowerCase(Locale.ROOT), conversationLine);
     }
+    deepDiveAndConnectStarterLines(conversation, conversationLines, config, linesOfFile);
+
+    addConversation(conversation);
   }
 
   public void deepDiveAndConnectStarterLines(
       final Conversation conversation,
       final ArrayList<ConversationLine> lines,
-      final YamlConfiguration config) {
+      final YamlConfiguration config,
+      final HashMap<String, ConversationLine> linesOfFile) {
 
     for (final ConversationLine conversationLine : lines) {
 
@@ -403,7 +442,6 @@ public class ConversationManager {
         // Dive deep
         final ArrayList<ConversationLine> keepDiving = new ArrayList<>();
 
-        outerLoop:
         for (final String nextLineFullIdentifier : nextString.split(",")) {
           main.getLogManager()
               .debug(
@@ -432,12 +470,11 @@ public class ConversationManager {
                       + "</highlight>");
 
           // Skip if we already added this line
-          for (final ConversationLine existingLine : linesForOneFile) {
-            final String fullExistingLineIdentifier = existingLine.getFullIdentifier();
-            if (nextLineFullIdentifier.equalsIgnoreCase(fullExistingLineIdentifier)) {
-              conversationLine.addNext(existingLine);
-              continue outerLoop; // Skip this line
-            }
+          final ConversationLine existingLine =
+              linesOfFile.get(nextLineFullIdentifier.toLowerCase(Locale.ROOT));
+          if (existingLine != null) {
+            conversationLine.addNext(existingLine);
+            continue; // Skip this line
           }
 
           final String nextLineSpeakerName =
@@ -510,7 +547,7 @@ public class ConversationManager {
           }
 
           conversationLine.addNext(newLine);
-          linesForOneFile.add(newLine);
+          linesOfFile.putIfAbsent(newLine.getFullIdentifier().toLowerCase(Locale.ROOT), newLine);
 
           if (!next.isBlank()) {
             keepDiving.add(newLine);
@@ -518,17 +555,13 @@ public class ConversationManager {
         }
 
         // Dive again to next level
-        deepDiveAndConnectStarterLines(conversation, keepDiving, config);
+        deepDiveAndConnectStarterLines(conversation, keepDiving, config, linesOfFile);
       }
     }
   }
 
-  public final HashMap<UUID, ArrayList<Component>> getChatHistory() {
-    return chatHistory;
-  }
-
-  public final HashMap<UUID, ArrayList<Component>> getConversationChatHistory() {
-    return conversationChatHistory;
+  public final ChatHistoryStore getChatHistoryStore() {
+    return chatHistoryStore;
   }
 
   public final ArrayList<Conversation> getAllConversations() {
@@ -619,22 +652,21 @@ public class ConversationManager {
           if (conditionClass == null) {
             // Check for NumberAction or StringAction first
 
-            for (String variableString : main.getVariablesManager().getVariableIdentifiers()) {
-              if (!variableString.equalsIgnoreCase(singleLineConditionStringArguments.get(0))) {
-                continue;
-              }
+            final String variableString =
+                main.getVariablesManager().getVariableIdentifierIgnoreCase(singleLineConditionStringArguments.get(0));
+            if (variableString != null) {
               main.getLogManager()
                   .info(
                       "Found variable for condition string "
                           + conditionString
                           + ": "
                           + variableString);
-
-              Variable<?> variable =
-                  main.getVariablesManager().getVariableFromString(variableString);
-              if (variable == null || !variable.isCanSetValue()) {
-                continue;
-              }
+            }
+            final Variable<?> variable =
+                variableString != null
+                    ? main.getVariablesManager().getVariableFromString(variableString)
+                    : null;
+            if (variable != null && variable.isCanSetValue()) {
               if (variable.getVariableDataType() == VariableDataType.NUMBER) {
                 final NumberCondition condition = new NumberCondition(main);
                 try {
@@ -719,7 +751,6 @@ public class ConversationManager {
                             + singleLineConditionStringArguments.get(0)
                             + ". Data type: "
                             + variable.getVariableDataType().toString());
-                continue;
               }
             }
 
@@ -791,18 +822,17 @@ public class ConversationManager {
           if (actionClass == null) {
             // Check for NumberAction or StringAction first
 
-            for (String variableString : main.getVariablesManager().getVariableIdentifiers()) {
-              if (!variableString.equalsIgnoreCase(singleLineActionStringArguments.get(0))) {
-                continue;
-              }
+            final String variableString =
+                main.getVariablesManager().getVariableIdentifierIgnoreCase(singleLineActionStringArguments.get(0));
+            if (variableString != null) {
               main.getLogManager()
                   .info("Found variable for action string " + actionString + ": " + variableString);
-
-              Variable<?> variable =
-                  main.getVariablesManager().getVariableFromString(variableString);
-              if (variable == null || !variable.isCanSetValue()) {
-                continue;
-              }
+            }
+            final Variable<?> variable =
+                variableString != null
+                    ? main.getVariablesManager().getVariableFromString(variableString)
+                    : null;
+            if (variable != null && variable.isCanSetValue()) {
               if (variable.getVariableDataType() == VariableDataType.NUMBER) {
                 final NumberAction action = new NumberAction(main);
                 try {
@@ -876,7 +906,6 @@ public class ConversationManager {
                     .warn(
                         "Unable to find conversation line action: "
                             + singleLineActionStringArguments.get(0));
-                continue;
               }
             }
 
@@ -920,12 +949,7 @@ public class ConversationManager {
   }
 
   public final Conversation getConversation(final String identifier) {
-    for (final Conversation conversation : conversations) {
-      if (conversation.getIdentifier().equals(identifier)) {
-        return conversation;
-      }
-    }
-    return null;
+    return identifier != null ? conversationsByIdentifier.get(identifier) : null;
   }
 
   public final Conversation getConversationAttachedToArmorstand(final ArmorStand armorstand) {
@@ -995,46 +1019,6 @@ public class ConversationManager {
       return;
     }
     // Send back old messages
-    ArrayList<Component> allChatHistory =
-        main.getConversationManager().getChatHistory().get(player.getUniqueId());
-
-    main.getLogManager().debug("Conversation stop stage 1");
-
-    if (allChatHistory == null) {
-      return;
-    }
-
-    ArrayList<Component> allConversationHistory =
-        main.getConversationManager()
-            .getConversationChatHistory()
-            .get(player.getUniqueId());
-    main.getLogManager().debug("Conversation stop stage 1.5");
-    if (allConversationHistory == null) {
-      return;
-    }
-    main.getLogManager().debug("Conversation stop stage 2");
-
-
-    Component collectiveComponent = Component.text("");
-    for (int i = 0; i < allChatHistory.size(); i++) {
-      Component component = allChatHistory.get(i);
-      if (component != null) {
-        // audience.sendMessage(component.append(Component.text("fg9023zf729ofz")));
-        collectiveComponent = collectiveComponent.append(component).append(Component.newline());
-      }
-    }
-    player.sendMessage(collectiveComponent);
-
-    allChatHistory.removeAll(allConversationHistory);
-    allConversationHistory.clear();
-    main.getConversationManager()
-        .getChatHistory()
-        .put(player.getUniqueId(), allChatHistory);
-    main.getConversationManager()
-        .getConversationChatHistory()
-        .put(player.getUniqueId(), allConversationHistory);
-
-    // maybe this won't send the huge, 1-component-chat-history again
-    allConversationHistory.add(collectiveComponent);
+    chatHistoryStore.replay(player);
   }
 }
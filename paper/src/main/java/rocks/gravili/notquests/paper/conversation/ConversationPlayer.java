@@ -154,17 +154,12 @@ public class ConversationPlayer {
     final String chooseAnswerPrefixMiniMessage =
             main.getLanguageManager()
                     .getString("chat.conversations.choose-answer-prefix", player, conversation);
-    main.sendMessage(player, chooseAnswerPrefixMiniMessage);
-
-    if (main.getConfiguration().deletePreviousConversations) {
-      final ArrayList<Component> hist =
-              main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-
-      if (!chooseAnswerPrefixMiniMessage.isBlank()) {
-        hist.add(main.parse(chooseAnswerPrefixMiniMessage));
+    if (!chooseAnswerPrefixMiniMessage.isBlank()) {
+      final Component chooseAnswerPrefix = main.parse(chooseAnswerPrefixMiniMessage);
+      if (main.getConfiguration().deletePreviousConversations) {
+        main.getConversationManager().getChatHistoryStore().markMessageNotToRecord(player.getUniqueId(), chooseAnswerPrefix);
       }
-
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      player.sendMessage(chooseAnswerPrefix);
     }
 
     for (final ConversationLine playerLine : playerLines) {
@@ -172,11 +167,7 @@ public class ConversationPlayer {
     }
 
     if (main.getConfiguration().deletePreviousConversations) {
-      final ArrayList<Component> hist =
-              main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-
-      hist.add(Component.empty());
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistoryStore().markMessageNotToRecord(player.getUniqueId(), Component.empty());
     }
 
     player.sendMessage(Component.empty());
@@ -1,6 +1,5 @@
 package rocks.gravili.notquests.paper.conversation.interactionhandlers;
 
-import java.util.ArrayList;
 import java.util.Map;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -40,10 +39,7 @@ public class SendClickableText implements
     }
 
     if (main.getConfiguration().deletePreviousConversations) {
-      final ArrayList<Component> hist =
-          main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-      hist.add(line);
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistoryStore().markMessageNotToRecord(player.getUniqueId(), line);
     }
 
     player.sendMessage(line);
@@ -75,10 +71,7 @@ public class SendClickableText implements
                                 conversationLine))));
 
     if (main.getConfiguration().deletePreviousConversations) {
-      final ArrayList<Component> hist =
-          main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-      hist.add(toSend);
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistoryStore().markMessageNotToRecord(player.getUniqueId(), toSend);
     }
 
     player.sendMessage(toSend);
@@ -346,7 +346,7 @@ public class ArmorStandEvents implements Listener {
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
 
         if (questPlayer != null) {
-            questPlayer.queueObjectiveCheck(activeObjective -> {
+            questPlayer.queueObjectiveCheck(DeliverItemsObjective.class, activeObjective -> {
                 if (activeObjective.getObjective() instanceof final DeliverItemsObjective deliverItemsObjective) {
                     if (armorStandNQNPC.equals(deliverItemsObjective.getRecipientNPC())) {
                         for (final ItemStack itemStack : player.getInventory().getContents()) {
@@ -382,7 +382,7 @@ public class ArmorStandEvents implements Listener {
                     }
                 }
             });
-            questPlayer.queueObjectiveCheck(activeObjective -> {
+            questPlayer.queueObjectiveCheck(TalkToNPCObjective.class, activeObjective -> {
                 if (activeObjective.getObjective() instanceof final TalkToNPCObjective talkToNPCObjective) {
                     if (armorStandNQNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
                         activeObjective.addProgress(1, armorStandNQNPC);
@@ -26,12 +26,19 @@ import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
 import org.bukkit.entity.Entity;
@@ -39,8 +46,10 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Sheep;
+import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
@@ -69,15 +78,18 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.loot.LootTables;
+import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.wrappers.ItemStackSelection;
 import rocks.gravili.notquests.paper.conversation.ConversationLine;
 import rocks.gravili.notquests.paper.conversation.ConversationPlayer;
 import rocks.gravili.notquests.paper.structs.ActiveObjective;
 import rocks.gravili.notquests.paper.structs.ActiveQuest;
+import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.objectives.*;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
+import rocks.gravili.notquests.paper.structs.triggers.Trigger;
 import rocks.gravili.notquests.paper.structs.triggers.types.WorldEnterTrigger;
 import rocks.gravili.notquests.paper.structs.triggers.types.WorldLeaveTrigger;
 
@@ -87,46 +99,38 @@ public class QuestEvents implements Listener {
 
     private final HashMap<QuestPlayer, String> beaconsToUpdate;
 
-    int beaconCounter = 0;
-    int conditionObjectiveCounter = 0;
+    /**
+     * Listeners for frequent events, which are only registered while any loaded quest has an objective or trigger
+     * they handle. See updateGatedListeners().
+     */
+    private final ArrayList<GatedListener<?>> gatedListeners = new ArrayList<>();
+    private final AtomicBoolean gatedListenersUpdateScheduled = new AtomicBoolean(false);
+    /**
+     * The regions of all ReachLocation objectives of the loaded quests. Rebuilt together with the gated listeners.
+     */
+    private volatile ReachLocationIndex reachLocationIndex = ReachLocationIndex.empty();
+    /**
+     * The materials and entity types the BreakBlocks, PlaceBlocks and KillMobs objectives of the loaded quests react
+     * to. Rebuilt together with the gated listeners. Null until it's built for the first time, in which case no event
+     * is skipped.
+     */
+    private volatile @Nullable ObjectiveTypeIndex objectiveTypeIndex = null;
 
 
     public QuestEvents(NotQuests main) {
         this.main = main;
         beaconsToUpdate = new HashMap<>();
         if(main.getConfiguration().getBeamMode().equals("end_gateway")){
-            Bukkit.getScheduler().scheduleSyncRepeatingTask(main.getMain(), () -> { //Main Loop
-                if(main.getDataManager().isDisabled()){
-                    return;
-                }
-                for(final Player player : Bukkit.getOnlinePlayers()) {
-                    final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                    if(questPlayer == null){
-                        return;
-                    }
-
-                    if(questPlayer.getBossBar() != null){
-                        questPlayer.increaseBossBarTimeByOneSecond();
-                    }
-
-                    beaconCounter++;
-                    if(beaconCounter >= 4){
-                        questPlayer.updateBeaconLocations(player);
-                        beaconCounter = 0;
-                    }
-
-                    conditionObjectiveCounter++;
-                    if(conditionObjectiveCounter >= 2){
-                        questPlayer.updateConditionObjectives(player);
-                        conditionObjectiveCounter = 0;
-                    }
-
-
-
-
+            //Main Loop. Spread over all ticks by the scheduler instead of running for all players at once every second
+            main.getPlayerTaskScheduler().registerPeriodicPlayerTask("boss bar timer", () -> 20, (questPlayer, player) -> {
+                if(questPlayer.getBossBar() != null){
+                    questPlayer.increaseBossBarTimeByOneSecond();
                 }
-
-            }, 0L, 20L); //0 Tick initial delay, 20 Tick (1 Second) between repeats
+            });
+            main.getPlayerTaskScheduler().registerPeriodicPlayerTask("beacons", () -> main.getConfiguration().getMainLoopBeaconUpdateIntervalTicks(),
+                (questPlayer, player) -> questPlayer.updateBeaconLocations(player));
+            main.getPlayerTaskScheduler().registerPeriodicPlayerTask("condition objectives", () -> main.getConfiguration().getMainLoopConditionObjectiveUpdateIntervalTicks(),
+                (questPlayer, player) -> questPlayer.updateConditionObjectives(player));
         }else{
             Bukkit.getScheduler().scheduleSyncRepeatingTask(main.getMain(), new Runnable() {
                 @Override
@@ -184,6 +188,123 @@ public class QuestEvents implements Listener {
             }, 0L, 80L); //0 Tick initial delay, 20 Tick (1 Second) between repeats
         }
 
+        gatedListeners.add(new GatedListener<>(PlayerMoveEvent.class, EventPriority.NORMAL, false, this::onMove,
+                () -> main.getConfiguration().isMoveEventEnabled(), ReachLocationObjective.class));
+        gatedListeners.add(new GatedListener<>(PlayerJumpEvent.class, EventPriority.NORMAL, true, this::onPlayerJump,
+                () -> true, JumpObjective.class));
+        gatedListeners.add(new GatedListener<>(PlayerToggleSneakEvent.class, EventPriority.NORMAL, false, this::onPlayerSneak,
+                () -> true, SneakObjective.class));
+        gatedListeners.add(new GatedListener<>(PlayerInteractEvent.class, EventPriority.NORMAL, false, this::interactEvent,
+                () -> true, InteractObjective.class, OpenBuriedTreasureObjective.class));
+        gatedListeners.add(new GatedListener<>(PlayerCommandPreprocessEvent.class, EventPriority.LOWEST, false, this::onCommand,
+                () -> true, RunCommandObjective.class));
+        gatedListeners.add(new GatedListener<>(EntityPickupItemEvent.class, EventPriority.NORMAL, false, this::onPickupItemEvent,
+                () -> true, CollectItemsObjective.class));
+        gatedListeners.add(new GatedListener<>(PlayerDropItemEvent.class, EventPriority.NORMAL, false, this::onDropItemEvent,
+                () -> true, CollectItemsObjective.class));
+        gatedListeners.add(new GatedListener<>(PlayerChangedWorldEvent.class, EventPriority.NORMAL, false, this::playerChangeWorldEvent,
+                () -> true, WorldEnterTrigger.class, WorldLeaveTrigger.class));
+    }
+
+    /**
+     * A listener for a single event type, which can be registered and unregistered on its own. It's needed while any
+     * loaded quest has an objective or trigger of one of the handled types.
+     */
+    private final class GatedListener<E extends Event> implements Listener {
+        private final Class<E> eventClass;
+        private final EventPriority eventPriority;
+        private final boolean ignoreCancelled;
+        private final Consumer<E> handler;
+        private final BooleanSupplier enabled;
+        private final List<Class<?>> handledTypes;
+        private boolean registered = false;
+
+        private GatedListener(final Class<E> eventClass, final EventPriority eventPriority, final boolean ignoreCancelled, final Consumer<E> handler, final BooleanSupplier enabled, final Class<?>... handledTypes) {
+            this.eventClass = eventClass;
+            this.eventPriority = eventPriority;
+            this.ignoreCancelled = ignoreCancelled;
+            this.handler = handler;
+            this.enabled = enabled;
+            this.handledTypes = List.of(handledTypes);
+        }
+
+        private boolean isNeeded(final Set<Class<?>> usedTypes) {
+            if (!enabled.getAsBoolean()) {
+                return false;
+            }
+            for (final Class<?> usedType : usedTypes) {
+                for (final Class<?> handledType : handledTypes) {
+                    if (handledType.isAssignableFrom(usedType)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void setRegistered(final boolean shouldBeRegistered) {
+            if (registered == shouldBeRegistered) {
+                return;
+            }
+            if (shouldBeRegistered) {
+                Bukkit.getPluginManager().registerEvent(eventClass, this, eventPriority, (listener, event) -> {
+                    if (eventClass.isInstance(event)) {
+                        handler.accept(eventClass.cast(event));
+                    }
+                }, main.getMain(), ignoreCancelled);
+            } else {
+                HandlerList.unregisterAll(this);
+            }
+            registered = shouldBeRegistered;
+            main.getLogManager().debug("%s the listener for <highlight>%s</highlight>.", shouldBeRegistered ? "Registered" : "Unregistered", eventClass.getSimpleName());
+        }
+    }
+
+    /**
+     * Schedules updateGatedListeners() for the next tick. Calling this multiple times before that (e.g. while editing
+     * a quest) only updates them once.
+     */
+    public void scheduleGatedListenersUpdate() {
+        if (!main.getMain().isEnabled() || !gatedListenersUpdateScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        Bukkit.getScheduler().runTask(main.getMain(), () -> {
+            gatedListenersUpdateScheduled.set(false);
+            updateGatedListeners();
+        });
+    }
+
+    /**
+     * Registers the gated listeners which are needed by the objectives and triggers of the loaded quests, and
+     * unregisters all others. Also rebuilds the ReachLocation region index and the ObjectiveTypeIndex. Has to be called
+     * from the main thread.
+     */
+    public void updateGatedListeners() {
+        final HashSet<Class<?>> usedTypes = new HashSet<>();
+        final ArrayList<ReachLocationObjective> reachLocationObjectives = new ArrayList<>();
+        final ArrayList<Objective> allObjectives = new ArrayList<>();
+        for (final Quest quest : new ArrayList<>(main.getQuestManager().getAllQuests())) {
+            addUsedObjectiveTypes(quest, usedTypes, reachLocationObjectives, allObjectives);
+            for (final Trigger trigger : quest.getTriggers()) {
+                usedTypes.add(trigger.getClass());
+            }
+        }
+        reachLocationIndex = new ReachLocationIndex(reachLocationObjectives);
+        objectiveTypeIndex = new ObjectiveTypeIndex(allObjectives);
+        for (final GatedListener<?> gatedListener : gatedListeners) {
+            gatedListener.setRegistered(gatedListener.isNeeded(usedTypes));
+        }
+    }
+
+    private void addUsedObjectiveTypes(final ObjectiveHolder objectiveHolder, final Set<Class<?>> usedTypes, final List<ReachLocationObjective> reachLocationObjectives, final List<Objective> allObjectives) {
+        for (final Objective objective : objectiveHolder.getObjectives()) {
+            usedTypes.add(objective.getClass());
+            allObjectives.add(objective);
+            if (objective instanceof final ReachLocationObjective reachLocationObjective) {
+                reachLocationObjectives.add(reachLocationObjective);
+            }
+            addUsedObjectiveTypes(objective, usedTypes, reachLocationObjectives, allObjectives);
+        }
     }
 
 
@@ -253,7 +374,7 @@ public class QuestEvents implements Listener {
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
+            questPlayer.queueObjectiveCheck(SmeltObjective.class, activeObjective -> {
                 if (activeObjective.getObjective() instanceof final SmeltObjective smeltObjective) {
                     final InventoryType inventoryType = e.getInventory().getType();
 
@@ -397,7 +518,7 @@ public class QuestEvents implements Listener {
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
+            questPlayer.queueObjectiveCheck(CraftItemsObjective.class, activeObjective -> {
                 if (activeObjective.getObjective() instanceof final CraftItemsObjective craftItemsObjective) {
                     final ItemStack result = e.getRecipe().getResult();
                     final ItemStack cursor = e.getCursor();
@@ -531,16 +652,15 @@ public class QuestEvents implements Listener {
 
 
 
-    @EventHandler(ignoreCancelled = true)
     public void onPlayerJump(final PlayerJumpEvent e) {
 
         final Player player = e.getPlayer();
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (questPlayer == null || !questPlayer.hasUnlockedActiveObjectives(JumpObjective.class)) {
             return;
         }
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(JumpObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof JumpObjective) {
                 activeObjective.addProgress(1);
             }
@@ -549,15 +669,14 @@ public class QuestEvents implements Listener {
     }
 
 
-    @EventHandler
     public void interactEvent(final PlayerInteractEvent e) {
         final Player player = e.getPlayer();
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (questPlayer == null || (!questPlayer.hasUnlockedActiveObjectives(InteractObjective.class) && !questPlayer.hasUnlockedActiveObjectives(OpenBuriedTreasureObjective.class))) {
             return;
         }
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(InteractObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final InteractObjective interactObjective) {
                 String materialName = "AIR";
                 if (e.getClickedBlock() != null) {
@@ -591,7 +710,7 @@ public class QuestEvents implements Listener {
 
             }
         });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(OpenBuriedTreasureObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof OpenBuriedTreasureObjective) {
                 if (e.getAction() != Action.RIGHT_CLICK_BLOCK){
                     return;
@@ -610,15 +729,14 @@ public class QuestEvents implements Listener {
     }
 
 
-    @EventHandler(priority = EventPriority.LOWEST)
     public void onCommand(final PlayerCommandPreprocessEvent e) {
         final Player player = e.getPlayer();
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (questPlayer == null || !questPlayer.hasUnlockedActiveObjectives(RunCommandObjective.class)) {
             return;
         }
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(RunCommandObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final RunCommandObjective runCommandObjective) {
                 questPlayer.sendDebugMessage("Found RunCommand Objective in PlayerCommandPreprocessEvent. Command: <highlight>" + e.getMessage()
                     + "</highlight> Objective command to run: <highlight2>" + runCommandObjective.getCommandToRun() + "</highlight2>."
@@ -641,7 +759,6 @@ public class QuestEvents implements Listener {
     }
 
 
-    @EventHandler
     public void playerChangeWorldEvent(PlayerChangedWorldEvent e) {
         final Player player = e.getPlayer();
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
@@ -679,7 +796,7 @@ public class QuestEvents implements Listener {
                     return;
                 }
 
-                questPlayer.queueObjectiveCheck(activeObjective -> {
+                questPlayer.queueObjectiveCheck(BreedObjective.class, activeObjective -> {
                     if (activeObjective.getObjective() instanceof final BreedObjective breedObjective) {
                         if(breedObjective.getEntityToBreedType().equalsIgnoreCase("any") ||  breedObjective.getEntityToBreedType().equalsIgnoreCase(e.getEntityType().toString())){
                             activeObjective.addProgress(1);
@@ -694,37 +811,60 @@ public class QuestEvents implements Listener {
     }
 
 
+    private boolean isRelevantBlockMaterial(final Material material) {
+        final ObjectiveTypeIndex objectiveTypeIndex = this.objectiveTypeIndex;
+        return objectiveTypeIndex == null || objectiveTypeIndex.isRelevantBlockMaterial(material);
+    }
+
+    private static final ObjectiveCheck<BreakBlocksObjective> BREAK_BLOCKS_ON_BLOCK_BREAK = (activeObjective, breakBlocksObjective, context) -> {
+        if (breakBlocksObjective.getItemStackSelection().checkIfIsIncluded(context.getMaterial())) {
+            activeObjective.addProgress(1);
+        }
+    };
+
+    private static final ObjectiveCheck<PlaceBlocksObjective> PLACE_BLOCKS_ON_BLOCK_BREAK = (activeObjective, placeBlocksObjective, context) -> {
+        //Deduct if Block is Broken for PlaceBlocksObjective
+        if (placeBlocksObjective.getItemStackSelection().checkIfIsIncluded(context.getMaterial())) {
+            if (placeBlocksObjective.isDeductIfBlockBroken()) {
+                activeObjective.removeProgress(1, false);
+            }
+        }
+    };
+
+    private static final ObjectiveCheck<BreakBlocksObjective> BREAK_BLOCKS_ON_BLOCK_PLACE = (activeObjective, breakBlocksObjective, context) -> {
+        final QuestPlayer questPlayer = activeObjective.getQuestPlayer();
+        questPlayer.sendDebugMessage("Found BreakBlocksObjective.");
+        if (breakBlocksObjective.getItemStackSelection().checkIfIsIncluded(context.getMaterial())) {
+            questPlayer.sendDebugMessage("Found right block.");
+            if (breakBlocksObjective.isDeductIfBlockPlaced()) {
+                questPlayer.sendDebugMessage("Deducting from BreakBlocksObjective!");
+                activeObjective.removeProgress(1, false);
+            }
+        }
+    };
+
+    private static final ObjectiveCheck<PlaceBlocksObjective> PLACE_BLOCKS_ON_BLOCK_PLACE = (activeObjective, placeBlocksObjective, context) -> {
+        if (placeBlocksObjective.getItemStackSelection().checkIfIsIncluded(context.getMaterial())) {
+            activeObjective.addProgress(1);
+        }
+    };
+
     @EventHandler(priority = EventPriority.HIGHEST)
     private void onBlockBreak(BlockBreakEvent e) {
-        if (!e.isCancelled()) {
+        if (!e.isCancelled() && isRelevantBlockMaterial(e.getBlock().getType())) {
             final Player player = e.getPlayer();
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
 
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final BreakBlocksObjective breakBlocksObjective) {
-                    final ItemStackSelection itemStackSelection = breakBlocksObjective.getItemStackSelection();
-
-                    if(itemStackSelection.checkIfIsIncluded(e.getBlock().getType())){
-                        activeObjective.addProgress(1);
-                    }
-
-                }
-            });
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final PlaceBlocksObjective placeBlocksObjective) { //Deduct if Block is Broken for PlaceBlocksObjective
-                    final ItemStackSelection itemStackSelection = placeBlocksObjective.getItemStackSelection();
-
-                    if(itemStackSelection.checkIfIsIncluded(e.getBlock().getType())){
-                        if (placeBlocksObjective.isDeductIfBlockBroken()) {
-                            activeObjective.removeProgress(1, false);
-                        }
-                    }
-                }
-            });
-            questPlayer.checkQueuedObjectives();
+            final ObjectiveCheckContext context = questPlayer.getObjectiveCheckContext(e).setMaterial(e.getBlock().getType());
+            try {
+                questPlayer.runObjectiveCheck(BreakBlocksObjective.class, BREAK_BLOCKS_ON_BLOCK_BREAK, context);
+                questPlayer.runObjectiveCheck(PlaceBlocksObjective.class, PLACE_BLOCKS_ON_BLOCK_BREAK, context);
+            } finally {
+                questPlayer.finishObjectiveChecks(context);
+            }
 
         }
 
@@ -732,39 +872,19 @@ public class QuestEvents implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST)
     private void onBlockPlace(BlockPlaceEvent e) {
-        if (!e.isCancelled()) {
+        if (!e.isCancelled() && isRelevantBlockMaterial(e.getBlock().getType())) {
             final Player player = e.getPlayer();
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                questPlayer.sendDebugMessage("Checking for BreakBlocksObjective.");
-                if (activeObjective.getObjective() instanceof final BreakBlocksObjective breakBlocksObjective) {
-                    final ItemStackSelection itemStackSelection = breakBlocksObjective.getItemStackSelection();
-                    questPlayer.sendDebugMessage("Found BreakBlocksObjective.");
-
-                    if (itemStackSelection.checkIfIsIncluded(e.getBlock().getType())) {
-                        questPlayer.sendDebugMessage("Found right block.");
-                        if (breakBlocksObjective.isDeductIfBlockPlaced()) {
-                            questPlayer.sendDebugMessage("Deducting from BreakBlocksObjective!");
-                            activeObjective.removeProgress(1, false);
-                        }
-                    }
-                }
-            });
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final PlaceBlocksObjective placeBlocksObjective) {
-                    final ItemStackSelection itemStackSelection = placeBlocksObjective.getItemStackSelection();
-
-                    if (itemStackSelection.checkIfIsIncluded(e.getBlock().getType())) {
-                        activeObjective.addProgress(1);
-                    }
-                }
-            });
-
-
-            questPlayer.checkQueuedObjectives();
+            final ObjectiveCheckContext context = questPlayer.getObjectiveCheckContext(e).setMaterial(e.getBlock().getType());
+            try {
+                questPlayer.runObjectiveCheck(BreakBlocksObjective.class, BREAK_BLOCKS_ON_BLOCK_PLACE, context);
+                questPlayer.runObjectiveCheck(PlaceBlocksObjective.class, PLACE_BLOCKS_ON_BLOCK_PLACE, context);
+            } finally {
+                questPlayer.finishObjectiveChecks(context);
+            }
 
         }
 
@@ -782,7 +902,7 @@ public class QuestEvents implements Listener {
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(FishItemsObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final FishItemsObjective fishItemsObjective) {
 
                 if(e.getCaught() == null){
@@ -806,15 +926,14 @@ public class QuestEvents implements Listener {
 
     }
 
-    @EventHandler
-    private void onPickupItemEvent(EntityPickupItemEvent e) {
+    public void onPickupItemEvent(EntityPickupItemEvent e) {
         final Entity entity = e.getEntity();
         if (entity instanceof final Player player) {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            if (questPlayer == null || !questPlayer.hasUnlockedActiveObjectives(CollectItemsObjective.class)) {
                 return;
             }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
+            questPlayer.queueObjectiveCheck(CollectItemsObjective.class, activeObjective -> {
                 if (activeObjective.getObjective() instanceof final CollectItemsObjective collectItemsObjective) {
 
                     final ItemStackSelection itemStackSelection = collectItemsObjective.getItemStackSelection();
@@ -834,15 +953,14 @@ public class QuestEvents implements Listener {
     }
 
 
-    @EventHandler
-    private void onDropItemEvent(PlayerDropItemEvent e) { //DEFAULT ENABLED FOR ITEM DROPS UNLIKE FOR BLOCK BREAKS
+    public void onDropItemEvent(PlayerDropItemEvent e) { //DEFAULT ENABLED FOR ITEM DROPS UNLIKE FOR BLOCK BREAKS
         final Entity player = e.getPlayer();
 
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (questPlayer == null || !questPlayer.hasUnlockedActiveObjectives(CollectItemsObjective.class)) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(CollectItemsObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final CollectItemsObjective collectItemsObjective) {
                 if (!collectItemsObjective.isDeductIfItemIsDropped()) {
                     return;
@@ -864,6 +982,41 @@ public class QuestEvents implements Listener {
     }
 
 
+    private final ObjectiveCheck<KillMobsObjective> killMobsCheck = (activeObjective, killMobsObjective, context) -> {
+        if (main.getIntegrationsManager().isProjectKorraEnabled() && !killMobsObjective.getProjectKorraAbility().isBlank()) {
+            return; //See ProjectKorraEvents.java onEntityKilled() for that.
+        }
+        final Entity killedMob = context.getEntity();
+        if (!killMobsObjective.isKillAnyMob() && killMobsObjective.getMobToKillEntityType() != killedMob.getType()) {
+            return;
+        }
+
+        //Extra Flags
+        final String[] nameTagContainsAnyParts = killMobsObjective.getNameTagContainsAnyPartsLowercase();
+        final String nameTagEquals = killMobsObjective.getNameTagEqualsLowercase();
+        if (nameTagContainsAnyParts.length > 0 || !nameTagEquals.isBlank()) {
+            final Component customName = killedMob.customName();
+            if (customName == null) {
+                return;
+            }
+            final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(Locale.ROOT);
+            if (customNamePlainStringLowercase.isBlank()) {
+                return;
+            }
+
+            for (final String namePart : nameTagContainsAnyParts) {
+                if (!customNamePlainStringLowercase.contains(namePart)) {
+                    return;
+                }
+            }
+            if (!nameTagEquals.isBlank() && !customNamePlainStringLowercase.equals(nameTagEquals)) {
+                return;
+            }
+        }
+
+        activeObjective.addProgress(1);
+    };
+
     @EventHandler
     private void onEntityDeath(EntityDeathEvent e) { //KillMobs objectives & Death triggers
 
@@ -888,71 +1041,25 @@ public class QuestEvents implements Listener {
 
 
         //KillMobs objectives
+        final ObjectiveTypeIndex objectiveTypeIndex = this.objectiveTypeIndex;
+        if (objectiveTypeIndex != null && !objectiveTypeIndex.isRelevantEntityType(e.getEntityType())) {
+            return;
+        }
         final Player player = e.getEntity().getKiller();
         if (player != null) {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final KillMobsObjective killMobsObjective) {
-                    if (activeObjective.isUnlocked()) {
-                        if(main.getIntegrationsManager().isProjectKorraEnabled() && !killMobsObjective.getProjectKorraAbility().isBlank()){
-                            return; //See ProjectKorraEvents.java onEntityKilled() for that.
-                        }
-                        final EntityType killedMob = e.getEntity().getType();
-                        if (killMobsObjective.getMobToKill().equalsIgnoreCase("any") || killMobsObjective.getMobToKill().equalsIgnoreCase(killedMob.toString())) {
-                            if (e.getEntity() != e.getEntity().getKiller()) { //Suicide prevention
-
-                                //Extra Flags
-                                if (!killMobsObjective.getNameTagContainsAny().isBlank()) {
-                                    final Component customName = e.getEntity().customName();
-                                    if (customName == null) {
-                                        return;
-                                    }
-                                    final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
-                                        Locale.ROOT);
-                                    if(customNamePlainStringLowercase.isBlank()){
-                                        return;
-                                    }
-
-                                    boolean foundOneNotFitting = false;
-                                    for (final String namePart : killMobsObjective.getNameTagContainsAny().toLowerCase(Locale.ROOT).split(" ")) {
-                                        if (!customNamePlainStringLowercase.contains(
-                                            namePart)) {
-                                            foundOneNotFitting = true;
-                                            break;
-                                        }
-                                    }
-                                    if (foundOneNotFitting) {
-                                        return;
-                                    }
-                                }
-                                if (!killMobsObjective.getNameTagEquals().isBlank()) {
-                                    final Component customName = e.getEntity().customName();
-                                    if (customName == null) {
-                                        return;
-                                    }
-                                    final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
-                                        Locale.ROOT);
-                                    if(customNamePlainStringLowercase.isBlank()){
-                                        return;
-                                    }
-
-                                    if (!customNamePlainStringLowercase.equalsIgnoreCase(killMobsObjective.getNameTagEquals())) {
-                                        return;
-                                    }
-                                }
-
-                                activeObjective.addProgress(1);
-                            }
-
-                        }
-                    }
-
-                }
-            });
-            questPlayer.checkQueuedObjectives();
+            if (e.getEntity() == player) { //Suicide prevention
+                return;
+            }
+            final ObjectiveCheckContext context = questPlayer.getObjectiveCheckContext(e).setEntity(e.getEntity());
+            try {
+                questPlayer.runObjectiveCheck(KillMobsObjective.class, killMobsCheck, context);
+            } finally {
+                questPlayer.finishObjectiveChecks(context);
+            }
 
 
         }
@@ -967,7 +1074,7 @@ public class QuestEvents implements Listener {
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(ConsumeItemsObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final ConsumeItemsObjective consumeItemsObjective) {
                 if (activeObjective.isUnlocked()) {
 
@@ -1029,7 +1136,6 @@ public class QuestEvents implements Listener {
     }
 
     //For ReachLocation
-    @EventHandler
     public void onMove(PlayerMoveEvent e) {
         if (!main.getConfiguration().isMoveEventEnabled()) {
             return;
@@ -1044,33 +1150,35 @@ public class QuestEvents implements Listener {
     public void checkIfInReachLocation(final PlayerMoveEvent e, final Location currentLocation) {
 
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(e.getPlayer().getUniqueId());
-        if (e.isCancelled() || questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (e.isCancelled() || questPlayer == null || !questPlayer.hasUnlockedActiveObjectives(ReachLocationObjective.class)) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final ReachLocationObjective reachLocationObjective) {
 
-                final Location minLocation = reachLocationObjective.getMinLocation();
-                if(minLocation == null){
-                    return;
-                }
-                if (minLocation.getWorld() != null && currentLocation.getWorld() != null && !currentLocation.getWorld().equals(minLocation.getWorld())) {
-                    return;
-                }
-                final Location maxLocation = reachLocationObjective.getMaxLocation();
-                if (currentLocation.getX() >= minLocation.getX() && currentLocation.getX() <= maxLocation.getX()) {
-                    if (currentLocation.getZ() >= minLocation.getZ() && currentLocation.getZ() <= maxLocation.getZ()) {
-                        if (currentLocation.getY() >= minLocation.getY() && currentLocation.getY() <= maxLocation.getY()) {
-                            activeObjective.addProgress(1);
-                        }
-                    }
-                }
+        //Only the regions overlapping the player's chunk can contain them. If there are none, nothing has to be checked until they enter another chunk.
+        final ReachLocationIndex reachLocationIndex = this.reachLocationIndex;
+        final String worldName = currentLocation.getWorld() != null ? currentLocation.getWorld().getName() : "";
+        final long chunkKey = ReachLocationIndex.getChunkKey(currentLocation.getBlockX() >> 4, currentLocation.getBlockZ() >> 4);
+        if (questPlayer.isInEmptyReachLocationCell(reachLocationIndex, worldName, chunkKey)) {
+            return;
+        }
+        final ObjectiveCheckContext context = questPlayer.getObjectiveCheckContext(e);
+        try {
+            reachLocationIndex.addRegionsContaining(currentLocation, context.getReachLocationRegions());
+            if (!context.getReachLocationRegions().isEmpty()) {
+                questPlayer.runObjectiveCheck(ReachLocationObjective.class, REACH_LOCATION_ON_MOVE, context);
             }
-        });
-        questPlayer.checkQueuedObjectives();
+        } finally {
+            questPlayer.finishObjectiveChecks(context);
+        }
 
     }
 
+    private static final ObjectiveCheck<ReachLocationObjective> REACH_LOCATION_ON_MOVE = (activeObjective, reachLocationObjective, context) -> {
+        if (context.getReachLocationRegions().contains(reachLocationObjective)) {
+            activeObjective.addProgress(1);
+        }
+    };
+
 
     @EventHandler(priority = EventPriority.MONITOR)
     protected void onPluginEnable(final PluginEnableEvent event) {
@@ -1107,7 +1215,6 @@ public class QuestEvents implements Listener {
         return false;
     }
 
-    @EventHandler
     public void onPlayerSneak(final PlayerToggleSneakEvent e) {
         if (!e.isSneaking()) {
             return;
@@ -1115,10 +1222,10 @@ public class QuestEvents implements Listener {
 
         final Player player = e.getPlayer();
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (questPlayer == null || !questPlayer.hasUnlockedActiveObjectives(SneakObjective.class)) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(SneakObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof SneakObjective) {
                 activeObjective.addProgress(1);
             }
@@ -1131,6 +1238,9 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     private void onDisconnectEvent(PlayerQuitEvent e) { //Disconnect objectives
+        if(main.getConversationManager() != null){
+            main.getConversationManager().getChatHistoryStore().removePlayer(e.getPlayer().getUniqueId());
+        }
         if(main.getConfiguration().isSavePlayerDataOnQuit()){
             if (Bukkit.isPrimaryThread()) {
                 Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
@@ -1161,7 +1271,8 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent e) {
-        if(main.getConfiguration().isLoadPlayerDataOnJoin()){
+        final boolean notLoadedYet = main.getConfiguration().isStorageBulkLoadOnlinePlayersOnly() && main.getQuestPlayerManager().getActiveQuestPlayer(e.getPlayer().getUniqueId()) == null;
+        if(main.getConfiguration().isLoadPlayerDataOnJoin() || notLoadedYet){ //Players who were offline during the bulk load are loaded lazily
             if (Bukkit.isPrimaryThread()) {
                 Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
                     main.getQuestPlayerManager().loadSinglePlayerData(e.getPlayer().getUniqueId());
@@ -1224,24 +1335,7 @@ public class QuestEvents implements Listener {
                     audience
                 );
 
-                final ArrayList<Component> convHist = main.getConversationManager().getConversationChatHistory().get(playerViewer.getUniqueId());
-                if (convHist != null && convHist.contains(adventureComponent)) {
-                    return;
-                }
-
-                final ArrayList<Component> hist = main.getConversationManager().getChatHistory().getOrDefault(playerViewer.getUniqueId(), new ArrayList<>());
-                hist.add(adventureComponent);
-
-                //main.getLogManager().debug("Registering chat message with Message: " + PlainTextComponentSerializer.plainText().serialize(adventureComponent));
-                final int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-                if (toRemove > 0) {
-                    //main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-                    hist.subList(0, toRemove).clear();
-                }
-                //main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-
-                main.getConversationManager().getChatHistory().put(playerViewer.getUniqueId(), hist);
+                main.getConversationManager().getChatHistoryStore().recordMessage(playerViewer.getUniqueId(), adventureComponent);
             }
         }
 
@@ -1258,7 +1352,7 @@ public class QuestEvents implements Listener {
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
+            questPlayer.queueObjectiveCheck(ShearSheepObjective.class, activeObjective -> {
                 if (activeObjective.getObjective() instanceof final ShearSheepObjective shearSheepObjective) {
                     activeObjective.addProgress(1);
                     if(shearSheepObjective.isCancelShearing()){
@@ -0,0 +1,116 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.events;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityRegainHealthEvent;
+import org.bukkit.event.player.PlayerBedEnterEvent;
+import org.bukkit.event.player.PlayerBedLeaveEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerGameModeChangeEvent;
+import org.bukkit.event.player.PlayerLevelChangeEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerToggleFlightEvent;
+import org.bukkit.event.player.PlayerToggleSneakEvent;
+import org.bukkit.event.player.PlayerToggleSprintEvent;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Publishes changes of player variables to the VariableChangeBus, so condition and variable objectives which depend
+ * on them don't have to be checked periodically. Most of these events are called before the value changes, which is
+ * why the changes are only published in the next tick.
+ */
+public class VariableChangeEvents implements Listener {
+    private final NotQuests main;
+
+    public VariableChangeEvents(final NotQuests main) {
+        this.main = main;
+    }
+
+    private void publish(final Player player, final String... variableTypes) {
+        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        if (questPlayer != null) {
+            main.getVariableChangeBus().publishNextTick(questPlayer, variableTypes);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onDamage(final EntityDamageEvent event) {
+        if (event.getEntity() instanceof final Player player) {
+            publish(player, "Health");
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onRegainHealth(final EntityRegainHealthEvent event) {
+        if (event.getEntity() instanceof final Player player) {
+            publish(player, "Health");
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onRespawn(final PlayerRespawnEvent event) {
+        publish(event.getPlayer(), "Health", "CurrentWorld");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onLevelChange(final PlayerLevelChangeEvent event) {
+        publish(event.getPlayer(), "ExperienceLevel");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onChangedWorld(final PlayerChangedWorldEvent event) {
+        publish(event.getPlayer(), "CurrentWorld");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onGameModeChange(final PlayerGameModeChangeEvent event) {
+        publish(event.getPlayer(), "GameMode");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onToggleSneak(final PlayerToggleSneakEvent event) {
+        publish(event.getPlayer(), "Sneaking");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onToggleSprint(final PlayerToggleSprintEvent event) {
+        publish(event.getPlayer(), "Sprinting");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onToggleFlight(final PlayerToggleFlightEvent event) {
+        publish(event.getPlayer(), "Flying");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onBedEnter(final PlayerBedEnterEvent event) {
+        publish(event.getPlayer(), "Sleeping");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onBedLeave(final PlayerBedLeaveEvent event) {
+        publish(event.getPlayer(), "Sleeping");
+    }
+}
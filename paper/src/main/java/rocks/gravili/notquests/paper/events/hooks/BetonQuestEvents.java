@@ -40,7 +40,7 @@ public class BetonQuestEvents implements Listener {
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(BetonQuestObjectiveStateChangeObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final BetonQuestObjectiveStateChangeObjective betonQuestObjectiveStateChangeObjective) {
                 if (activeObjective.isUnlocked()) {
                     if(e.getState() == betonQuestObjectiveStateChangeObjective.getObjectiveState()){
@@ -146,7 +146,7 @@ public class CitizensEvents implements Listener {
         final AtomicBoolean handledObjective = new AtomicBoolean(false);
         questPlayer.sendDebugMessage("Right-clicked NPC event: " + npc.getId() + "." );
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(DeliverItemsObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final DeliverItemsObjective deliverItemsObjective) {
                 if (nqNPC.equals(deliverItemsObjective.getRecipientNPC())) {
                     for (final ItemStack itemStack : player.getInventory().getContents()) {
@@ -195,7 +195,7 @@ public class CitizensEvents implements Listener {
                 }
             }
         });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(TalkToNPCObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final TalkToNPCObjective talkToNPCObjective) {
                 if (nqNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
                     activeObjective.addProgress(1, nqNPC);
@@ -210,7 +210,7 @@ public class CitizensEvents implements Listener {
                 }
             }
         });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
+        questPlayer.queueObjectiveCheck(EscortNPCObjective.class, activeObjective -> {
             if (activeObjective.getObjective() instanceof final EscortNPCObjective escortNPCObjective) {
                 if (escortNPCObjective.getNpcToEscortToID() == npc.getId()) {
                     final NPC npcToEscort = CitizensAPI.getNPCRegistry().getById(escortNPCObjective.getNpcToEscortID());
@@ -18,7 +18,6 @@
 
 package rocks.gravili.notquests.paper.managers;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import org.bukkit.configuration.ConfigurationSection;
@@ -191,12 +190,8 @@ public class ActionsYMLManager {
   }
 
   public void saveActions(final Category category) {
-    try {
-      category.getActionsConfig().save(category.getActionsFile());
-      main.getLogManager().info("Saved Data to actions.yml");
-    } catch (IOException e) {
-      main.getLogManager().severe("Error saving actions. Actions were not saved...");
-    }
+    category.saveActionsConfig();
+    main.getLogManager().info("Saved Data to actions.yml");
   }
 
   /*public final FileConfiguration getActionsConfig() {
@@ -21,7 +21,6 @@ package rocks.gravili.notquests.paper.managers;
 import java.util.ArrayList;
 import java.util.UUID;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.entity.ArmorStand;
@@ -43,10 +42,6 @@ public class ArmorStandManager {
         attachedQuestsShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
         attachedQuestsNonShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
         attachedConversationKey = new NamespacedKey(main.getMain(), "notquests-attachedConversation");
-
-        if (main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
-            startQuestGiverIndicatorParticleRunnable();
-        }
     }
 
     public final NamespacedKey getAttachedConversationKey() {
@@ -61,6 +56,13 @@ public class ArmorStandManager {
         return attachedQuestsNonShowingKey;
     }
 
+    /**
+     * The quest giver indicators of these armor stands are shown by the QuestGiverIndicatorRenderer
+     */
+    public final ArrayList<ArmorStand> getArmorStandsWithQuestsOrConversationAttachedToThem() {
+        return armorStandsWithQuestsOrConversationAttachedToThem;
+    }
+
     public void addArmorStandWithQuestsOrConversationAttachedToThem(final ArmorStand armorStand) {
         this.armorStandsWithQuestsOrConversationAttachedToThem.add(armorStand);
     }
@@ -98,25 +100,6 @@ public class ArmorStandManager {
     }
 
 
-    public void startQuestGiverIndicatorParticleRunnable() {
-        Bukkit.getServer().getScheduler().runTaskTimerAsynchronously(main.getMain(), () -> {
-
-            //Disable if Server TPS is too low
-            double minimumTPS = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleDisableIfTPSBelow();
-            if (minimumTPS >= 0) {
-                if (main.getPerformanceManager().getTPS() < minimumTPS) {
-                    return;
-                }
-            }
-
-            for (final ArmorStand armorStand : armorStandsWithQuestsOrConversationAttachedToThem) {
-                final Location location = armorStand.getLocation();
-                armorStand.getWorld().spawnParticle(main.getConfiguration().getArmorStandQuestGiverIndicatorParticleType(), location.getX() - 0.25 + (Math.random() / 2), location.getY() + 1.75 + (Math.random() / 2), location.getZ() - 0.25 + (Math.random() / 2), main.getConfiguration().getArmorStandQuestGiverIndicatorParticleCount());
-
-            }
-        }, main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval(), main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval());
-    }
-
     public final String getArmorStandName(final UUID armorStandUUID) {
         if (Bukkit.getEntity(armorStandUUID) instanceof ArmorStand armorStand) {
             return armorStand.getName();
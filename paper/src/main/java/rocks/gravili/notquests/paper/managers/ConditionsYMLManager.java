@@ -18,7 +18,6 @@
 
 package rocks.gravili.notquests.paper.managers;
 
-import java.io.IOException;
 import java.util.HashMap;
 import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
@@ -104,12 +103,8 @@ public class ConditionsYMLManager {
   }
 
   public void saveConditions(final Category category) {
-    try {
-      category.getConditionsConfig().save(category.getConditionsFile());
-      main.getLogManager().info("Saved Data to conditions.yml");
-    } catch (IOException e) {
-      main.getLogManager().severe("Error saving condition. Condition were not saved...");
-    }
+    category.saveConditionsConfig();
+    main.getLogManager().info("Saved Data to conditions.yml");
   }
 
   /*public final FileConfiguration category.getConditionsConfig() {
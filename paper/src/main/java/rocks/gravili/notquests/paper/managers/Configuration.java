@@ -50,6 +50,19 @@ public class Configuration {
   public boolean savePlayerDataOnQuit = true;
   public boolean storageCreateBackupsWhenServerShutsDown = true;
   public boolean storageCreateDatabaseBackupBeforeDatabaseLoads = true;
+  private boolean storageWriteBehindEnabled = true;
+  private int storageWriteBehindFlushIntervalSeconds = 30;
+  private int storageWriteBehindMaxQueueSize = 500;
+  private long storageCategoryConfigSaveDelayMillis = 1000;
+  private boolean storageBulkLoadOnlinePlayersOnly = false;
+  private int storageBulkLoadParallelism = 0;
+  private int mainLoopTickBudgetMicroseconds = 2000;
+  private int mainLoopBeaconUpdateIntervalTicks = 80;
+  private int mainLoopConditionObjectiveUpdateIntervalTicks = 40;
+  private int placeholderResultCacheMilliseconds = 0;
+  private int miniMessageParseCacheMaxEntries = 4096;
+  private int questVisibilityCacheMilliseconds = 5000;
+  private int miniMessageParseCacheMaxCharacters = 1048576;
 
   public String placeholder_player_active_quests_list_horizontal_separator = " | ";
   public int placeholder_player_active_quests_list_horizontal_limit = -1;
@@ -104,6 +117,7 @@ public class Configuration {
   private Particle armorStandQuestGiverIndicatorParticleType = Particle.VILLAGER_ANGRY;
   private boolean armorStandQuestGiverIndicatorParticleEnabled = true;
   private double armorStandQuestGiverIndicatorParticleDisableIfTPSBelow = -1;
+  private int questGiverIndicatorViewDistance = 32;
   private String languageCode = "en";
   // Integrations
   private boolean integrationCitizensEnabled = true;
@@ -425,6 +439,78 @@ public class Configuration {
     this.storageCreateDatabaseBackupBeforeDatabaseLoads = storageCreateDatabaseBackupBeforeDatabaseLoads;
   }
 
+  public boolean isStorageWriteBehindEnabled() {
+    return storageWriteBehindEnabled;
+  }
+
+  public void setStorageWriteBehindEnabled(final boolean storageWriteBehindEnabled) {
+    this.storageWriteBehindEnabled = storageWriteBehindEnabled;
+  }
+
+  public int getStorageWriteBehindFlushIntervalSeconds() {
+    return storageWriteBehindFlushIntervalSeconds;
+  }
+
+  public void setStorageWriteBehindFlushIntervalSeconds(final int storageWriteBehindFlushIntervalSeconds) {
+    this.storageWriteBehindFlushIntervalSeconds = storageWriteBehindFlushIntervalSeconds;
+  }
+
+  public int getStorageWriteBehindMaxQueueSize() {
+    return storageWriteBehindMaxQueueSize;
+  }
+
+  public void setStorageWriteBehindMaxQueueSize(final int storageWriteBehindMaxQueueSize) {
+    this.storageWriteBehindMaxQueueSize = storageWriteBehindMaxQueueSize;
+  }
+
+  public long getStorageCategoryConfigSaveDelayMillis() {
+    return storageCategoryConfigSaveDelayMillis;
+  }
+
+  public void setStorageCategoryConfigSaveDelayMillis(final long storageCategoryConfigSaveDelayMillis) {
+    this.storageCategoryConfigSaveDelayMillis = storageCategoryConfigSaveDelayMillis;
+  }
+
+  public boolean isStorageBulkLoadOnlinePlayersOnly() {
+    return storageBulkLoadOnlinePlayersOnly;
+  }
+
+  public void setStorageBulkLoadOnlinePlayersOnly(final boolean storageBulkLoadOnlinePlayersOnly) {
+    this.storageBulkLoadOnlinePlayersOnly = storageBulkLoadOnlinePlayersOnly;
+  }
+
+  public int getStorageBulkLoadParallelism() {
+    return storageBulkLoadParallelism;
+  }
+
+  public void setStorageBulkLoadParallelism(final int storageBulkLoadParallelism) {
+    this.storageBulkLoadParallelism = storageBulkLoadParallelism;
+  }
+
+  public int getMainLoopTickBudgetMicroseconds() {
+    return mainLoopTickBudgetMicroseconds;
+  }
+
+  public void setMainLoopTickBudgetMicroseconds(final int mainLoopTickBudgetMicroseconds) {
+    this.mainLoopTickBudgetMicroseconds = mainLoopTickBudgetMicroseconds;
+  }
+
+  public int getMainLoopBeaconUpdateIntervalTicks() {
+    return mainLoopBeaconUpdateIntervalTicks;
+  }
+
+  public void setMainLoopBeaconUpdateIntervalTicks(final int mainLoopBeaconUpdateIntervalTicks) {
+    this.mainLoopBeaconUpdateIntervalTicks = mainLoopBeaconUpdateIntervalTicks;
+  }
+
+  public int getMainLoopConditionObjectiveUpdateIntervalTicks() {
+    return mainLoopConditionObjectiveUpdateIntervalTicks;
+  }
+
+  public void setMainLoopConditionObjectiveUpdateIntervalTicks(final int mainLoopConditionObjectiveUpdateIntervalTicks) {
+    this.mainLoopConditionObjectiveUpdateIntervalTicks = mainLoopConditionObjectiveUpdateIntervalTicks;
+  }
+
   public String getPlaceholder_player_active_quests_list_horizontal_separator() {
     return placeholder_player_active_quests_list_horizontal_separator;
   }
@@ -475,6 +561,38 @@ public class Configuration {
         placeholder_player_active_quests_list_vertical_use_displayname_if_available;
   }
 
+  public int getQuestVisibilityCacheMilliseconds() {
+    return questVisibilityCacheMilliseconds;
+  }
+
+  public void setQuestVisibilityCacheMilliseconds(final int questVisibilityCacheMilliseconds) {
+    this.questVisibilityCacheMilliseconds = questVisibilityCacheMilliseconds;
+  }
+
+  public int getMiniMessageParseCacheMaxEntries() {
+    return miniMessageParseCacheMaxEntries;
+  }
+
+  public void setMiniMessageParseCacheMaxEntries(final int miniMessageParseCacheMaxEntries) {
+    this.miniMessageParseCacheMaxEntries = miniMessageParseCacheMaxEntries;
+  }
+
+  public int getMiniMessageParseCacheMaxCharacters() {
+    return miniMessageParseCacheMaxCharacters;
+  }
+
+  public void setMiniMessageParseCacheMaxCharacters(final int miniMessageParseCacheMaxCharacters) {
+    this.miniMessageParseCacheMaxCharacters = miniMessageParseCacheMaxCharacters;
+  }
+
+  public int getPlaceholderResultCacheMilliseconds() {
+    return placeholderResultCacheMilliseconds;
+  }
+
+  public void setPlaceholderResultCacheMilliseconds(final int placeholderResultCacheMilliseconds) {
+    this.placeholderResultCacheMilliseconds = placeholderResultCacheMilliseconds;
+  }
+
   public int getMaxActiveQuestsPerPlayer() {
     return maxActiveQuestsPerPlayer;
   }
@@ -674,6 +792,14 @@ public class Configuration {
         armorStandQuestGiverIndicatorParticleDisableIfTPSBelow;
   }
 
+  public int getQuestGiverIndicatorViewDistance() {
+    return questGiverIndicatorViewDistance;
+  }
+
+  public void setQuestGiverIndicatorViewDistance(final int questGiverIndicatorViewDistance) {
+    this.questGiverIndicatorViewDistance = questGiverIndicatorViewDistance;
+  }
+
   public String getLanguageCode() {
     return languageCode;
   }
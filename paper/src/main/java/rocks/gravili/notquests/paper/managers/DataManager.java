@@ -25,9 +25,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -50,6 +48,9 @@ import org.bukkit.inventory.meta.ItemMeta;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.wrappers.ItemStackSelection;
 import rocks.gravili.notquests.paper.managers.data.Category;
+import rocks.gravili.notquests.paper.managers.data.CategoryConfigWriter;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseDialect;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseMigrationRunner;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.actions.Action;
@@ -66,7 +67,6 @@ import rocks.gravili.notquests.paper.structs.objectives.ObjectiveHolder;
  */
 public class DataManager {
 
-    private boolean hasToMigrateQuestPlayerDataTable = false;
 
     /**
      * ArrayList for Command Tab Completions. They will be re-used where possible. This is sort of like a buffer for completions.
@@ -146,6 +146,9 @@ public class DataManager {
     //HikariCP
     private HikariConfig hikariConfig;
     private HikariDataSource hikariDataSource;
+    private DatabaseDialect databaseDialect = DatabaseDialect.SQLITE;
+    private final DatabaseMigrationRunner databaseMigrationRunner;
+    private final CategoryConfigWriter categoryConfigWriter;
 
 
     /**
@@ -167,6 +170,9 @@ public class DataManager {
 
         categories = new ArrayList<>();
         topLevelOnlyCategories = new ArrayList<>();
+
+        databaseMigrationRunner = new DatabaseMigrationRunner(main);
+        categoryConfigWriter = new CategoryConfigWriter(main);
     }
 
     public final boolean isDisabled(){
@@ -607,6 +613,18 @@ public class DataManager {
                 "If this is set to true, player data will be loaded for each player when they join. If this is set to false, the plugin will load ALL player data at once, the moment NotQuests is enabled."
         ));
 
+        configuration.setStorageBulkLoadOnlinePlayersOnly(getGeneralConfigBoolean(
+                "storage.bulk-load.online-players-only",
+                false,
+                "Only used if load-playerdata-on-join is false. If this is set to true, only the data of players who are online is loaded the moment NotQuests is enabled. Everyone else is loaded once they join, or when their data is needed by a command."
+        ));
+
+        configuration.setStorageBulkLoadParallelism(getGeneralConfigInt(
+                "storage.bulk-load.parallelism",
+                0,
+                "Only used if load-playerdata-on-join is false. How many threads group the loaded rows by player profile and quest. 0 uses one thread per CPU core."
+        ));
+
         configuration.setSavePlayerDataOnQuit(getGeneralConfigBoolean(
                 "storage.save-playerdata-on-quit",
                 true,
@@ -625,6 +643,48 @@ public class DataManager {
                 "If this is set to true, your database will be backed-up before it loads. This only works for SQLite databases as of now."
         ));
 
+        configuration.setStorageWriteBehindEnabled(getGeneralConfigBoolean(
+                "storage.write-behind.enabled",
+                true,
+                "If this is set to true, player data changes (quest progress, questpoints, tags etc.) are collected and written to the database periodically in the background, instead of only when the player leaves or the server shuts down."
+        ));
+
+        configuration.setStorageWriteBehindFlushIntervalSeconds(getGeneralConfigInt(
+                "storage.write-behind.flush-interval-seconds",
+                30,
+                "How often (in seconds) the collected player data changes are written to the database."
+        ));
+
+        configuration.setStorageWriteBehindMaxQueueSize(getGeneralConfigInt(
+                "storage.write-behind.max-queue-size",
+                500,
+                "The maximum amount of players with unsaved changes. Once reached, their changes are written right away instead of waiting for the next interval."
+        ));
+
+        configuration.setStorageCategoryConfigSaveDelayMillis(getGeneralConfigInt(
+                "storage.category-configs.save-delay-ms",
+                1000,
+                "Changes to the quests.yml, actions.yml, conditions.yml etc. of your categories are collected for this long (in milliseconds) and then written in the background all at once. Set to 0 to write every change right away."
+        ));
+
+        configuration.setMainLoopTickBudgetMicroseconds(getGeneralConfigInt(
+                "general.main-loop.tick-budget-microseconds",
+                2000,
+                "The maximum time (in microseconds) NotQuests spends per tick on periodic player work like boss bar timers, beacons and condition objectives. Work which doesn't fit is continued in the next tick. Set to 0 for no limit."
+        ));
+
+        configuration.setMainLoopBeaconUpdateIntervalTicks(getGeneralConfigInt(
+                "general.main-loop.beacon-update-interval-ticks",
+                80,
+                "How often (in ticks) the beacons of each player are updated. Players are spread evenly over this interval."
+        ));
+
+        configuration.setMainLoopConditionObjectiveUpdateIntervalTicks(getGeneralConfigInt(
+                "general.main-loop.condition-objective-update-interval-ticks",
+                40,
+                "How often (in ticks) the Condition and NumberVariable objectives of each player are checked. Players are spread evenly over this interval."
+        ));
+
         configuration.setMaxActiveQuestsPerPlayer(getGeneralConfigInt(
                 "general.max-active-quests-per-player",
                 -1,
@@ -731,6 +791,12 @@ public class DataManager {
                 -1d
         ));
 
+        configuration.setQuestGiverIndicatorViewDistance(getGeneralConfigInt(
+                "visual.quest-giver-indicator-view-distance",
+                32,
+                "Quest giver indicator particles and texts (Citizens NPCs and Armor Stands) are only sent to players within this distance (in blocks) of the quest giver"
+        ));
+
         //Visual Colors
 
         //Console colors
@@ -800,6 +866,17 @@ public class DataManager {
             "visual.colors.console.debug.default.downsampled",
             "<dark_gray>"
         ));
+        configuration.setMiniMessageParseCacheMaxEntries(getGeneralConfigInt(
+                "visual.minimessage.parse-cache.max-entries",
+                4096,
+                "How many parsed messages are cached, so the same message doesn't have to be parsed again every time. Set to 0 to disable the cache."
+        ));
+        configuration.setMiniMessageParseCacheMaxCharacters(getGeneralConfigInt(
+                "visual.minimessage.parse-cache.max-characters",
+                1048576,
+                "The maximum total length of all cached messages."
+        ));
+
         //CustomTags
         configuration.setColorsMain(getGeneralConfigStringList(
                 "visual.colors.tags.main",
@@ -907,6 +984,11 @@ public class DataManager {
                 "gui.quest-visibility-evaluations.conditions.enabled",
                 false
         ));
+        configuration.setQuestVisibilityCacheMilliseconds(getGeneralConfigInt(
+                "gui.quest-visibility-evaluations.cache-milliseconds",
+                5000,
+                "For how long the result of the evaluations above is re-used per player and quest. It's evaluated again right away if the player's quests, tags or quest points change. Set to 0 to evaluate it every time."
+        ));
 
         configuration.setQuestPreviewUseGUI(getGeneralConfigBoolean(
                 "gui.questpreview.enabled",
@@ -1023,6 +1105,12 @@ public class DataManager {
                 true
         ));
 
+        configuration.setPlaceholderResultCacheMilliseconds(getGeneralConfigInt(
+                "placeholders.result-cache-milliseconds",
+                0,
+                "For how long the values of expression and variable placeholders are kept per player, instead of calculating them for every request. 0 disables it."
+        ));
+
 
         configuration.setIntegrationCitizensEnabled(getGeneralConfigBoolean(
                 "integrations.citizens.enabled",
@@ -1236,11 +1324,6 @@ public class DataManager {
                 "Do not modify this line. If you modify it, there is a chance of completely breaking automatic configuration updates."
         ));
 
-        //Do potential data updating here
-        if(main.getConfiguration().getConfigurationVersionMajor() < 5 || (main.getConfiguration().getConfigurationVersionMajor() == 5 && main.getConfiguration().getConfigurationVersionMinor() < 8)){
-            hasToMigrateQuestPlayerDataTable = true;
-        }
-
         /////
         //Now update config version value, assuming everything is updated
         if (!getGeneralConfig().isString("config-version-do-not-edit") ||
@@ -1258,6 +1341,12 @@ public class DataManager {
         }
 
 
+        //The tag colors might have changed
+        main.getMessageManager().getParseCache().clear();
+        if (main.getGuiManager() != null) {
+            main.getGuiManager().clearCaches();
+        }
+
         //If there was an error loading data from general.yml, the plugin will be disabled
         if (errored) {
             disablePluginAndSaving("Please specify your database information");
@@ -1491,6 +1580,8 @@ public class DataManager {
      */
     public void reloadData(final boolean firstLoad) {
         if(isLoadingEnabled()){
+            //Changes which haven't been written yet would otherwise be lost, as the category configs are loaded from their files again
+            categoryConfigWriter.flushAndWait();
 
             main.getLogManager().debug("Triggered loadLanguageConfig() from DataManager.reloadData()");
             main.getLanguageManager().loadLanguageConfig(firstLoad);
@@ -1505,70 +1596,30 @@ public class DataManager {
                 Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
                     reloadDataInternal();
                     currentlyLoading = false;
+                    clearCachesOfReloadedData();
+                    main.getQuestEvents().scheduleGatedListenersUpdate(); //general.enable-move-event might have changed
                 });
             } else { //If this is already an asynchronous thread, this else{ thingy does not try to create a new asynchronous thread for better performance. The contents of this else section is identical.2
                 reloadDataInternal();
                 currentlyLoading = false;
+                clearCachesOfReloadedData();
+                main.getQuestEvents().scheduleGatedListenersUpdate(); //general.enable-move-event might have changed
             }
         } else {
             main.getLogManager().severe("Data loading has been skipped, because it has been disabled. This might be caused because of an error during plugin startup earlier.");
         }
     }
 
-    private void migrationAddProfileColumns(final Statement statement, final String query){
-        if (main.getConfiguration().isVerboseStartupMessages()) {
-            main.getLogManager().info(LogCategory.DATA, "Adding 'Profile' column to database tables if it the table exists but the column doesn't exist yet...");
-        }
-
-        try{
-            statement.executeUpdate(query);
-        }catch (Exception ignored){
-        }
-    }
-
-    private void migrateActiveObjectivesTable(final Statement statement) throws SQLException {
-        boolean seemsIAlreadyMigrated = false;
-        try{
-            statement.executeUpdate("""
-                ALTER TABLE `ActiveObjectives` ADD COLUMN `ProgressNeeded` DOUBLE
-            """);
-        }catch (Exception ignored){
-            seemsIAlreadyMigrated = true;
-        }
-
-        if(!seemsIAlreadyMigrated){
-            main.getLogManager().info(LogCategory.DATA, "Making the 'CurrentProgress' column of 'ActiveObjectives' of datatype double (from BigInt) by recreating it..");
-            statement.executeUpdate("""
-                ALTER TABLE ActiveObjectives RENAME TO ActiveObjectivesOld
-            """);
-            statement.executeUpdate("""
-                CREATE TABLE `ActiveObjectives` (`ObjectiveType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` DOUBLE, `ObjectiveID` INT(255), `HasBeenCompleted` BOOLEAN, `ProgressNeeded` DOUBLE, `Profile` varchar(200))
-            """);
-            statement.executeUpdate("""
-                INSERT INTO ActiveObjectives (ObjectiveType,QuestName,PlayerUUID,CurrentProgress,ObjectiveID,HasBeenCompleted,ProgressNeeded,Profile) SELECT ObjectiveType,QuestName,PlayerUUID,CurrentProgress,ObjectiveID,HasBeenCompleted,ProgressNeeded FROM ActiveObjectivesOld
-            """);
-            statement.executeUpdate("""
-                DROP TABLE ActiveObjectivesOld
-            """);
+    /**
+     * Compiled placeholders and cached quest visibilities refer to quests and variables, which have just been reloaded.
+     */
+    private void clearCachesOfReloadedData() {
+        main.getQuestManager().invalidateAllQuestVisibilities();
+        if (main.getIntegrationsManager().getQuestPlaceholders() != null) {
+            main.getIntegrationsManager().getQuestPlaceholders().clearCache();
         }
     }
 
-    private void migrateQuestPlayerDataTable(final Statement statement) throws SQLException { //for < v5.8.0 cuz primary key way removed
-        main.getLogManager().info(LogCategory.DATA, "Migrating QuestPlayerData from versions <5.8.0");
-        statement.executeUpdate("""
-                ALTER TABLE QuestPlayerData RENAME TO QuestPlayerDataOld
-            """);
-        statement.executeUpdate("""
-                CREATE TABLE `QuestPlayerData` (`PlayerUUID` varchar(200), `QuestPoints` BIGINT(255), `Profile` varchar(200))
-            """);
-        statement.executeUpdate("""
-                INSERT INTO QuestPlayerData (PlayerUUID,QuestPoints,Profile) SELECT PlayerUUID,QuestPoints,Profile FROM QuestPlayerDataOld
-            """);
-        statement.executeUpdate("""
-                DROP TABLE QuestPlayerDataOld
-            """);
-    }
-
     private void reloadDataInternal() {
         openConnection();
 
@@ -1579,93 +1630,9 @@ public class DataManager {
 
 
 
-        //Create Database tables if they don't exist yet
-        try (final Connection connection = getConnection();
-             final Statement statement = connection.createStatement();
-
-             final PreparedStatement createQuestPlayerProfileDataTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `QuestPlayerProfileData` (`PlayerUUID` varchar(200), `CurrentProfile` varchar(200), PRIMARY KEY (PlayerUUID))
-             """);
-
-             final PreparedStatement createQuestPlayerDataTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `QuestPlayerData` (`PlayerUUID` varchar(200), `QuestPoints` BIGINT(255), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createActiveQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `ActiveQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createCompletedQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `CompletedQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `TimeCompleted` BIGINT(255), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createActiveTriggersTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `ActiveTriggers` (`TriggerType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` BIGINT(255), `TriggerID` INT(255), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createTagsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `Tags` (`PlayerUUID` varchar(200), `TagIdentifier` varchar(200), `TagValue` varchar(200), `TagType` varchar(200), `Profile` varchar(200) )
-             """)
-
-        ) {
-
-
-            //Migrations
-            migrationAddProfileColumns(statement, "ALTER TABLE QuestPlayerData ADD COLUMN `Profile` VARCHAR NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE ActiveQuests ADD COLUMN `Profile` VARCHAR NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE CompletedQuests ADD COLUMN `Profile` VARCHAR NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE ActiveObjectives ADD COLUMN `Profile` VARCHAR NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE ActiveTriggers ADD COLUMN `Profile` VARCHAR NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE Tags ADD COLUMN `Profile` VARCHAR NOT NULL DEFAULT 'default'");
-
-            if(hasToMigrateQuestPlayerDataTable){
-                migrateQuestPlayerDataTable(statement);
-            }
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'QuestPlayerProfileData' if it doesn't exist yet...");
-            }
-            createQuestPlayerProfileDataTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'QuestPlayerData' if it doesn't exist yet...");
-            }
-            createQuestPlayerDataTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveQuests' if it doesn't exist yet...");
-            }
-            createActiveQuestsTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'CompletedQuests' if it doesn't exist yet...");
-            }
-            createCompletedQuestsTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Adding 'ProgressNeeded' column to 'ActiveObjectives' if it the table exists but the column doesn't exist yet...");
-            }
-
-            migrateActiveObjectivesTable(statement);
-
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveObjectives' if it doesn't exist yet...");
-            }
-            statement.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS `ActiveObjectives` (`ObjectiveType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` DOUBLE, `ObjectiveID` INT(255), `HasBeenCompleted` BOOLEAN, `ProgressNeeded` DOUBLE, `Profile` varchar(200))
-            """);
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveTriggers' if it doesn't exist yet...");
-            }
-            createActiveTriggersTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'Tags' if it doesn't exist yet...");
-            }
-            createTagsTablePreparedStatement.executeUpdate();
-
+        //Create the database tables if they don't exist yet and migrate them to the latest schema version
+        try (final Connection connection = getConnection()) {
+            databaseMigrationRunner.migrate(connection, getDatabaseDialect());
         } catch (final SQLException e) {
             disablePluginAndSaving("Plugin disabled, because there was an error while trying to load MySQL database tables", e);
             return;
@@ -2034,10 +2001,13 @@ public class DataManager {
             }
 
             hikariConfig.setJdbcUrl("jdbc:sqlite:" +  dataFolder);
+            databaseDialect = DatabaseDialect.SQLITE;
         }else{
             hikariConfig.setJdbcUrl("jdbc:mysql://" +  configuration.getDatabaseHost() + ":" + configuration.getDatabasePort() + "/" + configuration.getDatabaseName());
             hikariConfig.setUsername(configuration.getDatabaseUsername());
             hikariConfig.setPassword(configuration.getDatabasePassword());
+            hikariConfig.addDataSourceProperty("useCursorFetch", "true"); //Lets queries with a fetch size stream their rows instead of buffering the whole result
+            databaseDialect = DatabaseDialect.MYSQL;
         }
         hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
         hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
@@ -2051,6 +2021,21 @@ public class DataManager {
         return hikariDataSource.getConnection();
     }
 
+    /**
+     * @return the SQL dialect of the database NotQuests is connected to
+     */
+    public final DatabaseDialect getDatabaseDialect() {
+        return databaseDialect;
+    }
+
+    public final DatabaseMigrationRunner getDatabaseMigrationRunner() {
+        return databaseMigrationRunner;
+    }
+
+    public final CategoryConfigWriter getCategoryConfigWriter() {
+        return categoryConfigWriter;
+    }
+
     public void closeDatabaseConnection() {
         main.getLogManager().info("Closing database connection...");
         if(hikariDataSource != null){
@@ -22,8 +22,8 @@ import com.destroystokyo.paper.profile.PlayerProfile;
 import com.destroystokyo.paper.profile.ProfileProperty;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Bukkit;
@@ -66,6 +66,17 @@ public class GUIManager {
       abortQuestInterface,
       questProgressInterface,
       selectiveTakeQuestsInterface;
+  /**
+   * The main interfaces with the take quest, abort quest and active quests panes, by their title. They only depend on
+   * the language config, so they're built once instead of every time they're opened.
+   */
+  private final ConcurrentHashMap<Component, ChestInterface> mainInterfaces = new ConcurrentHashMap<>();
+  /**
+   * The quest items of the take quest pane. They're only cached if the player doesn't use PlaceholderAPI placeholders,
+   * and cleared whenever a quest is modified.
+   */
+  private final ConcurrentHashMap<QuestPreviewItemKey, ItemStack> questPreviewItems = new ConcurrentHashMap<>();
+  private volatile int questPreviewItemsQuestsVersion = -1;
 
   public GUIManager(final NotQuests main) {
     this.main = main;
@@ -245,7 +256,7 @@ public class GUIManager {
             .with(ArgumentKey.of("questPlayer", QuestPlayer.class), questPlayer)
             .with(ArgumentKey.of("paneType", String.class), "takequest")
             .build();
-    constructMainInterface(
+    getMainInterface(
             main.getLanguageManager().getComponent("gui.takeQuestChoose.title", null))
         .open(PlayerViewer.of(questPlayer.getPlayer()), arguments);
   }
@@ -262,7 +273,7 @@ public class GUIManager {
             .with(ArgumentKey.of("paneType", String.class), "takequest")
             .with(ArgumentKey.of("category", Category.class), category)
             .build();
-    constructMainInterface(
+    getMainInterface(
         main.getLanguageManager().getComponent("gui.takeQuestChoose.title", null))
         .open(PlayerViewer.of(questPlayer.getPlayer()), arguments);
   }
@@ -278,7 +289,7 @@ public class GUIManager {
             .with(ArgumentKey.of("questPlayer", QuestPlayer.class), questPlayer)
             .with(ArgumentKey.of("paneType", String.class), "activequests")
             .build();
-    constructMainInterface(main.getLanguageManager().getComponent("gui.activeQuests.title", null))
+    getMainInterface(main.getLanguageManager().getComponent("gui.activeQuests.title", null))
         .open(PlayerViewer.of(questPlayer.getPlayer()), arguments);
   }
 
@@ -293,7 +304,7 @@ public class GUIManager {
             .with(ArgumentKey.of("questPlayer", QuestPlayer.class), questPlayer)
             .with(ArgumentKey.of("paneType", String.class), "abortquest")
             .build();
-    constructMainInterface(
+    getMainInterface(
             main.getLanguageManager().getComponent("gui.abortQuestChoose.title", null))
         .open(PlayerViewer.of(questPlayer.getPlayer()), arguments);
   }
@@ -1004,6 +1015,24 @@ public class GUIManager {
             .build();
   }
 
+  /**
+   * @return the main interface with this title, which is only built the first time it's needed
+   */
+  public final ChestInterface getMainInterface(final Component title) {
+    return mainInterfaces.computeIfAbsent(title, this::constructMainInterface);
+  }
+
+  /**
+   * Clears everything built from the language config and the general config. Called after either of them has been
+   * reloaded.
+   */
+  public void clearCaches() {
+    mainInterfaces.clear();
+    questPreviewItems.clear();
+    mainInterface =
+        constructMainInterface(main.getLanguageManager().getComponent("gui.main.title", null));
+  }
+
   public final ChestInterface constructMainInterface(final Component title) {
     final ItemStack separatorItemStack1 = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
     final ItemMeta separatorItemStack1Meta = separatorItemStack1.getItemMeta();
@@ -1030,14 +1059,29 @@ public class GUIManager {
     }
 
 
+    // The background layout is only read once. The main interfaces are built again when the language config is reloaded
+    final ArrayList<BackgroundElement> backgroundElements = new ArrayList<>();
     final ConfigurationSection mainBackgroundConfigurationSection =
         main.getLanguageManager()
             .getLanguageConfig()
             .getConfigurationSection("gui.main.background");
-    final Set<String> keys =
-        mainBackgroundConfigurationSection != null
-            ? mainBackgroundConfigurationSection.getKeys(false)
-            : null;
+    if (mainBackgroundConfigurationSection != null) {
+      int counter = 0;
+      for (final String backgroundID : mainBackgroundConfigurationSection.getKeys(false)) {
+        counter++; // TODO: make this clean and let them actually customize the block
+        final ItemStackElement<ChestPane> backgroundElement =
+            ItemStackElement.of(counter == 3 ? separatorItemStack2 : separatorItemStack1);
+        final int xStart = mainBackgroundConfigurationSection.getInt(backgroundID + ".minX", -1);
+        final int xEnd = mainBackgroundConfigurationSection.getInt(backgroundID + ".maxX", -1);
+        final int yStart = mainBackgroundConfigurationSection.getInt(backgroundID + ".minY", -1);
+        final int yEnd = mainBackgroundConfigurationSection.getInt(backgroundID + ".maxY", -1);
+        for (int x = xStart; x <= xEnd; x++) {
+          for (int y = yStart; y <= yEnd; y++) {
+            backgroundElements.add(new BackgroundElement(backgroundElement, x, y));
+          }
+        }
+      }
+    }
 
     return ChestInterface.builder()
         // This interface will have one row.
@@ -1051,28 +1095,10 @@ public class GUIManager {
         .addTransform(
             (pane, view) -> {
               ChestPane result = pane;
-              if (mainBackgroundConfigurationSection != null) {
-                int counter = 0;
-                for (final String backgroundID : keys) { // TODO: Improve performance
-                  counter++; // TODO: make this clean and let them actually customize the block
-                  final int xStart =
-                      mainBackgroundConfigurationSection.getInt(backgroundID + ".minX", -1);
-                  final int xEnd =
-                      mainBackgroundConfigurationSection.getInt(backgroundID + ".maxX", -1);
-                  final int yStart =
-                      mainBackgroundConfigurationSection.getInt(backgroundID + ".minY", -1);
-                  final int yEnd =
-                      mainBackgroundConfigurationSection.getInt(backgroundID + ".maxY", -1);
-                  for (int x = xStart; x <= xEnd; x++) {
-                    for (int y = yStart; y <= yEnd; y++) {
-                      if (counter == 3) {
-                        result = result.element(ItemStackElement.of(separatorItemStack2), x, y);
-                      } else {
-                        result = result.element(ItemStackElement.of(separatorItemStack1), x, y);
-                      }
-                    }
-                  }
-                }
+              for (final BackgroundElement backgroundElement : backgroundElements) {
+                result =
+                    result.element(
+                        backgroundElement.element(), backgroundElement.x(), backgroundElement.y());
               }
 
               return result;
@@ -1309,7 +1335,7 @@ public class GUIManager {
                                   .with(ArgumentKey.of("paneType", String.class), "takequest")
                                   .with(ArgumentKey.of("category", Category.class), category)
                                   .build();
-                          constructMainInterface(
+                          getMainInterface(
                                   main.getLanguageManager()
                                       .getComponent("gui.takeQuestChoose.title", null))
                               .open(clickHandler.viewer(), arguments);
@@ -1350,68 +1376,11 @@ public class GUIManager {
                         .getCategory()
                         .getCategoryFullName()
                         .equalsIgnoreCase(category.getCategoryFullName())) {
-                  final ItemStack materialToUse = quest.getTakeItem();
-
-                  ItemStack itemStack = new ItemStack(materialToUse);
-                  ItemMeta itemMeta = itemStack.getItemMeta();
-
+                  final ItemStack itemStack =
+                      getQuestPreviewItem(
+                          player, questPlayer != null && questPlayer.hasAcceptedQuest(quest), quest);
                   itemStack.setAmount(count);
 
-                  List<String> loreStringList =
-                      main.getLanguageManager()
-                          .getStringList(
-                              "gui.takeQuestChoose.button.questPreview.lore", player, quest);
-                  List<Component> lore = new ArrayList<>();
-
-                  for (String loreString : loreStringList) {
-                    // main.getLogManager().info("Found line: " + loreString);
-
-                    if (loreString.contains("%WRAPPEDQUESTDESCRIPTION%")) {
-                      if (!quest.getObjectiveHolderDescription().isBlank()) {
-                        int counter = 0;
-                        for (String questDescriptionLine :
-                            quest.getQuestDescriptionList(
-                                main.getConfiguration().guiQuestDescriptionMaxLineLength)) {
-                          // main.getLogManager().info("Found d line: " + questDescriptionLine);
-                          counter++;
-                          lore.add(
-                              main.parse(
-                                      loreString.replace("%WRAPPEDQUESTDESCRIPTION%", "")
-                                          + questDescriptionLine)
-                                  .decoration(TextDecoration.ITALIC, false));
-                        }
-                      }
-                    } else {
-                      lore.add(main.parse(loreString).decoration(TextDecoration.ITALIC, false));
-                    }
-                  }
-
-                  /*if (!quest.getQuestDescription().isBlank()) {
-                      description = main.getLanguageManager().getString("gui.takeQuestChoose.button.questPreview.lore", player, quest)
-                              + quest.getQuestDescription(main.getConfiguration().guiQuestDescriptionMaxLineLength
-                      );
-                  }*/
-
-                  if (questPlayer != null && questPlayer.hasAcceptedQuest(quest)) {
-                    itemMeta.displayName(
-                        main.getLanguageManager()
-                            .getComponent(
-                                "gui.takeQuestChoose.button.questPreview.name-if-accepted",
-                                player,
-                                quest));
-                  } else {
-                    itemMeta.displayName(
-                        main.getLanguageManager()
-                            .getComponent(
-                                "gui.takeQuestChoose.button.questPreview.name-if-not-accepted",
-                                player,
-                                quest));
-                  }
-
-                  itemMeta.lore(lore);
-
-                  itemStack.setItemMeta(itemMeta);
-
                   add(
                       ItemStackElement.of(
                           itemStack,
@@ -1440,6 +1409,65 @@ public class GUIManager {
     return pane;
   }
 
+  /**
+   * @return a copy of the item which shows the quest in the take quest pane. It's rendered only once per quest and
+   * accepted state, unless PlaceholderAPI placeholders have to be applied for the player.
+   */
+  private ItemStack getQuestPreviewItem(final Player player, final boolean accepted, final Quest quest) {
+    if (main.getLanguageManager().usesPlaceholderAPI(player)) {
+      return renderQuestPreviewItem(player, accepted, quest);
+    }
+    final int questsVersion = main.getQuestManager().getQuestsVersion();
+    if (questPreviewItemsQuestsVersion != questsVersion) {
+      questPreviewItems.clear();
+      questPreviewItemsQuestsVersion = questsVersion;
+    }
+    return questPreviewItems
+        .computeIfAbsent(
+            new QuestPreviewItemKey(quest, accepted),
+            key -> renderQuestPreviewItem(player, accepted, quest))
+        .clone();
+  }
+
+  private ItemStack renderQuestPreviewItem(final Player player, final boolean accepted, final Quest quest) {
+    final ItemStack itemStack = new ItemStack(quest.getTakeItem());
+    final ItemMeta itemMeta = itemStack.getItemMeta();
+
+    final List<String> loreStringList =
+        main.getLanguageManager()
+            .getStringList("gui.takeQuestChoose.button.questPreview.lore", player, quest);
+    final List<Component> lore = new ArrayList<>();
+
+    for (final String loreString : loreStringList) {
+      if (loreString.contains("%WRAPPEDQUESTDESCRIPTION%")) {
+        if (!quest.getObjectiveHolderDescription().isBlank()) {
+          for (final String questDescriptionLine :
+              quest.getQuestDescriptionList(
+                  main.getConfiguration().guiQuestDescriptionMaxLineLength)) {
+            lore.add(
+                main.parse(loreString.replace("%WRAPPEDQUESTDESCRIPTION%", "") + questDescriptionLine)
+                    .decoration(TextDecoration.ITALIC, false));
+          }
+        }
+      } else {
+        lore.add(main.parse(loreString).decoration(TextDecoration.ITALIC, false));
+      }
+    }
+
+    itemMeta.displayName(
+        main.getLanguageManager()
+            .getComponent(
+                accepted
+                    ? "gui.takeQuestChoose.button.questPreview.name-if-accepted"
+                    : "gui.takeQuestChoose.button.questPreview.name-if-not-accepted",
+                player,
+                quest));
+    itemMeta.lore(lore);
+
+    itemStack.setItemMeta(itemMeta);
+    return itemStack;
+  }
+
   public ChestPane getAbortQuestPane(ChestPane pane, InterfaceView<ChestPane, PlayerViewer> view) {
     final Player player = view.arguments().get(ArgumentKey.of("player", Player.class));
 
@@ -1501,4 +1529,8 @@ public class GUIManager {
     }
     return pane;
   }
+
+  private record BackgroundElement(ItemStackElement<ChestPane> element, int x, int y) {}
+
+  private record QuestPreviewItemKey(Quest quest, boolean accepted) {}
 }
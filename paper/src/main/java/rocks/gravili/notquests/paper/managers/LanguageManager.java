@@ -34,7 +34,6 @@ import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.structs.*;
 import rocks.gravili.notquests.paper.structs.objectives.Objective;
 import rocks.gravili.notquests.paper.structs.objectives.ObjectiveHolder;
-import rocks.gravili.notquests.paper.structs.triggers.Trigger;
 
 import java.io.*;
 import java.util.*;
@@ -58,6 +57,10 @@ public class LanguageManager {
     private FileConfiguration languageConfig;
     private String currentLanguage = "en";
     private FileConfiguration defaultLanguageConfig = null;
+    /**
+     * All string values of the language config, compiled into templates whenever it's loaded
+     */
+    private volatile Map<String, LanguageTemplate> languageTemplates = Map.of();
 
 
 
@@ -262,6 +265,39 @@ public class LanguageManager {
 
         currentLanguage = languageCode;
 
+        compileLanguageTemplates();
+    }
+
+    private void compileLanguageTemplates() {
+        final HashMap<String, LanguageTemplate> compiledLanguageTemplates = new HashMap<>();
+        for (final String languageString : languageConfig.getKeys(true)) {
+            if (languageConfig.isString(languageString)) {
+                final String translatedString = languageConfig.getString(languageString);
+                if (translatedString != null) {
+                    compiledLanguageTemplates.put(languageString, new LanguageTemplate(main, translatedString));
+                }
+            }
+        }
+        languageTemplates = compiledLanguageTemplates;
+        main.getMessageManager().getParseCache().clear();
+        if (main.getGuiManager() != null) {
+            main.getGuiManager().clearCaches();
+        }
+        main.getLogManager().debug("Compiled <highlight>%s</highlight> language strings.", compiledLanguageTemplates.size());
+    }
+
+    /**
+     * @return the compiled language string, or null if there is no string with that key
+     */
+    public final @Nullable LanguageTemplate getLanguageTemplate(final String languageString) {
+        if (languageConfig == null) {
+            getLanguageConfig();
+        }
+        return languageTemplates.get(languageString);
+    }
+
+    final boolean usesPlaceholderAPI(@Nullable final Player targetPlayer) {
+        return main.getConfiguration().supportPlaceholderAPIInTranslationStrings && main.getIntegrationsManager().isPlaceholderAPIEnabled() && targetPlayer != null;
     }
 
     public boolean setupDefaultStrings() {
@@ -313,6 +349,10 @@ public class LanguageManager {
     }
 
     public final Component getComponent(final String languageString, final Player targetPlayer, Object... internalPlaceholderObjects){
+        final LanguageTemplate languageTemplate = getLanguageTemplate(languageString);
+        if (languageTemplate != null && !usesPlaceholderAPI(targetPlayer) && languageTemplate.isStatic(internalPlaceholderObjects)) {
+            return languageTemplate.getStaticComponent();
+        }
         return main.parse(getString(languageString, targetPlayer, internalPlaceholderObjects)).decoration(TextDecoration.ITALIC, false);
     }
 
@@ -367,18 +407,14 @@ public class LanguageManager {
     }
 
     public final String getString(final String languageString, @Nullable final Player targetPlayer, @Nullable Object... internalPlaceholderObjects) {
-        if (!getLanguageConfig().isString(languageString)) {
+        final LanguageTemplate languageTemplate = getLanguageTemplate(languageString);
+        if (languageTemplate == null) {
             return "Language string not found: " + languageString;
+        }
+        if (!usesPlaceholderAPI(targetPlayer)) {
+            return languageTemplate.render(targetPlayer, internalPlaceholderObjects); //Removed applyColor( for minimessage support
         } else {
-            final String translatedString = getLanguageConfig().getString(languageString);
-            if (translatedString == null) {
-                return "Language string not found: " + languageString;
-            }
-            if (!main.getConfiguration().supportPlaceholderAPIInTranslationStrings || !main.getIntegrationsManager().isPlaceholderAPIEnabled() || targetPlayer == null) {
-                return applySpecial(applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)); //Removed applyColor( for minimessage support
-            } else {
-                return applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)));
-            }
+            return applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, languageTemplate.renderPlaceholders(targetPlayer, internalPlaceholderObjects)));
         }
     }
 
@@ -415,117 +451,149 @@ public class LanguageManager {
         return null;
     }
 
+    /**
+     * Replaces all internal placeholders anywhere in the message. The values are resolved by
+     * resolveInternalPlaceholder(), just like the slots of a LanguageTemplate, so both always give the same result.
+     */
     public final String applyInternalPlaceholders(final String initialMessage, @Nullable final Player player, final @Nullable Object... internalPlaceholderObjects) {
         if (internalPlaceholderObjects == null || internalPlaceholderObjects.length == 0) {
             return initialMessage;
         }
 
         final Map<String, Supplier<String>> internalPlaceholderReplacements = new HashMap<>(); //With this method probably being used simultaneously, we cannot just have 1 HashMap and clear it. It would get cleared while another thing is processing
+        for (final LanguageTemplate.InternalPlaceholder internalPlaceholder : LanguageTemplate.InternalPlaceholder.values()) {
+            addInternalPlaceholderReplacement(internalPlaceholderReplacements, new LanguageTemplate.Slot("%" + internalPlaceholder.name() + "%", internalPlaceholder), player, internalPlaceholderObjects);
+        }
+        //Provided placeholders don't have to look like a slot (%KEY%), so they're replaced wherever they are
+        for (final @Nullable Object internalPlaceholderObject : internalPlaceholderObjects) {
+            if (internalPlaceholderObject instanceof final Map<?, ?> providedInternalPlaceholderReplacements) {
+                for (final Object key : providedInternalPlaceholderReplacements.keySet()) {
+                    if (key instanceof final String keyString && !internalPlaceholderReplacements.containsKey(keyString)) {
+                        addInternalPlaceholderReplacement(internalPlaceholderReplacements, new LanguageTemplate.Slot(keyString, LanguageTemplate.InternalPlaceholder.fromKey(keyString)), player, internalPlaceholderObjects);
+                    }
+                }
+            }
+        }
 
+        return main.getUtilManager().replaceFromMap(initialMessage, internalPlaceholderReplacements);
+    }
 
-        //main.getLogManager().severe("Initial: " + initialMessage);
-
-        //internalPlaceholderReplacements.clear();
-        internalPlaceholderReplacements.put("%QUESTPOINTS%", () -> "0");
-
-        Quest foundQuest = null;
-        QuestPlayer foundQuestPlayer = null;
+    private void addInternalPlaceholderReplacement(final Map<String, Supplier<String>> internalPlaceholderReplacements, final LanguageTemplate.Slot slot, @Nullable final Player player, final Object[] internalPlaceholderObjects) {
+        internalPlaceholderReplacements.put(slot.key(), () -> {
+            final String value = resolveInternalPlaceholder(slot, player, internalPlaceholderObjects);
+            return value != null ? value : slot.key();
+        });
+    }
 
-        for (final @Nullable Object internalPlaceholderObject : internalPlaceholderObjects) {
-            if(internalPlaceholderObject == null){
-                continue;
+    /**
+     * Resolves a single internal placeholder, for LanguageTemplates and applyInternalPlaceholders(). If multiple
+     * placeholder objects provide it, the last one wins.
+     *
+     * @return the value, or null if none of the placeholder objects provide this placeholder
+     */
+    final @Nullable String resolveInternalPlaceholder(final LanguageTemplate.Slot slot, @Nullable final Player player, final @Nullable Object[] internalPlaceholderObjects) {
+        if (internalPlaceholderObjects == null || internalPlaceholderObjects.length == 0) {
+            return null;
+        }
+        final LanguageTemplate.InternalPlaceholder internalPlaceholder = slot.internalPlaceholder();
+
+        if (internalPlaceholder == LanguageTemplate.InternalPlaceholder.QUESTCOOLDOWNLEFTFORMATTED) {
+            Quest foundQuest = null;
+            QuestPlayer foundQuestPlayer = null;
+            for (final @Nullable Object internalPlaceholderObject : internalPlaceholderObjects) {
+                if (internalPlaceholderObject instanceof final Quest quest) {
+                    foundQuest = quest;
+                } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
+                    foundQuestPlayer = questPlayer;
+                }
+            }
+            if (foundQuest != null && foundQuestPlayer != null) {
+                return foundQuestPlayer.getCooldownFormatted(foundQuest);
             }
+        }
 
-            //main.getLogManager().severe("Object: " + internalPlaceholderObject.toString());
-            if (internalPlaceholderObject instanceof final ActiveQuest activeQuest) {
-                // main.getLogManager().info("Quest placeholders...");
-                internalPlaceholderReplacements.put("%QUESTNAME%", () -> activeQuest.getQuest().getDisplayNameOrIdentifier());
-                internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> activeQuest.getQuest().getObjectiveHolderDescription());
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVESCOUNT%", () -> "" + activeQuest.getCompletedObjectives().size());
-                internalPlaceholderReplacements.put("%ALLOBJECTIVESCOUNT%", () -> "" + activeQuest.getQuest().getObjectives().size());
-            } else if (internalPlaceholderObject instanceof final ActiveObjective activeObjective) {
-
-                final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
-                if(activeQuest != null){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", () -> activeQuest.getQuest().getDisplayNameOrIdentifier());
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> activeQuest.getQuest().getObjectiveHolderDescription());
-                }
-                internalPlaceholderReplacements.put("%OBJECTIVEID%", () -> "" + activeObjective.getObjective().getObjectiveID());
-                internalPlaceholderReplacements.put("%ACTIVEOBJECTIVEID%", () -> "" + activeObjective.getObjective().getObjectiveID());
-                internalPlaceholderReplacements.put("%OBJECTIVENAME%", () -> "" + activeObjective.getObjective().getDisplayNameOrIdentifier());
-                internalPlaceholderReplacements.put("%ACTIVEOBJECTIVEPROGRESS%", () -> {
-                    String formatted = String.format("%.2f", activeObjective.getCurrentProgress());
-                    if(formatted.endsWith(".00") || formatted.endsWith(",00")){
-                        formatted = formatted.substring(0, formatted.length()-3);
-                    }
-                    return formatted;
-                });
-                internalPlaceholderReplacements.put("%OBJECTIVEPROGRESSNEEDED%", () -> {
-                    String formatted = String.format("%.2f", activeObjective.getProgressNeeded());
-                    if(formatted.endsWith(".00") || formatted.endsWith(",00")){
-                        formatted = formatted.substring(0, formatted.length()-3);
-                    }
-                    return formatted;
-                });
-                internalPlaceholderReplacements.put("%OBJECTIVEPROGRESSPERCENTAGE%", () -> "" + (int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
-                internalPlaceholderReplacements.put("%OBJECTIVETASKDESCRIPTION%", () -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), false, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective));
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVETASKDESCRIPTION%", () -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), true, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective));
-                internalPlaceholderReplacements.put("%OBJECTIVEDESCRIPTION%", () -> activeObjective.getObjective().getObjectiveHolderDescription());
-            } else if (internalPlaceholderObject instanceof final ActiveObjectiveHolder activeObjectiveHolder) {
-                // main.getLogManager().info("Quest placeholders...");
-                if(activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%",
-                        quest::getDisplayNameOrIdentifier);
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%",
-                        quest::getObjectiveHolderDescription);
-                }
+        for (int i = internalPlaceholderObjects.length - 1; i >= 0; i--) {
+            final String value = resolveInternalPlaceholder(slot, internalPlaceholder, player, internalPlaceholderObjects[i]);
+            if (value != null) {
+                return value;
+            }
+        }
+        return internalPlaceholder == LanguageTemplate.InternalPlaceholder.QUESTPOINTS ? "0" : null;
+    }
 
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVESCOUNT%", () -> "" + activeObjectiveHolder.getCompletedObjectives().size());
-                internalPlaceholderReplacements.put("%ALLOBJECTIVESCOUNT%", () -> "" + activeObjectiveHolder.getObjectiveHolder().getObjectives().size());
-            } else if (internalPlaceholderObject instanceof final Quest quest) {
-                //main.getLogManager().info("Applying Quest placeholders...");
-                internalPlaceholderReplacements.put("%QUESTNAME%", quest::getDisplayNameOrIdentifier);
-                internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", quest::getObjectiveHolderDescription);
-                foundQuest = quest;
-            }  else if (internalPlaceholderObject instanceof final Objective objective) {
-                //main.getLogManager().info("Applying Objective placeholders...");
-                if(objective.getObjectiveHolder() instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", () -> quest.getDisplayNameOrIdentifier());
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> quest.getObjectiveHolderDescription());
-                }
-                internalPlaceholderReplacements.put("%OBJECTIVEID%", () -> "" + objective.getObjectiveID());
-                internalPlaceholderReplacements.put("%OBJECTIVENAME%", () -> "" + objective.getDisplayNameOrIdentifier());
-            } else if (internalPlaceholderObject instanceof final ObjectiveHolder objectiveHolder) {
-                //main.getLogManager().info("Applying Quest placeholders...");
-                if(objectiveHolder instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", quest::getDisplayNameOrIdentifier);
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", quest::getObjectiveHolderDescription);
-                }
+    private @Nullable String resolveInternalPlaceholder(final LanguageTemplate.Slot slot, final LanguageTemplate.InternalPlaceholder internalPlaceholder, @Nullable final Player player, final @Nullable Object internalPlaceholderObject) {
+        if (internalPlaceholderObject instanceof final Map<?, ?> providedInternalPlaceholderReplacements) {
+            return (String) providedInternalPlaceholderReplacements.get(slot.key());
+        }
+        if (internalPlaceholder == null || internalPlaceholderObject == null) {
+            return null;
+        }
 
-            }else if (internalPlaceholderObject instanceof final Trigger trigger) {
-                //main.getLogManager().log(Level.INFO, "Applying Trigger placeholders...");
-            } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
-                //main.getLogManager().log(Level.INFO, "Applying QuestPlayer placeholders...");
-                internalPlaceholderReplacements.put("%QUESTPOINTS%", () -> "" + questPlayer.getQuestPoints());
-                internalPlaceholderReplacements.put("%PROFILENAME%", () -> "" + questPlayer.getProfile());
-                foundQuestPlayer = questPlayer;
-            } else if (internalPlaceholderObject instanceof final Map providedInternalPlaceholderReplacements) {
-                for (final Object key : providedInternalPlaceholderReplacements.keySet()) {
-                    internalPlaceholderReplacements.put((String) key, () -> (String) providedInternalPlaceholderReplacements.get(key));
+        if (internalPlaceholderObject instanceof final ActiveQuest activeQuest) {
+            return switch (internalPlaceholder) {
+                case QUESTNAME -> activeQuest.getQuest().getDisplayNameOrIdentifier();
+                case QUESTDESCRIPTION -> activeQuest.getQuest().getObjectiveHolderDescription();
+                case COMPLETEDOBJECTIVESCOUNT -> "" + activeQuest.getCompletedObjectives().size();
+                case ALLOBJECTIVESCOUNT -> "" + activeQuest.getQuest().getObjectives().size();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ActiveObjective activeObjective) {
+            return switch (internalPlaceholder) {
+                case QUESTNAME, QUESTDESCRIPTION -> {
+                    final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
+                    if (activeQuest == null) {
+                        yield null;
+                    }
+                    yield internalPlaceholder == LanguageTemplate.InternalPlaceholder.QUESTNAME ? activeQuest.getQuest().getDisplayNameOrIdentifier() : activeQuest.getQuest().getObjectiveHolderDescription();
                 }
-            }
+                case OBJECTIVEID, ACTIVEOBJECTIVEID -> "" + activeObjective.getObjective().getObjectiveID();
+                case OBJECTIVENAME -> "" + activeObjective.getObjective().getDisplayNameOrIdentifier();
+                case ACTIVEOBJECTIVEPROGRESS -> formatProgress(activeObjective.getCurrentProgress());
+                case OBJECTIVEPROGRESSNEEDED -> formatProgress(activeObjective.getProgressNeeded());
+                case OBJECTIVEPROGRESSPERCENTAGE -> "" + (int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100);
+                case OBJECTIVETASKDESCRIPTION -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), false, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective);
+                case COMPLETEDOBJECTIVETASKDESCRIPTION -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), true, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective);
+                case OBJECTIVEDESCRIPTION -> activeObjective.getObjective().getObjectiveHolderDescription();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ActiveObjectiveHolder activeObjectiveHolder) {
+            return switch (internalPlaceholder) {
+                case QUESTNAME -> activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest ? quest.getDisplayNameOrIdentifier() : null;
+                case QUESTDESCRIPTION -> activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest ? quest.getObjectiveHolderDescription() : null;
+                case COMPLETEDOBJECTIVESCOUNT -> "" + activeObjectiveHolder.getCompletedObjectives().size();
+                case ALLOBJECTIVESCOUNT -> "" + activeObjectiveHolder.getObjectiveHolder().getObjectives().size();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Quest quest) {
+            return switch (internalPlaceholder) {
+                case QUESTNAME -> quest.getDisplayNameOrIdentifier();
+                case QUESTDESCRIPTION -> quest.getObjectiveHolderDescription();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Objective objective) {
+            return switch (internalPlaceholder) {
+                case QUESTNAME -> objective.getObjectiveHolder() instanceof final Quest quest ? quest.getDisplayNameOrIdentifier() : null;
+                case QUESTDESCRIPTION -> objective.getObjectiveHolder() instanceof final Quest quest ? quest.getObjectiveHolderDescription() : null;
+                case OBJECTIVEID -> "" + objective.getObjectiveID();
+                case OBJECTIVENAME -> "" + objective.getDisplayNameOrIdentifier();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
+            return switch (internalPlaceholder) {
+                case QUESTPOINTS -> "" + questPlayer.getQuestPoints();
+                case PROFILENAME -> "" + questPlayer.getProfile();
+                default -> null;
+            };
         }
+        return null;
+    }
 
-        if (foundQuest != null && foundQuestPlayer != null) {
-            final QuestPlayer finalFoundQuestPlayer = foundQuestPlayer;
-            final Quest finalFoundQuest = foundQuest;
-            internalPlaceholderReplacements.put("%QUESTCOOLDOWNLEFTFORMATTED%", () -> finalFoundQuestPlayer.getCooldownFormatted(finalFoundQuest));
+    private String formatProgress(final double progress) {
+        String formatted = String.format("%.2f", progress);
+        if(formatted.endsWith(".00") || formatted.endsWith(",00")){
+            formatted = formatted.substring(0, formatted.length()-3);
         }
-        /*main.getLogManager().warn("initialMessage: " + initialMessage);
-        main.getLogManager().warn(" Keys: " + Arrays.toString(internalPlaceholderReplacements.keySet().toArray()));
-        main.getLogManager().severe("  Contains %QUESTNAME%: " + internalPlaceholderReplacements.containsKey("%QUESTNAME%"));
-        */
-        return main.getUtilManager().replaceFromMap(initialMessage, internalPlaceholderReplacements);
+        return formatted;
     }
 
     public final List<String> applySpecial(final List<String> initialMessage) {
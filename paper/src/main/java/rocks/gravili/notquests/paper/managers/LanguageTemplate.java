@@ -0,0 +1,360 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * A language string which has been split into its literal text and internal placeholder slots (%QUESTNAME%, ...) when
+ * the language config was loaded, so it can be rendered in a single pass.
+ * <p>
+ * The literal text is split into lines, with <EMPTY> already replaced and <CENTER> already removed, so only centered
+ * lines have to be processed when rendering. If a placeholder value brings its own new lines or markers, the rendered
+ * string is processed by LanguageManager.applySpecial() instead, like before.
+ */
+public class LanguageTemplate {
+    private static final int MAX_POOLED_BUFFER_CAPACITY = 8192;
+    /**
+     * One reusable buffer per thread. It's taken out while rendering, as resolving a placeholder can render another
+     * language string (e.g. %OBJECTIVETASKDESCRIPTION%).
+     */
+    private static final ThreadLocal<StringBuilder> renderBuffer = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final NotQuests main;
+    private final String rawString;
+    /**
+     * The raw string split into literal Strings and Slots
+     */
+    private final Object[] rawSegments;
+    private final Line[] lines;
+    private final boolean hasSlots;
+    /**
+     * If a closing % of a slot could also open another one (%A%B%), the slots can't be read unambiguously. Those
+     * strings are rendered by replacing the placeholders one after another, like before.
+     */
+    private final boolean ambiguous;
+
+    private volatile String staticString = null;
+    private volatile Component staticComponent = null;
+
+    public LanguageTemplate(final NotQuests main, final String rawString) {
+        this.main = main;
+        this.rawString = rawString;
+
+        final ArrayList<Object> segments = new ArrayList<>();
+        boolean ambiguous = false;
+        int literalStart = 0;
+        int index = 0;
+        while (index < rawString.length()) {
+            final int slotEnd = rawString.charAt(index) == '%' ? findSlotEnd(rawString, index) : -1;
+            if (slotEnd < 0) {
+                index++;
+                continue;
+            }
+            if (index > literalStart) {
+                segments.add(rawString.substring(literalStart, index));
+            }
+            final String key = rawString.substring(index, slotEnd + 1);
+            segments.add(new Slot(key, InternalPlaceholder.fromKey(key)));
+            if (findSlotEnd(rawString, slotEnd) >= 0) {
+                ambiguous = true;
+            }
+            index = slotEnd + 1;
+            literalStart = index;
+        }
+        if (literalStart < rawString.length()) {
+            segments.add(rawString.substring(literalStart));
+        }
+
+        this.rawSegments = segments.toArray();
+        this.hasSlots = segments.stream().anyMatch(segment -> segment instanceof Slot);
+        this.ambiguous = ambiguous;
+        this.lines = compileLines(rawSegments);
+    }
+
+    /**
+     * @return the index of the % closing the slot opened at the given index, or -1 if there is none
+     */
+    private static int findSlotEnd(final String string, final int slotStart) {
+        for (int index = slotStart + 1; index < string.length(); index++) {
+            final char character = string.charAt(index);
+            if (character == '%') {
+                return index > slotStart + 1 ? index : -1;
+            }
+            if (Character.isWhitespace(character)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static Line[] compileLines(final Object[] rawSegments) {
+        final ArrayList<Line> lines = new ArrayList<>();
+        ArrayList<Object> lineSegments = new ArrayList<>();
+        for (final Object segment : rawSegments) {
+            if (!(segment instanceof final String literal)) {
+                lineSegments.add(segment);
+                continue;
+            }
+            int lineStart = 0;
+            int lineBreak;
+            while ((lineBreak = literal.indexOf('\n', lineStart)) >= 0) {
+                if (lineBreak > lineStart) {
+                    lineSegments.add(literal.substring(lineStart, lineBreak));
+                }
+                lines.add(compileLine(lineSegments));
+                lineSegments = new ArrayList<>();
+                lineStart = lineBreak + 1;
+            }
+            if (lineStart < literal.length()) {
+                lineSegments.add(literal.substring(lineStart));
+            }
+        }
+        lines.add(compileLine(lineSegments));
+        return lines.toArray(new Line[0]);
+    }
+
+    private static Line compileLine(final ArrayList<Object> lineSegments) {
+        boolean centered = false;
+        for (int i = 0; i < lineSegments.size(); i++) {
+            if (lineSegments.get(i) instanceof final String literal) {
+                final String replacedLiteral = literal.replace("<EMPTY>", " ");
+                lineSegments.set(i, replacedLiteral);
+                centered |= replacedLiteral.contains("<CENTER>");
+            }
+        }
+        if (centered) {
+            for (int i = 0; i < lineSegments.size(); i++) {
+                if (lineSegments.get(i) instanceof final String literal) {
+                    lineSegments.set(i, literal.replace("<CENTER>", ""));
+                }
+            }
+        }
+        return new Line(lineSegments.toArray(), centered);
+    }
+
+    public final String getRawString() {
+        return rawString;
+    }
+
+    public final boolean hasSlots() {
+        return hasSlots;
+    }
+
+    /**
+     * @return if the placeholders provided in maps can all be filled into the slots. Keys which don't look like a slot
+     *     (%KEY%) could be anywhere in the string.
+     */
+    private boolean canFillSlots(final @Nullable Object[] internalPlaceholderObjects) {
+        if (ambiguous) {
+            return false;
+        }
+        if (internalPlaceholderObjects == null) {
+            return true;
+        }
+        for (final Object internalPlaceholderObject : internalPlaceholderObjects) {
+            if (internalPlaceholderObject instanceof final Map<?, ?> providedInternalPlaceholderReplacements) {
+                for (final Object key : providedInternalPlaceholderReplacements.keySet()) {
+                    if (!(key instanceof final String keyString) || keyString.isEmpty() || keyString.charAt(0) != '%' || findSlotEnd(keyString, 0) != keyString.length() - 1) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return if render() gives the same result for every player and placeholder object
+     */
+    public final boolean isStatic(final @Nullable Object[] internalPlaceholderObjects) {
+        return !hasSlots && canFillSlots(internalPlaceholderObjects);
+    }
+
+    /**
+     * Fills in the internal placeholders and applies the special <EMPTY> and <CENTER> markers. Equivalent to
+     * applySpecial(applyInternalPlaceholders(rawString, ...)).
+     */
+    public final String render(final @Nullable Player player, final @Nullable Object... internalPlaceholderObjects) {
+        if (!canFillSlots(internalPlaceholderObjects)) {
+            return main.getLanguageManager().applySpecial(main.getLanguageManager().applyInternalPlaceholders(rawString, player, internalPlaceholderObjects));
+        }
+        if (!hasSlots) {
+            String rendered = staticString;
+            if (rendered == null) {
+                rendered = main.getLanguageManager().applySpecial(rawString);
+                staticString = rendered;
+            }
+            return rendered;
+        }
+
+        final StringBuilder buffer = takeBuffer();
+        try {
+            final StringBuilder lineBuffer = takeBuffer();
+            try {
+                int renderedLength = 0;
+                for (int lineIndex = 0; lineIndex < lines.length; lineIndex++) {
+                    final Line line = lines[lineIndex];
+                    if (lineIndex > 0) {
+                        buffer.append('\n');
+                    }
+                    final StringBuilder target = line.centered() ? lineBuffer : buffer;
+                    lineBuffer.setLength(0);
+                    final int lineStart = buffer.length();
+                    for (final Object segment : line.segments()) {
+                        if (segment instanceof final Slot slot) {
+                            final String value = resolve(slot, player, internalPlaceholderObjects);
+                            if (value.indexOf('\n') >= 0 || value.contains("<CENTER>") || value.contains("<EMPTY>")) {
+                                return main.getLanguageManager().applySpecial(renderPlaceholders(player, internalPlaceholderObjects));
+                            }
+                            target.append(value);
+                        } else {
+                            target.append((String) segment);
+                        }
+                    }
+                    if (line.centered()) {
+                        buffer.append(main.getUtilManager().getCenteredMessage(lineBuffer.toString()));
+                    }
+                    //Empty lines at the end are dropped, like String.split() does
+                    if (line.centered() || buffer.length() > lineStart) {
+                        renderedLength = buffer.length();
+                    }
+                }
+                buffer.setLength(renderedLength);
+                return buffer.toString();
+            } finally {
+                releaseBuffer(lineBuffer);
+            }
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Only fills in the internal placeholders, without applying the special markers. Equivalent to
+     * applyInternalPlaceholders(rawString, ...).
+     */
+    public final String renderPlaceholders(final @Nullable Player player, final @Nullable Object... internalPlaceholderObjects) {
+        if (internalPlaceholderObjects == null || internalPlaceholderObjects.length == 0) {
+            return rawString;
+        }
+        if (!canFillSlots(internalPlaceholderObjects)) {
+            return main.getLanguageManager().applyInternalPlaceholders(rawString, player, internalPlaceholderObjects);
+        }
+        if (!hasSlots) {
+            return rawString;
+        }
+        final StringBuilder buffer = takeBuffer();
+        try {
+            for (final Object segment : rawSegments) {
+                if (segment instanceof final Slot slot) {
+                    buffer.append(resolve(slot, player, internalPlaceholderObjects));
+                } else {
+                    buffer.append((String) segment);
+                }
+            }
+            return buffer.toString();
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * @return the parsed component of a static template (see isStatic()), which is only parsed once
+     */
+    public final Component getStaticComponent() {
+        Component component = staticComponent;
+        if (component == null) {
+            component = main.parse(render(null)).decoration(TextDecoration.ITALIC, false);
+            staticComponent = component;
+        }
+        return component;
+    }
+
+    private String resolve(final Slot slot, final @Nullable Player player, final @Nullable Object[] internalPlaceholderObjects) {
+        final String value = main.getLanguageManager().resolveInternalPlaceholder(slot, player, internalPlaceholderObjects);
+        return value != null ? value : slot.key();
+    }
+
+    private static StringBuilder takeBuffer() {
+        final StringBuilder buffer = renderBuffer.get();
+        if (buffer == null) {
+            return new StringBuilder();
+        }
+        renderBuffer.set(null);
+        return buffer;
+    }
+
+    private static void releaseBuffer(final StringBuilder buffer) {
+        if (buffer.capacity() > MAX_POOLED_BUFFER_CAPACITY) {
+            return;
+        }
+        buffer.setLength(0);
+        renderBuffer.set(buffer);
+    }
+
+    /**
+     * The internal placeholders NotQuests fills in from the placeholder objects passed to LanguageManager.getString().
+     * Any other slot can only be filled in by a map of placeholders.
+     */
+    public enum InternalPlaceholder {
+        QUESTPOINTS,
+        PROFILENAME,
+        QUESTNAME,
+        QUESTDESCRIPTION,
+        QUESTCOOLDOWNLEFTFORMATTED,
+        COMPLETEDOBJECTIVESCOUNT,
+        ALLOBJECTIVESCOUNT,
+        OBJECTIVEID,
+        ACTIVEOBJECTIVEID,
+        OBJECTIVENAME,
+        OBJECTIVEDESCRIPTION,
+        ACTIVEOBJECTIVEPROGRESS,
+        OBJECTIVEPROGRESSNEEDED,
+        OBJECTIVEPROGRESSPERCENTAGE,
+        OBJECTIVETASKDESCRIPTION,
+        COMPLETEDOBJECTIVETASKDESCRIPTION;
+
+        private static final HashMap<String, InternalPlaceholder> keys = new HashMap<>();
+
+        static {
+            for (final InternalPlaceholder internalPlaceholder : values()) {
+                keys.put("%" + internalPlaceholder.name() + "%", internalPlaceholder);
+            }
+        }
+
+        public static @Nullable InternalPlaceholder fromKey(final String key) {
+            return keys.get(key);
+        }
+    }
+
+    /**
+     * @param internalPlaceholder null if NotQuests doesn't fill in this placeholder by itself
+     */
+    public record Slot(String key, @Nullable InternalPlaceholder internalPlaceholder) {}
+
+    private record Line(Object[] segments, boolean centered) {}
+}
@@ -0,0 +1,191 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.IntSupplier;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Runs periodic per-player work (boss bar timers, beacons, condition objectives) spread evenly over the ticks of its
+ * period: every player is assigned the tick (UUID hash modulo period) it's run in, instead of running it for all
+ * players in the same tick.
+ * <p>
+ * Every tick may only spend the configured time budget. Work which doesn't fit in it is run in the next tick, before
+ * any new work.
+ */
+public class PlayerTaskScheduler {
+  private static final int METRICS_LOG_INTERVAL_TICKS = 20 * 60;
+
+  private final NotQuests main;
+  private final ArrayList<PeriodicPlayerTask> periodicPlayerTasks = new ArrayList<>();
+  private final ArrayDeque<PendingRun> pendingRuns = new ArrayDeque<>();
+  private long currentTick = 0;
+
+  //Metrics. The totals are kept since the server started, the interval ones are reset every METRICS_LOG_INTERVAL_TICKS
+  private long totalRuns = 0;
+  private long totalNanos = 0;
+  private long intervalRuns = 0;
+  private long intervalNanos = 0;
+  private long intervalMaxTickNanos = 0;
+  private long intervalTicksOverBudget = 0;
+
+  public PlayerTaskScheduler(final NotQuests main) {
+    this.main = main;
+    Bukkit.getScheduler().scheduleSyncRepeatingTask(main.getMain(), this::tick, 1L, 1L);
+  }
+
+  /**
+   * Registers work which is run for every online player with a QuestPlayer once per period.
+   *
+   * @param periodTicks supplies the period in ticks. It's read every tick, so config reloads apply right away.
+   */
+  public void registerPeriodicPlayerTask(final String name, final IntSupplier periodTicks, final BiConsumer<QuestPlayer, Player> work) {
+    registerPeriodicPlayerTask(name, periodTicks, true, work);
+  }
+
+  /**
+   * @param requiresQuestPlayer if false, the work is also run for players without a QuestPlayer. The QuestPlayer passed
+   *                            to it is null then.
+   */
+  public void registerPeriodicPlayerTask(final String name, final IntSupplier periodTicks, final boolean requiresQuestPlayer, final BiConsumer<QuestPlayer, Player> work) {
+    periodicPlayerTasks.add(new PeriodicPlayerTask(name, periodTicks, requiresQuestPlayer, work));
+  }
+
+  private void tick() {
+    if (periodicPlayerTasks.isEmpty() || main.getDataManager().isDisabled()) {
+      return;
+    }
+    currentTick++;
+
+    for (final Player player : Bukkit.getOnlinePlayers()) {
+      final UUID uuid = player.getUniqueId();
+      final int playerHash = uuid.hashCode();
+      for (final PeriodicPlayerTask periodicPlayerTask : periodicPlayerTasks) {
+        final int period = Math.max(1, periodicPlayerTask.periodTicks.getAsInt());
+        if (Math.floorMod(currentTick, period) == Math.floorMod(playerHash, period) && periodicPlayerTask.pendingPlayers.add(uuid)) {
+          pendingRuns.add(new PendingRun(periodicPlayerTask, uuid));
+        }
+      }
+    }
+    if (pendingRuns.isEmpty()) {
+      logMetricsIfDue();
+      return;
+    }
+
+    final long budgetNanos = TimeUnit.MICROSECONDS.toNanos(main.getConfiguration().getMainLoopTickBudgetMicroseconds());
+    final long startTime = System.nanoTime();
+    int runs = 0;
+    while (!pendingRuns.isEmpty()) {
+      //At least one run per tick, so work is never starved by a too small budget
+      if (runs > 0 && budgetNanos > 0 && System.nanoTime() - startTime >= budgetNanos) {
+        intervalTicksOverBudget++;
+        break;
+      }
+      final PendingRun pendingRun = pendingRuns.poll();
+      pendingRun.periodicPlayerTask.pendingPlayers.remove(pendingRun.uuid);
+
+      final Player player = Bukkit.getPlayer(pendingRun.uuid);
+      if (player == null) {
+        continue;
+      }
+      final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(pendingRun.uuid);
+      if (questPlayer == null && pendingRun.periodicPlayerTask.requiresQuestPlayer) {
+        continue;
+      }
+      try {
+        pendingRun.periodicPlayerTask.work.accept(questPlayer, player);
+      } catch (final Exception e) {
+        main.getLogManager().warn("There was an error running the periodic task <highlight>%s</highlight> for player <highlight>%s</highlight>: %s",
+            pendingRun.periodicPlayerTask.name,
+            player.getName(),
+            e.getMessage()
+        );
+        e.printStackTrace();
+      }
+      runs++;
+    }
+
+    final long tickNanos = System.nanoTime() - startTime;
+    totalRuns += runs;
+    totalNanos += tickNanos;
+    intervalRuns += runs;
+    intervalNanos += tickNanos;
+    intervalMaxTickNanos = Math.max(intervalMaxTickNanos, tickNanos);
+    logMetricsIfDue();
+  }
+
+  private void logMetricsIfDue() {
+    if (currentTick % METRICS_LOG_INTERVAL_TICKS != 0) {
+      return;
+    }
+    main.getLogManager().debug("Periodic player tasks in the last %s ticks: <highlight>%s</highlight> runs in <highlight>%s</highlight>ms (max. <highlight>%s</highlight>µs per tick, %s ticks over budget). <highlight>%s</highlight> runs deferred.",
+        METRICS_LOG_INTERVAL_TICKS,
+        intervalRuns,
+        TimeUnit.NANOSECONDS.toMillis(intervalNanos),
+        TimeUnit.NANOSECONDS.toMicros(intervalMaxTickNanos),
+        intervalTicksOverBudget,
+        pendingRuns.size()
+    );
+    intervalRuns = 0;
+    intervalNanos = 0;
+    intervalMaxTickNanos = 0;
+    intervalTicksOverBudget = 0;
+  }
+
+  public final long getTotalRuns() {
+    return totalRuns;
+  }
+
+  public final long getTotalNanos() {
+    return totalNanos;
+  }
+
+  public final int getPendingRunCount() {
+    return pendingRuns.size();
+  }
+
+  private static final class PeriodicPlayerTask {
+    private final String name;
+    private final IntSupplier periodTicks;
+    private final boolean requiresQuestPlayer;
+    private final BiConsumer<QuestPlayer, Player> work;
+    /**
+     * The players which have a pending run of this task, so a player's run isn't queued twice while work is deferred.
+     */
+    private final HashSet<UUID> pendingPlayers = new HashSet<>();
+
+    private PeriodicPlayerTask(final String name, final IntSupplier periodTicks, final boolean requiresQuestPlayer, final BiConsumer<QuestPlayer, Player> work) {
+      this.name = name;
+      this.periodTicks = periodTicks;
+      this.requiresQuestPlayer = requiresQuestPlayer;
+      this.work = work;
+    }
+  }
+
+  private record PendingRun(PeriodicPlayerTask periodicPlayerTask, UUID uuid) {}
+}
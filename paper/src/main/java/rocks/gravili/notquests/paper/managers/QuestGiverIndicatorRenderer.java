@@ -0,0 +1,293 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.packets.ownpacketstuff.modern.PacketInjector;
+import rocks.gravili.notquests.paper.structs.Quest;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Shows the quest giver indicators (particles above the head, and the text above the name of Citizens NPCs) of all
+ * armor stands and NPCs with quests attached to them.
+ * <p>
+ * Instead of spawning the particles in the world for every quest giver, the indicators are sent to every online player
+ * separately, and only for the quest givers within the configured view distance which have a quest that's visible to
+ * the player. This runs on the main thread through the PlayerTaskScheduler, so it's spread over the ticks and respects
+ * its tick budget.
+ * <p>
+ * The quest givers are bucketed by world and chunk, so every player only looks at the chunks within the view distance.
+ * The buckets are rebuilt every INDEX_REFRESH_TICKS ticks, as quest givers rarely move.
+ */
+public class QuestGiverIndicatorRenderer {
+  private static final int INDEX_REFRESH_TICKS = 20;
+
+  private final NotQuests main;
+  /**
+   * The NPC quest givers which are currently spawned. They register themselves, see NPCQuestGiver.
+   */
+  private final LinkedHashSet<NPCQuestGiver> npcQuestGivers = new LinkedHashSet<>();
+  private final QuestGiverIndex armorStandIndex = new QuestGiverIndex();
+  private final QuestGiverIndex npcIndex = new QuestGiverIndex();
+  /**
+   * Re-used for the quest givers near a player and for their locations, as this is only used on the main thread
+   */
+  private final ArrayList<IndexedQuestGiver> nearbyQuestGivers = new ArrayList<>();
+  private final Location questGiverLocation = new Location(null, 0, 0, 0);
+
+  public QuestGiverIndicatorRenderer(final NotQuests main) {
+    this.main = main;
+
+    main.getPlayerTaskScheduler().registerPeriodicPlayerTask("armor stand quest giver particles",
+        () -> main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval(), false, this::showArmorStandParticles);
+    main.getPlayerTaskScheduler().registerPeriodicPlayerTask("npc quest giver particles",
+        () -> main.getConfiguration().getCitizensNPCQuestGiverIndicatorParticleSpawnInterval(), false, this::showNPCParticles);
+    main.getPlayerTaskScheduler().registerPeriodicPlayerTask("npc quest giver texts",
+        () -> main.getConfiguration().getCitizensNPCQuestGiverIndicatorTextInterval(), false, this::showNPCTexts);
+  }
+
+  public void addNPCQuestGiver(final NPCQuestGiver npcQuestGiver) {
+    if (npcQuestGivers.add(npcQuestGiver)) {
+      npcIndex.invalidate();
+    }
+  }
+
+  public void removeNPCQuestGiver(final NPCQuestGiver npcQuestGiver) {
+    if (npcQuestGivers.remove(npcQuestGiver)) {
+      npcIndex.invalidate();
+    }
+  }
+
+  private boolean isTPSBelow(final double minimumTPS) {
+    return minimumTPS >= 0 && main.getPerformanceManager().getTPS() < minimumTPS;
+  }
+
+  private void rebuildArmorStandIndex() {
+    armorStandIndex.clear();
+    final ArmorStandManager armorStandManager = main.getArmorStandManager();
+    for (final ArmorStand armorStand : armorStandManager.getArmorStandsWithQuestsOrConversationAttachedToThem()) {
+      if (!armorStand.isValid()) {
+        continue;
+      }
+      armorStandIndex.add(new IndexedQuestGiver(
+          armorStand,
+          armorStand.getLocation(),
+          main.getQuestManager().getAllQuestsAttachedToArmorstand(armorStand),
+          armorStand.getPersistentDataContainer().has(armorStandManager.getAttachedConversationKey(), PersistentDataType.STRING),
+          null
+      ));
+    }
+  }
+
+  private void rebuildNPCIndex() {
+    npcIndex.clear();
+    for (final NPCQuestGiver npcQuestGiver : npcQuestGivers) {
+      final Entity npcEntity = npcQuestGiver.getQuestGiverEntity();
+      if (npcEntity == null) {
+        continue;
+      }
+      final ArmorStand npcHolo = !npcEntity.getPassengers().isEmpty() && npcEntity.getPassengers().get(0) instanceof final ArmorStand armorStand ? armorStand : null;
+      npcIndex.add(new IndexedQuestGiver(npcEntity, npcEntity.getLocation(), npcQuestGiver.getAttachedQuests(), false, npcHolo));
+    }
+  }
+
+  /**
+   * Collects the quest givers of the index which are within the view distance of the player into nearbyQuestGivers.
+   * The current location of every nearby quest giver is checked, as it might have moved since the index was built.
+   */
+  private void collectNearbyQuestGivers(final QuestGiverIndex questGiverIndex, final Player player) {
+    nearbyQuestGivers.clear();
+    final Location playerLocation = player.getLocation();
+    final HashMap<Long, ArrayList<IndexedQuestGiver>> chunkBuckets = questGiverIndex.getChunkBuckets(playerLocation.getWorld());
+    if (chunkBuckets == null) {
+      return;
+    }
+    final double viewDistance = main.getConfiguration().getQuestGiverIndicatorViewDistance();
+    final double viewDistanceSquared = viewDistance * viewDistance;
+    //One more chunk, in case the quest giver moved into the view distance since the index was built
+    final int chunkRadius = (int) Math.ceil(viewDistance / 16) + 1;
+    final int playerChunkX = playerLocation.getBlockX() >> 4;
+    final int playerChunkZ = playerLocation.getBlockZ() >> 4;
+    for (int chunkX = playerChunkX - chunkRadius; chunkX <= playerChunkX + chunkRadius; chunkX++) {
+      for (int chunkZ = playerChunkZ - chunkRadius; chunkZ <= playerChunkZ + chunkRadius; chunkZ++) {
+        final ArrayList<IndexedQuestGiver> chunkBucket = chunkBuckets.get(getChunkKey(chunkX, chunkZ));
+        if (chunkBucket == null) {
+          continue;
+        }
+        for (final IndexedQuestGiver indexedQuestGiver : chunkBucket) {
+          if (!indexedQuestGiver.entity().isValid()) {
+            continue;
+          }
+          indexedQuestGiver.entity().getLocation(questGiverLocation);
+          if (questGiverLocation.getWorld() == playerLocation.getWorld() && questGiverLocation.distanceSquared(playerLocation) <= viewDistanceSquared) {
+            nearbyQuestGivers.add(indexedQuestGiver);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return if the quest giver has a conversation or a quest which is visible to the player
+   */
+  private boolean isEligible(final @Nullable QuestPlayer questPlayer, final IndexedQuestGiver indexedQuestGiver) {
+    return indexedQuestGiver.hasConversation()
+        || main.getQuestManager().hasQuestWithVisibilityEvaluations(questPlayer, indexedQuestGiver.attachedQuests());
+  }
+
+  private void spawnParticle(final Player player, final Location location, final Particle particle, final int count) {
+    player.spawnParticle(
+        particle,
+        location.getX() - 0.25 + (Math.random() / 2),
+        location.getY() + 1.75 + (Math.random() / 2),
+        location.getZ() - 0.25 + (Math.random() / 2),
+        count
+    );
+  }
+
+  private void showArmorStandParticles(final QuestPlayer questPlayer, final Player player) {
+    final Configuration configuration = main.getConfiguration();
+    if (!configuration.isArmorStandQuestGiverIndicatorParticleEnabled()
+        || isTPSBelow(configuration.getArmorStandQuestGiverIndicatorParticleDisableIfTPSBelow())) {
+      return;
+    }
+    if (armorStandIndex.needsRebuild()) {
+      rebuildArmorStandIndex();
+    }
+    collectNearbyQuestGivers(armorStandIndex, player);
+    for (final IndexedQuestGiver indexedQuestGiver : nearbyQuestGivers) {
+      if (isEligible(questPlayer, indexedQuestGiver)) {
+        spawnParticle(player, indexedQuestGiver.entity().getLocation(questGiverLocation), configuration.getArmorStandQuestGiverIndicatorParticleType(), configuration.getArmorStandQuestGiverIndicatorParticleCount());
+      }
+    }
+  }
+
+  private void showNPCParticles(final QuestPlayer questPlayer, final Player player) {
+    final Configuration configuration = main.getConfiguration();
+    if (npcQuestGivers.isEmpty()
+        || !configuration.isCitizensNPCQuestGiverIndicatorParticleEnabled()
+        || isTPSBelow(configuration.getCitizensNPCQuestGiverIndicatorParticleDisableIfTPSBelow())) {
+      return;
+    }
+    if (npcIndex.needsRebuild()) {
+      rebuildNPCIndex();
+    }
+    collectNearbyQuestGivers(npcIndex, player);
+    for (final IndexedQuestGiver indexedQuestGiver : nearbyQuestGivers) {
+      if (isEligible(questPlayer, indexedQuestGiver)) {
+        spawnParticle(player, indexedQuestGiver.entity().getLocation(questGiverLocation), configuration.getCitizensNPCQuestGiverIndicatorParticleType(), configuration.getCitizensNPCQuestGiverIndicatorParticleCount());
+      }
+    }
+  }
+
+  /**
+   * The text armor stands are spawned by the NPCs themselves. This only shows their name to the players which have
+   * a visible quest at the NPC, and hides it for all others.
+   */
+  private void showNPCTexts(final QuestPlayer questPlayer, final Player player) {
+    if (npcQuestGivers.isEmpty() || main.getConfiguration().getCitizensNPCQuestGiverIndicatorText().isEmpty()) {
+      return;
+    }
+    final PacketInjector packetInjector = main.getPacketManager() != null ? main.getPacketManager().getModernPacketInjector() : null;
+    if (packetInjector == null) {
+      return;
+    }
+    if (npcIndex.needsRebuild()) {
+      rebuildNPCIndex();
+    }
+    collectNearbyQuestGivers(npcIndex, player);
+    for (final IndexedQuestGiver indexedQuestGiver : nearbyQuestGivers) {
+      final ArmorStand npcHolo = indexedQuestGiver.npcHolo();
+      if (npcHolo == null || !npcHolo.isValid()) {
+        continue;
+      }
+      packetInjector.sendHolo(player, npcHolo, isEligible(questPlayer, indexedQuestGiver));
+    }
+  }
+
+  private static long getChunkKey(final int chunkX, final int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  /**
+   * @param attachedQuests the quests attached to the quest giver, at the time the index has been built
+   * @param npcHolo the armor stand showing the text above the name of an NPC, if there is one
+   */
+  private record IndexedQuestGiver(Entity entity, Location indexedLocation, List<Quest> attachedQuests, boolean hasConversation, @Nullable ArmorStand npcHolo) {}
+
+  /**
+   * Quest givers bucketed by their world and chunk, at the time the index has been built
+   */
+  private static final class QuestGiverIndex {
+    private final HashMap<World, HashMap<Long, ArrayList<IndexedQuestGiver>>> worldsAndChunkBuckets = new HashMap<>();
+    private int builtAtTick;
+    private boolean invalidated = true;
+
+    private boolean needsRebuild() {
+      return invalidated || Bukkit.getCurrentTick() - builtAtTick >= INDEX_REFRESH_TICKS;
+    }
+
+    private void invalidate() {
+      invalidated = true;
+    }
+
+    private void clear() {
+      worldsAndChunkBuckets.clear();
+      builtAtTick = Bukkit.getCurrentTick();
+      invalidated = false;
+    }
+
+    private void add(final IndexedQuestGiver indexedQuestGiver) {
+      final Location location = indexedQuestGiver.indexedLocation();
+      worldsAndChunkBuckets.computeIfAbsent(location.getWorld(), world -> new HashMap<>())
+          .computeIfAbsent(getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4), chunkKey -> new ArrayList<>())
+          .add(indexedQuestGiver);
+    }
+
+    private @Nullable HashMap<Long, ArrayList<IndexedQuestGiver>> getChunkBuckets(final World world) {
+      return worldsAndChunkBuckets.get(world);
+    }
+  }
+
+  /**
+   * An NPC with quests attached to it. It has to add itself with addNPCQuestGiver() while it's spawned, and remove
+   * itself with removeNPCQuestGiver() once it's despawned or removed.
+   */
+  public interface NPCQuestGiver {
+    /**
+     * @return the entity of the NPC, or null if it's not spawned
+     */
+    @Nullable Entity getQuestGiverEntity();
+
+    List<Quest> getAttachedQuests();
+  }
+}
@@ -19,8 +19,12 @@
 package rocks.gravili.notquests.paper.managers;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import net.kyori.adventure.text.Component;
@@ -70,9 +74,39 @@ public class QuestManager {
     private final NotQuests main;
 
     private final ArrayList<Quest> quests;
+    /**
+     * The quests by their lower case identifier, so getQuest() doesn't have to compare the name with every quest
+     */
+    private final ConcurrentHashMap<String, Quest> questsByLowerCaseIdentifier = new ConcurrentHashMap<>();
+    /**
+     * Reverse indexes of the NPCs quests are attached to. They're updated by Quest.bindToNPC(), Quest.removeNPC() and
+     * Quest.clearNPCs() and contain the same NQNPC instances as the attached NPC lists of the quests.
+     */
+    private final ConcurrentHashMap<NQNPC, CopyOnWriteArrayList<Quest>> questsAttachedToNPCsWithShowing = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<NQNPC, CopyOnWriteArrayList<Quest>> questsAttachedToNPCsWithoutShowing = new ConcurrentHashMap<>();
+    /**
+     * Increased whenever the reverse indexes of the NPCs change, so the quests cached by NPC quest givers are updated
+     */
+    private volatile int attachedNPCsVersion = 0;
+    /**
+     * The attached quests of armor stands are stored in their PersistentDataContainer. Their resolved quests are cached
+     * until the stored strings change or a quest is created, deleted or loaded.
+     */
+    private final ConcurrentHashMap<UUID, ArmorStandAttachedQuests> armorStandAttachedQuests = new ConcurrentHashMap<>();
+    /**
+     * Increased whenever quests are created, deleted, loaded or modified, so everything derived from them is rebuilt
+     */
+    private volatile int questsVersion = 0;
+    private final NamespacedKey attachedQuestsShowingKey;
+    private final NamespacedKey attachedQuestsNonShowingKey;
 
     private final ArrayList<UUID> debugEnabledPlayers;
 
+    /**
+     * Increased whenever all cached quest visibilities become outdated
+     */
+    private volatile int questVisibilityEpoch = 0;
+
 
     private void loadObjectiveConditionsAndRewards(ObjectiveHolder objectiveHolder, final Category category) {
         main.getLogManager().debug("Loading objective conditions and rewards...");
@@ -327,6 +361,8 @@ public class QuestManager {
     public QuestManager(NotQuests main) {
         this.main = main;
         quests = new ArrayList<>();
+        attachedQuestsShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
+        attachedQuestsNonShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
 
         debugEnabledPlayers = new ArrayList<>();
     }
@@ -337,7 +373,7 @@ public class QuestManager {
                 return ("<error>The symbol <highlight>°</highlight> cannot be used, because it's used for some important, plugin-internal stuff.");
             }
             Quest newQuest = new Quest(main, questName, category);
-            quests.add(newQuest);
+            addQuest(newQuest);
             category.getQuestsConfig().set("quests." + questName, "");
             category.saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully created!");
@@ -352,7 +388,7 @@ public class QuestManager {
                 return ("<error>The symbol <highlight>°</highlight> cannot be used, because it's used for some important, plugin-internal stuff.");
             }
             final Quest newQuest = new Quest(main, questName);
-            quests.add(newQuest);
+            addQuest(newQuest);
             newQuest.getCategory().getQuestsConfig().set("quests." + questName, "");
             newQuest.getCategory().saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully created!");
@@ -365,7 +401,8 @@ public class QuestManager {
         Quest questToDelete = getQuest(questName);
 
         if (questToDelete != null) {
-            quests.remove(questToDelete);
+            removeQuest(questToDelete);
+            main.getQuestEvents().scheduleGatedListenersUpdate();
             questToDelete.getCategory().getQuestsConfig().set("quests." + questName, null);
             questToDelete.getCategory().saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully deleted!");
@@ -375,12 +412,86 @@ public class QuestManager {
     }
 
     public final Quest getQuest(String questName) {
-        for (Quest quest : quests) {
-            if (quest.getIdentifier().equalsIgnoreCase(questName)) {
-                return quest;
+        if (questName == null) {
+            return null;
+        }
+        return questsByLowerCaseIdentifier.get(questName.toLowerCase(Locale.ROOT));
+    }
+
+    private void addQuest(final Quest quest) {
+        quests.add(quest);
+        //If two quests only differ in case, the first one is found, like before
+        questsByLowerCaseIdentifier.putIfAbsent(quest.getIdentifier().toLowerCase(Locale.ROOT), quest);
+        questsVersion++;
+    }
+
+    private void removeQuest(final Quest quest) {
+        quests.remove(quest);
+        final String lowerCaseIdentifier = quest.getIdentifier().toLowerCase(Locale.ROOT);
+        if (questsByLowerCaseIdentifier.remove(lowerCaseIdentifier, quest)) {
+            for (final Quest otherQuest : quests) {
+                if (otherQuest.getIdentifier().equalsIgnoreCase(quest.getIdentifier())) {
+                    questsByLowerCaseIdentifier.putIfAbsent(lowerCaseIdentifier, otherQuest);
+                    break;
+                }
             }
         }
-        return null;
+        for (final NQNPC npc : getAllNPCsAttachedToQuest(quest)) {
+            unindexAttachedNPC(quest, npc);
+        }
+        questsVersion++;
+    }
+
+    private void clearQuests() {
+        quests.clear();
+        questsByLowerCaseIdentifier.clear();
+        questsAttachedToNPCsWithShowing.clear();
+        questsAttachedToNPCsWithoutShowing.clear();
+        attachedNPCsVersion++;
+        armorStandAttachedQuests.clear();
+        questsVersion++;
+    }
+
+    /**
+     * Called whenever the data of a quest has been changed (see Category.saveQuestsConfig()), so cached GUI items and
+     * attached armor stand quests are rebuilt.
+     */
+    public void markQuestsModified() {
+        questsVersion++;
+    }
+
+    public final int getQuestsVersion() {
+        return questsVersion;
+    }
+
+    /**
+     * Adds the quest to the reverse index of the NPC. Called by Quest.bindToNPC().
+     */
+    public void indexAttachedNPC(final Quest quest, final NQNPC npc, final boolean showQuestInNPC) {
+        (showQuestInNPC ? questsAttachedToNPCsWithShowing : questsAttachedToNPCsWithoutShowing)
+                .computeIfAbsent(npc, attachedNPC -> new CopyOnWriteArrayList<>())
+                .addIfAbsent(quest);
+        attachedNPCsVersion++;
+    }
+
+    /**
+     * Removes the quest from the reverse indexes of the NPC. Called by Quest.removeNPC() and Quest.clearNPCs().
+     */
+    public void unindexAttachedNPC(final Quest quest, final NQNPC npc) {
+        unindexAttachedNPC(questsAttachedToNPCsWithShowing, quest, npc);
+        unindexAttachedNPC(questsAttachedToNPCsWithoutShowing, quest, npc);
+        attachedNPCsVersion++;
+    }
+
+    public final int getAttachedNPCsVersion() {
+        return attachedNPCsVersion;
+    }
+
+    private void unindexAttachedNPC(final ConcurrentHashMap<NQNPC, CopyOnWriteArrayList<Quest>> index, final Quest quest, final NQNPC npc) {
+        index.computeIfPresent(npc, (attachedNPC, attachedQuests) -> {
+            attachedQuests.remove(quest);
+            return attachedQuests.isEmpty() ? null : attachedQuests;
+        });
     }
 
     public final ArrayList<Quest> getAllQuests() {
@@ -407,11 +518,14 @@ public class QuestManager {
         }
         main.getLogManager().info("Scheduled Quest Data load for following categories: <highlight>" + categoriesStringList);
 
-        quests.clear();
+        clearQuests();
         for (final Category category : main.getDataManager().getCategories()) {
             loadQuestsFromConfig(category);
         }
 
+        //Only listen to the events the loaded objectives and triggers need
+        main.getQuestEvents().scheduleGatedListenersUpdate();
+
     }
 
     public void loadQuestsFromConfig(final Category category) {
@@ -618,7 +732,7 @@ public class QuestManager {
                     //TakeItem:
                     quest.setTakeItem(category.getQuestsConfig().getItemStack("quests." + questName + ".takeItem"));
 
-                    quests.add(quest);
+                    addQuest(quest);
                 }
             }
             main.getDataManager().setAlreadyLoadedQuests(true);
@@ -633,116 +747,77 @@ public class QuestManager {
 
 
     public final ArrayList<Quest> getAllQuestsAttachedToArmorstand(final ArmorStand armorstand) {
-        return new ArrayList<>() {{
-            final PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
-            final NamespacedKey attachedShowingQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
-            final NamespacedKey attachedNonShowingQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
-
-            //Showing
-            if (armorstandPDB.has(attachedShowingQuestsKey, PersistentDataType.STRING)) {
-                final String existingAttachedQuests = armorstandPDB.get(attachedShowingQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (final String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
-            }
-
-            //Nonshowing
-            if (armorstandPDB.has(attachedNonShowingQuestsKey, PersistentDataType.STRING)) {
-                final String existingAttachedQuests = armorstandPDB.get(attachedNonShowingQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (final String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
-            }
+        final ArmorStandAttachedQuests attachedQuests = getArmorStandAttachedQuests(armorstand);
+        final ArrayList<Quest> questsAttached = new ArrayList<>(attachedQuests.questsWithShowing());
+        questsAttached.addAll(attachedQuests.questsWithoutShowing());
+        return questsAttached;
+    }
 
-        }};
+    public final ArrayList<Quest> getQuestsAttachedToArmorstandWithShowing(final ArmorStand armorstand) {
+        return new ArrayList<>(getArmorStandAttachedQuests(armorstand).questsWithShowing());
+    }
 
+    public final ArrayList<Quest> getQuestsAttachedToArmorstandWithoutShowing(final ArmorStand armorstand) {
+        return new ArrayList<>(getArmorStandAttachedQuests(armorstand).questsWithoutShowing());
     }
 
-    public final ArrayList<Quest> getQuestsAttachedToArmorstandWithShowing(final ArmorStand armorstand) {
-        return new ArrayList<>() {{
-            final PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
-            final NamespacedKey attachedQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
-
-            if (armorstandPDB.has(attachedQuestsKey, PersistentDataType.STRING)) {
-                final String existingAttachedQuests = armorstandPDB.get(attachedQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (final String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
-            }
-        }};
+    private ArmorStandAttachedQuests getArmorStandAttachedQuests(final ArmorStand armorstand) {
+        final PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
+        final String attachedQuestsShowing = armorstandPDB.get(attachedQuestsShowingKey, PersistentDataType.STRING);
+        final String attachedQuestsNonShowing = armorstandPDB.get(attachedQuestsNonShowingKey, PersistentDataType.STRING);
+        final int currentQuestsVersion = questsVersion;
+
+        final ArmorStandAttachedQuests cachedAttachedQuests = armorStandAttachedQuests.get(armorstand.getUniqueId());
+        if (cachedAttachedQuests != null
+                && cachedAttachedQuests.questsVersion() == currentQuestsVersion
+                && Objects.equals(cachedAttachedQuests.attachedQuestsShowing(), attachedQuestsShowing)
+                && Objects.equals(cachedAttachedQuests.attachedQuestsNonShowing(), attachedQuestsNonShowing)) {
+            return cachedAttachedQuests;
+        }
 
+        final ArmorStandAttachedQuests attachedQuests = new ArmorStandAttachedQuests(
+                attachedQuestsShowing,
+                attachedQuestsNonShowing,
+                resolveAttachedQuests(attachedQuestsShowing),
+                resolveAttachedQuests(attachedQuestsNonShowing),
+                currentQuestsVersion
+        );
+        armorStandAttachedQuests.put(armorstand.getUniqueId(), attachedQuests);
+        return attachedQuests;
     }
 
-    public final ArrayList<Quest> getQuestsAttachedToArmorstandWithoutShowing(final ArmorStand armorstand) {
-        return new ArrayList<>() {{
-            PersistentDataContainer armorstandPDB = armorstand.getPersistentDataContainer();
-            NamespacedKey attachedQuestsKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
-
-            if (armorstandPDB.has(attachedQuestsKey, PersistentDataType.STRING)) {
-                String existingAttachedQuests = armorstandPDB.get(attachedQuestsKey, PersistentDataType.STRING);
-                if (existingAttachedQuests != null && existingAttachedQuests.length() >= 1) {
-                    for (String split : existingAttachedQuests.split("°")) {
-                        final Quest foundQuest = getQuest(split);
-                        if (foundQuest != null) {
-                            add(foundQuest);
-                        }
-                    }
-                }
+    private List<Quest> resolveAttachedQuests(final String existingAttachedQuests) {
+        if (existingAttachedQuests == null || existingAttachedQuests.isEmpty()) {
+            return List.of();
+        }
+        final ArrayList<Quest> attachedQuests = new ArrayList<>();
+        for (final String split : existingAttachedQuests.split("°")) {
+            final Quest foundQuest = getQuest(split);
+            if (foundQuest != null) {
+                attachedQuests.add(foundQuest);
             }
-        }};
+        }
+        return List.copyOf(attachedQuests);
     }
 
     public final ArrayList<Quest> getAllQuestsAttachedToNPC(final NQNPC npc) {
-        final ArrayList<Quest> questsAttached = new ArrayList<>();
-        for (final Quest quest : quests) {
-            main.getLogManager().debug("getAttachedNPCsWithQuestShowing size: " + quest.getAttachedNPCsWithoutQuestShowing().size());
-            main.getLogManager().debug("getAttachedNPCsWithQuestShowing: " + quest.getAttachedNPCsWithoutQuestShowing());
-            main.getLogManager().debug("npc: " + npc);
-
-            if (quest.getAttachedNPCsWithQuestShowing().contains(npc) || quest.getAttachedNPCsWithoutQuestShowing().contains(npc)) {
-                questsAttached.add(quest);
-            }
+        final ArrayList<Quest> questsAttached = getQuestsAttachedToNPCWithShowing(npc);
+        final CopyOnWriteArrayList<Quest> questsAttachedWithoutShowing = questsAttachedToNPCsWithoutShowing.get(npc);
+        if (questsAttachedWithoutShowing != null) {
+            questsAttached.addAll(questsAttachedWithoutShowing);
         }
-        // System.out.println("§esize: " + questsattached.size());
         return questsAttached;
     }
 
     public final ArrayList<Quest> getQuestsAttachedToNPCWithShowing(final NQNPC npc) {
-        final ArrayList<Quest> questsAttached = new ArrayList<>();
-        for (final Quest quest : quests) {
-            if (quest.getAttachedNPCsWithQuestShowing().contains(npc)) {
-                questsAttached.add(quest);
-            }
-        }
-        // System.out.println("§esize: " + questsattached.size());
-        return questsAttached;
+        final CopyOnWriteArrayList<Quest> questsAttached = questsAttachedToNPCsWithShowing.get(npc);
+        return questsAttached != null ? new ArrayList<>(questsAttached) : new ArrayList<>();
     }
 
 
     public final ArrayList<Quest> getQuestsAttachedToNPCWithoutShowing(final NQNPC npc) {
-        final ArrayList<Quest> questsattached = new ArrayList<>();
-        for (Quest quest : quests) {
-            if (quest.getAttachedNPCsWithoutQuestShowing().contains(npc)) {
-                questsattached.add(quest);
-            }
-        }
-        // System.out.println("§esize: " + questsattached.size());
-        return questsattached;
+        final CopyOnWriteArrayList<Quest> questsAttached = questsAttachedToNPCsWithoutShowing.get(npc);
+        return questsAttached != null ? new ArrayList<>(questsAttached) : new ArrayList<>();
     }
 
     public final CopyOnWriteArrayList<NQNPC> getAllNPCsAttachedToQuest(final Quest quest) {
@@ -1365,60 +1440,114 @@ public class QuestManager {
 
     public final ArrayList<Quest> getQuestsFromListWithVisibilityEvaluations(final QuestPlayer questPlayer, final ArrayList<Quest> questsList) {
         final ArrayList<Quest> evaluatedQuests = new ArrayList<>();
-        questLoop:
         for (final Quest quest : questsList) {
-            if (main.getConfiguration().isQuestVisibilityEvaluationAlreadyAccepted() && questPlayer != null){
-                for (ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                    if (activeQuest.getQuest().equals(quest)) {
-                        continue questLoop;
-                    }
+            if (isQuestVisible(questPlayer, quest)) {
+                evaluatedQuests.add(quest);
+            }
+        }
+        return evaluatedQuests;
+    }
+
+    /**
+     * @return if any of the quests passes the visibility evaluations for the player
+     */
+    public final boolean hasQuestWithVisibilityEvaluations(final QuestPlayer questPlayer, final List<Quest> questsList) {
+        for (final Quest quest : questsList) {
+            if (isQuestVisible(questPlayer, quest)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates if the quest should be shown to the player (GUI, NPC quest giver indicators), according to the enabled
+     * quest visibility evaluations. The results are cached per player, see QuestPlayer.getCachedQuestVisibility().
+     */
+    public final boolean isQuestVisible(final QuestPlayer questPlayer, final Quest quest) {
+        final int cacheMilliseconds = main.getConfiguration().getQuestVisibilityCacheMilliseconds();
+        if (questPlayer == null || cacheMilliseconds <= 0) {
+            return evaluateQuestVisibility(questPlayer, quest, 0).visible();
+        }
+
+        final QuestVisibility cachedQuestVisibility = questPlayer.getCachedQuestVisibility(quest, questVisibilityEpoch);
+        if (cachedQuestVisibility != null) {
+            return cachedQuestVisibility.visible();
+        }
+        final int questVisibilitiesVersion = questPlayer.getQuestVisibilitiesVersion();
+        final QuestVisibility questVisibility = evaluateQuestVisibility(questPlayer, quest, cacheMilliseconds);
+        questPlayer.cacheQuestVisibility(quest, questVisibility, questVisibilitiesVersion);
+        return questVisibility.visible();
+    }
+
+    /**
+     * Makes all cached quest visibilities of all players outdated, e.g. because the quests or the visibility evaluation
+     * settings have been reloaded.
+     */
+    public void invalidateAllQuestVisibilities() {
+        questVisibilityEpoch++;
+    }
+
+    private QuestVisibility evaluateQuestVisibility(final QuestPlayer questPlayer, final Quest quest, final int cacheMilliseconds) {
+        final long currentTime = System.currentTimeMillis();
+        final long validUntil = currentTime + cacheMilliseconds;
+
+        if (main.getConfiguration().isQuestVisibilityEvaluationAlreadyAccepted() && questPlayer != null){
+            for (ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+                if (activeQuest.getQuest().equals(quest)) {
+                    return new QuestVisibility(false, validUntil);
                 }
             }
+        }
 
 
-            if(main.getConfiguration().isQuestVisibilityEvaluationMaxAccepts() || main.getConfiguration().isQuestVisibilityEvaluationAcceptCooldown()){
-                int completedAmount = 0;
+        if(main.getConfiguration().isQuestVisibilityEvaluationMaxAccepts() || main.getConfiguration().isQuestVisibilityEvaluationAcceptCooldown()){
+            int completedAmount = 0;
 
-                long mostRecentAcceptTime = 0;
-                if(questPlayer != null){
-                    for (CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                        if (completedQuest.getQuest().equals(quest)) {
-                            completedAmount += 1;
-                            if (completedQuest.getTimeCompleted() > mostRecentAcceptTime) {
-                                mostRecentAcceptTime = completedQuest.getTimeCompleted();
-                            }
+            long mostRecentAcceptTime = 0;
+            if(questPlayer != null){
+                for (CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
+                    if (completedQuest.getQuest().equals(quest)) {
+                        completedAmount += 1;
+                        if (completedQuest.getTimeCompleted() > mostRecentAcceptTime) {
+                            mostRecentAcceptTime = completedQuest.getTimeCompleted();
                         }
                     }
                 }
+            }
 
 
-                if(main.getConfiguration().isQuestVisibilityEvaluationMaxAccepts()) {
-                    if (quest.getMaxAccepts() > -1 && completedAmount >= quest.getMaxAccepts()) {
-                        continue questLoop;
-                    }
+            if(main.getConfiguration().isQuestVisibilityEvaluationMaxAccepts()) {
+                if (quest.getMaxAccepts() > -1 && completedAmount >= quest.getMaxAccepts()) {
+                    return new QuestVisibility(false, validUntil);
                 }
+            }
 
-                if(main.getConfiguration().isQuestVisibilityEvaluationAcceptCooldown()) {
-                    final long acceptTimeDifference = System.currentTimeMillis() - mostRecentAcceptTime;
-                    final long acceptTimeDifferenceMinutes = TimeUnit.MILLISECONDS.toMinutes(acceptTimeDifference);
-                    if (acceptTimeDifferenceMinutes < quest.getAcceptCooldown()) {
-                        continue questLoop;
-                    }
+            if(main.getConfiguration().isQuestVisibilityEvaluationAcceptCooldown()) {
+                final long acceptTimeDifference = currentTime - mostRecentAcceptTime;
+                final long acceptTimeDifferenceMinutes = TimeUnit.MILLISECONDS.toMinutes(acceptTimeDifference);
+                if (acceptTimeDifferenceMinutes < quest.getAcceptCooldown()) {
+                    //Visible again as soon as the cooldown is over
+                    return new QuestVisibility(false, Math.min(validUntil, mostRecentAcceptTime + TimeUnit.MINUTES.toMillis(quest.getAcceptCooldown())));
                 }
             }
+        }
 
-            if(main.getConfiguration().isQuestVisibilityEvaluationConditions()){
-                for (final Condition condition : quest.getRequirements()) {
-                    if (!condition.check(questPlayer).fulfilled()) {
-                        continue questLoop;
-                    }
+        if(main.getConfiguration().isQuestVisibilityEvaluationConditions()){
+            for (final Condition condition : quest.getRequirements()) {
+                if (!condition.check(questPlayer).fulfilled()) {
+                    return new QuestVisibility(false, validUntil);
                 }
             }
+        }
 
+        return new QuestVisibility(true, validUntil);
+    }
 
-            evaluatedQuests.add(quest);
+    /**
+     * @param validUntil the time (in milliseconds) until which this result may be re-used
+     */
+    public record QuestVisibility(boolean visible, long validUntil) {}
 
-        }
-        return evaluatedQuests;
-    }
+    private record ArmorStandAttachedQuests(String attachedQuestsShowing, String attachedQuestsNonShowing, List<Quest> questsWithShowing, List<Quest> questsWithoutShowing, int questsVersion) {}
 }
@@ -20,26 +20,58 @@ package rocks.gravili.notquests.paper.managers;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.data.PlayerDataWriteBehindQueue;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseDialect;
+import rocks.gravili.notquests.paper.managers.tags.TagManager;
 import rocks.gravili.notquests.paper.structs.*;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
 
 public class QuestPlayerManager {
+  private static final int STREAMING_FETCH_SIZE = 1000;
+
   private final NotQuests main;
 
   private final HashMap<UUID, List<QuestPlayer>> questPlayersAndUUIDs; //Can contain multiple profiles since one UUID can have multiple profiles => multiple QuestPlayer
   private final HashMap<UUID, QuestPlayer> activeQuestPlayersAndUUIDs; //Only stores the current active profile
 
+  private final PlayerDataWriteBehindQueue writeBehindQueue;
+  /**
+   * Writes the player data snapshots taken on the main thread. See queuePlayerDataChanges().
+   */
+  private final ExecutorService playerDataWriter;
+
 
   public QuestPlayerManager(NotQuests notQuests) {
     this.main = notQuests;
     questPlayersAndUUIDs = new HashMap<>();
     activeQuestPlayersAndUUIDs = new HashMap<>();
+
+    playerDataWriter = Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "NotQuests-PlayerDataWriter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    writeBehindQueue = new PlayerDataWriteBehindQueue(main);
+    writeBehindQueue.start();
+  }
+
+  public final PlayerDataWriteBehindQueue getWriteBehindQueue() {
+    return writeBehindQueue;
   }
 
   public void loadSinglePlayerData(final UUID uuid) {
@@ -72,7 +104,6 @@ public class QuestPlayerManager {
     }
 
 
-    final ArrayList<QuestPlayer> questPlayersToLoad = new ArrayList<>();
     for(final QuestPlayer questPlayer : getQuestPlayersForUUIDs().get(player.getUniqueId())){
       if (questPlayer == null) {
         return;
@@ -85,9 +116,7 @@ public class QuestPlayerManager {
         );
         return;
       }
-      questPlayersToLoad.add(questPlayer);
-
-      savePlayerDataInternal(questPlayersToLoad);
+      savePlayerDataInternal(List.of(questPlayer));
 
       if(main.getConfiguration().isVerboseStartupMessages()){
         main.getLogManager().info("PlayerData of player %s was saved (%s QuestPoints, Profile: %s)",
@@ -114,16 +143,6 @@ public class QuestPlayerManager {
     activeQuestPlayersAndUUIDs.remove(player.getUniqueId());
   }
 
-  private boolean isColumnThere(final ResultSet rs, final String column){
-    try{
-      rs.findColumn(column);
-      return true;
-    } catch (SQLException ignored){
-      return false;
-    }
-
-  }
-
   public void loadAllPlayerDataAtOnce() {
     if (!main.getConfiguration().loadPlayerData) {
       main.getLogManager().info("Loading of PlayerData has been skipped...");
@@ -133,8 +152,18 @@ public class QuestPlayerManager {
     questPlayersAndUUIDs.clear();
     activeQuestPlayersAndUUIDs.clear();
 
-    loadPlayerDataInternal(null);
-    main.getTagManager().loadAllOnlinePlayerTags();
+    //Both also load the tags
+    if (main.getConfiguration().isStorageBulkLoadOnlinePlayersOnly()) {
+      final long startTime = System.currentTimeMillis();
+      final List<UUID> onlinePlayerUUIDs = Bukkit.getOnlinePlayers().stream().map(Player::getUniqueId).toList();
+      final int loadedPlayers = loadPlayerDataInternal(onlinePlayerUUIDs);
+      main.getLogManager().info(LogCategory.DATA, "Loaded <highlight>%s</highlight> online players in <highlight>%s</highlight>ms. All other players are loaded once they join.",
+              loadedPlayers,
+              System.currentTimeMillis() - startTime
+      );
+    } else {
+      loadAllPlayerDataStreaming();
+    }
   }
 
   public void saveAllPlayerDataAtOnce() {
@@ -233,6 +262,7 @@ public class QuestPlayerManager {
 
   public void changeProfile(final UUID uuid, final QuestPlayer newQuestPlayer){
     activeQuestPlayersAndUUIDs.put(uuid, newQuestPlayer);
+    newQuestPlayer.getChangeJournal().markCurrentProfileChanged();
   }
 
   public String acceptQuest(
@@ -274,259 +304,534 @@ public class QuestPlayerManager {
 
 
 
-  private void loadPlayerDataInternal(final @Nullable UUID playerUUID) {
-    try (Connection connection = main.getDataManager().getConnection();
-         final PreparedStatement questPlayerDataIfPlayerProvidedPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerData WHERE PlayerUUID = ?;
-          """);
-         final PreparedStatement questPlayerDataIfPlayerNotProvidedPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerData;
-          """);
-         final PreparedStatement questPlayerProfileDataPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
-          """);
-         final PreparedStatement completedQuestsPS = connection.prepareStatement("""
-            SELECT QuestName, TimeCompleted FROM CompletedQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement activeQuestsPS = connection.prepareStatement("""
-            SELECT QuestName FROM ActiveQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement activeQuestTriggersPS = connection.prepareStatement("""
-            SELECT * FROM ActiveTriggers
-            WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
-          """);
-         final PreparedStatement activeQuestObjectivesPS = connection.prepareStatement("""
-            SELECT * FROM ActiveObjectives
-            WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
-          """)
-    ) {
+  /**
+   * Rows of a player which have been read from the database, before they are applied to the QuestPlayer.
+   */
+  private record CompletedQuestRow(String questName, long timeCompleted) {}
 
+  private record ActiveTriggerRow(String triggerType, int triggerID, long currentProgress) {}
 
-      final ResultSet questPlayerDataResult;
-      if(playerUUID != null){
-        questPlayerDataIfPlayerProvidedPS.setString(1, playerUUID.toString());
-        questPlayerDataResult = questPlayerDataIfPlayerProvidedPS.executeQuery();
-      }else{
-        questPlayerDataResult = questPlayerDataIfPlayerNotProvidedPS.executeQuery();
+  private record ActiveObjectiveRow(String objectiveType, int objectiveID, double currentProgress, boolean hasBeenCompleted, double progressNeeded, boolean progressNeededNull) {}
+
+  private record TagRow(String tagIdentifier, Object tagValue) {}
+
+  private record ProfileRow<T>(String profile, T row) {}
+
+  private record QuestRow<T>(String profile, String questName, T row) {}
+
+  /**
+   * All rows of one player (of all their profiles), in the order they have been read.
+   */
+  private static final class PlayerDataChunk {
+    private final UUID uuid;
+    private final ArrayList<ProfileRow<Long>> questPointsRows = new ArrayList<>();
+    private String currentProfile = "default";
+    private final ArrayList<ProfileRow<CompletedQuestRow>> completedQuestRows = new ArrayList<>();
+    private final ArrayList<ProfileRow<String>> activeQuestRows = new ArrayList<>();
+    private final ArrayList<QuestRow<ActiveTriggerRow>> activeTriggerRows = new ArrayList<>();
+    private final ArrayList<QuestRow<ActiveObjectiveRow>> activeObjectiveRows = new ArrayList<>();
+    private final ArrayList<ProfileRow<TagRow>> tagRows = new ArrayList<>();
+
+    private PlayerDataChunk(final UUID uuid) {
+      this.uuid = uuid;
+    }
+  }
+
+  /**
+   * The rows of one profile of a player, grouped by quest / objective holder. Only contains plain data, so it can be
+   * built on any thread.
+   */
+  private static final class ProfileData {
+    private final String profile;
+    private final long questPoints;
+    private final ArrayList<CompletedQuestRow> completedQuestRows = new ArrayList<>();
+    private final ArrayList<String> activeQuestNames = new ArrayList<>();
+    private final HashMap<String, ArrayList<ActiveTriggerRow>> questNamesAndActiveTriggerRows = new HashMap<>();
+    private final HashMap<String, ArrayList<ActiveObjectiveRow>> questNamesAndActiveObjectiveRows = new HashMap<>();
+    private final ArrayList<TagRow> tagRows = new ArrayList<>();
+
+    private ProfileData(final String profile, final long questPoints) {
+      this.profile = profile;
+      this.questPoints = questPoints;
+    }
+  }
+
+  @FunctionalInterface
+  private interface PlayerDataRowReader {
+    void read(final ResultSet resultSet, final PlayerDataChunk chunk) throws SQLException;
+  }
+
+  /**
+   * A player data table, the columns which are loaded from it and how a row is added to a PlayerDataChunk. The order
+   * columns are the primary key of the table, so reading it in that order does not need to sort anything.
+   */
+  private record PlayerDataTable(String table, String columns, String orderColumns, PlayerDataRowReader rowReader) {
+    private String getQueryForPlayer() {
+      return "SELECT " + columns + " FROM " + table + " WHERE PlayerUUID = ?";
+    }
+
+    private String getQueryForAllPlayers() {
+      return "SELECT PlayerUUID, " + columns + " FROM " + table + " ORDER BY PlayerUUID, " + orderColumns;
+    }
+  }
+
+  /**
+   * The first table decides which players exist. Rows of the other tables for players without QuestPlayerData are
+   * never loaded.
+   */
+  private static final List<PlayerDataTable> playerDataTables = List.of(
+      new PlayerDataTable("QuestPlayerData", "Profile, QuestPoints", "Profile",
+          (resultSet, chunk) -> chunk.questPointsRows.add(new ProfileRow<>(resultSet.getString("Profile"), resultSet.getLong("QuestPoints")))
+      ),
+      new PlayerDataTable("QuestPlayerProfileData", "CurrentProfile", "PlayerUUID",
+          (resultSet, chunk) -> chunk.currentProfile = resultSet.getString("CurrentProfile")
+      ),
+      new PlayerDataTable("CompletedQuests", "Profile, QuestName, TimeCompleted", "Profile, QuestName, TimeCompleted",
+          (resultSet, chunk) -> chunk.completedQuestRows.add(new ProfileRow<>(resultSet.getString("Profile"), new CompletedQuestRow(
+              resultSet.getString("QuestName"),
+              resultSet.getLong("TimeCompleted")
+          )))
+      ),
+      new PlayerDataTable("ActiveQuests", "Profile, QuestName", "Profile, QuestName",
+          (resultSet, chunk) -> chunk.activeQuestRows.add(new ProfileRow<>(resultSet.getString("Profile"), resultSet.getString("QuestName")))
+      ),
+      new PlayerDataTable("ActiveTriggers", "Profile, QuestName, TriggerType, TriggerID, CurrentProgress", "Profile, QuestName, TriggerID",
+          (resultSet, chunk) -> chunk.activeTriggerRows.add(new QuestRow<>(resultSet.getString("Profile"), resultSet.getString("QuestName"), new ActiveTriggerRow(
+              resultSet.getString("TriggerType"),
+              resultSet.getInt("TriggerID"),
+              resultSet.getLong("CurrentProgress")
+          )))
+      ),
+      new PlayerDataTable("ActiveObjectives", "Profile, QuestName, ObjectiveType, ObjectiveID, CurrentProgress, HasBeenCompleted, ProgressNeeded", "Profile, QuestName, ObjectiveID",
+          (resultSet, chunk) -> {
+            final String profile = resultSet.getString("Profile");
+            final String questName = resultSet.getString("QuestName");
+            final String objectiveType = resultSet.getString("ObjectiveType");
+            final int objectiveID = resultSet.getInt("ObjectiveID");
+            final double currentProgress = resultSet.getDouble("CurrentProgress");
+            final boolean hasBeenCompleted = resultSet.getBoolean("HasBeenCompleted");
+            final double progressNeeded = resultSet.getDouble("ProgressNeeded");
+            final boolean progressNeededNull = resultSet.wasNull();
+            chunk.activeObjectiveRows.add(new QuestRow<>(profile, questName, new ActiveObjectiveRow(objectiveType, objectiveID, currentProgress, hasBeenCompleted, progressNeeded, progressNeededNull)));
+          }
+      ),
+      new PlayerDataTable("Tags", "Profile, TagIdentifier, TagType, TagValue, TagNumberValue, TagBooleanValue", "Profile, TagIdentifier",
+          (resultSet, chunk) -> chunk.tagRows.add(new ProfileRow<>(resultSet.getString("Profile"), new TagRow(
+              resultSet.getString("TagIdentifier"),
+              TagManager.readTagValue(resultSet)
+          )))
+      )
+  );
+
+  /**
+   * A forward-only cursor over one player data table, ordered by PlayerUUID. Binary UUIDs are ordered byte by byte,
+   * unsigned, by both SQLite and MySQL, which is what Arrays.compareUnsigned does as well.
+   */
+  private static final class PlayerDataCursor implements AutoCloseable {
+    private final PlayerDataTable playerDataTable;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private byte[] currentUUIDBytes;
+    private int readRows = 0;
+
+    private PlayerDataCursor(final Connection connection, final PlayerDataTable playerDataTable) throws SQLException {
+      this.playerDataTable = playerDataTable;
+      statement = connection.prepareStatement(playerDataTable.getQueryForAllPlayers(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(STREAMING_FETCH_SIZE);
+      resultSet = statement.executeQuery();
+      advance();
+    }
+
+    private void advance() throws SQLException {
+      currentUUIDBytes = resultSet.next() ? resultSet.getBytes("PlayerUUID") : null;
+    }
+
+    private byte[] getCurrentUUIDBytes() {
+      return currentUUIDBytes;
+    }
+
+    /**
+     * Skips all rows of players before the given one and reads all rows of the given player into the chunk. If the
+     * chunk is null, the rows of the player are skipped as well.
+     */
+    private void readRowsOf(final byte[] uuidBytes, final @Nullable PlayerDataChunk chunk) throws SQLException {
+      while (currentUUIDBytes != null && Arrays.compareUnsigned(currentUUIDBytes, uuidBytes) < 0) {
+        advance();
+      }
+      while (currentUUIDBytes != null && Arrays.equals(currentUUIDBytes, uuidBytes)) {
+        if (chunk != null) {
+          playerDataTable.rowReader().read(resultSet, chunk);
+          readRows++;
+        }
+        advance();
       }
+    }
 
-      main.getLogManager().debug("Before questPlayerDataResult.next()");
-      while (questPlayerDataResult.next()) {
-        main.getLogManager().debug("Next result!");
+    private int getReadRows() {
+      return readRows;
+    }
 
-        final UUID uuid;
-        if(playerUUID != null){
-          uuid = playerUUID;
-        }else{
-          uuid = UUID.fromString(questPlayerDataResult.getString("PlayerUUID"));
+    @Override
+    public void close() throws SQLException {
+      try {
+        resultSet.close();
+      } finally {
+        statement.close();
+      }
+    }
+  }
+
+  /**
+   * Reads all rows of a single player, with one query per table.
+   *
+   * @return the rows of the player, or null if they have no QuestPlayerData
+   */
+  private @Nullable PlayerDataChunk readPlayerDataChunk(final Connection connection, final UUID uuid) throws SQLException {
+    final byte[] uuidBytes = DatabaseDialect.toBytes(uuid);
+    final PlayerDataChunk chunk = new PlayerDataChunk(uuid);
+    for (final PlayerDataTable playerDataTable : playerDataTables) {
+      try (final PreparedStatement preparedStatement = connection.prepareStatement(playerDataTable.getQueryForPlayer())) {
+        preparedStatement.setBytes(1, uuidBytes);
+        try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+          while (resultSet.next()) {
+            playerDataTable.rowReader().read(resultSet, chunk);
+          }
         }
-        completedQuestsPS.setString(1, uuid.toString());
-        activeQuestsPS.setString(1, uuid.toString());
-        activeQuestTriggersPS.setString(1, uuid.toString());
-        activeQuestObjectivesPS.setString(1, uuid.toString());
-
-        String profile;
-        if(isColumnThere(questPlayerDataResult, "Profile")){
-          profile = questPlayerDataResult.getString("Profile");
-          if(profile == null || profile.isBlank()){
-            profile = "default";
+      }
+      if (chunk.questPointsRows.isEmpty()) {
+        return null;
+      }
+    }
+    return chunk;
+  }
+
+  /**
+   * Loads the player data of a single player and calls onJoin if they are online.
+   * <p>
+   * Every table is queried once, keyed only by the player UUID. The rows of all profiles, quests and objectives are
+   * grouped in memory afterwards, so the amount of queries does not grow with the amount of profiles, active quests or
+   * (sub-)objectives. Tags are loaded on the same connection as well.
+   */
+  private void loadPlayerDataInternal(final UUID playerUUID) {
+    try (final Connection connection = main.getDataManager().getConnection()) {
+      final PlayerDataChunk chunk = readPlayerDataChunk(connection, playerUUID);
+      if (chunk != null) {
+        final List<QuestPlayer> questPlayers = buildQuestPlayers(chunk.uuid, decodePlayerData(chunk));
+        registerQuestPlayers(chunk, questPlayers);
+
+        //Load single player data => player actually joined
+        final Player player = Bukkit.getPlayer(playerUUID);
+        if (player != null) {
+          for (final QuestPlayer questPlayer : questPlayers) {
+            questPlayer.onJoinAsync(player);
+            Bukkit.getScheduler()
+                    .runTask(
+                            main.getMain(),
+                            () -> {
+                              questPlayer.onJoin(player);
+                            });
           }
-        }else{
-          profile = "default";
+        }
+      }
+      if(getActiveQuestPlayer(playerUUID) == null){
+        final QuestPlayer questPlayer = getOrCreateQuestPlayer(playerUUID);
+        questPlayer.setCurrentlyLoading(false);
+        questPlayer.setFinishedLoadingGeneralData(true);
+        final Player player = Bukkit.getPlayer(playerUUID);
+        if(player != null){
+          questPlayer.onJoinAsync(player);
+          Bukkit.getScheduler()
+                  .runTask(
+                          main.getMain(),
+                          () -> {
+                            questPlayer.onJoin(player);
+                          });
         }
 
-        main.getLogManager().debug("Profile: %s", profile);
+      }
+    } catch (Exception e) {
+      main.getDataManager()
+              .disablePluginAndSaving(
+                      "There was a database error, so QuestPlayer loading for player <highlight>%s</highlight> has been disabled. (1.1)".formatted(
+                              playerUUID.toString()
+                      ),
+                      e);
+    }
+  }
 
-        completedQuestsPS.setString(2, profile);
-        activeQuestsPS.setString(2, profile);
-        activeQuestTriggersPS.setString(2, profile);
-        activeQuestObjectivesPS.setString(2, profile);
+  /**
+   * Loads the player data of the given players, without calling onJoin. Used to only load the online players when
+   * all player data is loaded at once.
+   *
+   * @return the amount of players which had player data
+   */
+  private int loadPlayerDataInternal(final Collection<UUID> playerUUIDs) {
+    int loadedPlayers = 0;
+    try (final Connection connection = main.getDataManager().getConnection()) {
+      for (final UUID uuid : playerUUIDs) {
+        final PlayerDataChunk chunk = readPlayerDataChunk(connection, uuid);
+        if (chunk != null) {
+          registerQuestPlayers(chunk, buildQuestPlayers(chunk.uuid, decodePlayerData(chunk)));
+          loadedPlayers++;
+        }
+      }
+    } catch (Exception e) {
+      main.getLogManager().warn("There was an error loading the PlayerData! Stacktrace:");
+      e.printStackTrace();
+    }
+    return loadedPlayers;
+  }
 
+  /**
+   * Loads the player data of all players. Every table is read exactly once, ordered by PlayerUUID, and the tables are
+   * merged player by player like in a sort-merge join. Each player's rows are handed to a ForkJoinPool as soon as
+   * they are complete, which groups them by profile and quest while the next players are still being read. The
+   * QuestPlayers are built and registered on this thread afterwards, as building them can run actions, call events
+   * and touch shared state like the QuestPlayer maps.
+   */
+  private void loadAllPlayerDataStreaming() {
+    final int configuredParallelism = main.getConfiguration().getStorageBulkLoadParallelism();
+    final int parallelism = configuredParallelism > 0 ? configuredParallelism : Runtime.getRuntime().availableProcessors();
+    final ForkJoinPool decodePool = new ForkJoinPool(parallelism);
+
+    final long startTime = System.currentTimeMillis();
+    final ArrayList<PlayerDataChunk> chunks = new ArrayList<>();
+    final ArrayList<ForkJoinTask<List<ProfileData>>> decodeTasks = new ArrayList<>();
+    int readRows = 0;
+    long readMillis = 0;
+
+    try (final Connection connection = main.getDataManager().getConnection()) {
+      final ArrayList<PlayerDataCursor> cursors = new ArrayList<>();
+      try {
+        for (final PlayerDataTable playerDataTable : playerDataTables) {
+          cursors.add(new PlayerDataCursor(connection, playerDataTable));
+        }
 
-        questPlayerProfileDataPS.setString(1, uuid.toString());
-        final ResultSet currentQuestPlayerProfile = questPlayerProfileDataPS.executeQuery();
-        String currentProfile = "default";
-        while (currentQuestPlayerProfile.next()) {
-          currentProfile = currentQuestPlayerProfile.getString("CurrentProfile");
+        final PlayerDataCursor questPlayerDataCursor = cursors.get(0);
+        while (questPlayerDataCursor.getCurrentUUIDBytes() != null) {
+          final byte[] uuidBytes = questPlayerDataCursor.getCurrentUUIDBytes();
+          final UUID uuid = DatabaseDialect.fromBytes(uuidBytes);
+          final PlayerDataChunk chunk = uuid != null ? new PlayerDataChunk(uuid) : null;
+          for (final PlayerDataCursor cursor : cursors) {
+            cursor.readRowsOf(uuidBytes, chunk);
+          }
+          if (chunk != null) {
+            chunks.add(chunk);
+            decodeTasks.add(decodePool.submit(() -> decodePlayerData(chunk)));
+          }
         }
+      } finally {
+        for (final PlayerDataCursor cursor : cursors) {
+          readRows += cursor.getReadRows();
+          cursor.close();
+        }
+      }
+      readMillis = System.currentTimeMillis() - startTime;
+    } catch (Exception e) {
+      main.getLogManager().warn("There was an error loading the PlayerData! Stacktrace:");
+      e.printStackTrace();
+    }
 
-        createQuestPlayer(uuid, profile, currentProfile == null || profile.equals(currentProfile) || currentProfile.isBlank());
-        final QuestPlayer questPlayer = getQuestPlayer(uuid, profile);
+    int loadedQuestPlayers = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      try {
+        final List<QuestPlayer> questPlayers = buildQuestPlayers(chunks.get(i).uuid, decodeTasks.get(i).join());
+        registerQuestPlayers(chunks.get(i), questPlayers);
+        loadedQuestPlayers += questPlayers.size();
+      } catch (Exception e) {
+        main.getLogManager().warn("The PlayerData of player <highlight>%s</highlight> could not be loaded. Stacktrace:", chunks.get(i).uuid.toString());
+        e.printStackTrace();
+      }
+    }
+    decodePool.shutdown();
+
+    final long totalMillis = System.currentTimeMillis() - startTime;
+    main.getLogManager().info(LogCategory.DATA, "Loaded <highlight>%s</highlight> players (%s profiles, %s rows) in <highlight>%s</highlight>ms. Reading the tables took %sms, the remaining %sms were spent building the QuestPlayers (%s threads grouping the rows).",
+            chunks.size(),
+            loadedQuestPlayers,
+            readRows,
+            totalMillis,
+            readMillis,
+            totalMillis - readMillis,
+            parallelism
+    );
+  }
 
-        final long questPoints = questPlayerDataResult.getLong("QuestPoints");
-        if (main.getConfiguration().isVerboseStartupMessages()) {
-          main.getLogManager()
-                  .info(
-                          "Loaded player with uuid <highlight>%s</highlight> (Profile: %s) and questPoints: %s",
-                          uuid.toString(),
-                          profile,
-                          questPoints);
-        }
+  /**
+   * Groups the rows of a player by profile and by quest / objective holder. Only reads the chunk, so this can run for
+   * different players in parallel. Rows of profiles without QuestPlayerData are dropped.
+   */
+  private static List<ProfileData> decodePlayerData(final PlayerDataChunk chunk) {
+    final LinkedHashMap<String, ProfileData> profilesAndData = new LinkedHashMap<>();
+    for (final ProfileRow<Long> questPointsRow : chunk.questPointsRows) {
+      profilesAndData.put(questPointsRow.profile(), new ProfileData(questPointsRow.profile(), questPointsRow.row()));
+    }
+    for (final ProfileRow<CompletedQuestRow> completedQuestRow : chunk.completedQuestRows) {
+      final ProfileData profileData = profilesAndData.get(completedQuestRow.profile());
+      if (profileData != null) {
+        profileData.completedQuestRows.add(completedQuestRow.row());
+      }
+    }
+    for (final ProfileRow<String> activeQuestRow : chunk.activeQuestRows) {
+      final ProfileData profileData = profilesAndData.get(activeQuestRow.profile());
+      if (profileData != null) {
+        profileData.activeQuestNames.add(activeQuestRow.row());
+      }
+    }
+    for (final QuestRow<ActiveTriggerRow> activeTriggerRow : chunk.activeTriggerRows) {
+      final ProfileData profileData = profilesAndData.get(activeTriggerRow.profile());
+      if (profileData != null) {
+        profileData.questNamesAndActiveTriggerRows.computeIfAbsent(activeTriggerRow.questName(), questName -> new ArrayList<>()).add(activeTriggerRow.row());
+      }
+    }
+    for (final QuestRow<ActiveObjectiveRow> activeObjectiveRow : chunk.activeObjectiveRows) {
+      final ProfileData profileData = profilesAndData.get(activeObjectiveRow.profile());
+      if (profileData != null) {
+        profileData.questNamesAndActiveObjectiveRows.computeIfAbsent(activeObjectiveRow.questName(), questName -> new ArrayList<>()).add(activeObjectiveRow.row());
+      }
+    }
+    for (final ProfileRow<TagRow> tagRow : chunk.tagRows) {
+      final ProfileData profileData = profilesAndData.get(tagRow.profile());
+      if (profileData != null) {
+        profileData.tagRows.add(tagRow.row());
+      }
+    }
+    return new ArrayList<>(profilesAndData.values());
+  }
 
+  /**
+   * Builds the QuestPlayers of all profiles of a player from their grouped rows, without registering them. This adds
+   * the active quests and tags the usual way, which can run actions, call events and schedule tasks, so it must not
+   * run for multiple players at the same time.
+   */
+  private List<QuestPlayer> buildQuestPlayers(final UUID uuid, final List<ProfileData> profilesData) {
+    final ArrayList<QuestPlayer> questPlayers = new ArrayList<>();
 
-        if (questPlayer != null) {
-          // QuestPoints
-          questPlayer.setQuestPoints(questPoints, false);
+    for (final ProfileData profileData : profilesData) {
+      final String profile = profileData.profile;
+      final long questPoints = profileData.questPoints;
 
-        } else {
-          main.getLogManager()
-                  .severe(
-                          "ERROR: QuestPlayer with the UUID <highlight>%s</highlight> for profile %s could not be loaded from database because it's null",
-                          uuid.toString(),
-                          profile
-                  );
+      main.getLogManager().debug("Profile: %s", profile);
 
-          return;
-        }
+      final QuestPlayer questPlayer = new QuestPlayer(main, uuid, profile);
+      questPlayers.add(questPlayer);
 
-        // Active Quests
-        final ArrayList<ActiveQuest> activeQuests = new ArrayList<>();
-
-        // Completed Quests
-        final ResultSet completedQuestsResults = completedQuestsPS.executeQuery();
-
-        while (completedQuestsResults.next()) {
-          final String questName = completedQuestsResults.getString("QuestName");
-          final Quest quest = main.getQuestManager().getQuest(questName);
-          if (quest != null) {
-            final long timeCompleted = completedQuestsResults.getLong("TimeCompleted");
-            if (timeCompleted > 0) {
-              final CompletedQuest completedQuest =
-                      new CompletedQuest(quest, questPlayer, timeCompleted);
-              questPlayer.addCompletedQuest(completedQuest);
-
-            } else {
-              main.getLogManager()
-                      .warn(
-                              "ERROR: TimeCompleted from Quest with name <highlight>"
-                                      + questName
-                                      + "</highlight> could not be loaded from database (requested for loading completed Quests)");
-            }
+      if (main.getConfiguration().isVerboseStartupMessages()) {
+        main.getLogManager()
+                .info(
+                        "Loaded player with uuid <highlight>%s</highlight> (Profile: %s) and questPoints: %s",
+                        uuid.toString(),
+                        profile,
+                        questPoints);
+      }
+
+      //Nothing which is loaded from the database needs to be written back to it
+      questPlayer.getChangeJournal().setRecording(false);
+
+      // QuestPoints
+      questPlayer.setQuestPoints(questPoints, false);
 
+      // Completed Quests
+      for (final CompletedQuestRow completedQuestRow : profileData.completedQuestRows) {
+        final Quest quest = main.getQuestManager().getQuest(completedQuestRow.questName());
+        if (quest != null) {
+          if (completedQuestRow.timeCompleted() > 0) {
+            questPlayer.addCompletedQuest(new CompletedQuest(quest, questPlayer, completedQuestRow.timeCompleted()));
           } else {
             main.getLogManager()
                     .warn(
-                            "ERROR: Quest with name <highlight>"
-                                    + questName
+                            "ERROR: TimeCompleted from Quest with name <highlight>"
+                                    + completedQuestRow.questName()
                                     + "</highlight> could not be loaded from database (requested for loading completed Quests)");
           }
+
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: Quest with name <highlight>"
+                                  + completedQuestRow.questName()
+                                  + "</highlight> could not be loaded from database (requested for loading completed Quests)");
         }
-        // completedQuestsResults.close();
+      }
 
-        // Active Quests
-        ResultSet activeQuestsResults = activeQuestsPS.executeQuery();
+      // Active Quests
+      final ArrayList<ActiveQuest> activeQuests = new ArrayList<>();
+      for (final String questName : profileData.activeQuestNames) {
+        final Quest quest = main.getQuestManager().getQuest(questName);
+        if (quest != null) {
+          final ActiveQuest activeQuest = new ActiveQuest(main, quest, questPlayer);
+          activeQuests.add(activeQuest);
+          questPlayer.forceAddActiveQuestSilent(
+                  activeQuest, false); // Run begin/accept trigger when plugin reloads if true
 
-        while (activeQuestsResults.next()) {
-          final String questName = activeQuestsResults.getString("QuestName");
-          final Quest quest = main.getQuestManager().getQuest(questName);
-          if (quest != null) {
-            final ActiveQuest activeQuest = new ActiveQuest(main, quest, questPlayer);
-            activeQuests.add(activeQuest);
-            questPlayer.forceAddActiveQuestSilent(
-                    activeQuest, false); // Run begin/accept trigger when plugin reloads if true
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: Quest with name <highlight>"
+                                  + questName
+                                  + "</highlight> could not be loaded from database");
+        }
+      }
+
+      final HashMap<String, ArrayList<ActiveTriggerRow>> questNamesAndActiveTriggerRows = profileData.questNamesAndActiveTriggerRows;
+      final HashMap<String, ArrayList<ActiveObjectiveRow>> questNamesAndActiveObjectiveRows = profileData.questNamesAndActiveObjectiveRows;
+      for (final ActiveQuest activeQuest : activeQuests) {
+
+        // Active Triggers
+        for (final ActiveTriggerRow activeTriggerRow : questNamesAndActiveTriggerRows.getOrDefault(activeQuest.getQuest().getIdentifier(), new ArrayList<>())) {
+          if (activeTriggerRow.triggerType() != null) {
+            for (ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
+              if (activeTrigger.getTrigger().getTriggerType().equals(activeTriggerRow.triggerType())
+                      && activeTrigger.getTriggerID() == activeTriggerRow.triggerID()) {
+                activeTrigger.addProgressSilent(activeTriggerRow.currentProgress());
+              }
+            }
 
           } else {
             main.getLogManager()
                     .warn(
-                            "ERROR: Quest with name <highlight>"
-                                    + questName
+                            "ERROR: TriggerType for the Quest <highlight>"
+                                    + activeQuest.getQuest().getIdentifier()
                                     + "</highlight> could not be loaded from database");
           }
         }
-        // activeQuestsResults.close();
-
-        for (final ActiveQuest activeQuest : activeQuests) {
-
-          // Active Triggers
-          activeQuestTriggersPS.setString(3, activeQuest.getQuest().getIdentifier());
-          final ResultSet activeQuestTriggerResults = activeQuestTriggersPS.executeQuery();
-          while (activeQuestTriggerResults.next()) {
-            final String triggerTypeString = activeQuestTriggerResults.getString("TriggerType");
-            final long currentProgress = activeQuestTriggerResults.getLong("CurrentProgress");
-
-            if (triggerTypeString != null) {
-              final int triggerID = activeQuestTriggerResults.getInt("TriggerID");
-
-              for (ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                if (activeTrigger.getTrigger().getTriggerType().equals(triggerTypeString)
-                        && activeTrigger.getTriggerID() == triggerID) {
-                  activeTrigger.addProgressSilent(currentProgress);
-                }
-              }
 
-            } else {
-              main.getLogManager()
-                      .warn(
-                              "ERROR: TriggerType for the Quest <highlight>"
-                                      + activeQuest.getQuest().getIdentifier()
-                                      + "</highlight> could not be loaded from database");
-            }
-          }
-          // activeQuestTriggerResults.close();
-
-          // Active Objectives
-          handleLoadingOfActiveObjectives(activeQuestObjectivesPS, activeQuest);
-
-          // activeQuestObjectiveResults.close();
-        }
-
-        questPlayer.removeCompletedQuests();
-
-        questPlayer.setCurrentlyLoading(false);
-        questPlayer.setFinishedLoadingGeneralData(true);
+        // Active Objectives
+        handleLoadingOfActiveObjectives(questNamesAndActiveObjectiveRows, activeQuest);
+      }
 
+      questPlayer.removeCompletedQuests();
 
-        if(playerUUID != null){
-          //Load single player data => player actually joined and tagmanager wont load automatically after that
-          final Player player = Bukkit.getPlayer(playerUUID);
-          if(player != null){
-            questPlayer.onJoinAsync(player);
-            Bukkit.getScheduler()
-                    .runTask(
-                            main.getMain(),
-                            () -> {
-                              questPlayer.onJoin(player);
-                            });
-          }
-
-        }
+      // Tags
+      for (final TagRow tagRow : profileData.tagRows) {
+        main.getTagManager().applyLoadedTag(questPlayer, tagRow.tagIdentifier(), tagRow.tagValue());
       }
-      if(playerUUID != null){
-        if(getActiveQuestPlayer(playerUUID) == null){
-          final QuestPlayer questPlayer = getOrCreateQuestPlayer(playerUUID);
-          questPlayer.setCurrentlyLoading(false);
-          questPlayer.setFinishedLoadingGeneralData(true);
-          final Player player = Bukkit.getPlayer(playerUUID);
-          if(player != null){
-            questPlayer.onJoinAsync(player);
-            Bukkit.getScheduler()
-                    .runTask(
-                            main.getMain(),
-                            () -> {
-                              questPlayer.onJoin(player);
-                            });
-          }
+      questPlayer.setFinishedLoadingTags(true);
 
-        }
+      //Everything which has been loaded is already in the database
+      questPlayer.getChangeJournal().clear();
+      questPlayer.getChangeJournal().setRecording(true);
 
-      }
-    } catch (Exception e) {
-      if(playerUUID != null){
-        main.getDataManager()
-                .disablePluginAndSaving(
-                        "There was a database error, so QuestPlayer loading for player <highlight>%s</highlight> has been disabled. (1.1)".formatted(
-                                playerUUID.toString()
-                        ),
-                        e);
-      }else{
-        main.getLogManager().warn("There was an error saving the PlayerData! Stacktrace:");
+      questPlayer.setCurrentlyLoading(false);
+      questPlayer.setFinishedLoadingGeneralData(true);
+    }
+    return questPlayers;
+  }
+
+  /**
+   * Makes the loaded QuestPlayers of a player available. Has to be called from one thread at a time.
+   */
+  private void registerQuestPlayers(final PlayerDataChunk chunk, final List<QuestPlayer> questPlayers) {
+    final String currentProfile = chunk.currentProfile;
+    questPlayersAndUUIDs.put(chunk.uuid, new ArrayList<>(questPlayers));
+    for (final QuestPlayer questPlayer : questPlayers) {
+      if (currentProfile == null || questPlayer.getProfile().equals(currentProfile) || currentProfile.isBlank()) {
+        activeQuestPlayersAndUUIDs.put(chunk.uuid, questPlayer);
       }
     }
   }
 
-  private void handleLoadingOfActiveObjectives(final PreparedStatement activeQuestObjectivesPS, final ActiveObjectiveHolder activeObjectiveHolder) throws SQLException {
+  private void handleLoadingOfActiveObjectives(final HashMap<String, ArrayList<ActiveObjectiveRow>> questNamesAndActiveObjectiveRows, final ActiveObjectiveHolder activeObjectiveHolder) {
     String questName;
     if(activeObjectiveHolder instanceof final ActiveQuest activeQuest){
       questName = activeQuest.getQuestIdentifier();
@@ -561,22 +866,17 @@ public class QuestPlayerManager {
 
     main.getLogManager().debug("Loading active objectives for quest/objective holder name <highlight>%s</highlight>. ActiveObjectiveHolder: <highlight2>%s</highlight2>", questName, activeObjectiveHolder);
 
-    activeQuestObjectivesPS.setString(3, questName);
-    ResultSet activeQuestObjectiveResults = activeQuestObjectivesPS.executeQuery();
-
     final ArrayList<ActiveObjective> activeObjectivesWithSubObjectives = new ArrayList<>();
 
-    while (activeQuestObjectiveResults.next()) {
-      final String objectiveTypeString =
-              activeQuestObjectiveResults.getString("ObjectiveType");
-      final double currentProgress = activeQuestObjectiveResults.getDouble("CurrentProgress");
-      final boolean hasBeenCompleted =
-              activeQuestObjectiveResults.getBoolean("HasBeenCompleted");
-      final double progressNeeded = activeQuestObjectiveResults.getDouble("ProgressNeeded");
-      final boolean progressNeededNull = activeQuestObjectiveResults.wasNull();
+    for (final ActiveObjectiveRow activeObjectiveRow : questNamesAndActiveObjectiveRows.getOrDefault(questName, new ArrayList<>())) {
+      final String objectiveTypeString = activeObjectiveRow.objectiveType();
+      final double currentProgress = activeObjectiveRow.currentProgress();
+      final boolean hasBeenCompleted = activeObjectiveRow.hasBeenCompleted();
+      final double progressNeeded = activeObjectiveRow.progressNeeded();
+      final boolean progressNeededNull = activeObjectiveRow.progressNeededNull();
 
       if (objectiveTypeString != null) {
-        final int objectiveID = activeQuestObjectiveResults.getInt("ObjectiveID");
+        final int objectiveID = activeObjectiveRow.objectiveID();
 
         // So the active objectives are already there - we just need to fill them with
         // progress data.
@@ -636,7 +936,7 @@ public class QuestPlayerManager {
 
     for(final ActiveObjective activeObjectiveWithSubObjectives : activeObjectivesWithSubObjectives){
       main.getLogManager().debug("Loading active objective with sub-objectives...");
-      handleLoadingOfActiveObjectives(activeQuestObjectivesPS, activeObjectiveWithSubObjectives);
+      handleLoadingOfActiveObjectives(questNamesAndActiveObjectiveRows, activeObjectiveWithSubObjectives);
       main.getLogManager().debug("    Done loading sub-aO's");
 
       activeObjectiveWithSubObjectives.removeCompletedObjectives(false);
@@ -646,175 +946,422 @@ public class QuestPlayerManager {
 
 
 
-  private void savePlayerDataInternal(final List<QuestPlayer> questPlayers) {
-    try (Connection connection = main.getDataManager().getConnection();
-         final PreparedStatement deleteFromQuestPlayerProfileDataPS = connection.prepareStatement("""
-            DELETE FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
-         """);
+  /**
+   * Writes the recorded changes of the given QuestPlayers to the database. Can be called from any thread. On the main
+   * thread, this doesn't wait for the database - the returned future completes once the changes are written. On all
+   * other threads, this waits until they're written.
+   *
+   * @return the amount of rows which have been deleted or inserted, once they're written
+   */
+  public CompletableFuture<Integer> savePlayerDataChanges(final List<QuestPlayer> questPlayers) {
+    if (!main.getConfiguration().savePlayerData) {
+      return CompletableFuture.completedFuture(0);
+    }
+    return savePlayerDataInternal(questPlayers);
+  }
 
-         final PreparedStatement insertIntoQuestPlayerProfileDataPS = connection.prepareStatement("""
-            INSERT INTO QuestPlayerProfileData (PlayerUUID, CurrentProfile) VALUES (?, ?);
-          """);
+  /**
+   * Takes a snapshot of the recorded changes of the given QuestPlayers and writes it to the database on the player
+   * data writer thread. Has to be called from the main thread, as that's where the player data is changed. Used by
+   * the write-behind queue.
+   *
+   * @return the amount of rows which have been deleted or inserted, once they're written
+   */
+  public CompletableFuture<Integer> queuePlayerDataChanges(final List<QuestPlayer> questPlayers) {
+    if (!main.getConfiguration().savePlayerData) {
+      return CompletableFuture.completedFuture(0);
+    }
+    final List<PlayerDataChanges> playerDataChanges = snapshotPlayerDataChanges(questPlayers);
+    if (playerDataChanges.isEmpty()) {
+      return CompletableFuture.completedFuture(0);
+    }
+    try {
+      //A single writer thread, so the snapshots are written in the order they've been taken
+      return CompletableFuture.supplyAsync(() -> writePlayerDataChanges(playerDataChanges), playerDataWriter);
+    } catch (final RejectedExecutionException e) {
+      return CompletableFuture.completedFuture(writePlayerDataChanges(playerDataChanges));
+    }
+  }
 
-         final PreparedStatement deleteFromQuestPlayerDataPS = connection.prepareStatement("""
-            DELETE FROM QuestPlayerData WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement insertIntoQuestPlayerDataPS = connection.prepareStatement("""
-            INSERT INTO QuestPlayerData (PlayerUUID, QuestPoints, Profile) VALUES (?, ?, ?);
-         """);
+  private CompletableFuture<Integer> savePlayerDataInternal(final List<QuestPlayer> questPlayers) {
+    if (Bukkit.isPrimaryThread() || !main.getMain().isEnabled()) {
+      //While the plugin is disabled, nothing changes the player data on the main thread anymore. The main thread
+      //never waits for the database.
+      return queuePlayerDataChanges(questPlayers);
+    }
+    CompletableFuture<Integer> writtenRows;
+    try {
+      writtenRows = Bukkit.getScheduler().callSyncMethod(main.getMain(), () -> queuePlayerDataChanges(questPlayers)).get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return CompletableFuture.completedFuture(0);
+    } catch (final CancellationException e) {
+      //The task has been cancelled because the plugin has been disabled in the meantime
+      writtenRows = queuePlayerDataChanges(questPlayers);
+    } catch (final ExecutionException e) {
+      main.getLogManager().warn("There was an error saving the PlayerData! Stacktrace:");
+      e.printStackTrace();
+      return CompletableFuture.completedFuture(0);
+    }
+    try {
+      return CompletableFuture.completedFuture(writtenRows.get());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return CompletableFuture.completedFuture(0);
+    } catch (final ExecutionException e) {
+      main.getLogManager().warn("There was an error saving the PlayerData! Stacktrace:");
+      e.printStackTrace();
+      return CompletableFuture.completedFuture(0);
+    }
+  }
+
+  /**
+   * Waits until all queued player data changes have been written and stops the writer thread. Every save after this
+   * is written on the calling thread.
+   */
+  public void shutdownPlayerDataWriter() {
+    playerDataWriter.shutdown();
+    try {
+      if (!playerDataWriter.awaitTermination(30, TimeUnit.SECONDS)) {
+        main.getLogManager().warn("The player data writer did not finish in time.");
+        playerDataWriter.shutdownNow();
+      }
+    } catch (final InterruptedException e) {
+      playerDataWriter.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Drains the change journals of the QuestPlayers and copies every changed row, so the rows can be written on
+   * another thread while the player data keeps changing. Has to be called from the main thread.
+   */
+  private List<PlayerDataChanges> snapshotPlayerDataChanges(final List<QuestPlayer> questPlayers) {
+    final ArrayList<PlayerDataChanges> playerDataChanges = new ArrayList<>();
+    for (final QuestPlayer questPlayer : questPlayers) {
+      final QuestPlayerChangeJournal journal = questPlayer.getChangeJournal().drain();
+      if (journal.isEmpty()) {
+        continue;
+      }
+
+      //Current Profile
+      String currentProfile = null;
+      if (journal.isCurrentProfileChanged()) {
+        final QuestPlayer activeQuestPlayer = activeQuestPlayersAndUUIDs.get(questPlayer.getUniqueId());
+        currentProfile = activeQuestPlayer != null ? activeQuestPlayer.getProfile() : "default";
+      }
+
+      // Added Active Quests are written completely. The changed objectives and triggers are collected in the same
+      // sets, so every row is written only once.
+      final ArrayList<String> addedActiveQuests = new ArrayList<>();
+      final LinkedHashSet<ActiveObjective> activeObjectivesToWrite = new LinkedHashSet<>();
+      final LinkedHashSet<ActiveTrigger> activeTriggersToWrite = new LinkedHashSet<>();
+      for (final ActiveQuest addedActiveQuest : journal.getAddedActiveQuests()) {
+        addedActiveQuests.add(addedActiveQuest.getQuestIdentifier());
+        activeTriggersToWrite.addAll(addedActiveQuest.getActiveTriggers());
+        collectActiveObjectiveRows(addedActiveQuest, activeObjectivesToWrite);
+      }
+      activeTriggersToWrite.addAll(journal.getChangedActiveTriggers());
+      activeObjectivesToWrite.addAll(journal.getChangedActiveObjectives());
+
+      final ArrayList<ChangedActiveTriggerRow> activeTriggerRows = new ArrayList<>(activeTriggersToWrite.size());
+      for (final ActiveTrigger activeTrigger : activeTriggersToWrite) {
+        activeTriggerRows.add(new ChangedActiveTriggerRow(
+            activeTrigger.getActiveQuest().getQuestIdentifier(),
+            activeTrigger.getTriggerID(),
+            activeTrigger.getTrigger().getTriggerType(),
+            activeTrigger.getCurrentProgress()
+        ));
+      }
+      // Active Objectives (and completed ones, which are saved with HasBeenCompleted = true)
+      final ArrayList<ChangedActiveObjectiveRow> activeObjectiveRows = new ArrayList<>(activeObjectivesToWrite.size());
+      for (final ActiveObjective activeObjective : activeObjectivesToWrite) {
+        activeObjectiveRows.add(new ChangedActiveObjectiveRow(
+            getActiveObjectiveQuestName(activeObjective),
+            activeObjective.getObjectiveID(),
+            main.getObjectiveManager().getObjectiveType(activeObjective.getObjective().getClass()),
+            activeObjective.getCurrentProgress(),
+            activeObjective.hasBeenCompleted(),
+            activeObjective.getProgressNeeded()
+        ));
+      }
+
+      final ArrayList<CompletedQuestRow> removedCompletedQuests = new ArrayList<>();
+      for (final CompletedQuest removedCompletedQuest : journal.getRemovedCompletedQuests()) {
+        removedCompletedQuests.add(new CompletedQuestRow(removedCompletedQuest.getQuestIdentifier(), removedCompletedQuest.getTimeCompleted()));
+      }
+      final ArrayList<CompletedQuestRow> addedCompletedQuests = new ArrayList<>();
+      for (final CompletedQuest addedCompletedQuest : journal.getAddedCompletedQuests()) {
+        addedCompletedQuests.add(new CompletedQuestRow(addedCompletedQuest.getQuestIdentifier(), addedCompletedQuest.getTimeCompleted()));
+      }
+
+      // Tags. If they haven't finished loading yet, saving now would overwrite the tags which haven't been loaded
+      // yet. Those changes are dropped, as the TagManager clears them anyway once the tags have been loaded.
+      final Map<String, Object> changedTags = journal.isTagsChanged() && questPlayer.isFinishedLoadingTags() ? Collections.unmodifiableMap(new LinkedHashMap<>(journal.getChangedTags())) : Map.of();
+
+      playerDataChanges.add(new PlayerDataChanges(
+          journal,
+          questPlayer.getUniqueId(),
+          questPlayer.getProfile(),
+          currentProfile,
+          journal.isQuestPlayerDataChanged() ? questPlayer.getQuestPoints() : null,
+          List.copyOf(journal.getRemovedActiveQuests()),
+          addedActiveQuests,
+          activeTriggerRows,
+          activeObjectiveRows,
+          removedCompletedQuests,
+          addedCompletedQuests,
+          changedTags
+      ));
+    }
+    return playerDataChanges;
+  }
+
+  /**
+   * Writes the snapshotted rows to the database. Only the rows recorded in the change journals of the players are
+   * written. Every table gets one batch of deletes (for removed rows) followed by one batch of inserts or upserts, all
+   * inside a single transaction. This can run on any thread, as it doesn't touch the player data itself. It's
+   * synchronized, as the writes are done on the calling thread once the player data writer has been shut down.
+   */
+  private synchronized int writePlayerDataChanges(final List<PlayerDataChanges> playerDataChanges) {
+    int writtenRows = 0;
+
+    final DatabaseDialect dialect = main.getDataManager().getDatabaseDialect();
+    try (Connection connection = main.getDataManager().getConnection();
+         final PreparedStatement upsertIntoQuestPlayerProfileDataPS = connection.prepareStatement(dialect.getUpsertQuery(
+             "QuestPlayerProfileData", List.of("PlayerUUID"), List.of("CurrentProfile")
+         ));
+         final PreparedStatement upsertIntoQuestPlayerDataPS = connection.prepareStatement(dialect.getUpsertQuery(
+             "QuestPlayerData", List.of("PlayerUUID", "Profile"), List.of("QuestPoints")
+         ));
 
          final PreparedStatement deleteFromActiveQuestsPS = connection.prepareStatement("""
-            DELETE FROM ActiveQuests WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement deleteFromActiveObjectivesPS = connection.prepareStatement("""
-            DELETE FROM ActiveObjectives WHERE PlayerUUID = ? AND Profile = ?;
+            DELETE FROM ActiveQuests WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
          """);
+         final PreparedStatement insertIntoActiveQuestsPS = connection.prepareStatement(dialect.getInsertIgnoreQuery(
+             "ActiveQuests", List.of("PlayerUUID", "Profile", "QuestName")
+         ));
 
-         final PreparedStatement insertIntoActiveQuestsPS = connection.prepareStatement("""
-            INSERT INTO ActiveQuests (QuestName, PlayerUUID, Profile) VALUES (?, ?, ?);
+         final PreparedStatement deleteAllActiveTriggersOfQuestPS = connection.prepareStatement("""
+            DELETE FROM ActiveTriggers WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
          """);
+         final PreparedStatement upsertIntoActiveTriggersPS = connection.prepareStatement(dialect.getUpsertQuery(
+             "ActiveTriggers", List.of("PlayerUUID", "Profile", "QuestName", "TriggerID"), List.of("TriggerType", "CurrentProgress")
+         ));
 
-         final PreparedStatement insertIntoActiveTriggersPS = connection.prepareStatement("""
-            INSERT INTO ActiveTriggers (TriggerType, QuestName, PlayerUUID, CurrentProgress, TriggerID, Profile) VALUES (?, ?, ?, ?, ?, ?);
+         final PreparedStatement deleteAllActiveObjectivesOfQuestPS = connection.prepareStatement("""
+            DELETE FROM ActiveObjectives WHERE PlayerUUID = ? AND Profile = ? AND (QuestName = ? OR QuestName LIKE ? ESCAPE '!');
          """);
+         final PreparedStatement upsertIntoActiveObjectivesPS = connection.prepareStatement(dialect.getUpsertQuery(
+             "ActiveObjectives", List.of("PlayerUUID", "Profile", "QuestName", "ObjectiveID"), List.of("ObjectiveType", "CurrentProgress", "HasBeenCompleted", "ProgressNeeded")
+         ));
 
-         final PreparedStatement insertIntoActiveObjectivesPS = connection.prepareStatement("""
-            INSERT INTO ActiveObjectives (ObjectiveType, QuestName, PlayerUUID, CurrentProgress, ObjectiveID, HasBeenCompleted, ProgressNeeded, Profile) VALUES (?, ?, ?, ?, ?, ?, ?, ?);
+         final PreparedStatement deleteFromCompletedQuestsPS = connection.prepareStatement("""
+            DELETE FROM CompletedQuests WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ? AND TimeCompleted = ?;
          """);
+         final PreparedStatement insertIntoCompletedQuestsPS = connection.prepareStatement(dialect.getInsertIgnoreQuery(
+             "CompletedQuests", List.of("PlayerUUID", "Profile", "QuestName", "TimeCompleted")
+         ));
 
-         final PreparedStatement deleteFromCompletedQuestsPS = connection.prepareStatement("""
-            DELETE FROM CompletedQuests WHERE PlayerUUID = ? AND Profile = ?;
+         final PreparedStatement deleteFromTagsPS = connection.prepareStatement("""
+            DELETE FROM Tags WHERE PlayerUUID = ? AND Profile = ? AND TagIdentifier = ?;
          """);
-         final PreparedStatement insertIntoCompletedQuestsPS = connection.prepareStatement("""
-            INSERT INTO CompletedQuests (QuestName, PlayerUUID, TimeCompleted, Profile) VALUES (?, ?, ?, ?);
-         """)
+         final PreparedStatement upsertIntoTagsPS = connection.prepareStatement(dialect.getUpsertQuery(
+             "Tags", List.of("PlayerUUID", "Profile", "TagIdentifier"), List.of("TagType", "TagValue", "TagNumberValue", "TagBooleanValue")
+         ))
     ) {
-      for (final QuestPlayer questPlayer : questPlayers) {
-        final long questPoints = questPlayer.getQuestPoints();
-        final UUID questPlayerUUID = questPlayer.getUniqueId();
-        final String profile = questPlayer.getProfile();
-
-        //Current Profile
-        deleteFromQuestPlayerProfileDataPS.setString(1, questPlayerUUID.toString());
-        deleteFromQuestPlayerProfileDataPS.executeUpdate();
-
-        insertIntoQuestPlayerProfileDataPS.setString(1, questPlayerUUID.toString());
-        final QuestPlayer activeQuestPlayer = activeQuestPlayersAndUUIDs.get(questPlayerUUID);
-        insertIntoQuestPlayerProfileDataPS.setString(2, activeQuestPlayer != null ? activeQuestPlayer.getProfile() : "default");
-        insertIntoQuestPlayerProfileDataPS.executeUpdate();
-
-        // QuestPoints
-        deleteFromQuestPlayerDataPS.setString(1, questPlayerUUID.toString());
-        deleteFromQuestPlayerDataPS.setString(2, profile);
-        deleteFromQuestPlayerDataPS.executeUpdate();
-
-        insertIntoQuestPlayerDataPS.setString(1, questPlayerUUID.toString());
-        insertIntoQuestPlayerDataPS.setLong(2, questPoints);
-        insertIntoQuestPlayerDataPS.setString(3, profile);
-        insertIntoQuestPlayerDataPS.executeUpdate();
-
-        // Active Quests and Active Objectives
-        deleteFromActiveQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromActiveQuestsPS.setString(2, profile);
-        deleteFromActiveQuestsPS.executeUpdate();
-        deleteFromActiveObjectivesPS.setString(1, questPlayerUUID.toString());
-        deleteFromActiveObjectivesPS.setString(2, profile);
-        deleteFromActiveObjectivesPS.executeUpdate();
-
-        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-          insertIntoActiveQuestsPS.setString(1, activeQuest.getQuest().getIdentifier());
-          insertIntoActiveQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoActiveQuestsPS.setString(3, profile);
-          insertIntoActiveQuestsPS.executeUpdate();
+      final boolean previousAutoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        final HashSet<UUID> savedCurrentProfileUUIDs = new HashSet<>();
+        for (final PlayerDataChanges changes : playerDataChanges) {
+          final byte[] questPlayerUUID = DatabaseDialect.toBytes(changes.uuid());
+          final String profile = changes.profile();
+
+          //Current Profile (only one row per UUID, even if multiple profiles of that player are saved)
+          if (changes.currentProfile() != null && savedCurrentProfileUUIDs.add(changes.uuid())) {
+            upsertIntoQuestPlayerProfileDataPS.setBytes(1, questPlayerUUID);
+            upsertIntoQuestPlayerProfileDataPS.setString(2, changes.currentProfile());
+            upsertIntoQuestPlayerProfileDataPS.addBatch();
+          }
+
+          // QuestPoints
+          if (changes.questPoints() != null) {
+            upsertIntoQuestPlayerDataPS.setBytes(1, questPlayerUUID);
+            upsertIntoQuestPlayerDataPS.setString(2, profile);
+            upsertIntoQuestPlayerDataPS.setLong(3, changes.questPoints());
+            upsertIntoQuestPlayerDataPS.addBatch();
+          }
+
+          // Removed Active Quests, including all their objectives and triggers
+          for (final String removedQuestName : changes.removedActiveQuests()) {
+            addActiveQuestRowsDeletionToBatch(deleteFromActiveQuestsPS, deleteAllActiveTriggersOfQuestPS, deleteAllActiveObjectivesOfQuestPS, questPlayerUUID, profile, removedQuestName);
+          }
+
+          // Added Active Quests
+          for (final String addedQuestName : changes.addedActiveQuests()) {
+            if (!changes.removedActiveQuests().contains(addedQuestName)) {
+              //Make sure there is no leftover row of a previous accept
+              addActiveQuestRowsDeletionToBatch(deleteFromActiveQuestsPS, deleteAllActiveTriggersOfQuestPS, deleteAllActiveObjectivesOfQuestPS, questPlayerUUID, profile, addedQuestName);
+            }
+
+            insertIntoActiveQuestsPS.setBytes(1, questPlayerUUID);
+            insertIntoActiveQuestsPS.setString(2, profile);
+            insertIntoActiveQuestsPS.setString(3, addedQuestName);
+            insertIntoActiveQuestsPS.addBatch();
+          }
 
           // Active Triggers
-          for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-            insertIntoActiveTriggersPS.setString(1, activeTrigger.getTrigger().getTriggerType());
-            insertIntoActiveTriggersPS.setString(2, activeTrigger.getActiveQuest().getQuest().getIdentifier());
-            insertIntoActiveTriggersPS.setString(3, questPlayerUUID.toString());
-            insertIntoActiveTriggersPS.setLong(4, activeTrigger.getCurrentProgress());
-            insertIntoActiveTriggersPS.setInt(5, activeTrigger.getTriggerID());
-            insertIntoActiveTriggersPS.setString(6, profile);
-            insertIntoActiveTriggersPS.executeUpdate();
+          for (final ChangedActiveTriggerRow activeTriggerRow : changes.activeTriggerRows()) {
+            upsertIntoActiveTriggersPS.setBytes(1, questPlayerUUID);
+            upsertIntoActiveTriggersPS.setString(2, profile);
+            upsertIntoActiveTriggersPS.setString(3, activeTriggerRow.questName());
+            upsertIntoActiveTriggersPS.setInt(4, activeTriggerRow.triggerID());
+            upsertIntoActiveTriggersPS.setString(5, activeTriggerRow.triggerType());
+            upsertIntoActiveTriggersPS.setLong(6, activeTriggerRow.currentProgress());
+            upsertIntoActiveTriggersPS.addBatch();
           }
 
           // Active Objectives
-          for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-            handleSavingOfActiveObjectives(insertIntoActiveObjectivesPS, activeObjective, questPlayerUUID, profile);
+          for (final ChangedActiveObjectiveRow activeObjectiveRow : changes.activeObjectiveRows()) {
+            upsertIntoActiveObjectivesPS.setBytes(1, questPlayerUUID);
+            upsertIntoActiveObjectivesPS.setString(2, profile);
+            upsertIntoActiveObjectivesPS.setString(3, activeObjectiveRow.questName());
+            upsertIntoActiveObjectivesPS.setInt(4, activeObjectiveRow.objectiveID());
+            upsertIntoActiveObjectivesPS.setString(5, activeObjectiveRow.objectiveType());
+            upsertIntoActiveObjectivesPS.setDouble(6, activeObjectiveRow.currentProgress());
+            upsertIntoActiveObjectivesPS.setBoolean(7, activeObjectiveRow.hasBeenCompleted());
+            upsertIntoActiveObjectivesPS.setDouble(8, activeObjectiveRow.progressNeeded());
+            upsertIntoActiveObjectivesPS.addBatch();
           }
-          // Active Objectives from completed Objective list
-          for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
-            handleSavingOfCompletedActiveObjectives(insertIntoActiveObjectivesPS, completedObjective, questPlayerUUID, profile);
+
+          // Completed Quests
+          for (final CompletedQuestRow removedCompletedQuest : changes.removedCompletedQuests()) {
+            deleteFromCompletedQuestsPS.setBytes(1, questPlayerUUID);
+            deleteFromCompletedQuestsPS.setString(2, profile);
+            deleteFromCompletedQuestsPS.setString(3, removedCompletedQuest.questName());
+            deleteFromCompletedQuestsPS.setLong(4, removedCompletedQuest.timeCompleted());
+            deleteFromCompletedQuestsPS.addBatch();
+          }
+          for (final CompletedQuestRow addedCompletedQuest : changes.addedCompletedQuests()) {
+            insertIntoCompletedQuestsPS.setBytes(1, questPlayerUUID);
+            insertIntoCompletedQuestsPS.setString(2, profile);
+            insertIntoCompletedQuestsPS.setString(3, addedCompletedQuest.questName());
+            insertIntoCompletedQuestsPS.setLong(4, addedCompletedQuest.timeCompleted());
+            insertIntoCompletedQuestsPS.addBatch();
           }
-        }
 
-        // Completed Quests
-        deleteFromCompletedQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromCompletedQuestsPS.setString(2, profile);
-        deleteFromCompletedQuestsPS.executeUpdate();
-
-        for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-          insertIntoCompletedQuestsPS.setString(1, completedQuest.getQuest().getIdentifier());
-          insertIntoCompletedQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoCompletedQuestsPS.setLong(3, completedQuest.getTimeCompleted());
-          insertIntoCompletedQuestsPS.setString(4, profile);
-          insertIntoCompletedQuestsPS.executeUpdate();
+          // Tags
+          if (!changes.changedTags().isEmpty()) {
+            main.getTagManager().addChangedTagsToBatch(changes.uuid(), profile, changes.changedTags(), upsertIntoTagsPS, deleteFromTagsPS);
+          }
         }
+
+        //Deletes first, so the rows of re-accepted quests are written fresh afterwards
+        writtenRows += deleteFromActiveQuestsPS.executeBatch().length;
+        writtenRows += deleteAllActiveTriggersOfQuestPS.executeBatch().length;
+        writtenRows += deleteAllActiveObjectivesOfQuestPS.executeBatch().length;
+        writtenRows += deleteFromCompletedQuestsPS.executeBatch().length;
+        writtenRows += deleteFromTagsPS.executeBatch().length;
+
+        writtenRows += upsertIntoQuestPlayerProfileDataPS.executeBatch().length;
+        writtenRows += upsertIntoQuestPlayerDataPS.executeBatch().length;
+        writtenRows += insertIntoActiveQuestsPS.executeBatch().length;
+        writtenRows += upsertIntoActiveTriggersPS.executeBatch().length;
+        writtenRows += upsertIntoActiveObjectivesPS.executeBatch().length;
+        writtenRows += insertIntoCompletedQuestsPS.executeBatch().length;
+        writtenRows += upsertIntoTagsPS.executeBatch().length;
+
+        connection.commit();
+      } catch (final SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(previousAutoCommit);
       }
     } catch (Exception e) {
-      if(questPlayers.size() == 1){
+      //Nothing has been written, so the changes are put back to be written during the next save
+      for (final PlayerDataChanges changes : playerDataChanges) {
+        changes.drainedJournal().getQuestPlayer().getChangeJournal().restore(changes.drainedJournal());
+      }
+      if(playerDataChanges.size() == 1){
         main.getLogManager()
                 .warn(
-                        "There was an error saving the PlayerData of player with UUID <highlight>%s</highlight>! Stacktrace:", questPlayers.get(0).getUniqueId());
+                        "There was an error saving the PlayerData of player with UUID <highlight>%s</highlight>! Stacktrace:", playerDataChanges.get(0).uuid());
       }else{
-        main.getLogManager().warn("There was an error loading the PlayerData! Stacktrace:");
+        main.getLogManager().warn("There was an error saving the PlayerData! Stacktrace:");
       }
       e.printStackTrace();
+      return 0;
     }
 
+    return writtenRows;
   }
 
-  private void handleSavingOfActiveObjectives(final PreparedStatement insertIntoActiveObjectivesPS, final ActiveObjective activeObjective, final UUID questPlayerUUID, final String profile) throws SQLException {
-    insertIntoActiveObjectivesPS.setString(1, main.getObjectiveManager().getObjectiveType(activeObjective.getObjective().getClass()));
+  /**
+   * The changed rows of one QuestPlayer, copied on the main thread by snapshotPlayerDataChanges()
+   *
+   * @param currentProfile null if it hasn't changed
+   * @param questPoints null if they haven't changed
+   */
+  private record PlayerDataChanges(QuestPlayerChangeJournal drainedJournal, UUID uuid, String profile, @Nullable String currentProfile, @Nullable Long questPoints,
+                                   List<String> removedActiveQuests, List<String> addedActiveQuests, List<ChangedActiveTriggerRow> activeTriggerRows,
+                                   List<ChangedActiveObjectiveRow> activeObjectiveRows, List<CompletedQuestRow> removedCompletedQuests,
+                                   List<CompletedQuestRow> addedCompletedQuests, Map<String, Object> changedTags) {}
+
+  private record ChangedActiveTriggerRow(String questName, int triggerID, String triggerType, long currentProgress) {}
+
+  private record ChangedActiveObjectiveRow(String questName, int objectiveID, String objectiveType, double currentProgress, boolean hasBeenCompleted, double progressNeeded) {}
+
+  private void addActiveQuestRowsDeletionToBatch(final PreparedStatement deleteFromActiveQuestsPS, final PreparedStatement deleteAllActiveTriggersOfQuestPS, final PreparedStatement deleteAllActiveObjectivesOfQuestPS, final byte[] questPlayerUUID, final String profile, final String questName) throws SQLException {
+    deleteFromActiveQuestsPS.setBytes(1, questPlayerUUID);
+    deleteFromActiveQuestsPS.setString(2, profile);
+    deleteFromActiveQuestsPS.setString(3, questName);
+    deleteFromActiveQuestsPS.addBatch();
+
+    deleteAllActiveTriggersOfQuestPS.setBytes(1, questPlayerUUID);
+    deleteAllActiveTriggersOfQuestPS.setString(2, profile);
+    deleteAllActiveTriggersOfQuestPS.setString(3, questName);
+    deleteAllActiveTriggersOfQuestPS.addBatch();
+
+    //Sub-objectives are saved with the QuestName "questName.objectiveID.subObjectiveID..."
+    deleteAllActiveObjectivesOfQuestPS.setBytes(1, questPlayerUUID);
+    deleteAllActiveObjectivesOfQuestPS.setString(2, profile);
+    deleteAllActiveObjectivesOfQuestPS.setString(3, questName);
+    deleteAllActiveObjectivesOfQuestPS.setString(4, questName.replace("!", "!!").replace("%", "!%").replace("_", "!_") + ".%");
+    deleteAllActiveObjectivesOfQuestPS.addBatch();
+  }
 
-    ActiveObjective lastActiveObjective = activeObjective;
-    String counterWithSubId = "";
-    for(int i = 0; i < activeObjective.getLevel(); i++){
-      if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveObjective parentActiveObjective){
-        lastActiveObjective = parentActiveObjective;
-        counterWithSubId = lastActiveObjective.getObjectiveID() + "."+counterWithSubId;
-      }else if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveQuest activeQuest){
-        counterWithSubId = activeQuest.getQuestIdentifier() + "."+counterWithSubId;
-        break;
-      }
+  /**
+   * Collects the rows of all active objectives (and their active sub-objectives) and completed objectives (and their
+   * completed sub-objectives) of the holder - the same rows which are loaded again in handleLoadingOfActiveObjectives.
+   */
+  private void collectActiveObjectiveRows(final ActiveObjectiveHolder activeObjectiveHolder, final Set<ActiveObjective> activeObjectiveRows) {
+    for (final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()) {
+      activeObjectiveRows.add(activeObjective);
+      collectActiveObjectiveRows(activeObjective, activeObjectiveRows);
     }
-    if(counterWithSubId.endsWith(".")){
-      counterWithSubId = counterWithSubId.substring(0, counterWithSubId.length()-1);
+    for (final ActiveObjective completedObjective : activeObjectiveHolder.getCompletedObjectives()) {
+      activeObjectiveRows.add(completedObjective);
+      collectCompletedObjectiveRows(completedObjective, activeObjectiveRows);
     }
+  }
 
-    insertIntoActiveObjectivesPS.setString(2, /*activeObjective.getActiveObjectiveHolder().getObjectiveHolder().getIdentifier()*/counterWithSubId);
-    insertIntoActiveObjectivesPS.setString(3, questPlayerUUID.toString());
-    insertIntoActiveObjectivesPS.setDouble(4, activeObjective.getCurrentProgress());
-    insertIntoActiveObjectivesPS.setInt(5, activeObjective.getObjectiveID());
-    insertIntoActiveObjectivesPS.setBoolean(6, activeObjective.hasBeenCompleted());
-    insertIntoActiveObjectivesPS.setDouble(7, activeObjective.getProgressNeeded());
-    insertIntoActiveObjectivesPS.setString(8, profile);
-    insertIntoActiveObjectivesPS.executeUpdate();
-
-    if(!activeObjective.getActiveObjectives().isEmpty()){
-      //Handle active sub-objectives here
-      for(final ActiveObjective subActiveObjective : activeObjective.getActiveObjectives()){
-        handleSavingOfActiveObjectives(insertIntoActiveObjectivesPS, subActiveObjective, questPlayerUUID, profile);
-      }
+  private void collectCompletedObjectiveRows(final ActiveObjective completedObjective, final Set<ActiveObjective> activeObjectiveRows) {
+    for (final ActiveObjective subCompletedObjective : completedObjective.getCompletedObjectives()) {
+      activeObjectiveRows.add(subCompletedObjective);
+      collectCompletedObjectiveRows(subCompletedObjective, activeObjectiveRows);
     }
   }
 
-  private void handleSavingOfCompletedActiveObjectives(final PreparedStatement insertIntoActiveObjectivesPS, final ActiveObjective completedObjective, final UUID questPlayerUUID, final String profile) throws SQLException {
-    insertIntoActiveObjectivesPS.setString(1, main.getObjectiveManager().getObjectiveType(completedObjective.getObjective().getClass()));
-
-    ActiveObjective lastActiveObjective = completedObjective;
+  /**
+   * @return the value of the QuestName column for the active objective. For objectives of a quest, that's the quest identifier. For
+   * sub-objectives, the IDs of all parent objectives are appended, separated by dots.
+   */
+  private String getActiveObjectiveQuestName(final ActiveObjective activeObjective) {
+    ActiveObjective lastActiveObjective = activeObjective;
     String counterWithSubId = "";
-    for(int i = 0; i < completedObjective.getLevel(); i++){
+    for(int i = 0; i < activeObjective.getLevel(); i++){
       if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveObjective parentActiveObjective){
         lastActiveObjective = parentActiveObjective;
         counterWithSubId = lastActiveObjective.getObjectiveID() + "."+counterWithSubId;
@@ -826,22 +1373,7 @@ public class QuestPlayerManager {
     if(counterWithSubId.endsWith(".")){
       counterWithSubId = counterWithSubId.substring(0, counterWithSubId.length()-1);
     }
-
-    insertIntoActiveObjectivesPS.setString(2, /*completedObjective.getActiveObjectiveHolder().getObjectiveHolder().getIdentifier()*/counterWithSubId);
-    insertIntoActiveObjectivesPS.setString(3, questPlayerUUID.toString());
-    insertIntoActiveObjectivesPS.setDouble(4, completedObjective.getCurrentProgress());
-    insertIntoActiveObjectivesPS.setInt(5, completedObjective.getObjectiveID());
-    insertIntoActiveObjectivesPS.setBoolean(6,  completedObjective.hasBeenCompleted());
-    insertIntoActiveObjectivesPS.setDouble(7, completedObjective.getProgressNeeded());
-    insertIntoActiveObjectivesPS.setString(8, profile);
-    insertIntoActiveObjectivesPS.executeUpdate();
-
-    if(!completedObjective.getCompletedObjectives().isEmpty()){
-      //Handle active sub-objectives here
-      for(final ActiveObjective subCompletedActiveObjective : completedObjective.getCompletedObjectives()){
-        handleSavingOfCompletedActiveObjectives(insertIntoActiveObjectivesPS, subCompletedActiveObjective, questPlayerUUID, profile);
-      }
-    }
+    return counterWithSubId;
   }
 
 
@@ -556,7 +556,7 @@ public class UtilManager {
                         final int indexOfOpening = split.indexOf("{{");
 
                         final String expression = split.substring(indexOfOpening + 2);
-                        final NumberExpression numberExpression = new NumberExpression(main, expression);
+                        final NumberExpression numberExpression = NumberExpression.of(main, expression);
                         final double calculatedExpression = numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
 
                         toReturn = toReturn.replace("{{" + expression + "}}", "" + calculatedExpression);
@@ -564,7 +564,7 @@ public class UtilManager {
                         final int indexOfOpening = split.indexOf("{{~");
 
                         final String expression = split.substring(indexOfOpening + 3);
-                        final NumberExpression numberExpression = new NumberExpression(main, expression);
+                        final NumberExpression numberExpression = NumberExpression.of(main, expression);
                         final double calculatedExpression = numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
 
                         toReturn = toReturn.replace("{{~" + expression + "}}", "" + (int) Math.round(calculatedExpression));
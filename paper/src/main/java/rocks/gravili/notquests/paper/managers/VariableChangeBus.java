@@ -0,0 +1,164 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.Bukkit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Notifies QuestPlayers about changed variable values, so their condition and variable objectives which depend on
+ * those variables are checked again right away. The objectives subscribe to the variables they depend on when they're
+ * unlocked (see QuestPlayer.subscribeToVariableChanges()).
+ * <p>
+ * Only objectives which depend on variables that can't publish all of their changes (e.g. PlaceholderAPI or money) are
+ * still checked periodically. A variable can publish its changes if every change of its value goes through
+ * Variable.setValue() or one of the Bukkit events handled by VariableChangeEvents. Such variables have to be
+ * registered with registerPublishingVariable().
+ */
+public class VariableChangeBus {
+  private final NotQuests main;
+  /**
+   * Lowercase types of the variables which publish every change of their value
+   */
+  private final Set<String> publishingVariableTypes = ConcurrentHashMap.newKeySet();
+  /**
+   * Changes which are published in the next tick, as most Bukkit events are called before the value actually changes.
+   * Keyed by the QuestPlayer which published them, as that doesn't have to be the active profile of the player. The
+   * sets are only changed inside compute(), so a set which has been removed by flush() never changes again.
+   */
+  private final ConcurrentHashMap<QuestPlayer, Set<String>> pendingChanges = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+  //Metrics
+  private final LongAdder publishedChanges = new LongAdder();
+  private final LongAdder checkedObjectives = new LongAdder();
+
+  public VariableChangeBus(final NotQuests main) {
+    this.main = main;
+
+    //Those never change
+    registerPublishingVariable("True");
+    registerPublishingVariable("False");
+
+    //Changed through the QuestPlayer, which publishes every change
+    registerPublishingVariable("QuestPoints");
+    registerPublishingVariable("TagBoolean");
+    registerPublishingVariable("TagInteger");
+    registerPublishingVariable("TagFloat");
+    registerPublishingVariable("TagDouble");
+    registerPublishingVariable("TagString");
+
+    //Published by VariableChangeEvents. Health and Flying are published there as well, but they're not registered
+    //here, as other plugins can change them without calling any event (e.g. /heal or /fly).
+    registerPublishingVariable("ExperienceLevel");
+    registerPublishingVariable("CurrentWorld");
+    registerPublishingVariable("GameMode");
+    registerPublishingVariable("Sneaking");
+    registerPublishingVariable("Sprinting");
+    registerPublishingVariable("Sleeping");
+  }
+
+  public void registerPublishingVariable(final String variableType) {
+    publishingVariableTypes.add(variableType.toLowerCase(Locale.ROOT));
+  }
+
+  public final boolean isPublishingVariable(final String variableType) {
+    return publishingVariableTypes.contains(variableType.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * @return if a change of all those variables is published. If not, whatever depends on them has to be checked
+   *     periodically.
+   */
+  public final boolean arePublishingVariables(final @Nullable Set<String> variableTypes) {
+    if (variableTypes == null) {
+      return false;
+    }
+    for (final String variableType : variableTypes) {
+      if (!isPublishingVariable(variableType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks the objectives of the QuestPlayer which depend on the variable right away. Has to be called on the main
+   * thread.
+   */
+  public void publish(final QuestPlayer questPlayer, final String variableType) {
+    publishedChanges.increment();
+    checkedObjectives.add(questPlayer.onVariablesChanged(Set.of(variableType.toLowerCase(Locale.ROOT))));
+  }
+
+  /**
+   * Checks the objectives of the QuestPlayer which depend on the variables in the next tick. Changes of the same
+   * player are combined, so every objective is checked only once per tick. This can be called from any thread.
+   */
+  public void publishNextTick(final QuestPlayer questPlayer, final String... variableTypes) {
+    if (!questPlayer.hasVariableSubscriptions()) {
+      return;
+    }
+    pendingChanges.compute(questPlayer, (pendingQuestPlayer, pendingVariableTypes) -> {
+      final Set<String> newPendingVariableTypes = pendingVariableTypes != null ? pendingVariableTypes : new HashSet<>();
+      for (final String variableType : variableTypes) {
+        newPendingVariableTypes.add(variableType.toLowerCase(Locale.ROOT));
+      }
+      return newPendingVariableTypes;
+    });
+    if (main.getMain().isEnabled() && flushScheduled.compareAndSet(false, true)) {
+      Bukkit.getScheduler().runTask(main.getMain(), this::flush);
+    }
+  }
+
+  private void flush() {
+    flushScheduled.set(false);
+    for (final QuestPlayer questPlayer : pendingChanges.keySet()) {
+      //Changes published after this are put into a new set and flushed in the next tick
+      final Set<String> pendingVariableTypes = pendingChanges.remove(questPlayer);
+      if (pendingVariableTypes == null) {
+        continue;
+      }
+      //The QuestPlayer might have been unloaded in the meantime
+      final List<QuestPlayer> loadedQuestPlayers = main.getQuestPlayerManager().getQuestPlayersForUUIDs().get(questPlayer.getUniqueId());
+      if (loadedQuestPlayers == null || !loadedQuestPlayers.contains(questPlayer)) {
+        continue;
+      }
+      publishedChanges.add(pendingVariableTypes.size());
+      checkedObjectives.add(questPlayer.onVariablesChanged(pendingVariableTypes));
+    }
+  }
+
+  public final long getPublishedChanges() {
+    return publishedChanges.sum();
+  }
+
+  public final long getCheckedObjectives() {
+    return checkedObjectives.sum();
+  }
+}
@@ -19,7 +19,6 @@
 package rocks.gravili.notquests.paper.managers.data;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -229,63 +228,28 @@ public class Category {
   }
 
   public void saveCategoryConfig() {
-    if (main.getDataManager().isSavingEnabled()) {
-      try {
-        categoryConfig.save(categoryFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-    }
+    main.getDataManager().getCategoryConfigWriter().save(categoryFile, categoryConfig);
   }
 
   public void saveQuestsConfig() {
-    if (main.getDataManager().isSavingEnabled()) {
-      try {
-        questsConfig.save(questsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-    }
+    main.getQuestManager().markQuestsModified(); //Every change of quest data is saved right away
+    main.getDataManager().getCategoryConfigWriter().save(questsFile, questsConfig);
   }
 
   public void saveActionsConfig() {
-    if (main.getDataManager().isSavingEnabled()) {
-      try {
-        actionsConfig.save(actionsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-    }
+    main.getDataManager().getCategoryConfigWriter().save(actionsFile, actionsConfig);
   }
 
   public void saveConditionsConfig() {
-    if (main.getDataManager().isSavingEnabled()) {
-      try {
-        conditionsConfig.save(conditionsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-    }
+    main.getDataManager().getCategoryConfigWriter().save(conditionsFile, conditionsConfig);
   }
 
   public void saveTagsConfig() {
-    if (main.getDataManager().isSavingEnabled()) {
-      try {
-        tagsConfig.save(tagsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-    }
+    main.getDataManager().getCategoryConfigWriter().save(tagsFile, tagsConfig);
   }
 
   public void saveItemsConfig() {
-    if (main.getDataManager().isSavingEnabled()) {
-      try {
-        itemsConfig.save(itemsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-    }
+    main.getDataManager().getCategoryConfigWriter().save(itemsFile, itemsConfig);
   }
 
   public final PredefinedProgressOrder getPredefinedProgressOrder() {
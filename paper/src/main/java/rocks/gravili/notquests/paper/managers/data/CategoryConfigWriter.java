@@ -0,0 +1,245 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * Writes the configuration files of categories (quests.yml, actions.yml, conditions.yml, ...). Instead of re-writing
+ * the whole file every time something is changed, the file is only marked as dirty. All dirty files are serialized
+ * once after the configured save delay, and then written on a separate writer thread. This way, a file which is changed
+ * many times in a short time (e.g. by a lot of edit commands) is only written once.
+ * <p>
+ * The files are first written to a temporary file, which then replaces the actual file. That way, a crash during
+ * writing never leaves behind a half-written file.
+ */
+public class CategoryConfigWriter {
+    private final NotQuests main;
+    private final ConcurrentHashMap<File, FileConfiguration> dirtyConfigs;
+    private final AtomicBoolean flushScheduled;
+    /**
+     * Files are also written right away on the calling thread (e.g. while shutting down), so this prevents two writes
+     * of the same file using the same temporary file.
+     */
+    private final Object writeLock = new Object();
+    private ExecutorService executor;
+    private volatile boolean shutDown = false;
+
+    //Metrics
+    private final AtomicLong requestedSaves;
+    private final AtomicLong writes;
+    private final AtomicLong failedWrites;
+    private final AtomicLong writtenBytes;
+    private final AtomicLong totalWriteNanos;
+    private volatile long lastWriteNanos;
+
+    public CategoryConfigWriter(final NotQuests main) {
+        this.main = main;
+        dirtyConfigs = new ConcurrentHashMap<>();
+        flushScheduled = new AtomicBoolean(false);
+
+        requestedSaves = new AtomicLong();
+        writes = new AtomicLong();
+        failedWrites = new AtomicLong();
+        writtenBytes = new AtomicLong();
+        totalWriteNanos = new AtomicLong();
+    }
+
+    /**
+     * Marks the configuration file as changed. It will be written after the configured save delay, or right away if the
+     * save delay is 0 or the plugin is shutting down.
+     */
+    public void save(final File file, final FileConfiguration fileConfiguration) {
+        requestedSaves.incrementAndGet();
+        if (file == null || fileConfiguration == null || !main.getDataManager().isSavingEnabled()) {
+            return;
+        }
+
+        final long saveDelayMillis = main.getConfiguration().getStorageCategoryConfigSaveDelayMillis();
+        if (saveDelayMillis <= 0 || shutDown || !main.getMain().isEnabled()) {
+            write(file, fileConfiguration.saveToString().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        dirtyConfigs.put(file, fileConfiguration);
+        if (flushScheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTaskLater(main.getMain(), this::flush, Math.max(1, saveDelayMillis / 50));
+        }
+    }
+
+    /**
+     * Serializes all dirty configuration files and passes them to the writer thread. This runs on the main thread, as
+     * that's where the configurations are changed.
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        for (final Map.Entry<File, FileConfiguration> entry : dirtyConfigs.entrySet()) {
+            if (!dirtyConfigs.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            final byte[] data = entry.getValue().saveToString().getBytes(StandardCharsets.UTF_8);
+            if (shutDown) {
+                write(entry.getKey(), data);
+            } else {
+                getExecutor().execute(() -> write(entry.getKey(), data));
+            }
+        }
+    }
+
+    /**
+     * Writes all dirty configuration files and waits until they're written. Needed before the files are loaded again,
+     * e.g. when the plugin is reloaded.
+     */
+    public void flushAndWait() {
+        flush();
+        final ExecutorService executor;
+        synchronized (this) {
+            executor = this.executor;
+        }
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.submit(() -> {}).get(30, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException | TimeoutException | RejectedExecutionException e) {
+            main.getLogManager().warn("Could not wait for the category config writer to finish. Stacktrace:");
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            //A single thread, so the writes of the same file can never overtake each other
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "NotQuests-CategoryConfigWriter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Waits for the writer thread to finish and writes all files which are still dirty on the calling thread. This is
+     * called when the plugin is disabled, so no change gets lost. Every save after this is written right away.
+     */
+    public void shutdown() {
+        shutDown = true;
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdown();
+                try {
+                    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                        main.getLogManager().warn("The category config writer did not finish in time.");
+                        executor.shutdownNow();
+                    }
+                } catch (final InterruptedException e) {
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+                executor = null;
+            }
+        }
+        for (final Map.Entry<File, FileConfiguration> entry : dirtyConfigs.entrySet()) {
+            if (dirtyConfigs.remove(entry.getKey(), entry.getValue())) {
+                write(entry.getKey(), entry.getValue().saveToString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void write(final File file, final byte[] data) {
+        final long startTime = System.nanoTime();
+        final Path path = file.toPath();
+        final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        synchronized (writeLock) {
+            try {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                Files.write(temporaryPath, data);
+                try {
+                    Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (final IOException e) {
+                failedWrites.incrementAndGet();
+                main.getLogManager().severe("Could not save <highlight>" + file.getPath() + "</highlight>. Stacktrace:");
+                e.printStackTrace();
+                return;
+            }
+        }
+        final long writeNanos = System.nanoTime() - startTime;
+
+        writes.incrementAndGet();
+        writtenBytes.addAndGet(data.length);
+        totalWriteNanos.addAndGet(writeNanos);
+        lastWriteNanos = writeNanos;
+    }
+
+    public final int getDirtyFiles() {
+        return dirtyConfigs.size();
+    }
+
+    public final long getRequestedSaves() {
+        return requestedSaves.get();
+    }
+
+    public final long getWrites() {
+        return writes.get();
+    }
+
+    public final long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    public final long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    public final double getLastWriteMillis() {
+        return lastWriteNanos / 1_000_000d;
+    }
+
+    public final double getAverageWriteMillis() {
+        final long writeCount = writes.get();
+        return writeCount == 0 ? 0 : (totalWriteNanos.get() / (double) writeCount) / 1_000_000d;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Collects the QuestPlayers whose change journal contains unsaved changes and periodically writes those changes to the
+ * database. A player which changes many times between two flushes is only queued once, and every changed row is only
+ * written once, no matter how often it has changed.
+ * <p>
+ * Flushes run on the main thread, where the changed rows are copied. Only writing those copies to the database
+ * happens on the player data writer thread of the QuestPlayerManager. The queue never holds more QuestPlayers than
+ * the configured maximum size: once it's full, it's flushed right away before the next QuestPlayer is queued. As
+ * flushes have to run on the main thread, QuestPlayers which change on another thread while the queue is full are
+ * queued by the main thread in the next tick.
+ */
+public class PlayerDataWriteBehindQueue {
+    private final NotQuests main;
+    private final Set<QuestPlayer> queuedQuestPlayers;
+    private BukkitTask flushTask;
+
+    //Metrics
+    private final AtomicLong flushes;
+    private final AtomicLong flushedQuestPlayers;
+    private final AtomicLong writtenRows;
+    private final AtomicLong recordedChanges;
+    private final AtomicLong totalFlushNanos;
+    private volatile long lastFlushNanos;
+    private volatile int lastFlushSize;
+
+    public PlayerDataWriteBehindQueue(final NotQuests main) {
+        this.main = main;
+        queuedQuestPlayers = ConcurrentHashMap.newKeySet();
+
+        flushes = new AtomicLong();
+        flushedQuestPlayers = new AtomicLong();
+        writtenRows = new AtomicLong();
+        recordedChanges = new AtomicLong();
+        totalFlushNanos = new AtomicLong();
+    }
+
+    public final boolean isEnabled() {
+        return main.getConfiguration().isStorageWriteBehindEnabled();
+    }
+
+    public void start() {
+        if (!isEnabled() || flushTask != null) {
+            return;
+        }
+        final long flushIntervalSeconds = Math.max(1, main.getConfiguration().getStorageWriteBehindFlushIntervalSeconds());
+        flushTask = Bukkit.getScheduler().runTaskTimer(main.getMain(), this::flushSafely, flushIntervalSeconds * 20L, flushIntervalSeconds * 20L);
+
+        main.getLogManager().info("Player data changes are now written to the database every <highlight>%s</highlight> seconds.", flushIntervalSeconds);
+    }
+
+    /**
+     * Stops the periodic flushes and writes everything which is still queued. This is called when the plugin is
+     * disabled, so no change gets lost. The QuestPlayerManager waits for the writes when its writer is shut down.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    public void enqueue(final QuestPlayer questPlayer) {
+        recordedChanges.incrementAndGet();
+        if (!isEnabled()) {
+            return;
+        }
+        queue(questPlayer);
+    }
+
+    private void queue(final QuestPlayer questPlayer) {
+        if (queuedQuestPlayers.contains(questPlayer)) {
+            return;
+        }
+        //Before the periodic flushes have been started or after they've been stopped, nothing flushes the queue early
+        if (queuedQuestPlayers.size() >= main.getConfiguration().getStorageWriteBehindMaxQueueSize()
+                && flushTask != null
+                && main.getMain().isEnabled()) {
+            if (!Bukkit.isPrimaryThread()) {
+                Bukkit.getScheduler().runTask(main.getMain(), () -> queue(questPlayer));
+                return;
+            }
+            //The QuestPlayer itself is only queued afterwards, as its change is recorded after this returns
+            flushSafely();
+        }
+        queuedQuestPlayers.add(questPlayer);
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (final Exception e) {
+            main.getLogManager().warn("There was an error writing the queued player data changes! Stacktrace:");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Copies the changes of all queued QuestPlayers and hands them to the player data writer, which writes them to the
+     * database in a single transaction. On the main thread, this doesn't wait until they're written.
+     *
+     * @return the amount of rows which have been deleted or inserted, once they're written
+     */
+    public CompletableFuture<Integer> flush() {
+        if (!canFlush()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        final ArrayList<QuestPlayer> questPlayersToFlush = drainQueuedQuestPlayers();
+        final long startTime = System.nanoTime();
+        return main.getQuestPlayerManager().savePlayerDataChanges(questPlayersToFlush).whenComplete((rows, throwable) -> {
+            if (throwable != null) {
+                main.getLogManager().warn("There was an error writing the queued player data changes! Stacktrace:");
+                throwable.printStackTrace();
+                return;
+            }
+            onFlushed(questPlayersToFlush.size(), rows, System.nanoTime() - startTime);
+        });
+    }
+
+    private boolean canFlush() {
+        return !queuedQuestPlayers.isEmpty()
+                && main.getConfiguration().savePlayerData
+                && main.getDataManager().isSavingEnabled();
+    }
+
+    private ArrayList<QuestPlayer> drainQueuedQuestPlayers() {
+        final ArrayList<QuestPlayer> questPlayersToFlush = new ArrayList<>(queuedQuestPlayers.size());
+        for (final Iterator<QuestPlayer> iterator = queuedQuestPlayers.iterator(); iterator.hasNext(); ) {
+            questPlayersToFlush.add(iterator.next());
+            iterator.remove();
+        }
+        return questPlayersToFlush;
+    }
+
+    private void onFlushed(final int flushedQuestPlayerCount, final int rows, final long flushNanos) {
+        flushes.incrementAndGet();
+        flushedQuestPlayers.addAndGet(flushedQuestPlayerCount);
+        writtenRows.addAndGet(rows);
+        totalFlushNanos.addAndGet(flushNanos);
+        lastFlushNanos = flushNanos;
+        lastFlushSize = flushedQuestPlayerCount;
+
+        main.getLogManager().debug("Flushed the player data changes of %s players (%s rows) in %sms.",
+                flushedQuestPlayerCount,
+                rows,
+                flushNanos / 1_000_000d
+        );
+    }
+
+    public final int getQueueDepth() {
+        return queuedQuestPlayers.size();
+    }
+
+    public final long getFlushes() {
+        return flushes.get();
+    }
+
+    public final long getFlushedQuestPlayers() {
+        return flushedQuestPlayers.get();
+    }
+
+    public final long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    public final long getRecordedChanges() {
+        return recordedChanges.get();
+    }
+
+    public final int getLastFlushSize() {
+        return lastFlushSize;
+    }
+
+    public final double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000d;
+    }
+
+    public final double getAverageFlushMillis() {
+        final long flushCount = flushes.get();
+        return flushCount == 0 ? 0 : (totalFlushNanos.get() / (double) flushCount) / 1_000_000d;
+    }
+
+    /**
+     * @return how many recorded changes were merged into one written row on average. Higher is better.
+     */
+    public final double getCoalesceRatio() {
+        final long rows = writtenRows.get();
+        return rows == 0 ? 0 : recordedChanges.get() / (double) rows;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data.database;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Contains everything which differs between the SQL dialects NotQuests supports. UUIDs are stored as 16 raw bytes in
+ * both of them, so they take less space and can be compared faster than their 36 character string representation.
+ */
+public enum DatabaseDialect {
+  SQLITE {
+    @Override
+    public String getUUIDColumnType() {
+      return "BLOB";
+    }
+
+    @Override
+    public String getUpsertQuery(final String table, final List<String> keyColumns, final List<String> valueColumns) {
+      return getInsertQuery("INSERT INTO", table, keyColumns, valueColumns)
+          + " ON CONFLICT(" + String.join(", ", keyColumns) + ") DO UPDATE SET "
+          + valueColumns.stream().map(column -> column + " = excluded." + column).collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public String getInsertIgnore() {
+      return "INSERT OR IGNORE INTO";
+    }
+
+    @Override
+    public @Nullable String getUUIDFromStringExpression(final String column) {
+      return null; //unhex() only exists since SQLite 3.41, which is newer than the driver bundled with most servers
+    }
+  },
+  MYSQL {
+    @Override
+    public String getUUIDColumnType() {
+      return "BINARY(16)";
+    }
+
+    @Override
+    public String getUpsertQuery(final String table, final List<String> keyColumns, final List<String> valueColumns) {
+      return getInsertQuery("INSERT INTO", table, keyColumns, valueColumns)
+          + " ON DUPLICATE KEY UPDATE "
+          + valueColumns.stream().map(column -> column + " = VALUES(" + column + ")").collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public String getInsertIgnore() {
+      return "INSERT IGNORE INTO";
+    }
+
+    @Override
+    public @Nullable String getUUIDFromStringExpression(final String column) {
+      return "UNHEX(REPLACE(" + column + ", '-', ''))";
+    }
+  };
+
+  /**
+   * @return the column type used for columns which store UUIDs
+   */
+  public abstract String getUUIDColumnType();
+
+  /**
+   * Creates an INSERT query which updates the value columns instead if a row with the same key already exists. The
+   * key columns have to be the primary key of the table. The parameters are the key columns followed by the value
+   * columns, in the order they are passed.
+   */
+  public abstract String getUpsertQuery(final String table, final List<String> keyColumns, final List<String> valueColumns);
+
+  /**
+   * @return the beginning of an INSERT statement which silently skips rows whose primary key already exists
+   */
+  public abstract String getInsertIgnore();
+
+  /**
+   * @return an SQL expression which converts the UUID string in the column to the binary UUID representation, or null
+   *     if the database cannot do that, in which case the conversion has to be done by NotQuests
+   */
+  public abstract @Nullable String getUUIDFromStringExpression(final String column);
+
+  /**
+   * Creates an INSERT query which silently skips rows whose primary key already exists.
+   */
+  public final String getInsertIgnoreQuery(final String table, final List<String> columns) {
+    return getInsertQuery(getInsertIgnore(), table, columns, List.of());
+  }
+
+  private static String getInsertQuery(final String insert, final String table, final List<String> firstColumns, final List<String> secondColumns) {
+    final int columnCount = firstColumns.size() + secondColumns.size();
+    return insert + " " + table + " ("
+        + String.join(", ", firstColumns) + (firstColumns.isEmpty() || secondColumns.isEmpty() ? "" : ", ") + String.join(", ", secondColumns)
+        + ") VALUES (" + "?, ".repeat(columnCount - 1) + "?)";
+  }
+
+  public final boolean tableExists(final Connection connection, final String table) throws SQLException {
+    final DatabaseMetaData metaData = connection.getMetaData();
+    try (final ResultSet tables = metaData.getTables(connection.getCatalog(), null, table, new String[] {"TABLE"})) {
+      return tables.next();
+    }
+  }
+
+  public final boolean columnExists(final Connection connection, final String table, final String column) throws SQLException {
+    final DatabaseMetaData metaData = connection.getMetaData();
+    try (final ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, column)) {
+      return columns.next();
+    }
+  }
+
+  public final void setUUID(final PreparedStatement preparedStatement, final int parameterIndex, final UUID uuid) throws SQLException {
+    preparedStatement.setBytes(parameterIndex, toBytes(uuid));
+  }
+
+  public final @Nullable UUID getUUID(final ResultSet resultSet, final String column) throws SQLException {
+    return fromBytes(resultSet.getBytes(column));
+  }
+
+  public static byte[] toBytes(final UUID uuid) {
+    return ByteBuffer.allocate(16)
+        .putLong(uuid.getMostSignificantBits())
+        .putLong(uuid.getLeastSignificantBits())
+        .array();
+  }
+
+  public static @Nullable UUID fromBytes(final byte[] bytes) {
+    if (bytes == null || bytes.length != 16) {
+      return null;
+    }
+    final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    return new UUID(byteBuffer.getLong(), byteBuffer.getLong());
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One step of the database schema. Migrations are applied in order of their version, and every version is only ever
+ * applied once per database.
+ */
+public abstract class DatabaseMigration {
+  private final int version;
+  private final String description;
+
+  public DatabaseMigration(final int version, final String description) {
+    this.version = version;
+    this.description = description;
+  }
+
+  public final int getVersion() {
+    return version;
+  }
+
+  public final String getDescription() {
+    return description;
+  }
+
+  public abstract void migrate(final Connection connection, final DatabaseDialect dialect) throws SQLException;
+}
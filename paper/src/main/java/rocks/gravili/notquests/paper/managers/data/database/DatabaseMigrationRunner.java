@@ -0,0 +1,132 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.LogCategory;
+import rocks.gravili.notquests.paper.managers.data.database.migrations.BaselineSchemaMigration;
+import rocks.gravili.notquests.paper.managers.data.database.migrations.PrimaryKeysMigration;
+import rocks.gravili.notquests.paper.managers.data.database.migrations.TypedTagValuesMigration;
+
+/**
+ * Keeps track of the schema version of the database in the SchemaVersion table and applies all migrations which
+ * haven't been applied yet, each one in its own transaction.
+ * <p>
+ * New migrations are added to the end of the list in the constructor. Migrations which have been released must never
+ * be changed, as they will not run again on databases which already have them.
+ */
+public class DatabaseMigrationRunner {
+  private final NotQuests main;
+  private final ArrayList<DatabaseMigration> migrations;
+
+  public DatabaseMigrationRunner(final NotQuests main) {
+    this.main = main;
+    migrations = new ArrayList<>();
+
+    migrations.add(new BaselineSchemaMigration());
+    migrations.add(new PrimaryKeysMigration());
+    migrations.add(new TypedTagValuesMigration());
+
+    migrations.sort(Comparator.comparingInt(DatabaseMigration::getVersion));
+  }
+
+  public final List<DatabaseMigration> getMigrations() {
+    return migrations;
+  }
+
+  public final int getLatestVersion() {
+    return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+  }
+
+  public final int getCurrentVersion(final Connection connection) throws SQLException {
+    try (final Statement statement = connection.createStatement();
+         final ResultSet result = statement.executeQuery("SELECT MAX(Version) FROM SchemaVersion")
+    ) {
+      return result.next() ? result.getInt(1) : 0;
+    }
+  }
+
+  /**
+   * Applies all pending migrations.
+   *
+   * @throws SQLException if a migration fails. The failed migration is rolled back as far as the database allows it
+   *     (MySQL commits table changes right away), and the migrations after it are not applied.
+   */
+  public void migrate(final Connection connection, final DatabaseDialect dialect) throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `SchemaVersion` (`Version` INT NOT NULL, `Description` varchar(200), `AppliedAt` BIGINT, PRIMARY KEY (Version))
+          """);
+    }
+
+    final int currentVersion = getCurrentVersion(connection);
+    if (currentVersion > getLatestVersion()) {
+      main.getLogManager().warn(LogCategory.DATA, "The database schema version (%s) is newer than the one this NotQuests version knows (%s). Did you downgrade NotQuests?",
+          currentVersion,
+          getLatestVersion()
+      );
+      return;
+    }
+
+    for (final DatabaseMigration migration : migrations) {
+      if (migration.getVersion() <= currentVersion) {
+        continue;
+      }
+      main.getLogManager().info(LogCategory.DATA, "Migrating the database to schema version <highlight>%s</highlight> (%s)...",
+          migration.getVersion(),
+          migration.getDescription()
+      );
+      final long startTime = System.currentTimeMillis();
+
+      final boolean previousAutoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (final PreparedStatement insertIntoSchemaVersionPS = connection.prepareStatement("""
+          INSERT INTO SchemaVersion (Version, Description, AppliedAt) VALUES (?, ?, ?);
+          """)
+      ) {
+        migration.migrate(connection, dialect);
+
+        insertIntoSchemaVersionPS.setInt(1, migration.getVersion());
+        insertIntoSchemaVersionPS.setString(2, migration.getDescription());
+        insertIntoSchemaVersionPS.setLong(3, System.currentTimeMillis());
+        insertIntoSchemaVersionPS.executeUpdate();
+
+        connection.commit();
+      } catch (final SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(previousAutoCommit);
+      }
+
+      main.getLogManager().info(LogCategory.DATA, "Migrated the database to schema version <highlight>%s</highlight> in %sms.",
+          migration.getVersion(),
+          System.currentTimeMillis() - startTime
+      );
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data.database.migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseDialect;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseMigration;
+
+/**
+ * Brings databases created by NotQuests versions without schema versions to the last unversioned table layout:
+ * Creates the tables which don't exist yet and adds the columns which have been added over time (Profile,
+ * ProgressNeeded). Both are checked through the table metadata instead of trying to add them and ignoring the error.
+ */
+public class BaselineSchemaMigration extends DatabaseMigration {
+  private static final List<String> tablesWithProfileColumn = List.of(
+      "QuestPlayerData", "ActiveQuests", "CompletedQuests", "ActiveObjectives", "ActiveTriggers", "Tags"
+  );
+
+  public BaselineSchemaMigration() {
+    super(1, "Unversioned NotQuests tables");
+  }
+
+  @Override
+  public void migrate(final Connection connection, final DatabaseDialect dialect) throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `QuestPlayerProfileData` (`PlayerUUID` varchar(200), `CurrentProfile` varchar(200), PRIMARY KEY (PlayerUUID))
+          """);
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `QuestPlayerData` (`PlayerUUID` varchar(200), `QuestPoints` BIGINT(255), `Profile` varchar(200))
+          """);
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `ActiveQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `Profile` varchar(200))
+          """);
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `CompletedQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `TimeCompleted` BIGINT(255), `Profile` varchar(200))
+          """);
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `ActiveObjectives` (`ObjectiveType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` DOUBLE, `ObjectiveID` INT(255), `HasBeenCompleted` BOOLEAN, `ProgressNeeded` DOUBLE, `Profile` varchar(200))
+          """);
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `ActiveTriggers` (`TriggerType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` BIGINT(255), `TriggerID` INT(255), `Profile` varchar(200))
+          """);
+      statement.executeUpdate("""
+          CREATE TABLE IF NOT EXISTS `Tags` (`PlayerUUID` varchar(200), `TagIdentifier` varchar(200), `TagValue` varchar(200), `TagType` varchar(200), `Profile` varchar(200) )
+          """);
+
+      for (final String table : tablesWithProfileColumn) {
+        if (!dialect.columnExists(connection, table, "Profile")) {
+          statement.executeUpdate("ALTER TABLE `" + table + "` ADD COLUMN `Profile` varchar(200) NOT NULL DEFAULT 'default'");
+        }
+      }
+
+      if (!dialect.columnExists(connection, "ActiveObjectives", "ProgressNeeded")) {
+        statement.executeUpdate("ALTER TABLE `ActiveObjectives` ADD COLUMN `ProgressNeeded` DOUBLE");
+      }
+    }
+  }
+}
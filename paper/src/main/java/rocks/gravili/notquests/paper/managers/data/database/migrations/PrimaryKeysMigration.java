@@ -0,0 +1,215 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data.database.migrations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseDialect;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseMigration;
+
+/**
+ * Re-creates all player data tables with a primary key and stores the player UUIDs in binary form. Every primary key
+ * starts with (PlayerUUID, Profile), which is what all player data is looked up by, so no further indexes are needed.
+ * <p>
+ * Duplicate rows, which could be created by earlier versions, are dropped while copying. So are rows with an invalid
+ * player UUID, as they could never be loaded anyway. Empty profiles are copied as the 'default' profile.
+ */
+public class PrimaryKeysMigration extends DatabaseMigration {
+  private static final int COPY_BATCH_SIZE = 1000;
+
+  private final List<TableLayout> tableLayouts;
+
+  public PrimaryKeysMigration() {
+    super(2, "Primary keys and binary player UUIDs");
+
+    tableLayouts = List.of(
+        new TableLayout("QuestPlayerProfileData",
+            List.of("PlayerUUID"),
+            List.of("CurrentProfile varchar(200) NOT NULL DEFAULT 'default'")
+        ),
+        new TableLayout("QuestPlayerData",
+            List.of("PlayerUUID", "Profile"),
+            List.of("QuestPoints BIGINT DEFAULT 0")
+        ),
+        new TableLayout("ActiveQuests",
+            List.of("PlayerUUID", "Profile", "QuestName"),
+            List.of()
+        ),
+        new TableLayout("CompletedQuests",
+            List.of("PlayerUUID", "Profile", "QuestName", "TimeCompleted"),
+            List.of()
+        ),
+        new TableLayout("ActiveTriggers",
+            List.of("PlayerUUID", "Profile", "QuestName", "TriggerID"),
+            List.of("TriggerType varchar(200)", "CurrentProgress BIGINT")
+        ),
+        new TableLayout("ActiveObjectives",
+            List.of("PlayerUUID", "Profile", "QuestName", "ObjectiveID"),
+            List.of("ObjectiveType varchar(200)", "CurrentProgress DOUBLE", "HasBeenCompleted BOOLEAN", "ProgressNeeded DOUBLE")
+        ),
+        new TableLayout("Tags",
+            List.of("PlayerUUID", "Profile", "TagIdentifier"),
+            List.of("TagValue varchar(200)", "TagType varchar(200)")
+        )
+    );
+  }
+
+  @Override
+  public void migrate(final Connection connection, final DatabaseDialect dialect) throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      for (final TableLayout tableLayout : tableLayouts) {
+        final String newTable = tableLayout.table + "New";
+
+        //MySQL commits every CREATE / DROP / RENAME right away, so a previous attempt might have stopped in between
+        if (!dialect.tableExists(connection, tableLayout.table)) {
+          if (dialect.tableExists(connection, newTable)) {
+            statement.executeUpdate("ALTER TABLE " + newTable + " RENAME TO " + tableLayout.table);
+            continue;
+          }
+          statement.executeUpdate(tableLayout.getCreateTableQuery(tableLayout.table, dialect));
+          continue;
+        }
+
+        statement.executeUpdate("DROP TABLE IF EXISTS " + newTable);
+        statement.executeUpdate(tableLayout.getCreateTableQuery(newTable, dialect));
+
+        if (dialect.getUUIDFromStringExpression("PlayerUUID") != null) {
+          copyRowsInDatabase(statement, tableLayout, newTable, dialect);
+        } else {
+          copyRows(connection, tableLayout, newTable, dialect);
+        }
+
+        statement.executeUpdate("DROP TABLE " + tableLayout.table);
+        statement.executeUpdate("ALTER TABLE " + newTable + " RENAME TO " + tableLayout.table);
+      }
+    }
+  }
+
+  private void copyRowsInDatabase(final Statement statement, final TableLayout tableLayout, final String newTable, final DatabaseDialect dialect) throws SQLException {
+    final List<String> columns = tableLayout.getColumnNames();
+    final ArrayList<String> selectedColumns = new ArrayList<>();
+    final ArrayList<String> conditions = new ArrayList<>();
+    for (final String column : columns) {
+      if (column.equals("PlayerUUID")) {
+        selectedColumns.add(dialect.getUUIDFromStringExpression(column));
+        conditions.add("LENGTH(REPLACE(PlayerUUID, '-', '')) = 32");
+      } else if (isProfileColumn(column)) {
+        selectedColumns.add("COALESCE(NULLIF(TRIM(" + column + "), ''), 'default')");
+      } else {
+        selectedColumns.add(column);
+        if (tableLayout.keyColumns.contains(column)) {
+          conditions.add(column + " IS NOT NULL");
+        }
+      }
+    }
+    statement.executeUpdate(dialect.getInsertIgnore() + " " + newTable + " (" + String.join(", ", columns) + ")"
+        + " SELECT " + String.join(", ", selectedColumns) + " FROM " + tableLayout.table
+        + " WHERE " + String.join(" AND ", conditions));
+  }
+
+  private void copyRows(final Connection connection, final TableLayout tableLayout, final String newTable, final DatabaseDialect dialect) throws SQLException {
+    final List<String> columns = tableLayout.getColumnNames();
+    try (final Statement selectStatement = connection.createStatement();
+         final PreparedStatement insertPS = connection.prepareStatement(dialect.getInsertIgnoreQuery(newTable, columns))
+    ) {
+      selectStatement.setFetchSize(COPY_BATCH_SIZE);
+      final ResultSet rows = selectStatement.executeQuery("SELECT " + String.join(", ", columns) + " FROM " + tableLayout.table);
+
+      int batchSize = 0;
+      rowLoop:
+      while (rows.next()) {
+        for (int i = 0; i < columns.size(); i++) {
+          final String column = columns.get(i);
+          if (column.equals("PlayerUUID")) {
+            final String uuidString = rows.getString(column);
+            try {
+              dialect.setUUID(insertPS, i + 1, UUID.fromString(uuidString == null ? "" : uuidString.trim()));
+            } catch (final IllegalArgumentException e) {
+              continue rowLoop;
+            }
+          } else if (isProfileColumn(column)) {
+            final String profile = rows.getString(column);
+            insertPS.setString(i + 1, profile == null || profile.isBlank() ? "default" : profile.trim());
+          } else {
+            final Object value = rows.getObject(column);
+            if (value == null && tableLayout.keyColumns.contains(column)) {
+              continue rowLoop;
+            }
+            insertPS.setObject(i + 1, value);
+          }
+        }
+        insertPS.addBatch();
+        if (++batchSize >= COPY_BATCH_SIZE) {
+          insertPS.executeBatch();
+          batchSize = 0;
+        }
+      }
+      if (batchSize > 0) {
+        insertPS.executeBatch();
+      }
+    }
+  }
+
+  private static boolean isProfileColumn(final String column) {
+    return column.equals("Profile") || column.equals("CurrentProfile");
+  }
+
+  private static class TableLayout {
+    private final String table;
+    private final List<String> keyColumns;
+    private final List<String> valueColumnDefinitions;
+
+    private TableLayout(final String table, final List<String> keyColumns, final List<String> valueColumnDefinitions) {
+      this.table = table;
+      this.keyColumns = keyColumns;
+      this.valueColumnDefinitions = valueColumnDefinitions;
+    }
+
+    private List<String> getColumnNames() {
+      final ArrayList<String> columnNames = new ArrayList<>(keyColumns);
+      for (final String valueColumnDefinition : valueColumnDefinitions) {
+        columnNames.add(valueColumnDefinition.substring(0, valueColumnDefinition.indexOf(' ')));
+      }
+      return columnNames;
+    }
+
+    private String getCreateTableQuery(final String tableName, final DatabaseDialect dialect) {
+      final ArrayList<String> columnDefinitions = new ArrayList<>();
+      for (final String keyColumn : keyColumns) {
+        columnDefinitions.add(keyColumn + " " + switch (keyColumn) {
+          case "PlayerUUID" -> dialect.getUUIDColumnType();
+          case "Profile" -> "varchar(200) NOT NULL DEFAULT 'default'";
+          case "TimeCompleted" -> "BIGINT";
+          case "TriggerID", "ObjectiveID" -> "INT";
+          default -> "varchar(200)";
+        } + (keyColumn.equals("Profile") ? "" : " NOT NULL"));
+      }
+      columnDefinitions.addAll(valueColumnDefinitions);
+      return "CREATE TABLE " + tableName + " ("
+          + String.join(", ", columnDefinitions)
+          + ", PRIMARY KEY (" + String.join(", ", keyColumns) + "))";
+    }
+  }
+}
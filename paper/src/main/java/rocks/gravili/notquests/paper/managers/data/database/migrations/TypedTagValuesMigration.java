@@ -0,0 +1,122 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers.data.database.migrations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseDialect;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseMigration;
+
+/**
+ * Adds the TagNumberValue and TagBooleanValue columns to the Tags table, so number and boolean tags don't have to be
+ * stored as strings. The values of existing number and boolean tags are moved from TagValue to the new columns.
+ * Values which cannot be parsed stay in TagValue, from where they're still loaded as strings.
+ */
+public class TypedTagValuesMigration extends DatabaseMigration {
+  private static final int COPY_BATCH_SIZE = 1000;
+
+  public TypedTagValuesMigration() {
+    super(3, "Typed tag values");
+  }
+
+  @Override
+  public void migrate(final Connection connection, final DatabaseDialect dialect) throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      //MySQL commits every ALTER right away, so a previous attempt might have stopped in between
+      if (!dialect.columnExists(connection, "Tags", "TagNumberValue")) {
+        statement.executeUpdate("ALTER TABLE Tags ADD COLUMN TagNumberValue DOUBLE");
+      }
+      if (!dialect.columnExists(connection, "Tags", "TagBooleanValue")) {
+        statement.executeUpdate("ALTER TABLE Tags ADD COLUMN TagBooleanValue BOOLEAN");
+      }
+    }
+
+    //All values are read before the first update, as SQLite doesn't like the Tags table being changed while a cursor
+    //over it is still open on the same connection
+    final ArrayList<TagValueUpdate> tagValueUpdates = new ArrayList<>();
+    try (final Statement selectStatement = connection.createStatement()) {
+      selectStatement.setFetchSize(COPY_BATCH_SIZE);
+      try (final ResultSet rows = selectStatement.executeQuery("""
+          SELECT PlayerUUID, Profile, TagIdentifier, TagValue, TagType FROM Tags
+          WHERE TagValue IS NOT NULL AND TagType IN ('INTEGER', 'FLOAT', 'DOUBLE', 'BOOLEAN')
+          """)) {
+        while (rows.next()) {
+          final String tagValue = rows.getString("TagValue").trim();
+          final Object typedTagValue;
+          if (rows.getString("TagType").equals("BOOLEAN")) {
+            if (!tagValue.equalsIgnoreCase("true") && !tagValue.equalsIgnoreCase("false")) {
+              continue;
+            }
+            typedTagValue = Boolean.parseBoolean(tagValue);
+          } else {
+            try {
+              typedTagValue = Double.parseDouble(tagValue);
+            } catch (final NumberFormatException e) {
+              continue;
+            }
+          }
+          tagValueUpdates.add(new TagValueUpdate(rows.getBytes("PlayerUUID"), rows.getString("Profile"), rows.getString("TagIdentifier"), typedTagValue));
+        }
+      }
+    }
+
+    try (final PreparedStatement updateNumberPS = connection.prepareStatement("""
+            UPDATE Tags SET TagNumberValue = ?, TagValue = NULL WHERE PlayerUUID = ? AND Profile = ? AND TagIdentifier = ?;
+         """);
+         final PreparedStatement updateBooleanPS = connection.prepareStatement("""
+            UPDATE Tags SET TagBooleanValue = ?, TagValue = NULL WHERE PlayerUUID = ? AND Profile = ? AND TagIdentifier = ?;
+         """)
+    ) {
+      int batchSize = 0;
+      for (final TagValueUpdate tagValueUpdate : tagValueUpdates) {
+        final PreparedStatement updatePS;
+        if (tagValueUpdate.typedTagValue() instanceof final Boolean booleanTagValue) {
+          updatePS = updateBooleanPS;
+          updatePS.setBoolean(1, booleanTagValue);
+        } else {
+          updatePS = updateNumberPS;
+          updatePS.setDouble(1, (Double) tagValueUpdate.typedTagValue());
+        }
+        updatePS.setBytes(2, tagValueUpdate.playerUUID());
+        updatePS.setString(3, tagValueUpdate.profile());
+        updatePS.setString(4, tagValueUpdate.tagIdentifier());
+        updatePS.addBatch();
+
+        if (++batchSize >= COPY_BATCH_SIZE) {
+          updateNumberPS.executeBatch();
+          updateBooleanPS.executeBatch();
+          batchSize = 0;
+        }
+      }
+      if (batchSize > 0) {
+        updateNumberPS.executeBatch();
+        updateBooleanPS.executeBatch();
+      }
+    }
+  }
+
+  /**
+   * @param typedTagValue a Boolean or a Double
+   */
+  private record TagValueUpdate(byte[] playerUUID, String profile, String tagIdentifier, Object typedTagValue) {}
+}
@@ -19,6 +19,10 @@
 package rocks.gravili.notquests.paper.managers.expressions;
 
 import cloud.commandframework.arguments.standard.StringArgument;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bukkit.command.CommandSender;
 import redempt.crunch.CompiledExpression;
 import redempt.crunch.Crunch;
@@ -35,9 +39,26 @@ import rocks.gravili.notquests.paper.structs.variables.VariableDataType;
  * The expression is compiled the NumberExpression object is created only once, and potential static results are chaches.
  * This ensures the highest performance - especially during runtime - in exchange for slightly slower load times.
  * <p>
+ * The QuestPlayer the variables are evaluated for is passed per call and only stored for the current thread while
+ * evaluating, so the same NumberExpression can be evaluated by multiple threads at once. Because of that, expressions
+ * are interned by their raw string - use NumberExpression.of() to get one.
+ * <p>
  * //TODO: Support static/cached results for static/final variables which won't change (if there are such variables). Because right now, any present variable will make result not static. Such variables are very rare though.
  */
 public class NumberExpression {
+    /**
+     * Limits how many expressions are interned, as expressions can come from anywhere (e.g. placeholders)
+     */
+    private static final int MAX_INTERNED_EXPRESSIONS = 8192;
+
+    private static final ConcurrentHashMap<String, NumberExpression> internedExpressions = new ConcurrentHashMap<>();
+
+    /**
+     * The QuestPlayer the expression which is currently evaluated by this thread is evaluated for. The lazy variables
+     * of all expressions read it.
+     */
+    private static final ThreadLocal<QuestPlayer> questPlayerToEvaluate = new ThreadLocal<>();
+
     private final NotQuests main;
 
     /**
@@ -56,14 +77,14 @@ public class NumberExpression {
     private final CompiledExpression compiledExpression;
 
     /**
-     * Amount of variables used in the expression string. If this is zero, the expression result is basically static/final and will be cached
+     * Types of all variables the result depends on, including the variables used in their arguments
      */
-    private int variableCounter = 0;
+    private final LinkedHashSet<String> variableDependencies = new LinkedHashSet<>();
 
     /**
-     * Needed for compiling the evaluation, as well as calculating the result. This variable needs to be updated before calculating the expression result, if it's not static
+     * Amount of variables used in the expression string. If this is zero, the expression result is basically static/final and will be cached
      */
-    private QuestPlayer questPlayerToEvaluate;
+    private int variableCounter = 0;
 
     /**
      * If the expression is always the same (= it has no variables which might be dynamic), the result will be cached here.
@@ -106,6 +127,31 @@ public class NumberExpression {
         return new NumberExpression(main, staticValue);
     }
 
+    /**
+     * @return the interned NumberExpression of the expression string. It's only compiled the first time it's needed.
+     */
+    public static NumberExpression of(final NotQuests main, final String expression) {
+        final NumberExpression internedExpression = internedExpressions.get(expression);
+        if (internedExpression != null) {
+            return internedExpression;
+        }
+        //Not computeIfAbsent, as compiling the expression can intern the expressions of variable arguments
+        final NumberExpression numberExpression = new NumberExpression(main, expression);
+        if (internedExpressions.size() >= MAX_INTERNED_EXPRESSIONS) {
+            return numberExpression;
+        }
+        final NumberExpression existingExpression = internedExpressions.putIfAbsent(expression, numberExpression);
+        return existingExpression != null ? existingExpression : numberExpression;
+    }
+
+    /**
+     * Removes all interned expressions. Needed whenever variables are registered, as expressions are compiled with the
+     * variables which were registered at that time.
+     */
+    public static void clearInternedExpressions() {
+        internedExpressions.clear();
+    }
+
 
     /**
      * @param questPlayer The QuestPlayer for which the variables present in the expression will be calculated
@@ -115,8 +161,18 @@ public class NumberExpression {
         if (isResultStatic()) {
             return cachedStaticResult;
         } else {
-            this.questPlayerToEvaluate = questPlayer;
-            return compiledExpression.evaluate();
+            //Variables of this expression can evaluate other expressions, so the previous QuestPlayer is restored afterwards
+            final QuestPlayer previousQuestPlayer = questPlayerToEvaluate.get();
+            questPlayerToEvaluate.set(questPlayer);
+            try {
+                return compiledExpression.evaluate();
+            } finally {
+                if (previousQuestPlayer != null) {
+                    questPlayerToEvaluate.set(previousQuestPlayer);
+                } else {
+                    questPlayerToEvaluate.remove();
+                }
+            }
         }
     }
 
@@ -136,6 +192,13 @@ public class NumberExpression {
         return resultStatic;
     }
 
+    /**
+     * @return the types of all variables the result of this expression depends on. Empty if the result is static.
+     */
+    public final Set<String> getVariableDependencies() {
+        return Collections.unmodifiableSet(variableDependencies);
+    }
+
     /**
      * @return the raw expression string which was used the create the Number Expression
      */
@@ -159,6 +222,7 @@ public class NumberExpression {
                 main.getLogManager().debug("Null variable: <highlight>" + variableString);
                 continue;
             }
+            variableDependencies.add(variableString);
 
             //Extra Arguments:
             if (expressions.contains(variableString + "(")) {
@@ -170,7 +234,7 @@ public class NumberExpression {
                 for (final String extraArgument : extraArguments) {
                     main.getLogManager().debug("Extra: " + extraArgument);
                     if (extraArgument.startsWith("--")) {
-                        variable.addAdditionalBooleanArgument(extraArgument.replace("--", ""), new NumberExpression(main, "true"));
+                        variable.addAdditionalBooleanArgument(extraArgument.replace("--", ""), NumberExpression.of(main, "true"));
                         main.getLogManager().debug("AddBoolFlag: " + extraArgument.replace("--", ""));
                     } else {
                         final String[] split = extraArgument.split(":");
@@ -184,13 +248,17 @@ public class NumberExpression {
                         }
                         for (final NumberVariableValueArgument<CommandSender> numberVariableValueArgument : variable.getRequiredNumbers()) {
                             if (numberVariableValueArgument.getName().equalsIgnoreCase(key)) {
-                                variable.addAdditionalNumberArgument(key, new NumberExpression(main, value));
+                                final NumberExpression argumentExpression = NumberExpression.of(main, value);
+                                variableDependencies.addAll(argumentExpression.getVariableDependencies());
+                                variable.addAdditionalNumberArgument(key, argumentExpression);
                                 main.getLogManager().debug("AddNumb: " + key + " val: " + value);
                             }
                         }
                         for (final BooleanVariableValueArgument<CommandSender> booleanArgument : variable.getRequiredBooleans()) {
                             if (booleanArgument.getName().equalsIgnoreCase(key)) {
-                                variable.addAdditionalBooleanArgument(key, new NumberExpression(main, value));
+                                final NumberExpression argumentExpression = NumberExpression.of(main, value);
+                                variableDependencies.addAll(argumentExpression.getVariableDependencies());
+                                variable.addAdditionalBooleanArgument(key, argumentExpression);
                                 main.getLogManager().debug("AddBool: " + key + " val: " + value);
                             }
 
@@ -205,7 +273,7 @@ public class NumberExpression {
             final String newVariableName = "var" + ++variableCounter;
             expressions = expressions.replace(variableString, newVariableName);
             evaluationEnvironment.addLazyVariable(newVariableName, () -> {
-                final Object valueObject = variable.getValue(questPlayerToEvaluate);
+                final Object valueObject = variable.getValue(questPlayerToEvaluate.get());
                 if (valueObject instanceof final Number n) {
                     return n.doubleValue();
                 } else if (valueObject instanceof final Boolean b) {
@@ -84,6 +84,8 @@ public class IntegrationsManager {
 
   private ZNPCsManager zNPCsManager;
 
+  private QuestPlaceholders questPlaceholders;
+
 
   public IntegrationsManager(final NotQuests main) {
     this.main = main;
@@ -139,7 +141,11 @@ public class IntegrationsManager {
                   placeholderAPIEnabled = true;
                   return true;
                 })
-            .setRunAfterDataLoad(() -> new QuestPlaceholders(main).register()));
+            .setRunAfterDataLoad(
+                () -> {
+                  questPlaceholders = new QuestPlaceholders(main);
+                  questPlaceholders.register();
+                }));
 
     integrations.add(
         new Integration(main, "Vault")
@@ -555,6 +561,13 @@ public class IntegrationsManager {
     return zNPCsEnabled;
   }
 
+  /**
+   * @return the registered PlaceholderAPI expansion, or null if PlaceholderAPI isn't enabled (yet)
+   */
+  public final QuestPlaceholders getQuestPlaceholders() {
+    return questPlaceholders;
+  }
+
   public final MythicMobsManager getMythicMobsManager() {
     return mythicMobsManager;
   }
@@ -1,6 +1,5 @@
 package rocks.gravili.notquests.paper.managers.integrations.betonquest.conversationInterceptors;
 
-import java.util.ArrayList;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.bungeecord.BungeeComponentSerializer;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
@@ -40,11 +39,7 @@ public class NotQuestsInterceptor implements Interceptor, Listener {
     );
 
     if (main.getConfiguration().deletePreviousConversations && main.getConversationManager() != null) {
-      final ArrayList<Component> hist =
-          main.getConversationManager().getConversationChatHistory().getOrDefault(profile.getProfileUUID(), new ArrayList<>());
-
-      hist.add(parsedMessage);
-      main.getConversationManager().getConversationChatHistory().put(profile.getProfileUUID(), hist);
+      main.getConversationManager().getChatHistoryStore().markMessageNotToRecord(profile.getProfileUUID(), parsedMessage);
     }
 
     profile.getPlayer().ifPresent(player -> player.sendMessage(parsedMessage));
@@ -58,11 +53,7 @@ public class NotQuestsInterceptor implements Interceptor, Listener {
     final Component parsedMessage = main.parse(mmString);
 
     if (main.getConfiguration().deletePreviousConversations && main.getConversationManager() != null) {
-      final ArrayList<Component> hist =
-          main.getConversationManager().getConversationChatHistory().getOrDefault(profile.getProfileUUID(), new ArrayList<>());
-
-      hist.add(parsedMessage);
-      main.getConversationManager().getConversationChatHistory().put(profile.getProfileUUID(), hist);
+      main.getConversationManager().getChatHistoryStore().markMessageNotToRecord(profile.getProfileUUID(), parsedMessage);
     }
 
     profile.getPlayer().ifPresent(player -> player.sendMessage(parsedMessage));
@@ -82,7 +82,7 @@ public class BQAbortQuestEvent extends QuestEvent {
           }
 
           if (activeQuestToRemove != null) {
-            questPlayer.getActiveQuests().remove(activeQuestToRemove);
+            questPlayer.removeActiveQuest(activeQuestToRemove);
           }
         }
       }
@@ -18,23 +18,21 @@
 
 package rocks.gravili.notquests.paper.managers.integrations.citizens;
 
-import java.util.ArrayList;
 import net.citizensnpcs.api.event.NPCTeleportEvent;
 import net.citizensnpcs.api.trait.Trait;
 import net.citizensnpcs.api.util.DataKey;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.QuestGiverIndicatorRenderer.NPCQuestGiver;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
 import rocks.gravili.notquests.paper.managers.npc.NQNPCID;
 import rocks.gravili.notquests.paper.structs.Quest;
-import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 import java.util.List;
 
@@ -52,13 +50,20 @@ import java.util.List;
  *
  * @author Alessio Gravili
  */
-public class QuestGiverNPCTrait extends Trait {
+public class QuestGiverNPCTrait extends Trait implements NPCQuestGiver {
 
   final NotQuests main;
 
-  private int particleTimer = 0;
   private int nameTagTimer = 0;
 
+  /**
+   * The NQNPC of this NPC and its attached quests, which are looked up again once the attached quests of any NPC
+   * change. The QuestGiverIndicatorRenderer needs them for every nearby player on every refresh.
+   */
+  private NQNPC nqnpc;
+  private List<Quest> attachedQuests;
+  private int attachedQuestsVersion;
+
   public QuestGiverNPCTrait() {
     super("nquestgiver");
     this.main = NotQuests.getInstance();
@@ -107,8 +112,9 @@ public class QuestGiverNPCTrait extends Trait {
   }
 
   /**
-   * Called every tick. This spawns a particle above an NPCs head which has this Trait, showcasing
-   * to the player that they have Quests and can be clicked.
+   * Called every tick. The particles above the NPCs head, showcasing to the player that they have
+   * Quests and can be clicked, are sent to nearby players by the QuestGiverIndicatorRenderer. This
+   * adds the NPC to it and spawns the armor stand for the text above its name.
    */
   @Override
   public void run() {
@@ -117,6 +123,10 @@ public class QuestGiverNPCTrait extends Trait {
       main.getIntegrationsManager().getCitizensManager().getTraitRun().accept(this);
     }
 
+    if (npc.isSpawned() && main.getQuestGiverIndicatorRenderer() != null) {
+      main.getQuestGiverIndicatorRenderer().addNPCQuestGiver(this);
+    }
+
     // Disable if Server TPS is too low
     final double minimumTPS =
         main
@@ -149,21 +159,8 @@ public class QuestGiverNPCTrait extends Trait {
 
         } else {
           if (npcEntity.getPassengers().get(0) instanceof final ArmorStand npcHolo) {
+            //Whether it's shown to a player is decided by the QuestGiverIndicatorRenderer
             npcHolo.customName(Component.text(npcHoloText));
-            for (final Entity e : npcEntity.getNearbyEntities(16, 16, 16)) {
-              if (e instanceof final Player player) {
-                QuestPlayer qp = main.getQuestPlayerManager().getActiveQuestPlayer(e.getUniqueId());
-                ArrayList<Quest> questsArrayList = main.getQuestManager().getAllQuestsAttachedToNPC(
-                    main.getNPCManager().getOrCreateNQNpc("Citizens", NQNPCID.fromInteger(getNPC().getId())));
-                main.getPacketManager().getModernPacketInjector().sendHolo(
-                        player,
-                        npcHolo,
-                        main
-                                .getQuestManager()
-                                .getQuestsFromListWithVisibilityEvaluations(qp, questsArrayList).size() != 0);
-
-              }
-            }
           }
         }
       }
@@ -171,40 +168,6 @@ public class QuestGiverNPCTrait extends Trait {
     }
 
 
-    if (main
-            .getDataManager()
-            .getConfiguration()
-            .isCitizensNPCQuestGiverIndicatorParticleEnabled()
-        && npc.isSpawned()) {
-      if (particleTimer
-          >= main
-              .getDataManager()
-              .getConfiguration()
-              .getCitizensNPCQuestGiverIndicatorParticleSpawnInterval()) {
-
-        final Entity npcEntity = getNPC().getEntity();
-        final Location location = npcEntity.getLocation();
-        particleTimer = 0;
-        npcEntity
-            .getWorld()
-            .spawnParticle(
-                main
-                    .getDataManager()
-                    .getConfiguration()
-                    .getCitizensNPCQuestGiverIndicatorParticleType(),
-                location.getX() - 0.25 + (Math.random() / 2),
-                location.getY() + 1.75 + (Math.random() / 2),
-                location.getZ() - 0.25 + (Math.random() / 2),
-                main
-                    .getDataManager()
-                    .getConfiguration()
-                    .getCitizensNPCQuestGiverIndicatorParticleCount());
-
-        // System.out.println("§eSpawned particle!");
-      }
-
-      particleTimer += 1;
-    }
     nameTagTimer += 1;
   }
 
@@ -228,7 +191,11 @@ public class QuestGiverNPCTrait extends Trait {
   // Run code when the NPC is despawned. This is called before the entity actually despawns so
   // npc.getEntity() is still valid.
   @Override
-  public void onDespawn() {}
+  public void onDespawn() {
+    if (main.getQuestGiverIndicatorRenderer() != null) {
+      main.getQuestGiverIndicatorRenderer().removeNPCQuestGiver(this);
+    }
+  }
 
   // Run code when the NPC is spawned. Note that npc.getEntity() will be null until this method is
   // called.
@@ -246,6 +213,9 @@ public class QuestGiverNPCTrait extends Trait {
    */
   @Override
   public void onRemove() {
+    if (main.getQuestGiverIndicatorRenderer() != null) {
+      main.getQuestGiverIndicatorRenderer().removeNPCQuestGiver(this);
+    }
     // REMOVEEEE FROM QUEST
     if(getNPC() == null) {
       main.getLogManager().warn("NPC removal not completed, as the NPC is null.");
@@ -268,6 +238,24 @@ public class QuestGiverNPCTrait extends Trait {
     }
   }
 
+  @Override
+  public @Nullable Entity getQuestGiverEntity() {
+    return npc.isSpawned() ? getNPC().getEntity() : null;
+  }
+
+  @Override
+  public List<Quest> getAttachedQuests() {
+    final int currentAttachedNPCsVersion = main.getQuestManager().getAttachedNPCsVersion();
+    if (attachedQuests == null || attachedQuestsVersion != currentAttachedNPCsVersion) {
+      if (nqnpc == null) {
+        nqnpc = main.getNPCManager().getOrCreateNQNpc("Citizens", NQNPCID.fromInteger(getNPC().getId()));
+      }
+      attachedQuests = List.copyOf(main.getQuestManager().getAllQuestsAttachedToNPC(nqnpc));
+      attachedQuestsVersion = currentAttachedNPCsVersion;
+    }
+    return attachedQuests;
+  }
+
   public static class NPCTPListener implements Listener{
     @EventHandler
     public void onNPCTp(NPCTeleportEvent npcTp){
@@ -21,7 +21,6 @@ package rocks.gravili.notquests.paper.managers.packets.ownpacketstuff.modern;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
-import java.util.ArrayList;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
@@ -125,29 +124,7 @@ public class NQPacketListener extends ChannelDuplexHandler {
 
 
 
-            final ArrayList<Component> convHist = main.getConversationManager().getConversationChatHistory().get(player.getUniqueId());
-            if (convHist != null && convHist.contains(adventureComponent)) {
-                return;
-            }
-
-            ArrayList<Component> hist = main.getConversationManager().getChatHistory().get(player.getUniqueId());
-            if (hist != null) {
-                hist.add(adventureComponent);
-            } else {
-                hist = new ArrayList<>();
-                hist.add(adventureComponent);
-            }
-
-            //main.getLogManager().debug("Registering chat message with Message: " + PlainTextComponentSerializer.plainText().serialize(adventureComponent).replace("&", "").replace("§", ""));
-            final int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-            if (toRemove > 0) {
-                //main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-                hist.subList(0, toRemove).clear();
-            }
-            //main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-
-            main.getConversationManager().getChatHistory().put(player.getUniqueId(), hist);
+            main.getConversationManager().getChatHistoryStore().recordMessage(player.getUniqueId(), adventureComponent);
 
 
         } catch (Throwable e) {
@@ -22,7 +22,6 @@ import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Locale;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -130,33 +129,7 @@ public class ReflectionNQPacketListener extends ChannelDuplexHandler {
         }
       }
 
-      final ArrayList<Component> convHist =
-          main.getConversationManager().getConversationChatHistory().get(player.getUniqueId());
-      if (convHist != null && convHist.contains(component)) {
-        return;
-      }
-
-      ArrayList<Component> hist =
-          main.getConversationManager().getChatHistory().get(player.getUniqueId());
-      if (hist != null) {
-        hist.add(component);
-      } else {
-        hist = new ArrayList<>();
-        hist.add(component);
-      }
-
-      /*main.getLogManager()
-          .debug(
-              "Registering chat message with Message: "
-                  + MiniMessage.builder().build().serialize(component));*/
-      int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-      if (toRemove > 0) {
-        // main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-        hist.subList(0, toRemove).clear();
-      }
-      // main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-      main.getConversationManager().getChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistoryStore().recordMessage(player.getUniqueId(), component);
 
     } catch (Exception e) {
       if (main.getConfiguration().debug) {
@@ -22,7 +22,6 @@ import com.github.retrooper.packetevents.event.PacketListener;
 import com.github.retrooper.packetevents.event.impl.PacketSendEvent;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerChatMessage;
-import java.util.ArrayList;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextReplacementConfig;
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -55,37 +54,7 @@ public class PacketEventsPacketListener implements PacketListener {
               .build()
               .deserialize(wrapperPlayServerChatMessage.getChatComponentJson());
 
-      final ArrayList<Component> convHist =
-          main.getConversationManager().getConversationChatHistory().get(player.getUniqueId());
-      if (convHist != null && convHist.contains(component)) {
-        return;
-      }
-
-      ArrayList<Component> hist =
-          main.getConversationManager().getChatHistory().get(player.getUniqueId());
-      if (hist != null) {
-        hist.add(component);
-      } else {
-        hist = new ArrayList<>();
-        hist.add(component);
-      }
-
-      /*main.getLogManager()
-          .debug(
-              "Registering chat message with position: "
-                  + wrapperPlayServerChatMessage.getPosition()
-                  + " and packet ID: "
-                  + wrapperPlayServerChatMessage.getPacketId()
-                  + ". Message: "
-                  + MiniMessage.builder().build().serialize(component));*/
-      int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-      if (toRemove > 0) {
-        // main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-        hist.subList(0, toRemove).clear();
-      }
-      // main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-      main.getConversationManager().getChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistoryStore().recordMessage(player.getUniqueId(), component);
 
     } catch (Exception ignored) {
 
@@ -28,10 +28,12 @@ import cloud.commandframework.context.CommandContext;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.UUID;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import redempt.crunch.CompiledExpression;
 import redempt.crunch.Crunch;
 import redempt.crunch.functional.EvaluationEnvironment;
@@ -67,6 +69,10 @@ public class VariablesManager {
   private final NotQuests main;
 
   private final HashMap<String, Class<? extends Variable<?>>> variables;
+  /**
+   * The identifiers of all variables by their lower case identifier, for case-insensitive lookups
+   */
+  private final HashMap<String, String> variableIdentifiersByLowerCase = new HashMap<>();
   public ArrayList<String> alreadyFullRegisteredVariables = new ArrayList<>();
 
   EvaluationEnvironment env = new EvaluationEnvironment();
@@ -86,6 +92,7 @@ public class VariablesManager {
     main.getLogManager().info("Registering variables...");
 
     variables.clear();
+    variableIdentifiersByLowerCase.clear();
     registerVariable("True", TrueVariable.class);
     registerVariable("False", FalseVariable.class);
     registerVariable("Condition", ConditionVariable.class);
@@ -236,13 +243,13 @@ public class VariablesManager {
 
                 final HashMap<String, NumberExpression> additionalNumberArguments = new HashMap<>();
                 for (final NumberVariableValueArgument<CommandSender> numberVariableValueArgument : variable.getRequiredNumbers()) {
-                  additionalNumberArguments.put(numberVariableValueArgument.getName(), new NumberExpression(main, context.get(numberVariableValueArgument.getName())));
+                  additionalNumberArguments.put(numberVariableValueArgument.getName(), NumberExpression.of(main, context.get(numberVariableValueArgument.getName())));
                 }
                 variable.setAdditionalNumberArguments(additionalNumberArguments);
 
                 final HashMap<String, NumberExpression> additionalBooleanArguments = new HashMap<>();
                 for (final BooleanVariableValueArgument<CommandSender> booleanArgument : variable.getRequiredBooleans()) {
-                  additionalBooleanArguments.put(booleanArgument.getName(), new NumberExpression(main, context.get(booleanArgument.getName())));
+                  additionalBooleanArguments.put(booleanArgument.getName(), NumberExpression.of(main, context.get(booleanArgument.getName())));
                 }
                 for (final CommandFlag<?> commandFlag : variable.getRequiredBooleanFlags()) {
                   additionalBooleanArguments.put(commandFlag.getName(), context.flags().isPresent(commandFlag.getName()) ? NumberExpression.ofStatic(main, 1) : NumberExpression.ofStatic(main, 0));
@@ -325,6 +332,12 @@ public class VariablesManager {
       main.getLogManager().info("Registering variable <highlight>" + identifier);
     }
     variables.put(identifier, variable);
+    variableIdentifiersByLowerCase.put(identifier.toLowerCase(Locale.ROOT), identifier);
+    //Interned expressions and compiled placeholders were compiled without this variable
+    NumberExpression.clearInternedExpressions();
+    if (main.getIntegrationsManager() != null && main.getIntegrationsManager().getQuestPlaceholders() != null) {
+      main.getIntegrationsManager().getQuestPlaceholders().clearCache();
+    }
 
     /*if(main.getActionManager() != null){
         main.getActionManager().updateVariableActions();
@@ -357,6 +370,14 @@ public class VariablesManager {
     return variables.get(type);
   }
 
+  /**
+   * @return the identifier of the registered variable which equals the given string, ignoring case. Null if there is
+   * none.
+   */
+  public final @Nullable String getVariableIdentifierIgnoreCase(final String variableString) {
+    return variableIdentifiersByLowerCase.get(variableString.toLowerCase(Locale.ROOT));
+  }
+
   public final String getVariableType(final Class<? extends Variable> variable) {
     for (final String VariableType : variables.keySet()) {
       if (variables.get(VariableType).equals(variable)) {
@@ -21,10 +21,14 @@ package rocks.gravili.notquests.paper.managers.tags;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
@@ -32,6 +36,7 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.managers.data.Category;
+import rocks.gravili.notquests.paper.managers.data.database.DatabaseDialect;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 public class TagManager {
@@ -111,45 +116,21 @@ public class TagManager {
         }
         final UUID uuid = player.getUniqueId();
 
+        //Prevents the write-behind queue from saving the tags while only some of them have been loaded
+        questPlayer.setFinishedLoadingTags(false);
+
         try (Connection connection = main.getDataManager().getConnection();
              final PreparedStatement tagsStatement = connection.prepareStatement("""
-                SELECT TagIdentifier, TagValue, TagType FROM Tags
+                SELECT TagIdentifier, TagType, TagValue, TagNumberValue, TagBooleanValue FROM Tags
                 WHERE PlayerUUID = ? AND Profile = ?;
              """)
         ) {
-            tagsStatement.setString(1, uuid.toString());
+            tagsStatement.setBytes(1, DatabaseDialect.toBytes(uuid));
             tagsStatement.setString(2, questPlayer.getProfile());
 
             final ResultSet result = tagsStatement.executeQuery();
             while (result.next()) {
-
-                final String tagIdentifier = result.getString("TagIdentifier");
-                final String tagValue = result.getString("TagValue");
-                final String tagType = result.getString("TagType");
-
-
-                if (tagValue == null) {
-                    questPlayer.setTagValue(tagIdentifier, null);
-                    continue;
-                }
-                if (main.getConfiguration().isVerboseStartupMessages()) {
-                    main.getLogManager().info("  Loaded <highlight>%s</highlight> %s tag for player <highlight2>%s</highlight2> with the value <highlight2>%s</highlight2>.",
-                            tagIdentifier,
-                            tagType,
-                            player.getName(),
-                            tagValue
-                    );
-                }
-
-
-                switch (tagType) {
-                    case "INTEGER" -> questPlayer.setTagValue(tagIdentifier, Integer.parseInt(tagValue));
-                    case "FLOAT" -> questPlayer.setTagValue(tagIdentifier, Float.parseFloat(tagValue));
-                    case "BOOLEAN" -> questPlayer.setTagValue(tagIdentifier, Boolean.parseBoolean(tagValue));
-                    case "STRING" -> questPlayer.setTagValue(tagIdentifier, tagValue);
-                    case "DOUBLE" -> questPlayer.setTagValue(tagIdentifier, Double.parseDouble(tagValue));
-                }
-
+                applyLoadedTag(questPlayer, result.getString("TagIdentifier"), readTagValue(result));
             }
         } catch (Exception e) {
             main.getLogManager().severe("ERROR: Could not load tags for player with uuid <highlight>%s</highlight>. Error: ", uuid);
@@ -158,6 +139,8 @@ public class TagManager {
         }
 
 
+        //The loaded tags are already in the database
+        questPlayer.getChangeJournal().clearTagsChanged();
         questPlayer.setFinishedLoadingTags(true);
 
 
@@ -179,79 +162,167 @@ public class TagManager {
         }
     }
 
+    /**
+     * Reads the tag value of the current row. Numbers and booleans are stored in their own columns, so they don't
+     * need to be parsed. Only values of older NotQuests versions, which are still stored as strings, are parsed.
+     *
+     * @return the tag value, or null if the row doesn't have a valid value
+     */
+    public static @Nullable Object readTagValue(final ResultSet resultSet) throws SQLException {
+        final String tagType = resultSet.getString("TagType");
+        if (tagType == null) {
+            return null;
+        }
+        switch (tagType) {
+            case "INTEGER", "FLOAT", "DOUBLE" -> {
+                final double numberValue = resultSet.getDouble("TagNumberValue");
+                if (resultSet.wasNull()) {
+                    return parseLegacyTagValue(resultSet.getString("TagValue"), tagType);
+                }
+                return switch (tagType) {
+                    case "INTEGER" -> (int) numberValue;
+                    case "FLOAT" -> (float) numberValue;
+                    default -> numberValue;
+                };
+            }
+            case "BOOLEAN" -> {
+                final boolean booleanValue = resultSet.getBoolean("TagBooleanValue");
+                if (resultSet.wasNull()) {
+                    return parseLegacyTagValue(resultSet.getString("TagValue"), tagType);
+                }
+                return booleanValue;
+            }
+            case "STRING" -> {
+                return resultSet.getString("TagValue");
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private static @Nullable Object parseLegacyTagValue(final @Nullable String tagValue, final String tagType) {
+        if (tagValue == null) {
+            return null;
+        }
+        try {
+            return switch (tagType) {
+                case "INTEGER" -> Integer.parseInt(tagValue);
+                case "FLOAT" -> Float.parseFloat(tagValue);
+                case "DOUBLE" -> Double.parseDouble(tagValue);
+                case "BOOLEAN" -> Boolean.parseBoolean(tagValue);
+                default -> tagValue;
+            };
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sets a tag value which has been read from the database on the QuestPlayer.
+     */
+    public void applyLoadedTag(final QuestPlayer questPlayer, final String tagIdentifier, final @Nullable Object tagValue) {
+        if (tagValue == null) {
+            questPlayer.setTagValue(tagIdentifier, null);
+            return;
+        }
+        if (main.getConfiguration().isVerboseStartupMessages()) {
+            main.getLogManager().info("  Loaded <highlight>%s</highlight> %s tag for player <highlight2>%s</highlight2> with the value <highlight2>%s</highlight2>.",
+                    tagIdentifier,
+                    tagValue.getClass().getSimpleName(),
+                    questPlayer.getUniqueId(),
+                    tagValue
+            );
+        }
+        questPlayer.setTagValue(tagIdentifier, tagValue);
+    }
+
     public void onQuit(final QuestPlayer questPlayer, final Player player) {
         if(!questPlayer.isFinishedLoadingTags()){
             main.getLogManager().info("Saving of tags has been skipped, because tags didn't even finish loading yet.");
             return;
         }
-        if(questPlayer.getTags().isEmpty()){
+        saveTags(questPlayer);
+    }
+
+    /**
+     * Writes the tags of the QuestPlayer which have changed since they were last saved. They're saved together with
+     * all other unsaved changes of the QuestPlayer. On the main thread, this doesn't wait until they're written.
+     */
+    public void saveTags(final QuestPlayer questPlayer) {
+        if (!questPlayer.getChangeJournal().isTagsChanged()) {
             return;
         }
-        final String uuidString = player.getUniqueId().toString();
-
-        try (Connection connection = main.getDataManager().getConnection();
-             final PreparedStatement deleteTagsPS = connection.prepareStatement("""
-                DELETE FROM Tags WHERE PlayerUUID = ?;
-             """);
-             final PreparedStatement insertIntoTagsPS = connection.prepareStatement("""
-                INSERT INTO Tags (PlayerUUID, TagIdentifier, TagValue, TagType, Profile) VALUES (?, ?, ?, ?, ?);
-             """)
-             ) {
-
-
-            for (final String tagIdentifier : questPlayer.getTags().keySet()) {
-                @Nullable final Object tagValue = questPlayer.getTagValue(tagIdentifier);
-
-                if (main.getConfiguration().isVerboseStartupMessages()) {
-                    main.getLogManager().info("Saving the " + (tagValue != null ? tagValue.getClass().getName() : "null") + " tag <highlight>" + tagIdentifier + "</highlight> with value <highlight>" + (tagValue != null ? tagValue : "null") + "</highlight> for player <highlight2>" + player.getName() + "</highlight2>...");
-                }
+        main.getQuestPlayerManager().savePlayerDataChanges(List.of(questPlayer));
+    }
 
-                //Remove all tags first before adding all fresh and updated ones
-                deleteTagsPS.setString(1, uuidString);
-                deleteTagsPS.executeUpdate();
+    /**
+     * Adds the changed tags of a QuestPlayer to the batches of the tag statements. Tags which have been removed
+     * (set to null) are deleted, all others are upserted. Only the values recorded in the change journal are used, as
+     * this runs on the player data writer thread.
+     *
+     * @param changedTags the lowercase tag identifiers and their new values
+     * @param upsertIntoTagsPS the upsert statement of the Tags table with the key columns (PlayerUUID, Profile,
+     *     TagIdentifier) and the value columns (TagType, TagValue, TagNumberValue, TagBooleanValue)
+     * @param deleteFromTagsPS DELETE FROM Tags WHERE PlayerUUID = ? AND Profile = ? AND TagIdentifier = ?
+     */
+    public void addChangedTagsToBatch(final UUID uuid, final String profile, final Map<String, Object> changedTags, final PreparedStatement upsertIntoTagsPS, final PreparedStatement deleteFromTagsPS) throws SQLException {
+        final byte[] uuidBytes = DatabaseDialect.toBytes(uuid);
+
+        for (final Map.Entry<String, Object> changedTag : changedTags.entrySet()) {
+            final String tagIdentifier = changedTag.getKey();
+            @Nullable final Object tagValue = changedTag.getValue();
 
-                //Skip over adding the tag if it's null (= removing it)
-                if (tagValue == null) {
-                    main.getLogManager().info("Null tag => removing the tag");
-                    //statement.executeUpdate("DELETE FROM Tags WHERE PlayerUUID = '" + uuidString + "' AND TagIdentifier = '" + tagIdentifier + "';");
-                    continue;
-                }
+            if (main.getConfiguration().isVerboseStartupMessages()) {
+                main.getLogManager().info("Saving the " + (tagValue != null ? tagValue.getClass().getName() : "null") + " tag <highlight>" + tagIdentifier + "</highlight> with value <highlight>" + (tagValue != null ? tagValue : "null") + "</highlight> for player <highlight2>" + uuid + "</highlight2> (Profile: " + profile + ")...");
+            }
 
-                insertIntoTagsPS.setString(1, uuidString);
-                insertIntoTagsPS.setString(2, tagIdentifier);
-                insertIntoTagsPS.setString(5, questPlayer.getProfile());
-
-                if (tagValue instanceof final Boolean booleanTagValue) {
-                    insertIntoTagsPS.setString(3, booleanTagValue.toString());
-                    insertIntoTagsPS.setString(4, "BOOLEAN");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Integer integerTagValue) {
-                    insertIntoTagsPS.setString(3, integerTagValue.toString());
-                    insertIntoTagsPS.setString(4, "INTEGER");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Float floatValue) {
-                    insertIntoTagsPS.setString(3, floatValue.toString());
-                    insertIntoTagsPS.setString(4, "FLOAT");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Double doubleValue) {
-                    insertIntoTagsPS.setString(3, doubleValue.toString());
-                    insertIntoTagsPS.setString(4, "DOUBLE");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final String stringTagValue) {
-                    insertIntoTagsPS.setString(3, stringTagValue);
-                    insertIntoTagsPS.setString(4, "STRING");
-                    insertIntoTagsPS.executeUpdate();
-                } else{
+            final String tagType;
+            if (tagValue instanceof Boolean) {
+                tagType = "BOOLEAN";
+            } else if (tagValue instanceof Integer) {
+                tagType = "INTEGER";
+            } else if (tagValue instanceof Float) {
+                tagType = "FLOAT";
+            } else if (tagValue instanceof Double) {
+                tagType = "DOUBLE";
+            } else if (tagValue instanceof String) {
+                tagType = "STRING";
+            } else {
+                if (tagValue != null) {
                     main.getLogManager().warn("Encountered an unknown tag value type when saving tag %s. Tag value type: %s",
                             tagIdentifier,
                             tagValue.getClass().toString()
                     );
                 }
+                //Null (= removing the tag)
+                deleteFromTagsPS.setBytes(1, uuidBytes);
+                deleteFromTagsPS.setString(2, profile);
+                deleteFromTagsPS.setString(3, tagIdentifier);
+                deleteFromTagsPS.addBatch();
+                continue;
             }
 
-        } catch (Exception e) {
-            main.getLogManager().severe("There was an error saving the tag data of player with UUID <highlight>%s</highlight>! Stacktrace:", questPlayer.getUniqueId());
-            e.printStackTrace();
+            upsertIntoTagsPS.setBytes(1, uuidBytes);
+            upsertIntoTagsPS.setString(2, profile);
+            upsertIntoTagsPS.setString(3, tagIdentifier);
+            upsertIntoTagsPS.setString(4, tagType);
+            if (tagValue instanceof final String stringTagValue) {
+                upsertIntoTagsPS.setString(5, stringTagValue);
+            } else {
+                upsertIntoTagsPS.setNull(5, Types.VARCHAR);
+            }
+            if (tagValue instanceof final Number numberTagValue) {
+                upsertIntoTagsPS.setDouble(6, numberTagValue.doubleValue());
+            } else {
+                upsertIntoTagsPS.setNull(6, Types.DOUBLE);
+            }
+            if (tagValue instanceof final Boolean booleanTagValue) {
+                upsertIntoTagsPS.setBoolean(7, booleanTagValue);
+            } else {
+                upsertIntoTagsPS.setNull(7, Types.BOOLEAN);
+            }
+            upsertIntoTagsPS.addBatch();
         }
     }
 
@@ -26,6 +26,7 @@ public class MessageManager {
   private final NotQuests main;
   private final MiniMessage miniMessage;
   private final TagResolver tagResolver;
+  private final MiniMessageParseCache parseCache;
 
   public MessageManager(final NotQuests main) {
     this.main = main;
@@ -62,12 +63,17 @@ public class MessageManager {
 
     this.tagResolver = tagResolver;
     miniMessage = MiniMessage.builder().tags(tagResolver).build();
+    parseCache = new MiniMessageParseCache(main, miniMessage);
   }
 
   public final MiniMessage getMiniMessage() {
     return miniMessage;
   }
 
+  public final MiniMessageParseCache getParseCache() {
+    return parseCache;
+  }
+
   public final TagResolver getTagResolver() {
     return tagResolver;
   }
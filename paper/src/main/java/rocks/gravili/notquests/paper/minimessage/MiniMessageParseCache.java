@@ -0,0 +1,126 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.minimessage;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.Configuration;
+
+/**
+ * Caches the parsed Component of MiniMessage strings. The same GUI lore, boss bar names and action bar messages are
+ * parsed over and over again with identical input, and the custom gradient tags make parsing them expensive.
+ * Components are immutable, so they can be shared.
+ * <p>
+ * The cache is bounded by its number of entries and by the total length of the cached strings. When it's full, entries
+ * are evicted in no particular order until it's below 90% of both limits again. It has to be cleared whenever the
+ * result of parsing could change, e.g. because the tag colors or the language strings have been reloaded.
+ */
+public class MiniMessageParseCache {
+  /**
+   * Longer strings are usually built for a single message (e.g. lists), so they're not cached at all.
+   */
+  private static final int MAX_CACHED_STRING_LENGTH = 4096;
+
+  private final NotQuests main;
+  private final MiniMessage miniMessage;
+  private final ConcurrentHashMap<String, Component> components = new ConcurrentHashMap<>();
+  private final AtomicLong cachedCharacters = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public MiniMessageParseCache(final NotQuests main, final MiniMessage miniMessage) {
+    this.main = main;
+    this.miniMessage = miniMessage;
+  }
+
+  public final Component parse(final String miniMessageString) {
+    //The configuration doesn't exist yet while the plugin is loading
+    final Configuration configuration = main.getConfiguration();
+    final int maxEntries = configuration != null ? configuration.getMiniMessageParseCacheMaxEntries() : 0;
+    if (maxEntries <= 0 || miniMessageString.length() > MAX_CACHED_STRING_LENGTH) {
+      return miniMessage.deserialize(miniMessageString);
+    }
+
+    final Component cachedComponent = components.get(miniMessageString);
+    if (cachedComponent != null) {
+      hits.increment();
+      return cachedComponent;
+    }
+    misses.increment();
+
+    final Component component = miniMessage.deserialize(miniMessageString);
+    if (components.putIfAbsent(miniMessageString, component) == null) {
+      final long maxCharacters = configuration.getMiniMessageParseCacheMaxCharacters();
+      if (cachedCharacters.addAndGet(miniMessageString.length()) > maxCharacters || components.size() > maxEntries) {
+        evict(maxEntries * 9L / 10, maxCharacters * 9L / 10);
+      }
+    }
+    return component;
+  }
+
+  private synchronized void evict(final long targetEntries, final long targetCharacters) {
+    final Iterator<Map.Entry<String, Component>> iterator = components.entrySet().iterator();
+    while ((components.size() > targetEntries || cachedCharacters.get() > targetCharacters) && iterator.hasNext()) {
+      final Map.Entry<String, Component> entry = iterator.next();
+      if (components.remove(entry.getKey(), entry.getValue())) {
+        cachedCharacters.addAndGet(-entry.getKey().length());
+        evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Removes all cached components. Called whenever parsing the same string could give a different result.
+   */
+  public synchronized void clear() {
+    for (final Map.Entry<String, Component> entry : components.entrySet()) {
+      if (components.remove(entry.getKey(), entry.getValue())) {
+        cachedCharacters.addAndGet(-entry.getKey().length());
+      }
+    }
+  }
+
+  public final long getHits() {
+    return hits.sum();
+  }
+
+  public final long getMisses() {
+    return misses.sum();
+  }
+
+  public final long getEvictions() {
+    return evictions.sum();
+  }
+
+  public final int getSize() {
+    return components.size();
+  }
+
+  public final long getCachedCharacters() {
+    return cachedCharacters.get();
+  }
+}
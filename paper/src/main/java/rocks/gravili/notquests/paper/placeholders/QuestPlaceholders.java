@@ -18,6 +18,12 @@
 
 package rocks.gravili.notquests.paper.placeholders;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -33,8 +39,30 @@ import rocks.gravili.notquests.paper.structs.variables.Variable;
  */
 public class QuestPlaceholders extends PlaceholderExpansion {
 
+    private static final String FROM_ACTIVE_QUEST = "_from_active_quest_";
+    private static final int MAX_COMPILED_PLACEHOLDERS = 1024;
+    private static final int MAX_CACHED_RESULTS_PER_PLACEHOLDER = 256;
+
     private final NotQuests main;
 
+    private final PrefixTrie<PlaceholderCompiler> placeholderCompilers = new PrefixTrie<>();
+    private final CompiledPlaceholder invalidPlaceholder = new CompiledPlaceholder(player -> null);
+    /**
+     * Returned by compilers whose argument can't be resolved yet, e.g. a variable which hasn't been registered yet.
+     * It's never kept in compiledPlaceholders, so the identifier is compiled again the next time it's requested.
+     */
+    private final CompiledPlaceholder unresolvedPlaceholder = new CompiledPlaceholder(player -> "");
+    /**
+     * The compiled placeholders by their identifier, least recently used first. Access has to be synchronized on it,
+     * as placeholders can be requested from any thread.
+     */
+    private final LinkedHashMap<String, CompiledPlaceholder> compiledPlaceholders = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CompiledPlaceholder> eldest) {
+            return size() > MAX_COMPILED_PLACEHOLDERS;
+        }
+    };
+
     /**
      * Since we register the expansion inside our own plugin, we
      * can simply use this method here to get an instance of our
@@ -44,6 +72,7 @@ public class QuestPlaceholders extends PlaceholderExpansion {
      */
     public QuestPlaceholders(final NotQuests main) {
         this.main = main;
+        registerPlaceholderCompilers();
     }
 
     /**
@@ -110,11 +139,22 @@ public class QuestPlaceholders extends PlaceholderExpansion {
         return main.getMain().getDescription().getVersion();
     }
 
+    /**
+     * Removes all compiled placeholders, e.g. because the quests or variables they refer to have been reloaded.
+     */
+    public void clearCache() {
+        synchronized (compiledPlaceholders) {
+            compiledPlaceholders.clear();
+        }
+    }
+
     /**
      * This is the method called when a placeholder with our identifier
      * is found and needs a value.
      * <br>We specify the value identifier in this method.
      * <br>Since version 2.9.1 can you use OfflinePlayers in your requests.
+     * <p>
+     * Every identifier is only parsed once, into a CompiledPlaceholder which is kept in a bounded LRU cache.
      *
      * @param identifier A String containing the identifier/value.
      * @return possibly-null String of the requested identifier.
@@ -126,96 +166,88 @@ public class QuestPlaceholders extends PlaceholderExpansion {
             return "";
         }
 
+        CompiledPlaceholder compiledPlaceholder;
+        synchronized (compiledPlaceholders) {
+            compiledPlaceholder = compiledPlaceholders.get(identifier);
+        }
+        if (compiledPlaceholder == null) {
+            compiledPlaceholder = compile(identifier);
+            if (compiledPlaceholder != unresolvedPlaceholder) {
+                synchronized (compiledPlaceholders) {
+                    compiledPlaceholders.put(identifier, compiledPlaceholder);
+                }
+            }
+        }
+
+        return compiledPlaceholder.resolve(player);
+    }
 
-        if (identifier.startsWith("player_questpoints")) {
+    private CompiledPlaceholder compile(final String identifier) {
+        final PrefixTrie.Match<PlaceholderCompiler> match = placeholderCompilers.getLongestPrefixMatch(identifier);
+        if (match == null) {
+            // We return null if an invalid placeholder (f.e. %someplugin_placeholder3%)
+            // was provided
+            return invalidPlaceholder;
+        }
+        try {
+            final CompiledPlaceholder compiledPlaceholder = match.value().compile(identifier.substring(match.prefixLength()));
+            return compiledPlaceholder != null ? compiledPlaceholder : invalidPlaceholder;
+        } catch (final Exception e) {
+            main.getLogManager().warn("Could not parse the placeholder <highlight>%s</highlight>: %s", identifier, e.getMessage());
+            return invalidPlaceholder;
+        }
+    }
+
+    private void registerPlaceholderCompilers() {
+        placeholderCompilers.put("player_questpoints", argument -> new CompiledPlaceholder(player -> {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer != null) {
                 return "" + questPlayer.getQuestPoints();
             }
             return "0";
-        }
+        }));
 
-        if (identifier.startsWith("player_completed_quests_amount")) {
+        placeholderCompilers.put("player_completed_quests_amount", argument -> new CompiledPlaceholder(player -> {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer != null) {
                 return "" + questPlayer.getCompletedQuests().size();
             }
             return "0";
-        }
+        }));
 
-        if (identifier.startsWith("player_active_quests_amount")) {
+        placeholderCompilers.put("player_active_quests_amount", argument -> new CompiledPlaceholder(player -> {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer != null) {
                 return "" + questPlayer.getActiveQuests().size();
             }
             return "0";
-        }
+        }));
 
-        if (identifier.startsWith("player_active_quests_list_horizontal")) {
+        placeholderCompilers.put("player_active_quests_list_horizontal", argument -> new CompiledPlaceholder(player -> {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                StringBuilder list = new StringBuilder();
-                int amount = 0;
-                for (ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                    amount++;
-                    //return if it's bigger than limit
-                    if (main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit >= 0 && amount > main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit) {
-                        return list.toString();
-                    }
-
-                    String nameToAdd = activeQuest.getQuest().getIdentifier();
-                    if (main.getConfiguration().placeholder_player_active_quests_list_horizontal_use_displayname_if_available) {
-                        if (!activeQuest.getQuest().getQuestDisplayName().isBlank()) {
-                            nameToAdd = activeQuest.getQuest().getQuestDisplayName();
-                        }
-                    }
-
-                    if(amount == 1){
-                        list = new StringBuilder(nameToAdd);
-                    }else{
-                        list.append(main.getConfiguration().placeholder_player_active_quests_list_horizontal_separator).append(nameToAdd);
-                    }
-
-                }
-                return list.toString();
+            if (questPlayer == null) {
+                return "-";
             }
-            return "-";
-
-        }
-        if (identifier.startsWith("player_active_quests_list_vertical")) {
+            return getActiveQuestsList(questPlayer,
+                main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit,
+                main.getConfiguration().placeholder_player_active_quests_list_horizontal_use_displayname_if_available,
+                main.getConfiguration().placeholder_player_active_quests_list_horizontal_separator
+            );
+        }));
+
+        placeholderCompilers.put("player_active_quests_list_vertical", argument -> new CompiledPlaceholder(player -> {
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                StringBuilder list = new StringBuilder();
-                int amount = 0;
-                for(ActiveQuest activeQuest : questPlayer.getActiveQuests()){
-                    amount++;
-                    //return if it's bigger than limit
-                    if (main.getConfiguration().placeholder_player_active_quests_list_vertical_limit >= 0 && amount > main.getConfiguration().placeholder_player_active_quests_list_vertical_limit) {
-                        return list.toString();
-                    }
-
-                    String nameToAdd = activeQuest.getQuest().getIdentifier();
-                    if (main.getConfiguration().placeholder_player_active_quests_list_vertical_use_displayname_if_available) {
-                        if (!activeQuest.getQuest().getQuestDisplayName().isBlank()) {
-                            nameToAdd = activeQuest.getQuest().getQuestDisplayName();
-                        }
-                    }
-
-                    if(amount == 1){
-                        list = new StringBuilder(nameToAdd);
-                    }else{
-                        list.append("\n").append(nameToAdd);
-                    }
-
-                }
-                return list.toString();
+            if (questPlayer == null) {
+                return "-";
             }
-            return "-";
-
-        }
-
-        if (identifier.startsWith("player_has_completed_quest_")) {
-            final String questName = identifier.replace("player_has_completed_quest_", "");
+            return getActiveQuestsList(questPlayer,
+                main.getConfiguration().placeholder_player_active_quests_list_vertical_limit,
+                main.getConfiguration().placeholder_player_active_quests_list_vertical_use_displayname_if_available,
+                "\n"
+            );
+        }));
+
+        placeholderCompilers.put("player_has_completed_quest_", questName -> new CompiledPlaceholder(player -> {
             final Quest quest = main.getQuestManager().getQuest(questName);
             if (quest != null) {
                 final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
@@ -228,158 +260,86 @@ public class QuestPlaceholders extends PlaceholderExpansion {
                 }
             }
             return "No";
-
-        }
-        if (identifier.startsWith("player_has_current_active_quest_")) {
-            final String questName = identifier.replace("player_has_current_active_quest_", "");
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            return "Yes";
-                        }
-                    }
-                }
+        }));
+
+        placeholderCompilers.put("player_has_current_active_quest_", questName -> new CompiledPlaceholder(player -> {
+            final ActiveQuest activeQuest = getActiveQuest(player, questName);
+            return activeQuest != null ? "Yes" : "No";
+        }));
+
+        placeholderCompilers.put("player_is_objective_unlocked_and_active_", argument -> compileObjectivePlaceholder(argument, (activeQuest, objectiveID) -> {
+            final ActiveObjective activeObjective = activeQuest.getActiveObjectiveFromID(objectiveID);
+            return activeObjective != null && activeObjective.isUnlocked() ? "Yes" : "No";
+        }, "No"));
+
+        placeholderCompilers.put("player_is_objective_unlocked_", argument -> compileObjectivePlaceholder(argument, (activeQuest, objectiveID) -> {
+            final ActiveObjective activeObjective = activeQuest.getActiveObjectiveFromID(objectiveID);
+            if (activeObjective != null && activeObjective.isUnlocked()) {
+                return "Yes";
             }
-            return "No";
-        }
-
-        if (identifier.startsWith("player_is_objective_unlocked_and_active") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_unlocked_and_active_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_unlocked_and_active_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-
-                            return "No";
-                        }
-                    }
-                    return "No";
-                }
-                return "No";
+            final ActiveObjective completedObjective = getCompletedObjectiveFromID(activeQuest, objectiveID);
+            return completedObjective != null && completedObjective.isUnlocked() ? "Yes" : "No";
+        }, "No"));
+
+        placeholderCompilers.put("player_is_objective_completed_", argument -> compileObjectivePlaceholder(argument,
+            (activeQuest, objectiveID) -> getCompletedObjectiveFromID(activeQuest, objectiveID) != null ? "Yes" : "No",
+            "No"));
+
+        placeholderCompilers.put("player_objective_progress_percentage_", argument -> compileObjectivePlaceholder(argument, (activeQuest, objectiveID) -> {
+            final ActiveObjective activeObjective = activeQuest.getActiveObjectiveFromID(objectiveID);
+            if (activeObjective != null && activeObjective.isUnlocked()) {
+                return "" + ((int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
             }
-            return "No";
-
-        } else if (identifier.startsWith("player_is_objective_unlocked_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_unlocked_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_unlocked_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-                            return "No";
-                        }
-                    }
-                    return "No";
-                }
-                return "No";
+            final ActiveObjective completedObjective = getCompletedObjectiveFromID(activeQuest, objectiveID);
+            return completedObjective != null && completedObjective.isUnlocked() ? "100" : "0";
+        }, "0"));
+
+        placeholderCompilers.put("player_objective_progress_", argument -> compileObjectivePlaceholder(argument, (activeQuest, objectiveID) -> {
+            final ActiveObjective activeObjective = activeQuest.getActiveObjectiveFromID(objectiveID);
+            if (activeObjective != null && activeObjective.isUnlocked()) {
+                return "" + activeObjective.getCurrentProgress();
             }
-            return "No";
-
-        } else if (identifier.startsWith("player_is_objective_completed_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_completed_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_completed_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    return "Yes";
-                                }
-                            }
-                            return "No";
-                        }
-
-
-                    }
-                    return "No";
-                }
-                return "No";
+            final ActiveObjective completedObjective = getCompletedObjectiveFromID(activeQuest, objectiveID);
+            return completedObjective != null && completedObjective.isUnlocked() ? "" + completedObjective.getProgressNeeded() : "0";
+        }, "0"));
+
+        placeholderCompilers.put("player_expression_", expression -> {
+            final NumberExpression numberExpression = NumberExpression.of(main, expression);
+            return new CompiledPlaceholder(player -> "" + numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId())), true);
+        });
+
+        placeholderCompilers.put("player_rounded_expression_", expression -> {
+            final NumberExpression numberExpression = NumberExpression.of(main, expression);
+            return new CompiledPlaceholder(player -> "" + (int) Math.round(numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()))), true);
+        });
+
+        placeholderCompilers.put("player_variable_", variableName -> { //Variables
+            final Variable<?> variable = main.getVariablesManager().getVariableFromString(variableName);
+            if (variable == null) {
+                return unresolvedPlaceholder;
             }
-            return "No";
-        } else if (identifier.startsWith("player_expression_")) {
-            final String expression = identifier.replace("player_expression_", "");
-
-            final NumberExpression numberExpression = new NumberExpression(main, expression);
-            return "" + numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
-        } else if (identifier.startsWith("player_rounded_expression_")) {
-            final String expression = identifier.replace("player_rounded_expression_", "");
-
-            final NumberExpression numberExpression = new NumberExpression(main, expression);
-            return "" + (int) Math.round(numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId())));
-        } else if (identifier.startsWith("player_variable_")) { //Variables
-            final String variableName = identifier.replace("player_variable_", "");
-            Variable<?> variable = main.getVariablesManager().getVariableFromString(variableName);
-            if (variable != null) {
-                Object value = variable.getValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
+            return new CompiledPlaceholder(player -> {
+                final Object value = variable.getValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
                 return value != null ? "" + value : "";
-            }
-            return "";
-        } else if (identifier.startsWith("player_tag_")) { //Tags
-            final String tagName = identifier.replace("player_tag_", "");
-            Tag tag = main.getTagManager().getTag(tagName);
+            }, true);
+        });
+
+        placeholderCompilers.put("player_tag_", tagName -> new CompiledPlaceholder(player -> { //Tags
+            final Tag tag = main.getTagManager().getTag(tagName);
             if (tag != null) {
                 final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
                 if (questPlayer != null) {
-                    Object tagValue = questPlayer.getTagValue(tagName);
+                    final Object tagValue = questPlayer.getTagValue(tagName);
                     if (tagValue != null) {
                         return "" + tagValue;
-
                     }
                 }
             }
             return "";
+        }));
 
-        } else if (identifier.startsWith("player_quest_cooldown_left_formatted_")) {
-            final String questName = identifier.replace("player_quest_cooldown_left_formatted_", "");
+        placeholderCompilers.put("player_quest_cooldown_left_formatted_", questName -> new CompiledPlaceholder(player -> {
             final Quest quest = main.getQuestManager().getQuest(questName);
-
             if (quest != null) {
                 final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
                 if (questPlayer != null) {
@@ -388,87 +348,164 @@ public class QuestPlaceholders extends PlaceholderExpansion {
             }
             final String prefix = main.getLanguageManager().getString("placeholders.questcooldownleftformatted.prefix", player);
             return prefix + main.getLanguageManager().getString("placeholders.questcooldownleftformatted.no-cooldown", player);
+        }));
+    }
 
-        } else if (identifier.startsWith("player_objective_progress_percentage_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_objective_progress_percentage_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
+    private String getActiveQuestsList(final QuestPlayer questPlayer, final int limit, final boolean useDisplayNameIfAvailable, final String separator) {
+        final StringBuilder list = new StringBuilder();
+        int amount = 0;
+        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+            amount++;
+            //return if it's bigger than limit
+            if (limit >= 0 && amount > limit) {
+                break;
+            }
 
-            final String questName = identifier.replace("player_objective_progress_percentage_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
+            String nameToAdd = activeQuest.getQuest().getIdentifier();
+            if (useDisplayNameIfAvailable && !activeQuest.getQuest().getQuestDisplayName().isBlank()) {
+                nameToAdd = activeQuest.getQuest().getQuestDisplayName();
+            }
 
+            if (amount > 1) {
+                list.append(separator);
+            }
+            list.append(nameToAdd);
+        }
+        return list.toString();
+    }
 
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                                if (activeObjective.getObjectiveID() == objectiveID) {
-                                    if (activeObjective.isUnlocked()) {
-                                        return "" + ((int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "100";
-                                    }
-                                }
-                            }
-                            return "0";
-                        }
-                    }
-                    return "0";
-                }
-                return "0";
+    /**
+     * Compiles the placeholders in the format {@code <objective ID>_from_active_quest_<quest name>}.
+     *
+     * @param fallback returned if the player doesn't have the quest active
+     */
+    private CompiledPlaceholder compileObjectivePlaceholder(final String argument, final ObjectivePlaceholderResolver resolver, final String fallback) {
+        final int separatorIndex = argument.indexOf(FROM_ACTIVE_QUEST);
+        if (separatorIndex < 0) {
+            return null;
+        }
+        final int objectiveID = Integer.parseInt(argument.substring(0, separatorIndex));
+        final String questName = argument.substring(separatorIndex + FROM_ACTIVE_QUEST.length());
+        return new CompiledPlaceholder(player -> {
+            final ActiveQuest activeQuest = getActiveQuest(player, questName);
+            return activeQuest != null ? resolver.resolve(activeQuest, objectiveID) : fallback;
+        });
+    }
+
+    private ActiveQuest getActiveQuest(final Player player, final String questName) {
+        final Quest quest = main.getQuestManager().getQuest(questName);
+        if (quest == null) {
+            return null;
+        }
+        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        if (questPlayer == null) {
+            return null;
+        }
+        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+            if (activeQuest.getQuest().equals(quest)) {
+                return activeQuest;
             }
-            return "0";
+        }
+        return null;
+    }
 
-        } else if (identifier.startsWith("player_objective_progress_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_objective_progress_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
+    private ActiveObjective getCompletedObjectiveFromID(final ActiveQuest activeQuest, final int objectiveID) {
+        for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
+            if (completedObjective.getObjectiveID() == objectiveID) {
+                return completedObjective;
+            }
+        }
+        return null;
+    }
 
-            final String questName = identifier.replace("player_objective_progress_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
+    @FunctionalInterface
+    private interface PlaceholderCompiler {
+        /**
+         * @param argument the identifier without the prefix the compiler has been registered with
+         * @return the compiled placeholder, or null if the identifier is invalid
+         */
+        CompiledPlaceholder compile(final String argument);
+    }
 
+    @FunctionalInterface
+    private interface ObjectivePlaceholderResolver {
+        String resolve(final ActiveQuest activeQuest, final int objectiveID);
+    }
 
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                                if (activeObjective.getObjectiveID() == objectiveID) {
-                                    if (activeObjective.isUnlocked()) {
-                                        return "" + activeObjective.getCurrentProgress();
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
-                                if (completedObjective.getObjectiveID() == objectiveID) {
-                                    if (completedObjective.isUnlocked()) {
-                                        return "" + completedObjective.getProgressNeeded();
-                                    }
-                                }
-                            }
-                            return "0";
-                        }
-                    }
-                    return "0";
-                }
-                return "0";
+    /**
+     * A placeholder identifier which has been parsed into the function returning its value. Placeholders whose value is
+     * expensive to calculate (expressions, variables) can keep their results per player for a short time, see the
+     * placeholders.result-cache-milliseconds option.
+     */
+    private final class CompiledPlaceholder {
+        private final Function<Player, String> resolver;
+        private final boolean cacheResults;
+        private final ConcurrentHashMap<UUID, CachedResult> cachedResults;
+
+        private CompiledPlaceholder(final Function<Player, String> resolver) {
+            this(resolver, false);
+        }
+
+        private CompiledPlaceholder(final Function<Player, String> resolver, final boolean cacheResults) {
+            this.resolver = resolver;
+            this.cacheResults = cacheResults;
+            this.cachedResults = cacheResults ? new ConcurrentHashMap<>() : null;
+        }
+
+        private String resolve(final Player player) {
+            final int resultCacheMilliseconds = main.getConfiguration().getPlaceholderResultCacheMilliseconds();
+            if (!cacheResults || resultCacheMilliseconds <= 0) {
+                return resolver.apply(player);
             }
-            return "0";
 
+            final long now = System.currentTimeMillis();
+            final CachedResult cachedResult = cachedResults.get(player.getUniqueId());
+            if (cachedResult != null && cachedResult.expiresAt() > now) {
+                return cachedResult.value();
+            }
+            final String value = resolver.apply(player);
+            if (cachedResults.size() >= MAX_CACHED_RESULTS_PER_PLACEHOLDER) {
+                cachedResults.values().removeIf(expiredResult -> expiredResult.expiresAt() <= now);
+            }
+            cachedResults.put(player.getUniqueId(), new CachedResult(value, now + resultCacheMilliseconds));
+            return value;
         }
+    }
 
+    private record CachedResult(String value, long expiresAt) {}
 
-        // We return null if an invalid placeholder (f.e. %someplugin_placeholder3%)
-        // was provided
-        return null;
+    /**
+     * A character trie of the placeholder prefixes, which finds the longest registered prefix of an identifier in a
+     * single pass over it.
+     */
+    private static final class PrefixTrie<V> {
+        private final HashMap<Character, PrefixTrie<V>> children = new HashMap<>();
+        private V value;
+
+        private void put(final String prefix, final V value) {
+            PrefixTrie<V> node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), character -> new PrefixTrie<>());
+            }
+            node.value = value;
+        }
+
+        private Match<V> getLongestPrefixMatch(final String string) {
+            Match<V> longestMatch = null;
+            PrefixTrie<V> node = this;
+            for (int i = 0; i < string.length(); i++) {
+                node = node.children.get(string.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.value != null) {
+                    longestMatch = new Match<>(node.value, i + 1);
+                }
+            }
+            return longestMatch;
+        }
+
+        private record Match<V>(V value, int prefixLength) {}
     }
 }
 //%notquests_player_has_completed_quest_bob_the_king%
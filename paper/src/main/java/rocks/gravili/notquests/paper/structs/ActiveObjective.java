@@ -69,6 +69,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
 
     public void setProgressNeeded(final double progressNeeded){
         this.progressNeeded = progressNeeded;
+        getQuestPlayer().getChangeJournal().markActiveObjectiveChanged(this);
     }
 
     public final void setUnlocked(final boolean unlocked, final boolean notifyPlayer, final boolean triggerAcceptQuestTrigger) {
@@ -77,6 +78,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
 
 
             this.unlocked = unlocked;
+            getQuestPlayer().invalidateUnlockedActiveObjectivesByType();
             if (unlocked) {
 
                 ObjectiveUnlockEvent objectiveUnlockEvent = new ObjectiveUnlockEvent(getQuestPlayer(), this, activeObjectiveHolder, triggerAcceptQuestTrigger);
@@ -262,6 +264,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
             return;
         }
         currentProgress += progressToAdd;
+        getQuestPlayer().getChangeJournal().markActiveObjectiveChanged(this);
         getQuestPlayer().setTrackingObjective(this);
 
 
@@ -304,6 +307,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
         } else {
             currentProgress -= i;
         }
+        getQuestPlayer().getChangeJournal().markActiveObjectiveChanged(this);
 
         getQuestPlayer().sendDebugMessage("-" + i + " progress for objective " + NotQuestColors.debugHighlightGradient + getObjective().getDisplayNameOrIdentifier() + "</gradient> of quest " + NotQuestColors.debugHighlightGradient + getActiveObjectiveHolder().getObjectiveHolder().getDisplayNameOrIdentifier() + "</gradient>.");
 
@@ -322,6 +326,17 @@ public class ActiveObjective extends ActiveObjectiveHolder {
         return activeObjectiveHolder;
     }
 
+    /**
+     * @return the ActiveQuest at the top of the hierarchy this (sub-)objective belongs to, or null if there is none
+     */
+    public final @Nullable ActiveQuest getRootActiveQuest() {
+        ActiveObjectiveHolder currentHolder = activeObjectiveHolder;
+        while (currentHolder instanceof final ActiveObjective parentActiveObjective) {
+            currentHolder = parentActiveObjective.getActiveObjectiveHolder();
+        }
+        return currentHolder instanceof final ActiveQuest activeQuest ? activeQuest : null;
+    }
+
     public final int getObjectiveID() {
         return objectiveID;
     }
@@ -333,6 +348,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
     public void setHasBeenCompleted(final boolean hasBeenCompleted) {
         // System.out.println("§4§lSet has been completed to: §b" + hasBeenCompleted + " §cfor objective with ID §b" + getObjectiveID());
         this.hasBeenCompleted = hasBeenCompleted;
+        getQuestPlayer().getChangeJournal().markActiveObjectiveChanged(this);
         if(hasBeenCompleted){
             getQuestPlayer().disableTrackingObjective(this);
             objective.onObjectiveCompleteOrLock(this, main.getDataManager().isCurrentlyLoading() || getQuestPlayer().isCurrentlyLoading(), true);
@@ -86,6 +86,7 @@ public abstract class ActiveObjectiveHolder {
 
     activeObjectives.removeAll(toRemove);
     toRemove.clear();
+    questPlayer.invalidateUnlockedActiveObjectivesByType();
 
     // Other active objectives might be unlocked if this objective is completed. This will re-check
     // them all. (This is either due to a dependency or OtherQuest condition (for v3))
@@ -214,6 +215,7 @@ public abstract class ActiveObjectiveHolder {
     // to remove all its contests also from the activeObjectives lists
     // (Without a concurrentmodificationexception)
     toRemove.add(activeObjective);
+    questPlayer.markActiveObjectiveHolderChanged(this);
 
 
   }
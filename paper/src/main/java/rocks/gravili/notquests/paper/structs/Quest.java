@@ -261,6 +261,7 @@ public class Quest extends ObjectiveHolder {
       triggers.add(trigger);
 
       if (save) {
+        main.getQuestEvents().scheduleGatedListenersUpdate();
         category
             .getQuestsConfig()
             .set(
@@ -423,6 +424,9 @@ public class Quest extends ObjectiveHolder {
     }
     attachedNPCsWithQuestShowing.clear();
     attachedNPCsWithoutQuestShowing.clear();
+    for (final NQNPC npc : arrayList) {
+      main.getQuestManager().unindexAttachedNPC(this, npc);
+    }
     category.getQuestsConfig().set("quests." + questName + ".npcs", null);
     category.saveQuestsConfig();
   }
@@ -440,6 +444,7 @@ public class Quest extends ObjectiveHolder {
       } else {
         attachedNPCsWithoutQuestShowing.add(npc);
       }
+      main.getQuestManager().indexAttachedNPC(this, npc, showQuestInNPC);
     }
 
 
@@ -486,6 +491,7 @@ public class Quest extends ObjectiveHolder {
 
       attachedNPCsWithQuestShowing.remove(npc);
       attachedNPCsWithoutQuestShowing.remove(npc);
+      main.getQuestManager().unindexAttachedNPC(this, npc);
     }
   }
 
@@ -495,6 +501,7 @@ public class Quest extends ObjectiveHolder {
 
   public void clearTriggers() {
     triggers.clear();
+    main.getQuestEvents().scheduleGatedListenersUpdate();
     category.getQuestsConfig().set("quests." + questName + ".triggers", null);
     category.saveQuestsConfig();
   }
@@ -523,6 +530,7 @@ public class Quest extends ObjectiveHolder {
         .set("quests." + questName + ".triggers." + trigger.getTriggerID(), null);
     category.saveQuestsConfig();
     triggers.remove(trigger);
+    main.getQuestEvents().scheduleGatedListenersUpdate();
     return "<highlight>Trigger successfully removed!";
   }
 
@@ -692,6 +700,7 @@ public class Quest extends ObjectiveHolder {
   @Override
   public void clearObjectives() {
     super.getObjectives().clear();
+    main.getQuestEvents().scheduleGatedListenersUpdate();
     category.getQuestsConfig().set("quests." + questName + ".objectives", null);
     category.saveQuestsConfig();
   }
@@ -713,6 +722,7 @@ public class Quest extends ObjectiveHolder {
         .set("quests." + questName + ".objectives." + objective.getObjectiveID(), null);
     category.saveQuestsConfig();
     super.getObjectives().remove(objective);
+    main.getQuestEvents().scheduleGatedListenersUpdate();
   }
 
 
@@ -727,6 +737,7 @@ public class Quest extends ObjectiveHolder {
     if (!dupeID) {
       super.getObjectives().add(objective);
       if (save) {
+        main.getQuestEvents().scheduleGatedListenersUpdate();
         category
             .getQuestsConfig()
             .set(
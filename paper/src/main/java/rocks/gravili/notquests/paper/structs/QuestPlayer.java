@@ -21,10 +21,17 @@ package rocks.gravili.notquests.paper.structs;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -38,18 +45,25 @@ import org.bukkit.SoundCategory;
 import org.bukkit.block.BlockState;
 import org.bukkit.entity.EnderCrystal;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.NotQuestColors;
 import rocks.gravili.notquests.paper.events.notquests.QuestCompletedEvent;
 import rocks.gravili.notquests.paper.events.notquests.QuestFinishAcceptEvent;
 import rocks.gravili.notquests.paper.events.notquests.QuestPointsChangeEvent;
+import rocks.gravili.notquests.paper.managers.QuestManager;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
 import rocks.gravili.notquests.paper.structs.actions.Action;
 import rocks.gravili.notquests.paper.structs.conditions.Condition;
 import rocks.gravili.notquests.paper.structs.conditions.Condition.ConditionResult;
 import rocks.gravili.notquests.paper.structs.objectives.ConditionObjective;
 import rocks.gravili.notquests.paper.structs.objectives.NumberVariableObjective;
+import rocks.gravili.notquests.paper.structs.objectives.Objective;
+import rocks.gravili.notquests.paper.structs.objectives.ObjectiveCheck;
+import rocks.gravili.notquests.paper.structs.objectives.ObjectiveCheckContext;
 import rocks.gravili.notquests.paper.structs.objectives.OtherQuestObjective;
+import rocks.gravili.notquests.paper.structs.objectives.ReachLocationIndex;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
 
 /**
@@ -80,8 +94,17 @@ public class QuestPlayer {
     private ActiveObjective trackingObjective;
     private BossBar bossBar;
     private int lastBossBarActiveTimeInSeconds = 0;
-    private boolean hasActiveConditionObjectives = false;
-    private boolean hasActiveVariableObjectives = false;
+    private static final String ANY_VARIABLE = "*";
+    /**
+     * The unlocked condition and variable objectives, by the lowercase types of the variables they depend on. They're
+     * checked again whenever one of those variables changes, see VariableChangeBus.
+     */
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<ActiveObjective>> variableSubscriptions = new ConcurrentHashMap<>();
+    /**
+     * The unlocked condition and variable objectives which depend on variables that don't publish their changes. They
+     * are checked periodically by updateConditionObjectives().
+     */
+    private final CopyOnWriteArrayList<ActiveObjective> polledObjectives = new CopyOnWriteArrayList<>();
 
     private Player player;
 
@@ -92,7 +115,50 @@ public class QuestPlayer {
     private boolean finishedLoadingGeneralData = false;
     private boolean finishedLoadingTags = false;
 
-    private final ArrayList<Consumer<ActiveObjective>> queuedObjectivesToCheck = new ArrayList<>();
+    private final ArrayList<QueuedObjectiveCheck> queuedObjectivesToCheck = new ArrayList<>();
+
+    /**
+     * Re-used for every event checked through runObjectiveCheck(), see getObjectiveCheckContext().
+     */
+    private final ObjectiveCheckContext objectiveCheckContext = new ObjectiveCheckContext();
+    /**
+     * The active objective holders which have had an objective completed since their completed objectives were last
+     * removed. Only these (and their parents) have to be cleaned up after objective checks.
+     */
+    private final ArrayList<ActiveObjectiveHolder> changedActiveObjectiveHolders = new ArrayList<>();
+    private final ArrayList<ActiveObjectiveHolder> activeObjectiveHoldersToClean = new ArrayList<>();
+    private boolean removingChangedCompletedObjectives = false;
+    private static final Comparator<ActiveObjectiveHolder> DEEPEST_LEVEL_FIRST = Comparator.comparingInt(ActiveObjectiveHolder::getLevel).reversed();
+
+    /**
+     * All unlocked active objectives of all active quests (including sub-objectives whose parents are unlocked), by
+     * the class of their objective. It's rebuilt the next time it's needed after an objective has been unlocked,
+     * locked or removed, or after a quest has been accepted or removed. The active objectives of the objective class at
+     * an index of unlockedActiveObjectiveTypes are at the same index of unlockedActiveObjectivesByType, so both can be
+     * looped through by index, without allocating an iterator for every event.
+     */
+    private ArrayList<Class<? extends Objective>> unlockedActiveObjectiveTypes = new ArrayList<>();
+    private ArrayList<ArrayList<ActiveObjective>> unlockedActiveObjectivesByType = new ArrayList<>();
+    private boolean unlockedActiveObjectivesByTypeOutdated = true;
+
+    /**
+     * The chunk the player was last in when moving, and whether any ReachLocation region overlaps it.
+     */
+    private ReachLocationIndex reachLocationCellIndex;
+    private String reachLocationCellWorldName;
+    private long reachLocationCellChunkKey;
+    private boolean reachLocationCellEmpty;
+
+    private final QuestPlayerChangeJournal changeJournal;
+
+    /**
+     * Cached results of QuestManager.isQuestVisible() for this player. They are cleared whenever something they depend
+     * on changes (active or completed quests, tags, quest points). Anything else (e.g. variables in requirements) is
+     * picked up once they expire.
+     */
+    private final ConcurrentHashMap<Quest, QuestManager.QuestVisibility> questVisibilities = new ConcurrentHashMap<>();
+    private volatile int questVisibilitiesVersion = 0;
+    private volatile int questVisibilitiesEpoch = -1;
 
 
     public QuestPlayer(final NotQuests main, final UUID uuid, final String profile) {
@@ -109,26 +175,112 @@ public class QuestPlayer {
         activeLocationAndBeams = new HashMap<>();
 
         tags = new HashMap<>();
+
+        changeJournal = new QuestPlayerChangeJournal(main, this);
+    }
+
+    public final QuestPlayerChangeJournal getChangeJournal() {
+        return changeJournal;
     }
 
     public final String getProfile(){
         return profile;
     }
 
-    public boolean isHasActiveConditionObjectives(){
-        return hasActiveConditionObjectives;
+    /**
+     * Checks the objective again whenever one of the variables changes. It's checked once in the next tick as well, as
+     * its condition might already be fulfilled.
+     *
+     * @param variableDependencies the types of the variables the objective depends on, or null if that's unknown
+     * @param polled if the objective should additionally be checked periodically. Required if not all of the variables
+     *     publish their changes.
+     */
+    public void subscribeToVariableChanges(final ActiveObjective activeObjective, final @Nullable Set<String> variableDependencies, final boolean polled) {
+        unsubscribeFromVariableChanges(activeObjective);
+        if (variableDependencies != null) {
+            for (final String variableType : variableDependencies) {
+                variableSubscriptions.computeIfAbsent(variableType.toLowerCase(Locale.ROOT), type -> new CopyOnWriteArrayList<>()).addIfAbsent(activeObjective);
+            }
+        } else {
+            //We don't know which variables it depends on, so it's checked whenever any variable changes
+            variableSubscriptions.computeIfAbsent(ANY_VARIABLE, type -> new CopyOnWriteArrayList<>()).addIfAbsent(activeObjective);
+        }
+        if (polled) {
+            polledObjectives.addIfAbsent(activeObjective);
+        }
+        if (variableDependencies != null && !variableDependencies.isEmpty()) {
+            main.getVariableChangeBus().publishNextTick(this, variableDependencies.toArray(new String[0]));
+        }
+    }
+
+    public void unsubscribeFromVariableChanges(final ActiveObjective activeObjective) {
+        polledObjectives.remove(activeObjective);
+        for (final Iterator<CopyOnWriteArrayList<ActiveObjective>> iterator = variableSubscriptions.values().iterator(); iterator.hasNext(); ) {
+            final CopyOnWriteArrayList<ActiveObjective> subscribedObjectives = iterator.next();
+            if (subscribedObjectives.remove(activeObjective) && subscribedObjectives.isEmpty()) {
+                iterator.remove();
+            }
+        }
     }
 
-    public boolean isHasActiveVariableObjectives(){
-        return hasActiveVariableObjectives;
+    public final boolean hasVariableSubscriptions() {
+        return !variableSubscriptions.isEmpty();
     }
 
-    public void setHasActiveConditionObjectives(final boolean hasActiveConditionObjectives){
-        this.hasActiveConditionObjectives = hasActiveConditionObjectives;
+    /**
+     * Checks all objectives which depend on one of the changed variables.
+     *
+     * @param variableTypes the lowercase types of the changed variables
+     * @return how many objectives have been checked
+     */
+    public int onVariablesChanged(final Set<String> variableTypes) {
+        if (variableSubscriptions.isEmpty()) {
+            return 0;
+        }
+        final LinkedHashSet<ActiveObjective> objectivesToCheck = new LinkedHashSet<>();
+        final CopyOnWriteArrayList<ActiveObjective> objectivesWithUnknownDependencies = variableSubscriptions.get(ANY_VARIABLE);
+        if (objectivesWithUnknownDependencies != null) {
+            objectivesToCheck.addAll(objectivesWithUnknownDependencies);
+        }
+        for (final String variableType : variableTypes) {
+            final CopyOnWriteArrayList<ActiveObjective> subscribedObjectives = variableSubscriptions.get(variableType);
+            if (subscribedObjectives != null) {
+                objectivesToCheck.addAll(subscribedObjectives);
+            }
+        }
+        return checkConditionAndVariableObjectives(objectivesToCheck);
     }
 
-    public void setHasActiveVariableObjectives(final boolean hasActiveVariableObjectives){
-        this.hasActiveVariableObjectives = hasActiveVariableObjectives;
+    private int checkConditionAndVariableObjectives(final Collection<ActiveObjective> objectivesToCheck) {
+        if (objectivesToCheck.isEmpty()) {
+            return 0;
+        }
+        final LinkedHashSet<ActiveObjectiveHolder> checkedActiveObjectiveHolders = new LinkedHashSet<>();
+        for (final ActiveObjective activeObjective : objectivesToCheck) {
+            //The objective might belong to a quest which has been removed in the meantime
+            if (!getActiveQuests().contains(activeObjective.getRootActiveQuest())) {
+                unsubscribeFromVariableChanges(activeObjective);
+                continue;
+            }
+            if (!activeObjective.isUnlocked()) {
+                continue;
+            }
+            if (activeObjective.getObjective() instanceof final ConditionObjective conditionObjective) {
+                final Condition condition = conditionObjective.getCondition();
+                if (condition == null || !condition.check(this).fulfilled()) {
+                    continue;
+                }
+                activeObjective.addProgress(1);
+            } else if (activeObjective.getObjective() instanceof final NumberVariableObjective numberVariableObjective) {
+                numberVariableObjective.updateProgress(activeObjective);
+            }
+            checkedActiveObjectiveHolders.add(activeObjective.getActiveObjectiveHolder());
+        }
+        for (final ActiveObjectiveHolder activeObjectiveHolder : checkedActiveObjectiveHolders) {
+            activeObjectiveHolder.removeCompletedObjectives(true);
+        }
+        removeCompletedQuests();
+        return objectivesToCheck.size();
     }
 
     public final Object getTagValue(final String tagIdentifier) {
@@ -136,7 +288,11 @@ public class QuestPlayer {
     }
 
     public void setTagValue(final String tagIdentifier, final Object newValue) {
-        tags.put(tagIdentifier.toLowerCase(Locale.ROOT), newValue);
+        final String lowerCaseTagIdentifier = tagIdentifier.toLowerCase(Locale.ROOT);
+        tags.put(lowerCaseTagIdentifier, newValue);
+        changeJournal.markTagChanged(lowerCaseTagIdentifier, newValue);
+        main.getVariableChangeBus().publishNextTick(this, "TagBoolean", "TagInteger", "TagFloat", "TagDouble", "TagString");
+        invalidateQuestVisibilities();
     }
 
     public final HashMap<String, Object> getTags(){
@@ -549,6 +705,9 @@ public class QuestPlayer {
 
 
         activeQuests.add(activeQuest);
+        changeJournal.markActiveQuestAdded(activeQuest);
+        invalidateUnlockedActiveObjectivesByType();
+        invalidateQuestVisibilities();
 
         activeQuest.updateObjectivesUnlocked(sendUpdateObjectivesUnlocked, triggerAcceptQuestTrigger);
 
@@ -685,7 +844,7 @@ public class QuestPlayer {
 
         questsToComplete.add(activeQuest);
 
-        completedQuests.add(new CompletedQuest(activeQuest.getQuest(), this));
+        addCompletedQuest(new CompletedQuest(activeQuest.getQuest(), this));
 
         final Player player = getPlayer();
         if (player != null) {
@@ -738,7 +897,7 @@ public class QuestPlayer {
             //(Without a ConcurrentModificationException)
             questsToComplete.add(activeQuest);
             //We can safely (without ConcurrentModificationException) add it to the CompletedQuests list already without having to remove it from activeQuests
-            completedQuests.add(new CompletedQuest(activeQuest.getQuest(), this));
+            addCompletedQuest(new CompletedQuest(activeQuest.getQuest(), this));
 
             //Give Quest completion reward & show Quest completion title
             giveReward(activeQuest.getQuest());
@@ -787,6 +946,9 @@ public class QuestPlayer {
 
         if (!questPointsChangeEvent.isCancelled()) {
             this.questPoints = questPointsChangeEvent.getNewQuestPointsAmount();
+            changeJournal.markQuestPlayerDataChanged();
+            main.getVariableChangeBus().publishNextTick(this, "QuestPoints");
+            invalidateQuestVisibilities();
 
 
             if (notifyPlayer) {
@@ -849,13 +1011,34 @@ public class QuestPlayer {
 
 
         activeQuests.removeAll(questsToComplete);
+        invalidateUnlockedActiveObjectivesByType();
+        for (final ActiveQuest completedActiveQuest : questsToComplete) {
+            changeJournal.markActiveQuestRemoved(completedActiveQuest);
+        }
+        invalidateQuestVisibilities();
 
         questsToComplete.clear();
     }
 
     public void addCompletedQuest(final CompletedQuest completedQuest) {
         completedQuests.add(completedQuest);
+        changeJournal.markCompletedQuestAdded(completedQuest);
+        invalidateQuestVisibilities();
+    }
 
+    public void removeCompletedQuest(final CompletedQuest completedQuest) {
+        if (completedQuests.remove(completedQuest)) {
+            changeJournal.markCompletedQuestRemoved(completedQuest);
+            invalidateQuestVisibilities();
+        }
+    }
+
+    public void removeActiveQuest(final ActiveQuest activeQuest) {
+        if (activeQuests.remove(activeQuest)) {
+            changeJournal.markActiveQuestRemoved(activeQuest);
+            invalidateUnlockedActiveObjectivesByType();
+            invalidateQuestVisibilities();
+        }
     }
 
 
@@ -882,6 +1065,12 @@ public class QuestPlayer {
             }
         }
         activeQuests.removeAll(questsToRemove);
+        invalidateUnlockedActiveObjectivesByType();
+        for (final ActiveQuest removedActiveQuest : questsToRemove) {
+            changeJournal.markActiveQuestRemoved(removedActiveQuest);
+        }
+        invalidateQuestVisibilities();
+        questsToRemove.clear();
         activeQuestsCopy.removeAll(questsToComplete);
 
         questsToComplete.clear();
@@ -889,6 +1078,39 @@ public class QuestPlayer {
 
     }
 
+    /**
+     * @param epoch the current epoch of QuestManager. If it changed, all cached visibilities are outdated.
+     * @return the cached visibility of the quest, or null if there is none or it has expired
+     */
+    public final QuestManager.QuestVisibility getCachedQuestVisibility(final Quest quest, final int epoch) {
+        if (questVisibilitiesEpoch != epoch) {
+            invalidateQuestVisibilities();
+            questVisibilitiesEpoch = epoch;
+            return null;
+        }
+        final QuestManager.QuestVisibility questVisibility = questVisibilities.get(quest);
+        return questVisibility != null && questVisibility.validUntil() > System.currentTimeMillis() ? questVisibility : null;
+    }
+
+    public final int getQuestVisibilitiesVersion() {
+        return questVisibilitiesVersion;
+    }
+
+    /**
+     * @param version the version from before the visibility was evaluated. If the cache has been invalidated since
+     *     then, the result might already be outdated and is not cached.
+     */
+    public void cacheQuestVisibility(final Quest quest, final QuestManager.QuestVisibility questVisibility, final int version) {
+        if (questVisibilitiesVersion == version) {
+            questVisibilities.put(quest, questVisibility);
+        }
+    }
+
+    public void invalidateQuestVisibilities() {
+        questVisibilitiesVersion++;
+        questVisibilities.clear();
+    }
+
     public final boolean hasAcceptedQuest(final Quest quest) {
         for (final ActiveQuest activeQuest : activeQuests) {
             if (activeQuest.getQuestIdentifier().equalsIgnoreCase(quest.getIdentifier())) {
@@ -997,40 +1219,15 @@ public class QuestPlayer {
         }
     }
 
+    /**
+     * Checks the condition and variable objectives which can't be notified about changes of the variables they
+     * depend on. All others are checked by the VariableChangeBus.
+     */
     public void updateConditionObjectives(final Player player) {
-        //sendDebugMessage("updateConditionObjectives was called...");
-        if (!isHasActiveConditionObjectives() && !isHasActiveVariableObjectives()) {
-            //sendDebugMessage("   No active objectives to update.");
+        if (polledObjectives.isEmpty()) {
             return;
         }
-        for (final ActiveQuest activeQuest : getActiveQuests()) {
-            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                if (activeObjective.getObjective() instanceof final ConditionObjective conditionObjective) {
-                    if (conditionObjective.isCheckOnlyWhenCorrespondingVariableValueChanged() || !activeObjective.isUnlocked()) {
-                        continue;
-                    }
-
-                    final Condition condition = conditionObjective.getCondition();
-                    if (condition == null) {
-                        continue;
-                    }
-                    if (!condition.check(this).fulfilled()) {
-                        continue;
-                    }
-
-                    activeObjective.addProgress(1);
-
-                } else if(activeObjective.getObjective() instanceof final NumberVariableObjective numberVariableObjective) {
-                    //sendDebugMessage("Found numbervariableobjective to update!");
-                    if (numberVariableObjective.isCheckOnlyWhenCorrespondingVariableValueChanged() || !activeObjective.isUnlocked()) {
-                        continue;
-                    }
-                    numberVariableObjective.updateProgress(activeObjective);
-                }
-            }
-            activeQuest.removeCompletedObjectives(true);
-        }
-        removeCompletedQuests();
+        checkConditionAndVariableObjectives(polledObjectives);
     }
 
 
@@ -1059,7 +1256,7 @@ public class QuestPlayer {
 
     public void onJoinAsync(final Player player){
         this.player = player;
-        main.getTagManager().onJoin(this, player);
+        //Tags are loaded together with the rest of the player data
     }
 
     public final boolean isCurrentlyLoading() {
@@ -1087,19 +1284,45 @@ public class QuestPlayer {
     }
 
 
+    /**
+     * A check queued for the next checkQueuedObjectives() call. If the objective type is null, the check is run for
+     * every unlocked active objective.
+     */
+    private record QueuedObjectiveCheck(@Nullable Class<? extends Objective> objectiveType, Consumer<ActiveObjective> runForEachObjective) {
+        private boolean appliesTo(final ActiveObjective activeObjective) {
+            return objectiveType == null || objectiveType.isInstance(activeObjective.getObjective());
+        }
+    }
+
+    /**
+     * Queues a check which is run for every unlocked active objective. Prefer {@link #queueObjectiveCheck(Class, Consumer)},
+     * which only visits the active objectives of one objective type.
+     */
     public void queueObjectiveCheck(final Consumer<ActiveObjective> runForEachObjective){
         if(getActiveQuests().isEmpty()){
             return;
         }
-        queuedObjectivesToCheck.add(runForEachObjective);
+        queuedObjectivesToCheck.add(new QueuedObjectiveCheck(null, runForEachObjective));
+    }
+
+    /**
+     * Queues a check which is only run for the unlocked active objectives whose objective is an instance of objectiveType.
+     */
+    public void queueObjectiveCheck(final Class<? extends Objective> objectiveType, final Consumer<ActiveObjective> runForEachObjective){
+        if(getActiveQuests().isEmpty()){
+            return;
+        }
+        queuedObjectivesToCheck.add(new QueuedObjectiveCheck(objectiveType, runForEachObjective));
     }
 
     public void checkForActiveObjective(final ActiveObjective activeObjective){
         if(!activeObjective.isUnlocked()){
             return;
         }
-        for(final Consumer<ActiveObjective> runForEachObjective : queuedObjectivesToCheck){
-            runForEachObjective.accept(activeObjective);
+        for(final QueuedObjectiveCheck queuedObjectiveCheck : queuedObjectivesToCheck){
+            if(queuedObjectiveCheck.appliesTo(activeObjective)){
+                queuedObjectiveCheck.runForEachObjective().accept(activeObjective);
+            }
         }
         if(!activeObjective.getActiveObjectives().isEmpty()){
             for(final ActiveObjective childActiveObjective : activeObjective.getActiveObjectives()){
@@ -1113,15 +1336,233 @@ public class QuestPlayer {
             return;
         }
         sendDebugMessage("Checking queued objectives...");
-        for (final ActiveQuest activeQuest : getActiveQuests()) {
-            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                checkForActiveObjective(activeObjective);
 
+        boolean allChecksTyped = true;
+        for(final QueuedObjectiveCheck queuedObjectiveCheck : queuedObjectivesToCheck){
+            if(queuedObjectiveCheck.objectiveType() == null){
+                allChecksTyped = false;
+                break;
             }
-            activeQuest.removeCompletedObjectives(true);
+        }
+
+        if(allChecksTyped){
+            checkQueuedObjectivesByType();
+        }else{
+            for (final ActiveQuest activeQuest : getActiveQuests()) {
+                for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
+                    checkForActiveObjective(activeObjective);
+
+                }
+                activeQuest.removeCompletedObjectives(true);
+            }
+            removeChangedCompletedObjectives();
         }
         removeCompletedQuests();
 
         queuedObjectivesToCheck.clear();
     }
+
+    /**
+     * Runs the queued checks only for the active objectives of their objective type.
+     */
+    private void checkQueuedObjectivesByType(){
+        updateUnlockedActiveObjectivesByType();
+        final ArrayList<Class<? extends Objective>> unlockedActiveObjectiveTypes = this.unlockedActiveObjectiveTypes;
+        final ArrayList<ArrayList<ActiveObjective>> unlockedActiveObjectivesByType = this.unlockedActiveObjectivesByType;
+
+        for(final QueuedObjectiveCheck queuedObjectiveCheck : queuedObjectivesToCheck){
+            for(int typeIndex = 0; typeIndex < unlockedActiveObjectiveTypes.size(); typeIndex++){
+                if(!queuedObjectiveCheck.objectiveType().isAssignableFrom(unlockedActiveObjectiveTypes.get(typeIndex))){
+                    continue;
+                }
+                final ArrayList<ActiveObjective> activeObjectives = unlockedActiveObjectivesByType.get(typeIndex);
+                for(int i = 0; i < activeObjectives.size(); i++){
+                    final ActiveObjective activeObjective = activeObjectives.get(i);
+                    if(!activeObjective.isUnlocked()){ //Might have been locked by an earlier check
+                        continue;
+                    }
+                    queuedObjectiveCheck.runForEachObjective().accept(activeObjective);
+                }
+            }
+        }
+        removeChangedCompletedObjectives();
+    }
+
+    /**
+     * @return the objective check context for an event, which has to be passed to finishObjectiveChecks() afterwards,
+     *     in a finally block so it's released even if a check fails. Must only be called from the main thread.
+     */
+    public final ObjectiveCheckContext getObjectiveCheckContext(final Event event){
+        if(objectiveCheckContext.isInUse()){ //An objective check caused another event for this player
+            return new ObjectiveCheckContext().reset(event);
+        }
+        return objectiveCheckContext.reset(event);
+    }
+
+    /**
+     * Runs the check right away for every unlocked active objective whose objective is an instance of objectiveType.
+     * Unlike queueObjectiveCheck(), this doesn't allocate anything if the check is a constant. Completed objectives
+     * are removed by finishObjectiveChecks().
+     */
+    public final <T extends Objective> void runObjectiveCheck(final Class<T> objectiveType, final ObjectiveCheck<T> objectiveCheck, final ObjectiveCheckContext context){
+        if(activeQuests.isEmpty()){
+            return;
+        }
+        updateUnlockedActiveObjectivesByType();
+        //A check might cause the lists to be rebuilt. The old ones stay unchanged, so they can be looped through further
+        final ArrayList<Class<? extends Objective>> unlockedActiveObjectiveTypes = this.unlockedActiveObjectiveTypes;
+        final ArrayList<ArrayList<ActiveObjective>> unlockedActiveObjectivesByType = this.unlockedActiveObjectivesByType;
+        for(int typeIndex = 0; typeIndex < unlockedActiveObjectiveTypes.size(); typeIndex++){
+            if(!objectiveType.isAssignableFrom(unlockedActiveObjectiveTypes.get(typeIndex))){
+                continue;
+            }
+            final ArrayList<ActiveObjective> activeObjectives = unlockedActiveObjectivesByType.get(typeIndex);
+            for(int i = 0; i < activeObjectives.size(); i++){
+                final ActiveObjective activeObjective = activeObjectives.get(i);
+                if(!activeObjective.isUnlocked()){ //Might have been locked by an earlier check
+                    continue;
+                }
+                objectiveCheck.check(activeObjective, objectiveType.cast(activeObjective.getObjective()), context);
+            }
+        }
+    }
+
+    /**
+     * Removes the objectives and quests which have been completed by the objective checks, and releases the context.
+     * If no objective has been completed, this does nothing.
+     */
+    public void finishObjectiveChecks(final ObjectiveCheckContext context){
+        context.release();
+        if(changedActiveObjectiveHolders.isEmpty()){
+            return;
+        }
+        removeChangedCompletedObjectives();
+        removeCompletedQuests();
+    }
+
+    /**
+     * Called by an active objective holder when one of its objectives has been completed.
+     */
+    public void markActiveObjectiveHolderChanged(final ActiveObjectiveHolder activeObjectiveHolder){
+        if(!changedActiveObjectiveHolders.contains(activeObjectiveHolder)){
+            changedActiveObjectiveHolders.add(activeObjectiveHolder);
+        }
+    }
+
+    /**
+     * Removes completed objectives from the changed active objective holders and their parents, deepest level first,
+     * so completed sub-objectives can complete their parents.
+     */
+    private void removeChangedCompletedObjectives(){
+        if(removingChangedCompletedObjectives){ //Holders changed meanwhile are handled by the outer call
+            return;
+        }
+        removingChangedCompletedObjectives = true;
+        try{
+            while(!changedActiveObjectiveHolders.isEmpty()){
+                for(final ActiveObjectiveHolder changedActiveObjectiveHolder : changedActiveObjectiveHolders){
+                    ActiveObjectiveHolder activeObjectiveHolder = changedActiveObjectiveHolder;
+                    while(activeObjectiveHolder != null && !activeObjectiveHoldersToClean.contains(activeObjectiveHolder)){
+                        activeObjectiveHoldersToClean.add(activeObjectiveHolder);
+                        activeObjectiveHolder = activeObjectiveHolder instanceof final ActiveObjective activeObjective ? activeObjective.getActiveObjectiveHolder() : null;
+                    }
+                }
+                changedActiveObjectiveHolders.clear();
+
+                activeObjectiveHoldersToClean.sort(DEEPEST_LEVEL_FIRST);
+                for(final ActiveObjectiveHolder activeObjectiveHolder : activeObjectiveHoldersToClean){
+                    final ActiveQuest rootActiveQuest = activeObjectiveHolder instanceof final ActiveObjective activeObjective ? activeObjective.getRootActiveQuest()
+                        : activeObjectiveHolder instanceof final ActiveQuest activeQuest ? activeQuest : null;
+                    if(rootActiveQuest != null && activeQuests.contains(rootActiveQuest)){ //Skip quests which have been removed meanwhile
+                        activeObjectiveHolder.removeCompletedObjectives(true);
+                    }
+                }
+                activeObjectiveHoldersToClean.clear();
+            }
+        }finally{
+            removingChangedCompletedObjectives = false;
+        }
+    }
+
+    public void invalidateUnlockedActiveObjectivesByType(){
+        unlockedActiveObjectivesByTypeOutdated = true;
+    }
+
+    private void updateUnlockedActiveObjectivesByType(){
+        if(!unlockedActiveObjectivesByTypeOutdated){
+            return;
+        }
+        //The lists are never modified after they've been built, so they can safely be iterated while objectives change
+        final ArrayList<Class<? extends Objective>> newUnlockedActiveObjectiveTypes = new ArrayList<>();
+        final ArrayList<ArrayList<ActiveObjective>> newUnlockedActiveObjectivesByType = new ArrayList<>();
+        for(final ActiveQuest activeQuest : getActiveQuests()){
+            addUnlockedActiveObjectivesByType(activeQuest, newUnlockedActiveObjectiveTypes, newUnlockedActiveObjectivesByType);
+        }
+        unlockedActiveObjectiveTypes = newUnlockedActiveObjectiveTypes;
+        unlockedActiveObjectivesByType = newUnlockedActiveObjectivesByType;
+        unlockedActiveObjectivesByTypeOutdated = false;
+    }
+
+    private void addUnlockedActiveObjectivesByType(final ActiveObjectiveHolder activeObjectiveHolder, final ArrayList<Class<? extends Objective>> unlockedActiveObjectiveTypes, final ArrayList<ArrayList<ActiveObjective>> unlockedActiveObjectivesByType){
+        for(final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()){
+            if(!activeObjective.isUnlocked()){
+                continue;
+            }
+            //There are only a few objective types, so looking them up in the list is cheap
+            final Class<? extends Objective> objectiveType = activeObjective.getObjective().getClass();
+            int typeIndex = unlockedActiveObjectiveTypes.indexOf(objectiveType);
+            if(typeIndex == -1){
+                typeIndex = unlockedActiveObjectiveTypes.size();
+                unlockedActiveObjectiveTypes.add(objectiveType);
+                unlockedActiveObjectivesByType.add(new ArrayList<>());
+            }
+            unlockedActiveObjectivesByType.get(typeIndex).add(activeObjective);
+            addUnlockedActiveObjectivesByType(activeObjective, unlockedActiveObjectiveTypes, unlockedActiveObjectivesByType);
+        }
+    }
+
+    /**
+     * @return if any unlocked active objective (including sub-objectives) is an instance of objectiveType. Used by
+     *     event handlers to skip players early, without allocating anything.
+     */
+    public final boolean hasUnlockedActiveObjectives(final Class<? extends Objective> objectiveType){
+        if(activeQuests.isEmpty()){
+            return false;
+        }
+        updateUnlockedActiveObjectivesByType();
+        for(int typeIndex = 0; typeIndex < unlockedActiveObjectiveTypes.size(); typeIndex++){
+            if(objectiveType.isAssignableFrom(unlockedActiveObjectiveTypes.get(typeIndex))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return all unlocked active objectives (including sub-objectives) whose objective is an instance of objectiveType
+     */
+    public final List<ActiveObjective> getUnlockedActiveObjectives(final Class<? extends Objective> objectiveType){
+        final ArrayList<ActiveObjective> unlockedActiveObjectives = new ArrayList<>();
+        updateUnlockedActiveObjectivesByType();
+        for(int typeIndex = 0; typeIndex < unlockedActiveObjectiveTypes.size(); typeIndex++){
+            if(objectiveType.isAssignableFrom(unlockedActiveObjectiveTypes.get(typeIndex))){
+                unlockedActiveObjectives.addAll(unlockedActiveObjectivesByType.get(typeIndex));
+            }
+        }
+        return unlockedActiveObjectives;
+    }
+
+    /**
+     * @return if no ReachLocation region of the index overlaps the chunk. The result is remembered until the player
+     *     moves into another chunk or the index is rebuilt, so moving inside a chunk doesn't need any lookups.
+     */
+    public final boolean isInEmptyReachLocationCell(final ReachLocationIndex reachLocationIndex, final String worldName, final long chunkKey){
+        if(reachLocationIndex != reachLocationCellIndex || chunkKey != reachLocationCellChunkKey || !worldName.equals(reachLocationCellWorldName)){
+            reachLocationCellIndex = reachLocationIndex;
+            reachLocationCellWorldName = worldName;
+            reachLocationCellChunkKey = chunkKey;
+            reachLocationCellEmpty = !reachLocationIndex.hasRegionsInChunk(worldName, chunkKey);
+        }
+        return reachLocationCellEmpty;
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
+
+/**
+ * The change journal records which database rows of a QuestPlayer have been added, removed or changed since the
+ * last time the player data has been saved. The QuestPlayerManager drains it while saving, so only those rows are
+ * written to the database instead of deleting and re-inserting all the player data on every save.
+ * <p>
+ * Every recorded change also queues the player in the write-behind queue, which periodically saves the changes.
+ * All methods are synchronized, as the journal is filled from the main thread while saving happens asynchronously.
+ */
+public class QuestPlayerChangeJournal {
+    private final NotQuests main;
+    private final QuestPlayer questPlayer;
+
+    private boolean recording = true;
+
+    private boolean currentProfileChanged;
+    private boolean questPlayerDataChanged;
+    private final LinkedHashMap<String, Object> changedTags; //Lowercase tag identifiers and their new values (null if removed)
+    private final LinkedHashSet<ActiveQuest> addedActiveQuests;
+    private final LinkedHashSet<String> removedActiveQuests; //Quest identifiers
+    private final LinkedHashSet<ActiveObjective> changedActiveObjectives;
+    private final LinkedHashSet<ActiveTrigger> changedActiveTriggers;
+    private final ArrayList<CompletedQuest> addedCompletedQuests;
+    private final ArrayList<CompletedQuest> removedCompletedQuests;
+
+    public QuestPlayerChangeJournal(final NotQuests main, final QuestPlayer questPlayer) {
+        this.main = main;
+        this.questPlayer = questPlayer;
+
+        //A new QuestPlayer does not have any rows yet
+        currentProfileChanged = true;
+        questPlayerDataChanged = true;
+        changedTags = new LinkedHashMap<>();
+        addedActiveQuests = new LinkedHashSet<>();
+        removedActiveQuests = new LinkedHashSet<>();
+        changedActiveObjectives = new LinkedHashSet<>();
+        changedActiveTriggers = new LinkedHashSet<>();
+        addedCompletedQuests = new ArrayList<>();
+        removedCompletedQuests = new ArrayList<>();
+    }
+
+    public final QuestPlayer getQuestPlayer() {
+        return questPlayer;
+    }
+
+    /**
+     * While the journal is not recording, all changes are ignored. This is used while the player data is loaded from
+     * the database, as nothing which is loaded needs to be written again.
+     */
+    public synchronized void setRecording(final boolean recording) {
+        this.recording = recording;
+    }
+
+    public synchronized final boolean isRecording() {
+        return recording;
+    }
+
+    private boolean onChange() {
+        if (!recording) {
+            return false;
+        }
+        if (main.getQuestPlayerManager() != null) {
+            main.getQuestPlayerManager().getWriteBehindQueue().enqueue(questPlayer);
+        }
+        return true;
+    }
+
+    public synchronized void markCurrentProfileChanged() {
+        if (onChange()) {
+            currentProfileChanged = true;
+        }
+    }
+
+    public synchronized void markQuestPlayerDataChanged() {
+        if (onChange()) {
+            questPlayerDataChanged = true;
+        }
+    }
+
+    /**
+     * The new value is recorded together with the tag, so saving never has to read the tags of the QuestPlayer, which
+     * might be changed on the main thread at the same time.
+     */
+    public synchronized void markTagChanged(final String tagIdentifier, @Nullable final Object tagValue) {
+        if (onChange()) {
+            changedTags.put(tagIdentifier, tagValue);
+        }
+    }
+
+    /**
+     * Used after the tags have been loaded from the database, as setting the loaded tag values marks them as changed.
+     */
+    public synchronized void clearTagsChanged() {
+        changedTags.clear();
+    }
+
+    public synchronized void markActiveQuestAdded(final ActiveQuest activeQuest) {
+        if (onChange()) {
+            addedActiveQuests.add(activeQuest);
+        }
+    }
+
+    public synchronized void markActiveQuestRemoved(final ActiveQuest activeQuest) {
+        if (!onChange()) {
+            return;
+        }
+        addedActiveQuests.remove(activeQuest);
+        removedActiveQuests.add(activeQuest.getQuestIdentifier());
+        changedActiveObjectives.removeIf(activeObjective -> activeObjective.getRootActiveQuest() == activeQuest);
+        changedActiveTriggers.removeIf(activeTrigger -> activeTrigger.getActiveQuest() == activeQuest);
+    }
+
+    public synchronized void markActiveObjectiveChanged(final ActiveObjective activeObjective) {
+        if (onChange()) {
+            changedActiveObjectives.add(activeObjective);
+        }
+    }
+
+    public synchronized void markActiveTriggerChanged(final ActiveTrigger activeTrigger) {
+        if (onChange()) {
+            changedActiveTriggers.add(activeTrigger);
+        }
+    }
+
+    public synchronized void markCompletedQuestAdded(final CompletedQuest completedQuest) {
+        if (onChange()) {
+            addedCompletedQuests.add(completedQuest);
+        }
+    }
+
+    public synchronized void markCompletedQuestRemoved(final CompletedQuest completedQuest) {
+        if (!onChange()) {
+            return;
+        }
+        if (!addedCompletedQuests.remove(completedQuest)) {
+            removedCompletedQuests.add(completedQuest);
+        }
+    }
+
+    public synchronized final boolean isEmpty() {
+        return !currentProfileChanged
+                && !questPlayerDataChanged
+                && changedTags.isEmpty()
+                && addedActiveQuests.isEmpty()
+                && removedActiveQuests.isEmpty()
+                && changedActiveObjectives.isEmpty()
+                && changedActiveTriggers.isEmpty()
+                && addedCompletedQuests.isEmpty()
+                && removedCompletedQuests.isEmpty();
+    }
+
+    /**
+     * Forgets all recorded changes. This is used after the player data has been loaded from the database, as
+     * the loaded rows are already persisted.
+     */
+    public synchronized void clear() {
+        currentProfileChanged = false;
+        questPlayerDataChanged = false;
+        changedTags.clear();
+        addedActiveQuests.clear();
+        removedActiveQuests.clear();
+        changedActiveObjectives.clear();
+        changedActiveTriggers.clear();
+        addedCompletedQuests.clear();
+        removedCompletedQuests.clear();
+    }
+
+    /**
+     * Moves all recorded changes into a new journal and clears this one.
+     *
+     * @return a journal containing all changes recorded since the last drain
+     */
+    public synchronized QuestPlayerChangeJournal drain() {
+        final QuestPlayerChangeJournal drained = new QuestPlayerChangeJournal(main, questPlayer);
+        drained.recording = false;
+        drained.currentProfileChanged = currentProfileChanged;
+        drained.questPlayerDataChanged = questPlayerDataChanged;
+        drained.changedTags.putAll(changedTags);
+        drained.addedActiveQuests.addAll(addedActiveQuests);
+        drained.removedActiveQuests.addAll(removedActiveQuests);
+        drained.changedActiveObjectives.addAll(changedActiveObjectives);
+        drained.changedActiveTriggers.addAll(changedActiveTriggers);
+        drained.addedCompletedQuests.addAll(addedCompletedQuests);
+        drained.removedCompletedQuests.addAll(removedCompletedQuests);
+        clear();
+        return drained;
+    }
+
+    /**
+     * Puts the changes of a previously drained journal back, for example because writing them to the database failed.
+     * Changes which refer to active quests the player no longer has are dropped.
+     *
+     * @param drained the journal previously returned by {@link #drain()}
+     */
+    public synchronized void restore(final QuestPlayerChangeJournal drained) {
+        if (drained.isEmpty() || !onChange()) {
+            return;
+        }
+        currentProfileChanged |= drained.currentProfileChanged;
+        questPlayerDataChanged |= drained.questPlayerDataChanged;
+        //Tags which have changed again since the drain already have a newer value. putIfAbsent() can't be used, as
+        //removed tags have a null value.
+        drained.changedTags.forEach((tagIdentifier, tagValue) -> {
+            if (!changedTags.containsKey(tagIdentifier)) {
+                changedTags.put(tagIdentifier, tagValue);
+            }
+        });
+        removedActiveQuests.addAll(drained.removedActiveQuests);
+        for (final ActiveQuest activeQuest : drained.addedActiveQuests) {
+            if (questPlayer.getActiveQuests().contains(activeQuest)) {
+                addedActiveQuests.add(activeQuest);
+            }
+        }
+        for (final ActiveObjective activeObjective : drained.changedActiveObjectives) {
+            if (questPlayer.getActiveQuests().contains(activeObjective.getRootActiveQuest())) {
+                changedActiveObjectives.add(activeObjective);
+            }
+        }
+        for (final ActiveTrigger activeTrigger : drained.changedActiveTriggers) {
+            if (questPlayer.getActiveQuests().contains(activeTrigger.getActiveQuest())) {
+                changedActiveTriggers.add(activeTrigger);
+            }
+        }
+        for (final CompletedQuest completedQuest : drained.addedCompletedQuests) {
+            if (!removedCompletedQuests.remove(completedQuest)) {
+                addedCompletedQuests.add(completedQuest);
+            }
+        }
+        removedCompletedQuests.addAll(drained.removedCompletedQuests);
+    }
+
+    public final boolean isCurrentProfileChanged() {
+        return currentProfileChanged;
+    }
+
+    public final boolean isQuestPlayerDataChanged() {
+        return questPlayerDataChanged;
+    }
+
+    public final boolean isTagsChanged() {
+        return !changedTags.isEmpty();
+    }
+
+    public final LinkedHashMap<String, Object> getChangedTags() {
+        return changedTags;
+    }
+
+    public final LinkedHashSet<ActiveQuest> getAddedActiveQuests() {
+        return addedActiveQuests;
+    }
+
+    public final LinkedHashSet<String> getRemovedActiveQuests() {
+        return removedActiveQuests;
+    }
+
+    public final LinkedHashSet<ActiveObjective> getChangedActiveObjectives() {
+        return changedActiveObjectives;
+    }
+
+    public final LinkedHashSet<ActiveTrigger> getChangedActiveTriggers() {
+        return changedActiveTriggers;
+    }
+
+    public final ArrayList<CompletedQuest> getAddedCompletedQuests() {
+        return addedCompletedQuests;
+    }
+
+    public final ArrayList<CompletedQuest> getRemovedCompletedQuests() {
+        return removedCompletedQuests;
+    }
+}
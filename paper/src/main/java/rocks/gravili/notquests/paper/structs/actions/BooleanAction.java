@@ -131,7 +131,7 @@ public class BooleanAction extends Action {
                         variable.getRequiredNumbers()) {
                       additionalNumberArguments.put(
                           numberVariableValueArgument.getName(),
-                          new NumberExpression(
+                          NumberExpression.of(
                               main, context.get(numberVariableValueArgument.getName())));
                     }
                     booleanAction.setAdditionalNumberArguments(additionalNumberArguments);
@@ -141,7 +141,7 @@ public class BooleanAction extends Action {
                         variable.getRequiredBooleans()) {
                       additionalBooleanArguments.put(
                           booleanArgument.getName(),
-                          new NumberExpression(main, context.get(booleanArgument.getName())));
+                          NumberExpression.of(main, context.get(booleanArgument.getName())));
                     }
                     for (CommandFlag<?> commandFlag : variable.getRequiredBooleanFlags()) {
                       additionalBooleanArguments.put(
@@ -191,7 +191,7 @@ public class BooleanAction extends Action {
   public void initializeExpressionAndCachedVariable(
       final String expression, final String variableName) {
     if (numberExpression == null) {
-      numberExpression = new NumberExpression(main, expression);
+      numberExpression = NumberExpression.of(main, expression);
       cachedVariable = main.getVariablesManager().getVariableFromString(variableName);
     }
   }
@@ -305,7 +305,7 @@ public class BooleanAction extends Action {
       for (String key : additionalIntegersConfigurationSection.getKeys(false)) {
         additionalNumberArguments.put(
             key,
-            new NumberExpression(
+            NumberExpression.of(
                 main,
                 configuration.getString(initialPath + ".specifics.additionalNumbers." + key, "0")));
       }
@@ -317,7 +317,7 @@ public class BooleanAction extends Action {
       for (String key : additionalBooleansConfigurationSection.getKeys(false)) {
         additionalBooleanArguments.put(
             key,
-            new NumberExpression(
+            NumberExpression.of(
                 main,
                 configuration.getString(
                     initialPath + ".specifics.additionalBooleans." + key, "false")));
@@ -358,17 +358,17 @@ public class BooleanAction extends Action {
           } else if (variable.getRequiredNumbers().size() > counterNumbers) {
             additionalNumberArguments.put(
                 variable.getRequiredNumbers().get(counter - 4).getName(),
-                new NumberExpression(main, argument));
+                NumberExpression.of(main, argument));
             counterNumbers++;
           } else if (variable.getRequiredBooleans().size() > counterBooleans) {
             additionalBooleanArguments.put(
                 variable.getRequiredBooleans().get(counter - 4).getName(),
-                new NumberExpression(main, argument));
+                NumberExpression.of(main, argument));
             counterBooleans++;
           } else if (variable.getRequiredBooleanFlags().size() > counterBooleanFlags) {
             additionalBooleanArguments.put(
                 variable.getRequiredBooleanFlags().get(counter - 4).getName(),
-                new NumberExpression(main, argument));
+                NumberExpression.of(main, argument));
             counterBooleanFlags++;
           }
         }
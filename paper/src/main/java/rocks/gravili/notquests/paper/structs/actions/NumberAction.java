@@ -111,13 +111,13 @@ public class NumberAction extends Action {
 
                         HashMap<String, NumberExpression> additionalNumberArguments = new HashMap<>();
                         for(NumberVariableValueArgument<CommandSender> numberVariableValueArgument : variable.getRequiredNumbers()){
-                            additionalNumberArguments.put(numberVariableValueArgument.getName(), new NumberExpression(main, context.get(numberVariableValueArgument.getName())));
+                            additionalNumberArguments.put(numberVariableValueArgument.getName(), NumberExpression.of(main, context.get(numberVariableValueArgument.getName())));
                         }
                         numberAction.setAdditionalNumberArguments(additionalNumberArguments);
 
                         HashMap<String, NumberExpression> additionalBooleanArguments = new HashMap<>();
                         for(BooleanVariableValueArgument<CommandSender> booleanArgument : variable.getRequiredBooleans()){
-                            additionalBooleanArguments.put(booleanArgument.getName(), new NumberExpression(main, context.get(booleanArgument.getName())));
+                            additionalBooleanArguments.put(booleanArgument.getName(), NumberExpression.of(main, context.get(booleanArgument.getName())));
                         }
                         for(CommandFlag<?> commandFlag : variable.getRequiredBooleanFlags()){
                             additionalBooleanArguments.put(commandFlag.getName(), context.flags().isPresent(commandFlag.getName()) ? NumberExpression.ofStatic(main, 1) : NumberExpression.ofStatic(main, 0));
@@ -164,7 +164,7 @@ public class NumberAction extends Action {
 
     public void initializeExpressionAndCachedVariable(final String expression, final String variableName) {
         if (numberExpression == null) {
-            numberExpression = new NumberExpression(main, expression);
+            numberExpression = NumberExpression.of(main, expression);
             cachedVariable = main.getVariablesManager().getVariableFromString(variableName);
         }
     }
@@ -278,14 +278,14 @@ public class NumberAction extends Action {
         final ConfigurationSection additionalIntegersConfigurationSection = configuration.getConfigurationSection(initialPath + ".specifics.additionalNumbers");
         if (additionalIntegersConfigurationSection != null) {
             for (String key : additionalIntegersConfigurationSection.getKeys(false)) {
-                additionalNumberArguments.put(key, new NumberExpression(main, configuration.getString(initialPath + ".specifics.additionalNumbers." + key, "0")));
+                additionalNumberArguments.put(key, NumberExpression.of(main, configuration.getString(initialPath + ".specifics.additionalNumbers." + key, "0")));
             }
         }
 
         final ConfigurationSection additionalBooleansConfigurationSection = configuration.getConfigurationSection(initialPath + ".specifics.additionalBooleans");
         if (additionalBooleansConfigurationSection != null) {
             for (String key : additionalBooleansConfigurationSection.getKeys(false)) {
-                additionalBooleanArguments.put(key, new NumberExpression(main, configuration.getString(initialPath + ".specifics.additionalBooleans." + key, "false")));
+                additionalBooleanArguments.put(key, NumberExpression.of(main, configuration.getString(initialPath + ".specifics.additionalBooleans." + key, "false")));
             }
         }
     }
@@ -319,13 +319,13 @@ public class NumberAction extends Action {
                         additionalStringArguments.put(variable.getRequiredStrings().get(counter-4).getName(), argument);
                         counterStrings++;
                     } else if(variable.getRequiredNumbers().size() > counterNumbers){
-                        additionalNumberArguments.put(variable.getRequiredNumbers().get(counter - 4).getName(), new NumberExpression(main, argument));
+                        additionalNumberArguments.put(variable.getRequiredNumbers().get(counter - 4).getName(), NumberExpression.of(main, argument));
                         counterNumbers++;
                     } else if(variable.getRequiredBooleans().size()  > counterBooleans){
-                        additionalBooleanArguments.put(variable.getRequiredBooleans().get(counter - 4).getName(), new NumberExpression(main, argument));
+                        additionalBooleanArguments.put(variable.getRequiredBooleans().get(counter - 4).getName(), NumberExpression.of(main, argument));
                         counterBooleans++;
                     } else if(variable.getRequiredBooleanFlags().size()  > counterBooleanFlags){
-                        additionalBooleanArguments.put(variable.getRequiredBooleanFlags().get(counter - 4).getName(), new NumberExpression(main, argument));
+                        additionalBooleanArguments.put(variable.getRequiredBooleanFlags().get(counter - 4).getName(), NumberExpression.of(main, argument));
                         counterBooleanFlags++;
                     }
                 }
@@ -19,6 +19,10 @@
 package rocks.gravili.notquests.paper.structs.conditions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -238,7 +242,7 @@ public abstract class Condition {
   }
   public final NumberExpression getHiddenExpression() {
     if (hidden == null) {
-      hidden = new NumberExpression(main, "0");
+      hidden = NumberExpression.of(main, "0");
     }
     return hidden;
   }
@@ -246,6 +250,39 @@ public abstract class Condition {
     this.hidden = hidden;
   }
 
+  /**
+   * Used to only check conditions again once a variable they depend on has changed, instead of checking them
+   * periodically.
+   *
+   * @return the types of all variables the result of this condition depends on, or null if it's unknown what the
+   *     result depends on. In that case, the condition has to be checked periodically.
+   */
+  public @Nullable Set<String> getVariableDependencies() {
+    return null;
+  }
+
+  /**
+   * @return the variable and the variables used in the expressions of the condition, or null if the variable is unknown
+   */
+  protected final @Nullable Set<String> collectVariableDependencies(final @Nullable String variableName, final @Nullable NumberExpression numberExpression, final @Nullable Map<String, NumberExpression> additionalNumberArguments, final @Nullable Map<String, NumberExpression> additionalBooleanArguments) {
+    if (variableName == null) {
+      return null;
+    }
+    final LinkedHashSet<String> variableDependencies = new LinkedHashSet<>();
+    variableDependencies.add(variableName);
+    if (numberExpression != null) {
+      variableDependencies.addAll(numberExpression.getVariableDependencies());
+    }
+    for (final Map<String, NumberExpression> additionalArguments : Arrays.asList(additionalNumberArguments, additionalBooleanArguments)) {
+      if (additionalArguments != null) {
+        for (final NumberExpression additionalArgument : additionalArguments.values()) {
+          variableDependencies.addAll(additionalArgument.getVariableDependencies());
+        }
+      }
+    }
+    return variableDependencies;
+  }
+
   public record ConditionResult(boolean fulfilled, String message) {
 
   }
@@ -310,7 +347,7 @@ public abstract class Condition {
     if(objective != null){
       condition.setObjective(objective);
     }
-    condition.setHidden(new NumberExpression(main, hiddenStatusExpression.isBlank() ? "0" : hiddenStatusExpression));
+    condition.setHidden(NumberExpression.of(main, hiddenStatusExpression.isBlank() ? "0" : hiddenStatusExpression));
 
     condition.load(
         config,
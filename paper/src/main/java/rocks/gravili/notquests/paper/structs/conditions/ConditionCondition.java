@@ -22,6 +22,8 @@ import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -65,6 +67,11 @@ public class ConditionCondition extends Condition {
     this.condition = condition;
   }
 
+  @Override
+  public @Nullable Set<String> getVariableDependencies() {
+    return condition != null ? condition.getVariableDependencies() : null;
+  }
+
   @Override
   public String checkInternally(final QuestPlayer questPlayer) {
     if (condition == null) {
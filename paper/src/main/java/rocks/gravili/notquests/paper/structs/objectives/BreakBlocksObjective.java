@@ -83,6 +83,7 @@ public class BreakBlocksObjective extends Objective {
 
   public void setItemStackSelection(final ItemStackSelection itemStackSelection) {
     this.itemStackSelection = itemStackSelection;
+    main.getQuestEvents().scheduleGatedListenersUpdate();
   }
 
   @Override
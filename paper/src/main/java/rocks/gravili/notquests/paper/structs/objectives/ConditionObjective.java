@@ -21,6 +21,7 @@ package rocks.gravili.notquests.paper.structs.objectives;
 import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -110,7 +111,12 @@ public class ConditionObjective extends Objective {
   public void onObjectiveUnlock(
       final ActiveObjective activeObjective,
       final boolean unlockedDuringPluginStartupQuestLoadingProcess) {
-    activeObjective.getQuestPlayer().setHasActiveConditionObjectives(true);
+    final Set<String> variableDependencies = condition != null ? condition.getVariableDependencies() : null;
+    activeObjective.getQuestPlayer().subscribeToVariableChanges(
+        activeObjective,
+        variableDependencies,
+        !isCheckOnlyWhenCorrespondingVariableValueChanged()
+            && !main.getVariableChangeBus().arePublishingVariables(variableDependencies));
   }
 
   @Override
@@ -118,7 +124,7 @@ public class ConditionObjective extends Objective {
       final ActiveObjective activeObjective,
       final boolean lockedOrCompletedDuringPluginStartupQuestLoadingProcess,
       final boolean completed) {
-    activeObjective.getQuestPlayer().setHasActiveConditionObjectives(false);
+    activeObjective.getQuestPlayer().unsubscribeFromVariableChanges(activeObjective);
   }
 
   @Override
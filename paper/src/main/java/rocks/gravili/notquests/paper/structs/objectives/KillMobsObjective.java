@@ -21,9 +21,11 @@ package rocks.gravili.notquests.paper.structs.objectives;
 import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
+import java.util.Locale;
 import java.util.Map;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.EntityType;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.EntityTypeSelector;
@@ -37,6 +39,12 @@ public class KillMobsObjective extends Objective {
   private String nameTagContainsAny = "";
   private String nameTagEquals = "";
 
+  // Parsed from the values above whenever they're set, so they don't have to be parsed again for every killed mob
+  private boolean killAnyMob = false;
+  private @Nullable EntityType mobToKillEntityType;
+  private String[] nameTagContainsAnyPartsLowercase = new String[0];
+  private String nameTagEqualsLowercase = "";
+
   private String projectKorraAbility = "";
 
   public KillMobsObjective(NotQuests main) {
@@ -136,6 +144,17 @@ public class KillMobsObjective extends Objective {
 
   public void setMobToKillType(final String mobToKillType) {
     this.mobToKillType = mobToKillType;
+
+    killAnyMob = mobToKillType != null && mobToKillType.equalsIgnoreCase("any");
+    mobToKillEntityType = null;
+    if (mobToKillType != null && !killAnyMob) {
+      try {
+        mobToKillEntityType = EntityType.valueOf(mobToKillType.toUpperCase(Locale.ROOT));
+      } catch (final IllegalArgumentException ignored) {
+        // Never matches any killed mob, just like before
+      }
+    }
+    main.getQuestEvents().scheduleGatedListenersUpdate();
   }
 
   @Override
@@ -185,6 +204,11 @@ public class KillMobsObjective extends Objective {
 
   public void setNameTagContainsAny(final String nameTagContainsAny) {
     this.nameTagContainsAny = nameTagContainsAny;
+    this.nameTagContainsAnyPartsLowercase = nameTagContainsAny.isBlank() ? new String[0] : nameTagContainsAny.toLowerCase(Locale.ROOT).split(" ");
+  }
+
+  public final String[] getNameTagContainsAnyPartsLowercase() {
+    return nameTagContainsAnyPartsLowercase;
   }
 
   public final String getNameTagEquals() {
@@ -193,11 +217,27 @@ public class KillMobsObjective extends Objective {
 
   public void setNameTagEquals(final String nameTagEquals) {
     this.nameTagEquals = nameTagEquals;
+    this.nameTagEqualsLowercase = nameTagEquals.toLowerCase(Locale.ROOT);
+  }
+
+  public final String getNameTagEqualsLowercase() {
+    return nameTagEqualsLowercase;
+  }
+
+  public final boolean isKillAnyMob() {
+    return killAnyMob;
+  }
+
+  /**
+   * @return the type of the mob to kill, or null if any mob should be killed or the type is unknown
+   */
+  public final @Nullable EntityType getMobToKillEntityType() {
+    return mobToKillEntityType;
   }
 
   @Override
   public void load(FileConfiguration configuration, String initialPath) {
-    mobToKillType = configuration.getString(initialPath + ".specifics.mobToKill");
+    setMobToKillType(configuration.getString(initialPath + ".specifics.mobToKill"));
 
     // Extras
     final String nameTagContains =
@@ -7,7 +7,9 @@ import cloud.commandframework.arguments.standard.StringArgument;
 import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -123,13 +125,13 @@ public class NumberVariableObjective extends Objective { // TODO: Not done yet
 
                     HashMap<String, NumberExpression> additionalNumberArguments = new HashMap<>();
                     for (NumberVariableValueArgument<CommandSender> numberVariableValueArgument : variable.getRequiredNumbers()) {
-                      additionalNumberArguments.put(numberVariableValueArgument.getName(), new NumberExpression(main, context.get(numberVariableValueArgument.getName())));
+                      additionalNumberArguments.put(numberVariableValueArgument.getName(), NumberExpression.of(main, context.get(numberVariableValueArgument.getName())));
                     }
                     numberVariableObjective.setAdditionalNumberArguments(additionalNumberArguments);
 
                     HashMap<String, NumberExpression> additionalBooleanArguments = new HashMap<>();
                     for (BooleanVariableValueArgument<CommandSender> booleanArgument : variable.getRequiredBooleans()) {
-                      additionalBooleanArguments.put(booleanArgument.getName(), new NumberExpression(main, context.get(booleanArgument.getName())));
+                      additionalBooleanArguments.put(booleanArgument.getName(), NumberExpression.of(main, context.get(booleanArgument.getName())));
                     }
                     for (CommandFlag<?> commandFlag : variable.getRequiredBooleanFlags()) {
                       additionalBooleanArguments.put(commandFlag.getName(), context.flags().isPresent(commandFlag.getName()) ? NumberExpression.ofStatic(main, 1) : NumberExpression.ofStatic(main, 0));
@@ -201,16 +203,41 @@ public class NumberVariableObjective extends Objective { // TODO: Not done yet
   public void onObjectiveUnlock(
       final ActiveObjective activeObjective,
       final boolean unlockedDuringPluginStartupQuestLoadingProcess) {
-    activeObjective.getQuestPlayer().setHasActiveVariableObjectives(true);
+    final Set<String> variableDependencies = getVariableDependencies();
+    activeObjective.getQuestPlayer().subscribeToVariableChanges(
+        activeObjective,
+        variableDependencies,
+        !isCheckOnlyWhenCorrespondingVariableValueChanged()
+            && !main.getVariableChangeBus().arePublishingVariables(variableDependencies));
     updateProgress(activeObjective);
   }
 
+  /**
+   * @return the types of the variable and all variables used in the progress needed expression and the additional
+   *     arguments, or null if the variable is unknown
+   */
+  public @Nullable Set<String> getVariableDependencies() {
+    if (variableName == null) {
+      return null;
+    }
+    final LinkedHashSet<String> variableDependencies = new LinkedHashSet<>();
+    variableDependencies.add(variableName);
+    variableDependencies.addAll(getProgressNeededExpression().getVariableDependencies());
+    for (final NumberExpression additionalNumberArgument : additionalNumberArguments.values()) {
+      variableDependencies.addAll(additionalNumberArgument.getVariableDependencies());
+    }
+    for (final NumberExpression additionalBooleanArgument : additionalBooleanArguments.values()) {
+      variableDependencies.addAll(additionalBooleanArgument.getVariableDependencies());
+    }
+    return variableDependencies;
+  }
+
   @Override
   public void onObjectiveCompleteOrLock(
       final ActiveObjective activeObjective,
       final boolean lockedOrCompletedDuringPluginStartupQuestLoadingProcess,
       final boolean completed) {
-    activeObjective.getQuestPlayer().setHasActiveVariableObjectives(false);
+    activeObjective.getQuestPlayer().unsubscribeFromVariableChanges(activeObjective);
   }
 
   @Override
@@ -229,14 +256,14 @@ public class NumberVariableObjective extends Objective { // TODO: Not done yet
     final ConfigurationSection additionalIntegersConfigurationSection = configuration.getConfigurationSection(initialPath + ".specifics.additionalNumbers");
     if (additionalIntegersConfigurationSection != null) {
       for (String key : additionalIntegersConfigurationSection.getKeys(false)) {
-        additionalNumberArguments.put(key, new NumberExpression(main, configuration.getString(initialPath + ".specifics.additionalNumbers." + key, "0")));
+        additionalNumberArguments.put(key, NumberExpression.of(main, configuration.getString(initialPath + ".specifics.additionalNumbers." + key, "0")));
       }
     }
 
     final ConfigurationSection additionalBooleansConfigurationSection = configuration.getConfigurationSection(initialPath + ".specifics.additionalBooleans");
     if (additionalBooleansConfigurationSection != null) {
       for (String key : additionalBooleansConfigurationSection.getKeys(false)) {
-        additionalBooleanArguments.put(key, new NumberExpression(main, configuration.getString(initialPath + ".specifics.additionalBooleans." + key, "false")));
+        additionalBooleanArguments.put(key, NumberExpression.of(main, configuration.getString(initialPath + ".specifics.additionalBooleans." + key, "false")));
       }
     }
 
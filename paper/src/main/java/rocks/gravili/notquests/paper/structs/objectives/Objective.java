@@ -119,13 +119,13 @@ public abstract class Objective extends ObjectiveHolder{
 
   public final NumberExpression getProgressNeededExpression() {
     if (progressNeededExpression == null) {
-      progressNeededExpression = new NumberExpression(main, "1");
+      progressNeededExpression = NumberExpression.of(main, "1");
     }
     return progressNeededExpression;
   }
 
   public void setProgressNeededExpression(final String progressNeededExpression) {
-    this.progressNeededExpression = new NumberExpression(main, progressNeededExpression);
+    this.progressNeededExpression = NumberExpression.of(main, progressNeededExpression);
   }
 
   public final Action getRewardFromID(int id) {
@@ -804,6 +804,7 @@ public abstract class Objective extends ObjectiveHolder{
   @Override
   public void clearObjectives() {
     super.getObjectives().clear();
+    main.getQuestEvents().scheduleGatedListenersUpdate();
     getObjectiveHolder().getConfig().set(getObjectiveHolder().getInitialConfigPath() + ".objectives." + getObjectiveID() + ".objectives", null);
     getObjectiveHolder().saveConfig();
   }
@@ -824,6 +825,7 @@ public abstract class Objective extends ObjectiveHolder{
         .set(getObjectiveHolder().getInitialConfigPath() + ".objectives." + getObjectiveID() + ".objectives." + objective.getObjectiveID(), null);
     getObjectiveHolder().saveConfig();
     super.getObjectives().remove(objective);
+    main.getQuestEvents().scheduleGatedListenersUpdate();
   }
 
 
@@ -838,6 +840,7 @@ public abstract class Objective extends ObjectiveHolder{
     if (!dupeID) {
       super.getObjectives().add(objective);
       if (save) {
+        main.getQuestEvents().scheduleGatedListenersUpdate();
         getObjectiveHolder().getConfig()
             .set(
                 getObjectiveHolder().getInitialConfigPath() + ".objectives." + getObjectiveID() + ".objectives."
@@ -0,0 +1,32 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.objectives;
+
+import rocks.gravili.notquests.paper.structs.ActiveObjective;
+
+/**
+ * Checks a single unlocked active objective against an event, see QuestPlayer.runObjectiveCheck(). Everything about
+ * the event is read from the context, so checks can be stored in constants instead of being created for every event.
+ *
+ * @param <T> the objective type this check handles
+ */
+@FunctionalInterface
+public interface ObjectiveCheck<T extends Objective> {
+  void check(final ActiveObjective activeObjective, final T objective, final ObjectiveCheckContext context);
+}
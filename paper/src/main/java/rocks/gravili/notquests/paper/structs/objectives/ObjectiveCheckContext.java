@@ -0,0 +1,89 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.objectives;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bukkit.Material;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The event an ObjectiveCheck is run for. Every QuestPlayer re-uses one context for all events (see
+ * QuestPlayer.getObjectiveCheckContext()), so it must not be kept after finishObjectiveChecks() has been called.
+ */
+public class ObjectiveCheckContext {
+  private Event event;
+  private Material material;
+  private Entity entity;
+  private final ArrayList<ReachLocationObjective> reachLocationRegions = new ArrayList<>();
+  private boolean inUse = false;
+
+  public final ObjectiveCheckContext reset(final Event event) {
+    this.event = event;
+    this.material = null;
+    this.entity = null;
+    this.reachLocationRegions.clear();
+    this.inUse = true;
+    return this;
+  }
+
+  public final void release() {
+    this.event = null;
+    this.material = null;
+    this.entity = null;
+    this.reachLocationRegions.clear();
+    this.inUse = false;
+  }
+
+  public final boolean isInUse() {
+    return inUse;
+  }
+
+  public final Event getEvent() {
+    return event;
+  }
+
+  public final @Nullable Material getMaterial() {
+    return material;
+  }
+
+  public final ObjectiveCheckContext setMaterial(final Material material) {
+    this.material = material;
+    return this;
+  }
+
+  public final @Nullable Entity getEntity() {
+    return entity;
+  }
+
+  public final ObjectiveCheckContext setEntity(final Entity entity) {
+    this.entity = entity;
+    return this;
+  }
+
+  /**
+   * @return the ReachLocation objectives whose region contains the location the player moved to. The list is re-used
+   *     for every event, and can be filled by ReachLocationIndex.addRegionsContaining().
+   */
+  public final List<ReachLocationObjective> getReachLocationRegions() {
+    return reachLocationRegions;
+  }
+}
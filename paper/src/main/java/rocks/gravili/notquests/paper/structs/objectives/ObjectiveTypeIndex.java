@@ -0,0 +1,123 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.objectives;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import rocks.gravili.notquests.paper.commands.arguments.wrappers.ItemStackSelection;
+
+/**
+ * Maps block materials and entity types to the BreakBlocks, PlaceBlocks and KillMobs objectives of all loaded quests
+ * which can react to them. Block and kill events whose material or entity type no objective cares about can be ignored
+ * right away, without looking up the QuestPlayer or any of their active objectives.
+ * <p>
+ * Just like the ReachLocationIndex, the index is immutable. It's rebuilt whenever the loaded objectives change, and
+ * swapped in as a whole.
+ */
+public class ObjectiveTypeIndex {
+  private static final ObjectiveTypeIndex EMPTY = new ObjectiveTypeIndex(List.of());
+
+  private final EnumMap<Material, ArrayList<Objective>> blockObjectivesByMaterial = new EnumMap<>(Material.class);
+  /**
+   * BreakBlocks and PlaceBlocks objectives which react to any block
+   */
+  private final ArrayList<Objective> anyBlockObjectives = new ArrayList<>();
+  private final EnumMap<EntityType, ArrayList<KillMobsObjective>> killMobsObjectivesByEntityType = new EnumMap<>(EntityType.class);
+  /**
+   * KillMobs objectives which react to any mob
+   */
+  private final ArrayList<KillMobsObjective> anyMobKillMobsObjectives = new ArrayList<>();
+
+  public ObjectiveTypeIndex(final Collection<Objective> objectives) {
+    for (final Objective objective : objectives) {
+      if (objective instanceof final BreakBlocksObjective breakBlocksObjective) {
+        addBlockObjective(objective, breakBlocksObjective.getItemStackSelection());
+      } else if (objective instanceof final PlaceBlocksObjective placeBlocksObjective) {
+        addBlockObjective(objective, placeBlocksObjective.getItemStackSelection());
+      } else if (objective instanceof final KillMobsObjective killMobsObjective) {
+        if (killMobsObjective.isKillAnyMob()) {
+          anyMobKillMobsObjectives.add(killMobsObjective);
+        } else if (killMobsObjective.getMobToKillEntityType() != null) {
+          killMobsObjectivesByEntityType.computeIfAbsent(killMobsObjective.getMobToKillEntityType(), entityType -> new ArrayList<>()).add(killMobsObjective);
+        }
+      }
+    }
+  }
+
+  public static ObjectiveTypeIndex empty() {
+    return EMPTY;
+  }
+
+  private void addBlockObjective(final Objective objective, final ItemStackSelection itemStackSelection) {
+    if (itemStackSelection == null) {
+      return;
+    }
+    if (itemStackSelection.isAny()) {
+      anyBlockObjectives.add(objective);
+      return;
+    }
+    for (final Material material : itemStackSelection.getAllMaterials()) {
+      blockObjectivesByMaterial.computeIfAbsent(material, blockMaterial -> new ArrayList<>()).add(objective);
+    }
+  }
+
+  /**
+   * @return if any BreakBlocks or PlaceBlocks objective reacts to blocks of this material
+   */
+  public final boolean isRelevantBlockMaterial(final Material material) {
+    return !anyBlockObjectives.isEmpty() || blockObjectivesByMaterial.containsKey(material);
+  }
+
+  /**
+   * @return if any KillMobs objective reacts to entities of this type
+   */
+  public final boolean isRelevantEntityType(final EntityType entityType) {
+    return !anyMobKillMobsObjectives.isEmpty() || killMobsObjectivesByEntityType.containsKey(entityType);
+  }
+
+  /**
+   * @return the BreakBlocks and PlaceBlocks objectives which react to exactly this material. Objectives which react to
+   *     any block aren't included.
+   */
+  public final List<Objective> getBlockObjectives(final Material material) {
+    final ArrayList<Objective> blockObjectives = blockObjectivesByMaterial.get(material);
+    return blockObjectives != null ? blockObjectives : List.of();
+  }
+
+  /**
+   * @return the KillMobs objectives which react to exactly this entity type. Objectives which react to any mob aren't
+   *     included.
+   */
+  public final List<KillMobsObjective> getKillMobsObjectives(final EntityType entityType) {
+    final ArrayList<KillMobsObjective> killMobsObjectives = killMobsObjectivesByEntityType.get(entityType);
+    return killMobsObjectives != null ? killMobsObjectives : List.of();
+  }
+
+  public final int getIndexedMaterialCount() {
+    return blockObjectivesByMaterial.size();
+  }
+
+  public final int getIndexedEntityTypeCount() {
+    return killMobsObjectivesByEntityType.size();
+  }
+}
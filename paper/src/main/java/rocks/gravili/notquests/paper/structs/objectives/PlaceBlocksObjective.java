@@ -85,6 +85,7 @@ public class PlaceBlocksObjective extends Objective {
 
   public void setItemStackSelection(final ItemStackSelection itemStackSelection) {
     this.itemStackSelection = itemStackSelection;
+    main.getQuestEvents().scheduleGatedListenersUpdate();
   }
 
   @Override
@@ -0,0 +1,137 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.objectives;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * A per-world grid of the regions of all ReachLocation objectives, keyed by chunk. A move only has to test the regions
+ * which overlap the chunk the player is in, instead of the regions of all objectives.
+ * <p>
+ * The index is immutable. It's rebuilt whenever the loaded objectives change, and swapped in as a whole.
+ */
+public class ReachLocationIndex {
+  /**
+   * Regions which would cover more chunks than this aren't added to the grid, but tested on every move in their world.
+   */
+  private static final int MAX_CHUNKS_PER_REGION = 4096;
+
+  private static final ReachLocationIndex EMPTY = new ReachLocationIndex(List.of());
+
+  private final HashMap<String, HashMap<Long, ArrayList<ReachLocationObjective>>> worldNamesAndChunks = new HashMap<>();
+  private final HashMap<String, ArrayList<ReachLocationObjective>> worldNamesAndLargeRegions = new HashMap<>();
+  /**
+   * Regions whose location has no world. They have always been reachable in every world.
+   */
+  private final ArrayList<ReachLocationObjective> regionsInAllWorlds = new ArrayList<>();
+  private int regionCount = 0;
+
+  public ReachLocationIndex(final Collection<ReachLocationObjective> reachLocationObjectives) {
+    for (final ReachLocationObjective reachLocationObjective : reachLocationObjectives) {
+      final Location minLocation = reachLocationObjective.getMinLocation();
+      final Location maxLocation = reachLocationObjective.getMaxLocation();
+      if (minLocation == null || maxLocation == null) {
+        continue;
+      }
+      regionCount++;
+
+      final World world = minLocation.getWorld();
+      if (world == null) {
+        regionsInAllWorlds.add(reachLocationObjective);
+        continue;
+      }
+
+      final int minChunkX = minLocation.getBlockX() >> 4;
+      final int minChunkZ = minLocation.getBlockZ() >> 4;
+      final int maxChunkX = maxLocation.getBlockX() >> 4;
+      final int maxChunkZ = maxLocation.getBlockZ() >> 4;
+      if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > MAX_CHUNKS_PER_REGION) {
+        worldNamesAndLargeRegions.computeIfAbsent(world.getName(), worldName -> new ArrayList<>()).add(reachLocationObjective);
+        continue;
+      }
+
+      final HashMap<Long, ArrayList<ReachLocationObjective>> chunks = worldNamesAndChunks.computeIfAbsent(world.getName(), worldName -> new HashMap<>());
+      for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+        for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+          chunks.computeIfAbsent(getChunkKey(chunkX, chunkZ), chunkKey -> new ArrayList<>()).add(reachLocationObjective);
+        }
+      }
+    }
+  }
+
+  public static ReachLocationIndex empty() {
+    return EMPTY;
+  }
+
+  public static long getChunkKey(final int chunkX, final int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  public final int getRegionCount() {
+    return regionCount;
+  }
+
+  /**
+   * @return if any region could contain a location in the given chunk. If not, nothing in that chunk has to be tested.
+   */
+  public final boolean hasRegionsInChunk(final String worldName, final long chunkKey) {
+    if (!regionsInAllWorlds.isEmpty() || worldNamesAndLargeRegions.containsKey(worldName)) {
+      return true;
+    }
+    final HashMap<Long, ArrayList<ReachLocationObjective>> chunks = worldNamesAndChunks.get(worldName);
+    return chunks != null && chunks.containsKey(chunkKey);
+  }
+
+  /**
+   * Adds the objectives whose region contains the location to containingRegions, so the caller can re-use the list.
+   */
+  public final void addRegionsContaining(final Location location, final List<ReachLocationObjective> containingRegions) {
+    addRegionsContaining(regionsInAllWorlds, location, containingRegions);
+
+    final World world = location.getWorld();
+    if (world == null) {
+      return;
+    }
+    final HashMap<Long, ArrayList<ReachLocationObjective>> chunks = worldNamesAndChunks.get(world.getName());
+    if (chunks != null) {
+      addRegionsContaining(chunks.get(getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4)), location, containingRegions);
+    }
+    addRegionsContaining(worldNamesAndLargeRegions.get(world.getName()), location, containingRegions);
+  }
+
+  private void addRegionsContaining(final List<ReachLocationObjective> regions, final Location location, final List<ReachLocationObjective> containingRegions) {
+    if (regions == null) {
+      return;
+    }
+    for (final ReachLocationObjective region : regions) {
+      final Location minLocation = region.getMinLocation();
+      final Location maxLocation = region.getMaxLocation();
+      if (location.getX() >= minLocation.getX() && location.getX() <= maxLocation.getX()
+          && location.getZ() >= minLocation.getZ() && location.getZ() <= maxLocation.getZ()
+          && location.getY() >= minLocation.getY() && location.getY() <= maxLocation.getY()) {
+        containingRegions.add(region);
+      }
+    }
+  }
+}
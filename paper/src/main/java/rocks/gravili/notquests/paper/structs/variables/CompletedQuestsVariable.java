@@ -18,6 +18,7 @@
 
 package rocks.gravili.notquests.paper.structs.variables;
 
+import java.util.ArrayList;
 import java.util.List;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.structs.CompletedQuest;
@@ -51,7 +52,7 @@ public class CompletedQuestsVariable extends Variable<String[]> {
       return false;
     }
 
-    for (CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
+    for (CompletedQuest completedQuest : new ArrayList<>(questPlayer.getCompletedQuests())) {
       boolean foundQuest = false;
       for (int i = 0; i < newValue.length; i++) {
         if (newValue[i].equalsIgnoreCase(completedQuest.getQuestIdentifier() )) {
@@ -60,14 +61,14 @@ public class CompletedQuestsVariable extends Variable<String[]> {
         }
       }
       if (!foundQuest) {
-        questPlayer.getCompletedQuests().remove(completedQuest);
+        questPlayer.removeCompletedQuest(completedQuest);
       }
     }
 
     for (int i = 0; i < newValue.length; i++) {
       Quest quest = main.getQuestManager().getQuest(newValue[i]);
       if (quest != null && !questPlayer.hasCompletedQuest(quest)) {
-        questPlayer.getCompletedQuests().add(new CompletedQuest(quest, questPlayer));
+        questPlayer.addCompletedQuest(new CompletedQuest(quest, questPlayer));
       }
     }
 
@@ -30,16 +30,7 @@ import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.variables.BooleanVariableValueArgument;
 import rocks.gravili.notquests.paper.commands.arguments.variables.NumberVariableValueArgument;
 import rocks.gravili.notquests.paper.managers.expressions.NumberExpression;
-import rocks.gravili.notquests.paper.structs.ActiveObjective;
-import rocks.gravili.notquests.paper.structs.ActiveQuest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
-import rocks.gravili.notquests.paper.structs.conditions.BooleanCondition;
-import rocks.gravili.notquests.paper.structs.conditions.Condition;
-import rocks.gravili.notquests.paper.structs.conditions.ListCondition;
-import rocks.gravili.notquests.paper.structs.conditions.NumberCondition;
-import rocks.gravili.notquests.paper.structs.conditions.StringCondition;
-import rocks.gravili.notquests.paper.structs.objectives.ConditionObjective;
-import rocks.gravili.notquests.paper.structs.objectives.NumberVariableObjective;
 
 public abstract class Variable<T> {
     protected final NotQuests main;
@@ -186,53 +177,9 @@ public abstract class Variable<T> {
         final boolean result = setValueInternally(newValue, questPlayer, objects);
 
         if (questPlayer != null) {
-            if(questPlayer.isHasActiveConditionObjectives() || questPlayer.isHasActiveVariableObjectives()){
-                for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                    for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                        if (activeObjective.getObjective() instanceof final ConditionObjective conditionObjective) {
-                            if (!activeObjective.isUnlocked()) {
-                                continue;
-                            }
-
-                            final Condition condition = conditionObjective.getCondition();
-                            if (condition == null) {
-                                continue;
-                            }
-                            String activeObjectiveVariableName = "";
-                            if (condition instanceof BooleanCondition booleanCondition) {
-                                activeObjectiveVariableName = booleanCondition.getVariableName();
-                            }else if(condition instanceof ListCondition listCondition){
-                                activeObjectiveVariableName = listCondition.getVariableName();
-                            }else if(condition instanceof NumberCondition numberCondition){
-                                activeObjectiveVariableName = numberCondition.getVariableName();
-                            }else if(condition instanceof StringCondition stringCondition){
-                                activeObjectiveVariableName = stringCondition.getVariableName();
-                            }
-                            if(activeObjectiveVariableName.equalsIgnoreCase(getVariableType())){
-                                if (!condition.check(questPlayer).fulfilled()) {
-                                    continue;
-                                }
-
-                                activeObjective.addProgress(1);
-                            }
-                        } else if(activeObjective.getObjective() instanceof final NumberVariableObjective numberVariableObjective){
-                            if (!activeObjective.isUnlocked() || getVariableDataType() != VariableDataType.NUMBER) {
-                                continue;
-                            }
-
-                            if(numberVariableObjective.getVariableName().equalsIgnoreCase(getVariableType())){
-                                //double newValueDouble = (double) newValue;
-                                numberVariableObjective.updateProgress(activeObjective/*, newValueDouble*/);
-                            }
-                        }
-                    }
-                    activeQuest.removeCompletedObjectives(true);
-                }
-                questPlayer.removeCompletedQuests();
-            }
+            main.getVariableChangeBus().publish(questPlayer, getVariableType());
         }
 
-
         return result;
 
     }